@@ -0,0 +1,84 @@
+package ru.clevertec.product.id.impl;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.id.IdGenerator;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Случайные UUID v4 против {@link TimeOrderedUuidGenerator}: стоимость генерации под
+ * конкуренцией и время заполнения {@link InMemoryProductRepository}, где идентификаторы попадают
+ * в отсортированный индекс. Возрастающие ключи вставляются в конец индекса и не разбрасывают
+ * записи по всей структуре.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class TimeOrderedUuidBenchmark {
+
+  @Param({"RANDOM", "TIME_ORDERED"})
+  private String ids;
+
+  @Param({"1000000"})
+  private int catalogSize;
+
+  private IdGenerator generator;
+  private Product[] products;
+  private InMemoryProductRepository repository;
+
+  @Setup
+  public void setUp() {
+    generator = ids.equals("RANDOM") ? UUID::randomUUID : new TimeOrderedUuidGenerator();
+    products = new Product[catalogSize];
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      products[i] = BenchmarkData.product(random).toBuilder().uuid(generator.next()).build();
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void resetRepository() {
+    repository = new InMemoryProductRepository();
+  }
+
+  @Benchmark
+  public UUID generate() {
+    return generator.next();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public UUID generateContended() {
+    return generator.next();
+  }
+
+  /** Заполнение пустого хранилища всем каталогом в порядке создания идентификаторов */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public InMemoryProductRepository fill() {
+    for (Product product : products) {
+      repository.save(product);
+    }
+    return repository;
+  }
+}
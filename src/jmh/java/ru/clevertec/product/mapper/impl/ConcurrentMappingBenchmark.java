@@ -0,0 +1,104 @@
+package ru.clevertec.product.mapper.impl;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.intern.InternStats;
+import ru.clevertec.product.intern.Interner;
+import ru.clevertec.product.intern.impl.BoundedInterner;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Стоимость пула канонических значений на пути записи маппера под конкуренцией: общий маппер,
+ * 1-8 потоков вызывают toProduct. Различных цен в DTO вчетверо больше ёмкости пула цен,
+ * поэтому большая часть вызовов проходит через промах и вставку. interning = false - тот же
+ * маппер с пулом, возвращающим значения как есть, разница показывает цену пула.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentMappingBenchmark {
+
+  private static final int DTO_COUNT = 1 << 16;
+
+  @Param({"true", "false"})
+  private boolean interning;
+
+  private ProductMapperImpl productMapper;
+  private ProductDto[] productDtos;
+
+  @Setup
+  public void setUp() {
+    Interner interner = interning ? new BoundedInterner() : new IdentityInterner();
+    productMapper = new ProductMapperImpl(interner, ProductMapperImpl.DEFAULT_PARALLEL_THRESHOLD);
+    SplittableRandom random = BenchmarkData.random();
+    productDtos = new ProductDto[DTO_COUNT];
+    for (int i = 0; i < DTO_COUNT; i++) {
+      productDtos[i] = BenchmarkData.productDto(random);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Product toProduct1() {
+    return toProduct();
+  }
+
+  @Benchmark
+  @Threads(2)
+  public Product toProduct2() {
+    return toProduct();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Product toProduct4() {
+    return toProduct();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Product toProduct8() {
+    return toProduct();
+  }
+
+  private Product toProduct() {
+    return productMapper.toProduct(productDtos[ThreadLocalRandom.current().nextInt(DTO_COUNT)]);
+  }
+
+  private static final class IdentityInterner implements Interner {
+
+    @Override
+    public String intern(String value) {
+      return value;
+    }
+
+    @Override
+    public BigDecimal intern(BigDecimal value) {
+      return value;
+    }
+
+    @Override
+    public InternStats stats() {
+      return new InternStats(0, 0, 0, 0, 0);
+    }
+  }
+}
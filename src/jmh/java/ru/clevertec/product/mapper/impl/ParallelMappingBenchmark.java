@@ -0,0 +1,60 @@
+package ru.clevertec.product.mapper.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Точка перехода для {@link ProductMapperImpl#DEFAULT_PARALLEL_THRESHOLD}: размер списка, на
+ * котором parallel становится быстрее sequential.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelMappingBenchmark {
+
+  @Param({"256", "1024", "4096", "8192", "16384", "65536", "262144"})
+  private int listSize;
+
+  private final ProductMapperImpl sequentialMapper = new ProductMapperImpl(Integer.MAX_VALUE);
+  private final ProductMapperImpl parallelMapper = new ProductMapperImpl(1);
+
+  private List<Product> products;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = BenchmarkData.random();
+    products = new ArrayList<>(listSize);
+    for (int i = 0; i < listSize; i++) {
+      products.add(BenchmarkData.product(random));
+    }
+  }
+
+  @Benchmark
+  public List<InfoProductDto> sequential() {
+    return sequentialMapper.toListInfoProductDto(products);
+  }
+
+  @Benchmark
+  public List<InfoProductDto> parallel() {
+    return parallelMapper.toListInfoProductDto(products);
+  }
+}
@@ -0,0 +1,70 @@
+package ru.clevertec.product.mapper.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.BenchmarkData;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperImplBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int listSize;
+
+  private final ProductMapperImpl productMapper = new ProductMapperImpl();
+
+  private Product product;
+  private ProductDto productDto;
+  private List<Product> products;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = BenchmarkData.random();
+    product = BenchmarkData.product(random);
+    productDto = BenchmarkData.productDto(random);
+    products = new ArrayList<>(listSize);
+    for (int i = 0; i < listSize; i++) {
+      products.add(BenchmarkData.product(random));
+    }
+  }
+
+  @Benchmark
+  public Product toProduct() {
+    return productMapper.toProduct(productDto);
+  }
+
+  @Benchmark
+  public InfoProductDto toInfoProductDto() {
+    return productMapper.toInfoProductDto(product);
+  }
+
+  @Benchmark
+  public List<InfoProductDto> toListInfoProductDto() {
+    return productMapper.toListInfoProductDto(products);
+  }
+
+  @Benchmark
+  public Product merge() {
+    return productMapper.merge(product, productDto);
+  }
+}
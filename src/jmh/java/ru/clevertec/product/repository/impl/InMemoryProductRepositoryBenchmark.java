@@ -0,0 +1,109 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Операции хранилища на заполненном каталоге. Размер хранилища не меняется: save обновляет
+ * существующий продукт, saveAndDelete удаляет только что вставленный. Группа scanWhileWriting
+ * показывает пропускную способность записи, пока другой поток непрерывно читает findAll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class InMemoryProductRepositoryBenchmark {
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  private int catalogSize;
+
+  private InMemoryProductRepository repository;
+  private Product[] products;
+
+  @Setup
+  public void setUp() {
+    repository = new InMemoryProductRepository();
+    products = new Product[catalogSize];
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      products[i] = repository.save(BenchmarkData.product(random));
+    }
+  }
+
+  @Benchmark
+  public Optional<Product> findById() {
+    return repository.findById(randomProduct().getUuid());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Optional<Product> findByIdContended() {
+    return repository.findById(randomProduct().getUuid());
+  }
+
+  @Benchmark
+  public Product save() {
+    return repository.save(randomProduct());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Product saveContended() {
+    return repository.save(randomProduct());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void saveAndDeleteContended() {
+    Product product = randomProduct().toBuilder().uuid(UUID.randomUUID()).build();
+    repository.save(product);
+    repository.delete(product.getUuid());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<Product> findAll() {
+    return repository.findAll();
+  }
+
+  @Benchmark
+  @Group("scanWhileWriting")
+  @GroupThreads(1)
+  public List<Product> scan() {
+    return repository.findAll();
+  }
+
+  @Benchmark
+  @Group("scanWhileWriting")
+  @GroupThreads(3)
+  public Product writeDuringScan() {
+    return repository.save(randomProduct());
+  }
+
+  private Product randomProduct() {
+    return products[ThreadLocalRandom.current().nextInt(products.length)];
+  }
+}
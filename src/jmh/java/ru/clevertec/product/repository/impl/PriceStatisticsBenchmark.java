@@ -0,0 +1,78 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.metrics.PriceSummary;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Сводка цен из статистики, которую поддерживает {@link InMemoryProductRepository}, против
+ * пересчёта по findAll, и цена её поддержки для писателей: saveContended сравнивается с тем же
+ * бенчмарком {@link InMemoryProductRepositoryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class PriceStatisticsBenchmark {
+
+  @Param({"100000", "1000000"})
+  private int catalogSize;
+
+  private InMemoryProductRepository repository;
+  private Product[] products;
+
+  @Setup
+  public void setUp() {
+    repository = new InMemoryProductRepository();
+    products = new Product[catalogSize];
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      products[i] = repository.save(BenchmarkData.product(random));
+    }
+  }
+
+  @Benchmark
+  public PriceSummary summary() {
+    return repository.priceStatistics().summary();
+  }
+
+  @Benchmark
+  public List<BigDecimal> quantiles() {
+    return repository.priceStatistics().quantiles(0.5, 0.9, 0.99);
+  }
+
+  @Benchmark
+  public PriceSummary summaryByScan() {
+    return CatalogScans.priceStatistics(repository.findAll()).summary();
+  }
+
+  /** Обновление с новой ценой, чтобы каждая запись меняла статистику */
+  @Benchmark
+  @Threads(4)
+  @BenchmarkMode(Mode.Throughput)
+  public Product saveContended() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Product product = products[random.nextInt(products.length)];
+    return repository.save(
+        product.toBuilder().price(BigDecimal.valueOf(random.nextInt(1, 1_000_000), 2)).build());
+  }
+}
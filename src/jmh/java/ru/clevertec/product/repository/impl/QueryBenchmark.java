@@ -0,0 +1,86 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.query.ProductCondition;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.query.SortField;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Запросы через планировщик {@link InMemoryProductRepository} против фильтрации findAll в
+ * вызывающем коде: узкий диапазон цены с условием на название и первые продукты по цене.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class QueryBenchmark {
+
+  private static final BigDecimal FROM = new BigDecimal("100.00");
+  private static final BigDecimal TO = new BigDecimal("110.00");
+
+  @Param({"100000", "1000000"})
+  private int catalogSize;
+
+  private InMemoryProductRepository repository;
+  private ProductQuery narrowPrice;
+  private ProductQuery cheapest;
+
+  @Setup
+  public void setUp() {
+    repository = new InMemoryProductRepository();
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      repository.save(BenchmarkData.product(random));
+    }
+    narrowPrice =
+        ProductQuery.where(
+            ProductCondition.priceBetween(FROM, TO), ProductCondition.nameMatches("ноут"));
+    cheapest =
+        ProductQuery.where(ProductCondition.priceBetween(null, null))
+            .orderBy(SortField.PRICE)
+            .withLimit(10);
+  }
+
+  @Benchmark
+  public QueryResult narrowPrice() {
+    return repository.query(narrowPrice);
+  }
+
+  @Benchmark
+  public List<Product> narrowPriceByStream() {
+    return repository.findAll().stream().filter(narrowPrice::test).toList();
+  }
+
+  @Benchmark
+  public QueryResult cheapest() {
+    return repository.query(cheapest);
+  }
+
+  @Benchmark
+  public List<Product> cheapestByStream() {
+    return repository.findAll().stream()
+        .sorted(Comparator.comparing(Product::getPrice))
+        .limit(10)
+        .toList();
+  }
+}
@@ -0,0 +1,110 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Масштабирование смешанной нагрузки (90% findById, 10% save) от 1 до 32 потоков. partitions = 1
+ * - одно {@link InMemoryProductRepository} за тем же маршрутизатором, остальные значения
+ * показывают выигрыш от разбиения. Отдельно измеряется параллельный findAll по разделам.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ShardedProductRepositoryBenchmark {
+
+  private static final int WRITE_PERCENT = 10;
+
+  @Param({"1000000"})
+  private int catalogSize;
+
+  @Param({"1", "4", "16", "64"})
+  private int partitions;
+
+  private ProductRepository repository;
+  private Product[] products;
+
+  @Setup
+  public void setUp() {
+    repository = new ShardedProductRepository(partitions);
+    products = new Product[catalogSize];
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      products[i] = repository.save(BenchmarkData.product(random));
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void mixed1(Blackhole blackhole) {
+    mixed(blackhole);
+  }
+
+  @Benchmark
+  @Threads(2)
+  public void mixed2(Blackhole blackhole) {
+    mixed(blackhole);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void mixed4(Blackhole blackhole) {
+    mixed(blackhole);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void mixed8(Blackhole blackhole) {
+    mixed(blackhole);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void mixed16(Blackhole blackhole) {
+    mixed(blackhole);
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void mixed32(Blackhole blackhole) {
+    mixed(blackhole);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<Product> findAll() {
+    return repository.findAll();
+  }
+
+  private void mixed(Blackhole blackhole) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Product product = products[random.nextInt(products.length)];
+    if (random.nextInt(100) < WRITE_PERCENT) {
+      blackhole.consume(repository.save(product));
+    } else {
+      blackhole.consume(repository.findById(product.getUuid()));
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package ru.clevertec.product.repository.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.storage.PackedText;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Стоимость распаковки описаний из {@link TextDictionary} против декодирования UTF-8 и
+ * стоимость кодирования при записи. Байт на продукт в UTF-8, в 7-битной упаковке и в словаре
+ * выводятся вспомогательными счётчиками бенчмарка decodePacked. distinctTexts задаёт, сколько
+ * различных описаний в каталоге: от почти полного совпадения до почти уникальных строк.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TextDictionaryBenchmark {
+
+  @Param({"1000000"})
+  private int catalogSize;
+
+  @Param({"100", "1000000"})
+  private int distinctTexts;
+
+  private TextDictionary dictionary;
+  private String[] texts;
+  private int[] codes;
+  private byte[][] utf8;
+  private long utf8Bytes;
+  private long packedBytes;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = BenchmarkData.random();
+    dictionary = new TextDictionary();
+    texts = new String[catalogSize];
+    codes = new int[catalogSize];
+    utf8 = new byte[catalogSize][];
+    for (int i = 0; i < catalogSize; i++) {
+      Product product = BenchmarkData.product(random);
+      texts[i] = product.getDescription() + " " + random.nextInt(distinctTexts);
+      codes[i] = dictionary.acquire(TextDictionary.key(texts[i]));
+      utf8[i] = texts[i].getBytes(StandardCharsets.UTF_8);
+      utf8Bytes += utf8[i].length;
+      packedBytes += PackedText.packedLength(texts[i].length());
+    }
+  }
+
+  @Benchmark
+  public String decodePacked(Footprint footprint) {
+    return dictionary.decode(codes[ThreadLocalRandom.current().nextInt(catalogSize)]);
+  }
+
+  @Benchmark
+  public String decodeUtf8() {
+    return new String(
+        utf8[ThreadLocalRandom.current().nextInt(catalogSize)], StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public TextDictionary.Key encodePacked() {
+    return TextDictionary.key(texts[ThreadLocalRandom.current().nextInt(catalogSize)]);
+  }
+
+  @Benchmark
+  public byte[] encodeUtf8() {
+    return texts[ThreadLocalRandom.current().nextInt(catalogSize)]
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Байт на продукт без служебных заголовков, кроме словаря: он считается целиком */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+
+    public long utf8BytesPerProduct;
+    public long packedBytesPerProduct;
+    public long dictionaryBytesPerProduct;
+
+    @Setup(Level.Iteration)
+    public void measure(TextDictionaryBenchmark benchmark) {
+      int products = benchmark.catalogSize;
+      utf8BytesPerProduct = benchmark.utf8Bytes / products;
+      packedBytesPerProduct = benchmark.packedBytes / products;
+      dictionaryBytesPerProduct =
+          (benchmark.dictionary.footprintBytes() + (long) products * Integer.BYTES) / products;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package ru.clevertec.product.repository.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Чтение {@link TieredProductRepository} при разном бюджете кучи: 0 - весь каталог на диске, 64 МБ
+ * - около трети в памяти, 4 ГБ - весь каталог в памяти. Запускать с {@code -prof gc}: при чтении
+ * с диска растёт только скорость выделения в молодом поколении, а не число полных сборок.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class TieredProductRepositoryBenchmark {
+
+  @Param({"1000000"})
+  private int catalogSize;
+
+  @Param({"0", "67108864", "4294967296"})
+  private long memoryBudgetBytes;
+
+  private Path directory;
+  private TieredProductRepository repository;
+  private Product[] products;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("tiered");
+    repository = new TieredProductRepository(directory, memoryBudgetBytes);
+    products = new Product[catalogSize];
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      products[i] = repository.save(BenchmarkData.product(random));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    repository.close();
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public Optional<Product> findById() {
+    return repository.findById(randomProduct().getUuid());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Optional<Product> findByIdContended() {
+    return repository.findById(randomProduct().getUuid());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Product saveContended() {
+    return repository.save(randomProduct());
+  }
+
+  private Product randomProduct() {
+    return products[ThreadLocalRandom.current().nextInt(products.length)];
+  }
+}
@@ -0,0 +1,102 @@
+package ru.clevertec.product.repository.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.storage.DurabilityMode;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Время запуска {@link WalProductRepository}: полное проигрывание журнала против загрузки
+ * снимка через memory map. Каталог готовится один раз, каждый замер открывает и закрывает
+ * хранилище.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class WalRecoveryBenchmark {
+
+  private static final int BATCH_SIZE = 4096;
+
+  @Param({"1000000", "10000000"})
+  private int catalogSize;
+
+  @Param({"LOG", "SNAPSHOT"})
+  private String recovery;
+
+  private Path directory;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("wal-recovery");
+    try (WalProductRepository repository = open()) {
+      SplittableRandom random = BenchmarkData.random();
+      List<Product> batch = new ArrayList<>(BATCH_SIZE);
+      for (int i = 0; i < catalogSize; i++) {
+        batch.add(BenchmarkData.product(random));
+        if (batch.size() == BATCH_SIZE) {
+          repository.saveAll(batch);
+          batch.clear();
+        }
+      }
+      repository.saveAll(batch);
+      if (recovery.equals("SNAPSHOT")) {
+        repository.snapshot();
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(WalRecoveryBenchmark::delete);
+    }
+  }
+
+  @Benchmark
+  public int recover() {
+    try (WalProductRepository repository = open()) {
+      return repository.findPage(null, 1).size();
+    }
+  }
+
+  private WalProductRepository open() {
+    return new WalProductRepository(
+        directory,
+        DurabilityMode.ASYNC,
+        WalProductRepository.DEFAULT_FLUSH_INTERVAL,
+        null,
+        new InMemoryProductRepository());
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.delete(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
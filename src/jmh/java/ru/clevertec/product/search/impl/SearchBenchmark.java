@@ -0,0 +1,103 @@
+package ru.clevertec.product.search.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.search.SearchHit;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * Задержка поиска по {@link InvertedIndex} на каталоге в миллион продуктов против просмотра
+ * всего каталога с contains. Размер индекса на продукт выводится вспомогательным счётчиком
+ * indexBytesPerProduct бенчмарка word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class SearchBenchmark {
+
+  private static final int LIMIT = 20;
+
+  @Param({"1000000"})
+  private int catalogSize;
+
+  private InvertedIndex index;
+  private List<Product> catalog;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = BenchmarkData.random();
+    index = new InvertedIndex();
+    catalog = new ArrayList<>(catalogSize);
+    for (int i = 0; i < catalogSize; i++) {
+      Product product = BenchmarkData.product(random);
+      catalog.add(product);
+      index.update(null, product);
+    }
+  }
+
+  @Benchmark
+  public List<SearchHit> word(Footprint footprint) {
+    return index.search("клавиатура", LIMIT);
+  }
+
+  @Benchmark
+  public List<SearchHit> prefix() {
+    return index.search("клав", LIMIT);
+  }
+
+  @Benchmark
+  public List<SearchHit> twoWords() {
+    return index.search("механическая клавиатура", LIMIT);
+  }
+
+  @Benchmark
+  public List<SearchHit> noMatch() {
+    return index.search("планшет", LIMIT);
+  }
+
+  /** То, что было доступно без индекса: findAll и contains по всему каталогу */
+  @Benchmark
+  public List<Product> scanContains() {
+    List<Product> found = new ArrayList<>();
+    for (Product product : catalog) {
+      if (product.getName().toLowerCase(Locale.ROOT).contains("клав")
+          || product.getDescription().toLowerCase(Locale.ROOT).contains("клав")) {
+        found.add(product);
+      }
+    }
+    return found.subList(0, Math.min(LIMIT, found.size()));
+  }
+
+  /** Размер индекса в байтах на продукт, попадает в отчёт JMH рядом с задержкой word */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+
+    public long indexBytesPerProduct;
+
+    @Setup(Level.Iteration)
+    public void measure(SearchBenchmark benchmark) {
+      indexBytesPerProduct = benchmark.index.estimatedBytes() / benchmark.catalogSize;
+    }
+  }
+}
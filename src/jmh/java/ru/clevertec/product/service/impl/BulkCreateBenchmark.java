@@ -0,0 +1,70 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.mapper.impl.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.BenchmarkData;
+import ru.clevertec.product.validator.impl.ProductValidatorImpl;
+
+/** Сравнивает пакетное создание продуктов с созданием по одному */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkCreateBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int batchSize;
+
+  private List<ProductDto> batch;
+  private ProductService productService;
+
+  @Setup(Level.Trial)
+  public void prepareBatch() {
+    SplittableRandom random = BenchmarkData.random();
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(BenchmarkData.productDto(random));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void resetService() {
+    productService =
+        new ProductServiceImpl(
+            new ProductMapperImpl(), new InMemoryProductRepository(), new ProductValidatorImpl());
+  }
+
+  @Benchmark
+  public void createOneByOne(Blackhole blackhole) {
+    for (ProductDto productDto : batch) {
+      blackhole.consume(productService.create(productDto));
+    }
+  }
+
+  @Benchmark
+  public List<UUID> createAll() {
+    return productService.createAll(batch);
+  }
+}
@@ -0,0 +1,103 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.mapper.impl.ProductMapperImpl;
+import ru.clevertec.product.metrics.impl.LogHistogram;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.repository.impl.InstrumentedProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.BenchmarkData;
+import ru.clevertec.product.validator.impl.ProductValidatorImpl;
+
+/**
+ * Цена инструментирования: get без декораторов, с декоратором сервиса и с декораторами сервиса
+ * и хранилища, а также голая запись в {@link LogHistogram} в одном и нескольких потоках.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+  @Param({"100000"})
+  private int catalogSize;
+
+  private ProductService plain;
+  private ProductService instrumentedService;
+  private ProductService instrumentedBoth;
+  private UUID[] uuids;
+  private final LogHistogram histogram = new LogHistogram();
+
+  @Setup
+  public void setUp() {
+    ProductRepository repository = new InMemoryProductRepository();
+    plain = service(repository);
+    instrumentedService = new InstrumentedProductService(plain);
+    instrumentedBoth =
+        new InstrumentedProductService(service(new InstrumentedProductRepository(repository)));
+    SplittableRandom random = BenchmarkData.random();
+    uuids = new UUID[catalogSize];
+    for (int i = 0; i < catalogSize; i++) {
+      uuids[i] = plain.create(BenchmarkData.productDto(random));
+    }
+  }
+
+  @Benchmark
+  public InfoProductDto getPlain() {
+    return plain.get(randomUuid());
+  }
+
+  @Benchmark
+  public InfoProductDto getInstrumentedService() {
+    return instrumentedService.get(randomUuid());
+  }
+
+  @Benchmark
+  public InfoProductDto getInstrumentedServiceAndRepository() {
+    return instrumentedBoth.get(randomUuid());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public InfoProductDto getInstrumentedContended() {
+    return instrumentedBoth.get(randomUuid());
+  }
+
+  @Benchmark
+  public void histogramRecord() {
+    histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void histogramRecordContended() {
+    histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+  }
+
+  private static ProductService service(ProductRepository repository) {
+    return new ProductServiceImpl(new ProductMapperImpl(), repository, new ProductValidatorImpl());
+  }
+
+  private UUID randomUuid() {
+    return uuids[ThreadLocalRandom.current().nextInt(uuids.length)];
+  }
+}
@@ -0,0 +1,94 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.mapper.impl.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.BenchmarkData;
+import ru.clevertec.product.validator.impl.ProductValidatorImpl;
+
+/** Сквозные сценарии сервиса поверх маппера и хранилища в памяти */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceImplBenchmark {
+
+  @Param({"100000"})
+  private int catalogSize;
+
+  private ProductService productService;
+  private UUID[] uuids;
+  private ProductDto productDto;
+
+  @Setup
+  public void setUp() {
+    productService =
+        new ProductServiceImpl(
+            new ProductMapperImpl(), new InMemoryProductRepository(), new ProductValidatorImpl());
+    SplittableRandom random = BenchmarkData.random();
+    uuids = new UUID[catalogSize];
+    for (int i = 0; i < catalogSize; i++) {
+      uuids[i] = productService.create(BenchmarkData.productDto(random));
+    }
+    productDto = BenchmarkData.productDto(random);
+  }
+
+  @Benchmark
+  public InfoProductDto get() {
+    return productService.get(randomUuid());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public InfoProductDto getContended() {
+    return productService.get(randomUuid());
+  }
+
+  @Benchmark
+  public void update() {
+    productService.update(randomUuid(), productDto);
+  }
+
+  @Benchmark
+  public void createAndDelete() {
+    productService.delete(productService.create(productDto));
+  }
+
+  @Benchmark
+  public Page<InfoProductDto> getPage() {
+    return productService.getPage(null, 100);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<InfoProductDto> getAll() {
+    return productService.getAll();
+  }
+
+  private UUID randomUuid() {
+    return uuids[ThreadLocalRandom.current().nextInt(uuids.length)];
+  }
+}
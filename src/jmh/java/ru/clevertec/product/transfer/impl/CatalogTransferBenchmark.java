@@ -0,0 +1,89 @@
+package ru.clevertec.product.transfer.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.mapper.impl.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.transfer.CatalogFormat;
+import ru.clevertec.product.transfer.TransferReport;
+import ru.clevertec.product.util.BenchmarkData;
+import ru.clevertec.product.validator.impl.ProductValidatorImpl;
+
+/**
+ * Импорт и экспорт каталога {@link NioCatalogTransfer} в обоих форматах. Файлы готовятся один раз,
+ * импорт каждый раз загружает их в пустое хранилище. Строк в секунду - catalogSize, делённый на
+ * время замера.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class CatalogTransferBenchmark {
+
+  @Param({"1000000"})
+  private int catalogSize;
+
+  @Param({"CSV", "BINARY"})
+  private CatalogFormat format;
+
+  private Path source;
+  private Path target;
+  private InMemoryProductRepository catalog;
+  private InMemoryProductRepository repository;
+
+  @Setup
+  public void setUp() throws IOException {
+    catalog = new InMemoryProductRepository();
+    SplittableRandom random = BenchmarkData.random();
+    for (int i = 0; i < catalogSize; i++) {
+      catalog.save(BenchmarkData.product(random));
+    }
+    source = Files.createTempFile("catalog-import", "." + format);
+    target = Files.createTempFile("catalog-export", "." + format);
+    transfer(catalog).exportTo(source, format);
+  }
+
+  @Setup(Level.Iteration)
+  public void resetRepository() {
+    repository = new InMemoryProductRepository();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(source);
+    Files.deleteIfExists(target);
+  }
+
+  @Benchmark
+  public TransferReport importFrom() {
+    return transfer(repository).importFrom(source, format);
+  }
+
+  @Benchmark
+  public TransferReport exportTo() {
+    return transfer(catalog).exportTo(target, format);
+  }
+
+  private static NioCatalogTransfer transfer(InMemoryProductRepository repository) {
+    return new NioCatalogTransfer(
+        new ProductMapperImpl(), repository, new ProductValidatorImpl());
+  }
+}
@@ -0,0 +1,57 @@
+package ru.clevertec.product.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+
+/** Детерминированные данные для бенчмарков: одинаковые между запусками и коммитами */
+public final class BenchmarkData {
+
+  private static final String[] NAMES = {"Ноутбук", "Монитор", "Телефон", "Клавиатура", "Мышка"};
+  private static final String[] DESCRIPTIONS = {
+    "Рабочий ноутбук", "Игровой монитор", "Смартфон с камерой", "Механическая клавиатура"
+  };
+  private static final LocalDateTime EPOCH = LocalDateTime.of(2023, 10, 31, 9, 0);
+
+  static {
+    requireLengths(NAMES, 5, 10);
+    requireLengths(DESCRIPTIONS, 10, 30);
+  }
+
+  private BenchmarkData() {}
+
+  public static SplittableRandom random() {
+    return new SplittableRandom(42);
+  }
+
+  public static Product product(SplittableRandom random) {
+    return Product.builder()
+        .uuid(new UUID(random.nextLong(), random.nextLong()))
+        .name(NAMES[random.nextInt(NAMES.length)])
+        .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+        .price(BigDecimal.valueOf(random.nextInt(1, 1_000_000), 2))
+        .created(EPOCH.plusSeconds(random.nextInt(0, 86_400 * 365)))
+        .build();
+  }
+
+  public static ProductDto productDto(SplittableRandom random) {
+    return ProductDto.builder()
+        .name(NAMES[random.nextInt(NAMES.length)])
+        .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+        .price(BigDecimal.valueOf(random.nextInt(1, 1_000_000), 2))
+        .build();
+  }
+
+  /** Пулы обязаны соблюдать правила {@link Product}, иначе бенчмарк меряет невалидные данные */
+  private static void requireLengths(String[] pool, int min, int max) {
+    for (String value : pool) {
+      if (value.length() < min || value.length() > max) {
+        throw new IllegalStateException(
+            "Benchmark value must have " + min + "-" + max + " characters: " + value);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package ru.clevertec.product.validator.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.util.BenchmarkData;
+
+/**
+ * {@link ProductValidatorImpl} против тех же правил на заранее скомпилированных регулярных
+ * выражениях: одиночная проверка корректного DTO и проверка пачки из 1000 DTO.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductValidatorBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+  private static final Pattern NAME = Pattern.compile("[А-Яа-яЁё ]{5,10}");
+  private static final Pattern DESCRIPTION = Pattern.compile("[А-Яа-яЁё ]{10,30}");
+
+  private final ProductValidatorImpl validator = new ProductValidatorImpl();
+
+  private ProductDto productDto;
+  private List<ProductDto> productDtos;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = BenchmarkData.random();
+    productDto = BenchmarkData.productDto(random);
+    productDtos = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      productDtos.add(BenchmarkData.productDto(random));
+    }
+  }
+
+  @Benchmark
+  public int precompiled() {
+    return validator.check(productDto);
+  }
+
+  @Benchmark
+  public boolean regex() {
+    return matches(productDto);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<ProductDto> precompiledBatch() {
+    validator.validateAll(productDtos);
+    return productDtos;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int regexBatch() {
+    int valid = 0;
+    for (ProductDto dto : productDtos) {
+      valid += matches(dto) ? 1 : 0;
+    }
+    return valid;
+  }
+
+  private static boolean matches(ProductDto dto) {
+    BigDecimal price = dto.price();
+    return dto.name() != null
+        && NAME.matcher(dto.name()).matches()
+        && (dto.description() == null || DESCRIPTION.matcher(dto.description()).matches())
+        && price != null
+        && price.signum() > 0;
+  }
+}
@@ -0,0 +1,45 @@
+package ru.clevertec.product.cache;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+public interface Cache<K, V> {
+
+  /**
+   * Возвращает значение из кэша или загружает его. Исключение загрузчика пробрасывается, а
+   * значение не кэшируется
+   *
+   * @param key ключ
+   * @param loader загрузчик значения при промахе
+   * @return закэшированное или загруженное значение
+   */
+  V get(K key, Function<? super K, ? extends V> loader);
+
+  /**
+   * Ищет значение только в кэше, не влияя на статистику промахов
+   *
+   * @param key ключ
+   * @return Optional со значением если оно есть и не устарело
+   */
+  Optional<V> getIfPresent(K key);
+
+  /**
+   * Удаляет значение. Загрузки, начатые до вызова, не попадут в кэш
+   *
+   * @param key ключ
+   */
+  void invalidate(K key);
+
+  /** Удаляет все значения */
+  void invalidateAll();
+
+  /**
+   * @return текущее количество значений
+   */
+  long size();
+
+  /**
+   * @return счётчики попаданий, промахов и вытеснений
+   */
+  CacheStats stats();
+}
@@ -0,0 +1,18 @@
+package ru.clevertec.product.cache;
+
+public record CacheStats(
+
+    /** Количество попаданий */
+    long hits,
+
+    /** Количество промахов */
+    long misses,
+
+    /** Количество вытесненных по размеру или времени жизни значений */
+    long evictions) {
+
+  public double hitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+}
@@ -0,0 +1,73 @@
+package ru.clevertec.product.cache.impl;
+
+/**
+ * Count-min sketch из 4-битных счётчиков для оценки частоты обращений (TinyLFU). После
+ * заданного числа увеличений все счётчики делятся пополам, чтобы старая популярность
+ * затухала. Не потокобезопасен.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_COUNTER = 15;
+
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(long maximumSize) {
+    int width = (int) Math.min(1 << 30, Math.max(8, Long.highestOneBit(maximumSize - 1) << 1));
+    this.table = new long[width];
+    this.mask = width - 1;
+    this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(maximumSize, 1));
+  }
+
+  int frequency(int hash) {
+    int frequency = MAX_COUNTER;
+    for (int row = 0; row < SEEDS.length; row++) {
+      long spread = spread(hash, row);
+      int shift = offset(spread);
+      frequency = Math.min(frequency, (int) ((table[index(spread)] >>> shift) & 0xFL));
+    }
+    return frequency;
+  }
+
+  void increment(int hash) {
+    boolean added = false;
+    for (int row = 0; row < SEEDS.length; row++) {
+      long spread = spread(hash, row);
+      int index = index(spread);
+      int shift = offset(spread);
+      if (((table[index] >>> shift) & 0xFL) < MAX_COUNTER) {
+        table[index] += 1L << shift;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions >>>= 1;
+  }
+
+  private int index(long spread) {
+    return (int) spread & mask;
+  }
+
+  private static int offset(long spread) {
+    return (int) ((spread >>> 32) & 0xF) << 2;
+  }
+
+  private static long spread(int hash, int row) {
+    long spread = (hash + SEEDS[row]) * SEEDS[row];
+    return spread ^ (spread >>> 29);
+  }
+}
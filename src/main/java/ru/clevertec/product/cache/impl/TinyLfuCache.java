@@ -0,0 +1,379 @@
+package ru.clevertec.product.cache.impl;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import ru.clevertec.product.cache.Cache;
+import ru.clevertec.product.cache.CacheStats;
+
+/**
+ * Ограниченный кэш с политикой W-TinyLFU.
+ *
+ * <p>Новые значения попадают в маленькое LRU-окно (1% ёмкости). Вытесненный из окна кандидат
+ * допускается в основную SLRU-область (испытательный и защищённый сегменты) только если его
+ * частота по count-min sketch выше, чем у жертвы основной области. Чтение идёт из
+ * ConcurrentHashMap без блокировок, учёт обращений в политике выполняется при свободной
+ * блокировке и при конкуренции пропускается.
+ *
+ * <p>Промах тоже не ждёт общую блокировку: загруженное значение сразу публикуется в
+ * ConcurrentHashMap, а узел ставится в буфер записей. Буфер разбирает поток, которому удалось
+ * взять блокировку без ожидания, в том числе при чтении. Только когда в буфере накопилось больше
+ * {@link #WRITE_BUFFER_LIMIT} узлов, писатель ждёт блокировку, поэтому размер кэша может
+ * превышать максимум не больше чем на размер буфера. Если значение ключа уже загрузил другой
+ * поток, возвращается оно, а не новое.
+ *
+ * <p>Каждая инвалидация увеличивает поколение кэша: значение, загрузка которого началась до
+ * инвалидации, в кэш не попадает, поэтому читатель не увидит устаревшее значение.
+ */
+public class TinyLfuCache<K, V> implements Cache<K, V> {
+
+  private static final double WINDOW_RATIO = 0.01;
+  private static final double PROTECTED_RATIO = 0.8;
+  private static final int WRITE_BUFFER_LIMIT = 128;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ConcurrentLinkedQueue<Node<K, V>> writeBuffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingWrites = new AtomicInteger();
+  private final FrequencySketch sketch;
+  private final AccessQueue<K, V> window = new AccessQueue<>();
+  private final AccessQueue<K, V> probation = new AccessQueue<>();
+  private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+  private final long maximumSize;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final long expireAfterWriteNanos;
+  private final LongSupplier ticker;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private volatile long generation;
+
+  /**
+   * @param maximumSize максимальное количество значений
+   * @param expireAfterWrite время жизни значения после записи, null - без ограничения
+   * @throws IllegalArgumentException если размер не положительный или время жизни отрицательное
+   */
+  public TinyLfuCache(long maximumSize, Duration expireAfterWrite) {
+    this(maximumSize, expireAfterWrite, System::nanoTime);
+  }
+
+  TinyLfuCache(long maximumSize, Duration expireAfterWrite, LongSupplier ticker) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+    }
+    if (expireAfterWrite != null && expireAfterWrite.isNegative()) {
+      throw new IllegalArgumentException("Expiration must not be negative: " + expireAfterWrite);
+    }
+    this.maximumSize = maximumSize;
+    this.windowMaximum = Math.max(1, (long) (maximumSize * WINDOW_RATIO));
+    this.protectedMaximum = (long) ((maximumSize - windowMaximum) * PROTECTED_RATIO);
+    this.expireAfterWriteNanos = expireAfterWrite == null ? 0 : expireAfterWrite.toNanos();
+    this.ticker = ticker;
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  @Override
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    Node<K, V> node = data.get(key);
+    long now = ticker.getAsLong();
+    if (node != null && !isExpired(node, now)) {
+      hits.increment();
+      afterRead(node);
+      return node.value;
+    }
+    misses.increment();
+    long stamp = generation;
+    V value = loader.apply(key);
+    return value == null ? null : put(key, value, stamp);
+  }
+
+  @Override
+  public Optional<V> getIfPresent(K key) {
+    Node<K, V> node = data.get(key);
+    if (node == null || isExpired(node, ticker.getAsLong())) {
+      return Optional.empty();
+    }
+    afterRead(node);
+    return Optional.of(node.value);
+  }
+
+  @Override
+  public void invalidate(K key) {
+    evictionLock.lock();
+    try {
+      generation++;
+      Node<K, V> node = data.remove(key);
+      if (node != null) {
+        unlink(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    evictionLock.lock();
+    try {
+      generation++;
+      data.clear();
+      drainWrites();
+      window.clear();
+      probation.clear();
+      protectedQueue.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public long size() {
+    return data.size();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+  }
+
+  /**
+   * Публикует значение без общей блокировки. Проверка поколения идёт внутри compute по ключу,
+   * поэтому она упорядочена с удалением этого ключа при инвалидации
+   *
+   * @return значение в кэше: загруженное или уже загруженное другим потоком
+   */
+  private V put(K key, V value, long stamp) {
+    long now = ticker.getAsLong();
+    Node<K, V> node = new Node<>(key, value, now);
+    Node<K, V> current =
+        data.compute(
+            key,
+            (k, existing) -> {
+              if (generation != stamp || (existing != null && !isExpired(existing, now))) {
+                return existing;
+              }
+              node.replaced = existing;
+              return node;
+            });
+    if (current != node) {
+      return current == null || isExpired(current, now) ? value : current.value;
+    }
+    writeBuffer.add(node);
+    if (pendingWrites.incrementAndGet() > WRITE_BUFFER_LIMIT) {
+      evictionLock.lock();
+    } else if (!evictionLock.tryLock()) {
+      return value;
+    }
+    try {
+      drainWrites();
+    } finally {
+      evictionLock.unlock();
+    }
+    return value;
+  }
+
+  /** Связывает опубликованные узлы с окном и вытесняет лишнее, вызывается под блокировкой */
+  private void drainWrites() {
+    Node<K, V> node;
+    boolean drained = false;
+    while ((node = writeBuffer.poll()) != null) {
+      pendingWrites.decrementAndGet();
+      drained = true;
+      sketch.increment(hash(node.key));
+      if (node.replaced != null) {
+        unlink(node.replaced);
+        node.replaced = null;
+      }
+      if (data.get(node.key) == node) {
+        node.queue = window;
+        window.addLast(node);
+      }
+    }
+    if (drained) {
+      evictIfNeeded(ticker.getAsLong());
+    }
+  }
+
+  private void afterRead(Node<K, V> node) {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      drainWrites();
+      sketch.increment(hash(node.key));
+      if (node.queue == null) {
+        return;
+      }
+      if (node.queue == probation) {
+        probation.remove(node);
+        node.queue = protectedQueue;
+        protectedQueue.addLast(node);
+        while (protectedQueue.size() > protectedMaximum) {
+          Node<K, V> demoted = protectedQueue.pollFirst();
+          demoted.queue = probation;
+          probation.addLast(demoted);
+        }
+      } else {
+        node.queue.moveToLast(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void evictIfNeeded(long now) {
+    while (window.size() > windowMaximum) {
+      Node<K, V> candidate = window.pollFirst();
+      candidate.queue = probation;
+      probation.addLast(candidate);
+    }
+    while (data.size() > maximumSize) {
+      Node<K, V> candidate = probation.peekLast();
+      Node<K, V> victim = probation.peekFirst();
+      if (candidate == victim) {
+        victim = protectedQueue.peekFirst();
+      }
+      if (candidate == null && victim == null && window.peekFirst() == null) {
+        return;
+      }
+      if (candidate == null) {
+        evict(victim != null ? victim : window.peekFirst());
+      } else if (victim != null && admit(candidate, victim, now)) {
+        evict(victim);
+      } else {
+        evict(candidate);
+      }
+    }
+  }
+
+  private boolean admit(Node<K, V> candidate, Node<K, V> victim, long now) {
+    if (isExpired(victim, now)) {
+      return true;
+    }
+    return sketch.frequency(hash(candidate.key)) > sketch.frequency(hash(victim.key));
+  }
+
+  private void evict(Node<K, V> node) {
+    unlink(node);
+    data.remove(node.key, node);
+    evictions.increment();
+  }
+
+  private void unlink(Node<K, V> node) {
+    if (node.queue != null) {
+      node.queue.remove(node);
+      node.queue = null;
+    }
+  }
+
+  private boolean isExpired(Node<K, V> node, long now) {
+    return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+  }
+
+  private static int hash(Object key) {
+    int hash = key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class Node<K, V> {
+
+    private final K key;
+    private final V value;
+    private final long writeTime;
+    private AccessQueue<K, V> queue;
+    private Node<K, V> replaced;
+    private Node<K, V> prev;
+    private Node<K, V> next;
+
+    private Node(K key, V value, long writeTime) {
+      this.key = key;
+      this.value = value;
+      this.writeTime = writeTime;
+    }
+  }
+
+  /** Интрузивная двусвязная очередь в порядке обращений, первый элемент - давнее всего */
+  private static final class AccessQueue<K, V> {
+
+    private Node<K, V> first;
+    private Node<K, V> last;
+    private long size;
+
+    void addLast(Node<K, V> node) {
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+      size++;
+    }
+
+    void remove(Node<K, V> node) {
+      if (node.prev == null) {
+        first = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToLast(Node<K, V> node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    Node<K, V> peekFirst() {
+      return first;
+    }
+
+    Node<K, V> peekLast() {
+      return last;
+    }
+
+    Node<K, V> pollFirst() {
+      Node<K, V> node = first;
+      if (node != null) {
+        remove(node);
+      }
+      return node;
+    }
+
+    long size() {
+      return size;
+    }
+
+    void clear() {
+      for (Node<K, V> node = first; node != null; ) {
+        Node<K, V> next = node.next;
+        node.queue = null;
+        node.prev = null;
+        node.next = null;
+        node = next;
+      }
+      first = null;
+      last = null;
+      size = 0;
+    }
+  }
+}
@@ -19,4 +19,7 @@ public record InfoProductDto(
     String description,
 
     /** Стоимость не может быть null или негативным */
-    BigDecimal price) {}
+    BigDecimal price,
+
+    /** Версия продукта, передаётся обратно в условное обновление */
+    long version) {}
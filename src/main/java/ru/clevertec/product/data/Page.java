@@ -0,0 +1,16 @@
+package ru.clevertec.product.data;
+
+import java.util.List;
+
+public record Page<T>(
+
+    /** Элементы страницы, не больше запрошенного размера */
+    List<T> content,
+
+    /** Непрозрачный курсор следующей страницы, null если страница последняя */
+    String nextCursor) {
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldNameConstants
@@ -33,4 +33,7 @@ public class Product {
 
   /** Время создания, не может быть null(задаётся до сохранения и не обновляется) */
   private LocalDateTime created;
+
+  /** Версия для оптимистичных обновлений, увеличивается при каждом условном сохранении */
+  private long version;
 }
@@ -0,0 +1,24 @@
+package ru.clevertec.product.event;
+
+public interface ChangeSubscription extends AutoCloseable {
+
+  /**
+   * @return номер следующего изменения, которое получит подписчик
+   */
+  long position();
+
+  /**
+   * @return на сколько изменений подписчик отстаёт от писателей
+   */
+  long lag();
+
+  /**
+   * @return true если подписка закрыта вызовом {@link #close()} или по {@link
+   *     OverflowPolicy#DISCONNECT}
+   */
+  boolean isClosed();
+
+  /** Останавливает доставку изменений, уже начатый вызов слушателя дорабатывает */
+  @Override
+  void close();
+}
@@ -0,0 +1,14 @@
+package ru.clevertec.product.event;
+
+/** Вид изменения продукта в хранилище */
+public enum ChangeType {
+
+  /** Продукта не было, before равен null */
+  CREATED,
+
+  /** Продукт перезаписан, есть и before, и after */
+  UPDATED,
+
+  /** Продукт удалён, after равен null */
+  DELETED
+}
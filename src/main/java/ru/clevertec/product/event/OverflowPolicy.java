@@ -0,0 +1,23 @@
+package ru.clevertec.product.event;
+
+/** Что делать подписчику, которого писатели обогнали на весь кольцевой буфер */
+public enum OverflowPolicy {
+
+  /**
+   * Пропустить перезаписанные изменения и продолжить с самого старого, ещё лежащего в буфере.
+   * Теряется минимум изменений, но подписчик остаётся отстающим
+   */
+  SKIP_TO_OLDEST,
+
+  /**
+   * Пропустить всё накопленное и продолжить с текущей позиции писателей. Подходит потребителям,
+   * которым важна свежесть, а не полнота, например кэшам с инвалидацией
+   */
+  SKIP_TO_LATEST,
+
+  /**
+   * Закрыть подписку. Потребитель, которому нужна полнота, пересобирает состояние из хранилища
+   * и подписывается заново
+   */
+  DISCONNECT
+}
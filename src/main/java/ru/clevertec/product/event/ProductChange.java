@@ -0,0 +1,17 @@
+package ru.clevertec.product.event;
+
+import ru.clevertec.product.entity.Product;
+
+public record ProductChange(
+
+    /** Порядковый номер изменения, у изменений одного продукта растёт в порядке записи */
+    long sequence,
+
+    /** Вид изменения */
+    ChangeType type,
+
+    /** Состояние до изменения, null для {@link ChangeType#CREATED} */
+    Product before,
+
+    /** Состояние после изменения, null для {@link ChangeType#DELETED} */
+    Product after) {}
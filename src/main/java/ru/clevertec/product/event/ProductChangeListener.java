@@ -0,0 +1,22 @@
+package ru.clevertec.product.event;
+
+@FunctionalInterface
+public interface ProductChangeListener {
+
+  /**
+   * Получает очередное изменение. Вызывается в потоке подписки, последовательно и по
+   * возрастанию {@link ProductChange#sequence()}
+   *
+   * @param change изменение с собственными копиями состояний продукта
+   */
+  void onChange(ProductChange change);
+
+  /**
+   * Сообщает, что подписчик отстал больше чем на ёмкость буфера и часть изменений потеряна.
+   * Вызывается после применения {@link OverflowPolicy}: при {@link OverflowPolicy#DISCONNECT}
+   * подписка уже закрыта
+   *
+   * @param lost количество пропущенных изменений
+   */
+  default void onOverflow(long lost) {}
+}
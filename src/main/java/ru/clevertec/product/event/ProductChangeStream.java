@@ -0,0 +1,20 @@
+package ru.clevertec.product.event;
+
+public interface ProductChangeStream {
+
+  /**
+   * Подписывает слушателя на изменения, записанные после вызова. Доставка идёт в отдельном
+   * потоке подписки, писатели его не ждут
+   *
+   * @param listener слушатель изменений
+   * @param policy поведение при отставании больше ёмкости буфера
+   * @return подписка, которую нужно закрыть после использования
+   * @throws IllegalArgumentException если слушатель или политика null
+   */
+  ChangeSubscription subscribe(ProductChangeListener listener, OverflowPolicy policy);
+
+  /**
+   * @return количество изменений, опубликованных с момента создания
+   */
+  long published();
+}
@@ -0,0 +1,132 @@
+package ru.clevertec.product.event.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import ru.clevertec.product.event.ChangeSubscription;
+import ru.clevertec.product.event.OverflowPolicy;
+import ru.clevertec.product.event.ProductChange;
+import ru.clevertec.product.event.ProductChangeListener;
+import ru.clevertec.product.event.ProductChangeStream;
+
+/**
+ * Общий поток изменений нескольких независимых хранилищ, например разделов {@link
+ * ru.clevertec.product.repository.impl.ShardedProductRepository}.
+ *
+ * <p>Подписка подписывается на каждый источник и передаёт изменения слушателю по одному, под
+ * общей блокировкой подписки. Номера изменений назначаются заново в порядке доставки, поэтому
+ * слушатель видит их по возрастанию. Общего порядка записей между источниками нет, но каждый
+ * продукт живёт в одном источнике, и изменения одного продукта приходят в порядке записи.
+ */
+public class MergedChangeStream implements ProductChangeStream {
+
+  private final List<ProductChangeStream> sources;
+
+  /**
+   * @param sources потоки изменений, каждый продукт публикуется только в одном из них
+   * @throws IllegalArgumentException если список источников null или пустой
+   */
+  public MergedChangeStream(List<? extends ProductChangeStream> sources) {
+    if (sources == null || sources.isEmpty()) {
+      throw new IllegalArgumentException("Sources must not be empty");
+    }
+    this.sources = List.copyOf(sources);
+  }
+
+  @Override
+  public ChangeSubscription subscribe(ProductChangeListener listener, OverflowPolicy policy) {
+    if (listener == null || policy == null) {
+      throw new IllegalArgumentException("Listener and policy must not be null");
+    }
+    MergedSubscription subscription = new MergedSubscription(listener, policy);
+    for (ProductChangeStream source : sources) {
+      ChangeSubscription part = source.subscribe(subscription, policy);
+      subscription.parts.add(part);
+      if (subscription.isClosed()) {
+        part.close();
+      }
+    }
+    return subscription;
+  }
+
+  /**
+   * @return сумма изменений, опубликованных источниками
+   */
+  @Override
+  public long published() {
+    return sources.stream().mapToLong(ProductChangeStream::published).sum();
+  }
+
+  private static final class MergedSubscription
+      implements ChangeSubscription, ProductChangeListener {
+
+    private final ProductChangeListener listener;
+    private final OverflowPolicy policy;
+    private final List<ChangeSubscription> parts = new CopyOnWriteArrayList<>();
+    private final ReentrantLock delivery = new ReentrantLock();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile long next;
+
+    MergedSubscription(ProductChangeListener listener, OverflowPolicy policy) {
+      this.listener = listener;
+      this.policy = policy;
+    }
+
+    @Override
+    public void onChange(ProductChange change) {
+      delivery.lock();
+      try {
+        if (closed.get()) {
+          return;
+        }
+        long sequence = next;
+        next = sequence + 1;
+        listener.onChange(
+            new ProductChange(sequence, change.type(), change.before(), change.after()));
+      } finally {
+        delivery.unlock();
+      }
+    }
+
+    /** При {@link OverflowPolicy#DISCONNECT} отключается вся подписка и сообщается один раз */
+    @Override
+    public void onOverflow(long lost) {
+      delivery.lock();
+      try {
+        if (policy == OverflowPolicy.DISCONNECT) {
+          if (closed.get()) {
+            return;
+          }
+          close();
+        }
+        listener.onOverflow(lost);
+      } finally {
+        delivery.unlock();
+      }
+    }
+
+    @Override
+    public long position() {
+      return next;
+    }
+
+    @Override
+    public long lag() {
+      return parts.stream().mapToLong(ChangeSubscription::lag).sum();
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed.get();
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        parts.forEach(ChangeSubscription::close);
+      }
+    }
+  }
+}
@@ -0,0 +1,245 @@
+package ru.clevertec.product.event.impl;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ChangeSubscription;
+import ru.clevertec.product.event.ChangeType;
+import ru.clevertec.product.event.OverflowPolicy;
+import ru.clevertec.product.event.ProductChange;
+import ru.clevertec.product.event.ProductChangeListener;
+import ru.clevertec.product.event.ProductChangeStream;
+
+/**
+ * Поток изменений на заранее выделенном кольцевом буфере.
+ *
+ * <p>Писатель берёт номер изменения атомарным инкрементом и записывает ссылки на состояния
+ * продукта в слот с этим номером по модулю ёмкости. Каждый слот защищён штампом (seqlock):
+ * нечётный штамп - слот пишется, чётный - в слоте лежит изменение с номером штамп / 2. Писатель
+ * ничего не выделяет и никогда не ждёт подписчиков: отставший подписчик обнаруживает по штампу,
+ * что его слот перезаписан, и поступает по своей {@link OverflowPolicy}.
+ *
+ * <p>Пока подписчиков нет, {@link #publish(Product, Product)} сразу возвращается. Буфер держит
+ * ссылки на последние состояния продуктов, поэтому публикуемые экземпляры не должны меняться
+ * после публикации; подписчику отдаются их копии.
+ */
+public class RingBufferChangeStream implements ProductChangeStream {
+
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  private static final long EMPTY = -2;
+  private static final int IDLE_SPINS = 64;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final AtomicLongArray stamps;
+  private final Product[] befores;
+  private final Product[] afters;
+  private final int mask;
+  private final AtomicLong claimed = new AtomicLong();
+  private final AtomicInteger subscribers = new AtomicInteger();
+  private final AtomicInteger threads = new AtomicInteger();
+
+  public RingBufferChangeStream() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity ёмкость буфера, округляется вверх до степени двойки
+   * @throws IllegalArgumentException если ёмкость меньше 2 или больше 2^30
+   */
+  public RingBufferChangeStream(int capacity) {
+    if (capacity < 2 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity - 1) << 1;
+    this.stamps = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      stamps.set(i, EMPTY);
+    }
+    this.befores = new Product[size];
+    this.afters = new Product[size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * Публикует изменение. Вызывается под блокировкой хранилища, защищающей продукт, чтобы номера
+   * изменений одного продукта шли в порядке записи
+   *
+   * @param before состояние до изменения, null если продукт создан
+   * @param after состояние после изменения, null если продукт удалён
+   */
+  public void publish(Product before, Product after) {
+    if (subscribers.get() == 0) {
+      return;
+    }
+    long sequence = claimed.getAndIncrement();
+    int slot = (int) sequence & mask;
+    long busy = (sequence << 1) | 1;
+    while (true) {
+      long current = stamps.get(slot);
+      if (current > busy) {
+        // писатель, обогнавший на круг, уже занял слот: для подписчиков это изменение потеряно
+        return;
+      }
+      if ((current & 1) == 0 && stamps.compareAndSet(slot, current, busy)) {
+        break;
+      }
+      Thread.onSpinWait();
+    }
+    VarHandle.storeStoreFence();
+    befores[slot] = before;
+    afters[slot] = after;
+    stamps.setRelease(slot, sequence << 1);
+  }
+
+  @Override
+  public ChangeSubscription subscribe(ProductChangeListener listener, OverflowPolicy policy) {
+    if (listener == null || policy == null) {
+      throw new IllegalArgumentException("Listener and policy must not be null");
+    }
+    subscribers.incrementAndGet();
+    RingSubscription subscription = new RingSubscription(listener, policy, claimed.get());
+    Thread thread = new Thread(subscription, "product-changes-" + threads.incrementAndGet());
+    thread.setDaemon(true);
+    subscription.thread = thread;
+    thread.start();
+    return subscription;
+  }
+
+  @Override
+  public long published() {
+    return claimed.get();
+  }
+
+  /**
+   * Позволяет хранилищу не собирать состояния продукта для публикации, пока их некому
+   * доставлять. Проверяется под той же блокировкой, что и последующий {@link #publish(Product,
+   * Product)}
+   *
+   * @return true если есть открытые подписки
+   */
+  public boolean hasSubscribers() {
+    return subscribers.get() > 0;
+  }
+
+  /**
+   * @return ёмкость буфера после округления
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  private static ChangeType type(Product before, Product after) {
+    if (before == null) {
+      return ChangeType.CREATED;
+    }
+    return after == null ? ChangeType.DELETED : ChangeType.UPDATED;
+  }
+
+  private static Product copy(Product product) {
+    return product == null ? null : product.toBuilder().build();
+  }
+
+  private final class RingSubscription implements ChangeSubscription, Runnable {
+
+    private final ProductChangeListener listener;
+    private final OverflowPolicy policy;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile long next;
+    private volatile Thread thread;
+
+    RingSubscription(ProductChangeListener listener, OverflowPolicy policy, long start) {
+      this.listener = listener;
+      this.policy = policy;
+      this.next = start;
+    }
+
+    @Override
+    public void run() {
+      int idle = 0;
+      try {
+        while (!closed.get()) {
+          if (poll()) {
+            idle = 0;
+          } else if (++idle < IDLE_SPINS) {
+            Thread.onSpinWait();
+          } else {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+          }
+        }
+      } finally {
+        close();
+      }
+    }
+
+    /**
+     * @return true если подписка продвинулась: доставила изменение или обработала отставание
+     */
+    private boolean poll() {
+      long sequence = next;
+      if (sequence >= claimed.get()) {
+        return false;
+      }
+      int slot = (int) sequence & mask;
+      long expected = sequence << 1;
+      long stamp = stamps.getAcquire(slot);
+      if (stamp == expected) {
+        Product before = befores[slot];
+        Product after = afters[slot];
+        VarHandle.loadLoadFence();
+        if (stamps.get(slot) == expected) {
+          next = sequence + 1;
+          listener.onChange(
+              new ProductChange(sequence, type(before, after), copy(before), copy(after)));
+          return true;
+        }
+      } else if (stamp <= (expected | 1)) {
+        // номер взят, но писатель ещё не закончил запись слота
+        return false;
+      }
+      overflow(sequence);
+      return true;
+    }
+
+    private void overflow(long sequence) {
+      long head = claimed.get();
+      long resume =
+          policy == OverflowPolicy.SKIP_TO_OLDEST ? Math.max(sequence + 1, head - mask) : head;
+      if (policy == OverflowPolicy.DISCONNECT) {
+        close();
+      } else {
+        next = resume;
+      }
+      listener.onOverflow(resume - sequence);
+    }
+
+    @Override
+    public long position() {
+      return next;
+    }
+
+    @Override
+    public long lag() {
+      return Math.max(0, claimed.get() - next);
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed.get();
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        subscribers.decrementAndGet();
+        LockSupport.unpark(thread);
+      }
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package ru.clevertec.product.exception;
+
+import java.util.List;
+import ru.clevertec.product.validator.ValidationError;
+
+public class ValidationException extends RuntimeException {
+
+  private final transient List<ValidationError> errors;
+
+  /**
+   * @param errors ошибки некорректных DTO, не пустой список
+   * @throws IllegalArgumentException если список ошибок null или пустой
+   */
+  public ValidationException(List<ValidationError> errors) {
+    super("Product validation failed: " + requireErrors(errors));
+    this.errors = List.copyOf(errors);
+  }
+
+  public List<ValidationError> getErrors() {
+    return errors;
+  }
+
+  private static List<ValidationError> requireErrors(List<ValidationError> errors) {
+    if (errors == null || errors.isEmpty()) {
+      throw new IllegalArgumentException("Validation errors must not be empty");
+    }
+    return errors;
+  }
+}
@@ -0,0 +1,17 @@
+package ru.clevertec.product.exception;
+
+import java.util.UUID;
+
+public class VersionConflictException extends RuntimeException {
+
+  /**
+   * @param uuid идентификатор продукта
+   * @param expectedVersion версия, с которой начиналось обновление
+   */
+  public VersionConflictException(UUID uuid, long expectedVersion) {
+    super(
+        String.format(
+            "Product with uuid: %s was modified concurrently, expected version: %d",
+            uuid, expectedVersion));
+  }
+}
@@ -0,0 +1,13 @@
+package ru.clevertec.product.id;
+
+import java.util.UUID;
+
+public interface IdGenerator {
+
+  /**
+   * Создаёт новый идентификатор продукта
+   *
+   * @return уникальный UUID
+   */
+  UUID next();
+}
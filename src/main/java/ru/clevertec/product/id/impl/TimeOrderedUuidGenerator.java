@@ -0,0 +1,86 @@
+package ru.clevertec.product.id.impl;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import ru.clevertec.product.id.IdGenerator;
+
+/**
+ * Генератор UUID версии 7 (RFC 9562): старшие 48 бит - время в миллисекундах, за ними 42 бита
+ * счётчика и 32 случайных бита. Соседние по времени идентификаторы оказываются рядом в
+ * отсортированных индексах и снимках, а новые вставки идут в конец, а не в случайное место.
+ *
+ * <p>Состояние хранится в потоке, поэтому генерация не требует ни блокировок, ни CAS. В
+ * пределах потока идентификаторы строго возрастают: в новой миллисекунде счётчик начинается со
+ * случайного значения не больше половины диапазона, в той же миллисекунде увеличивается на
+ * единицу. Если часы пошли назад, используется последняя выданная миллисекунда, если счётчик
+ * исчерпан - следующая. Уникальность между потоками обеспечивается случайным началом счётчика
+ * и случайными младшими битами, как у любого UUID v7.
+ *
+ * <p>Старший бит времени равен нулю до 6400 года, а старшие биты младшего слова всегда 10,
+ * поэтому знаковое {@link UUID#compareTo(UUID)} упорядочивает такие идентификаторы по времени
+ * создания.
+ */
+public class TimeOrderedUuidGenerator implements IdGenerator {
+
+  private static final int COUNTER_BITS = 42;
+  private static final int COUNTER_LOW_BITS = 30;
+  private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+  private static final long COUNTER_SEED_BOUND = 1L << (COUNTER_BITS - 1);
+  private static final long VERSION = 0x7000L;
+  private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+  private final LongSupplier clock;
+  private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+  public TimeOrderedUuidGenerator() {
+    this(System::currentTimeMillis);
+  }
+
+  /**
+   * @param clock источник времени в миллисекундах от начала эпохи Unix
+   */
+  public TimeOrderedUuidGenerator(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public UUID next() {
+    State current = state.get();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long now = clock.getAsLong();
+    if (now > current.millis) {
+      current.millis = now;
+      current.counter = random.nextLong(COUNTER_SEED_BOUND);
+    } else if (current.counter < COUNTER_MAX) {
+      current.counter++;
+    } else {
+      current.millis++;
+      current.counter = random.nextLong(COUNTER_SEED_BOUND);
+    }
+    long msb = current.millis << 16 | VERSION | current.counter >>> COUNTER_LOW_BITS;
+    long lsb =
+        VARIANT
+            | (current.counter & ((1L << COUNTER_LOW_BITS) - 1)) << 32
+            | random.nextInt() & 0xFFFF_FFFFL;
+    return new UUID(msb, lsb);
+  }
+
+  /**
+   * @param uuid идентификатор версии 7
+   * @return время создания в миллисекундах от начала эпохи Unix
+   * @throws IllegalArgumentException если версия UUID не 7
+   */
+  public static long unixMillis(UUID uuid) {
+    if (uuid.version() != 7) {
+      throw new IllegalArgumentException("UUID is not time-ordered: " + uuid);
+    }
+    return uuid.getMostSignificantBits() >>> 16;
+  }
+
+  private static final class State {
+
+    private long millis = Long.MIN_VALUE;
+    private long counter;
+  }
+}
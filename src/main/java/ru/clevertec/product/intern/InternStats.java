@@ -0,0 +1,24 @@
+package ru.clevertec.product.intern;
+
+public record InternStats(
+
+    /** Количество значений, заменённых каноническим экземпляром */
+    long hits,
+
+    /** Количество значений, не найденных в пуле */
+    long misses,
+
+    /** Количество вытесненных из пула значений */
+    long evictions,
+
+    /** Текущее количество значений в пуле */
+    long size,
+
+    /** Оценка байт на куче, которые занимали бы заменённые дубликаты */
+    long bytesSaved) {
+
+  public double hitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+}
@@ -0,0 +1,27 @@
+package ru.clevertec.product.intern;
+
+import java.math.BigDecimal;
+
+public interface Interner {
+
+  /**
+   * Возвращает канонический экземпляр строки, равный переданному
+   *
+   * @param value строка, null возвращается как есть
+   * @return экземпляр из пула либо сама строка, если её нельзя или не выгодно хранить
+   */
+  String intern(String value);
+
+  /**
+   * Возвращает канонический экземпляр цены, равный переданному вместе со шкалой
+   *
+   * @param value цена, null возвращается как есть
+   * @return экземпляр из пула либо сама цена
+   */
+  BigDecimal intern(BigDecimal value);
+
+  /**
+   * @return счётчики пула и оценка сэкономленной памяти
+   */
+  InternStats stats();
+}
@@ -0,0 +1,80 @@
+package ru.clevertec.product.intern.impl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import ru.clevertec.product.cache.Cache;
+import ru.clevertec.product.cache.CacheStats;
+import ru.clevertec.product.cache.impl.TinyLfuCache;
+import ru.clevertec.product.intern.InternStats;
+import ru.clevertec.product.intern.Interner;
+import ru.clevertec.product.util.HeapFootprint;
+
+/**
+ * Пул канонических строк и цен ограниченного размера на основе {@link TinyLfuCache}: частые
+ * значения остаются в пуле, редкие вытесняются. Вытесненный экземпляр продолжает
+ * использоваться теми, кто его уже получил, просто новые дубликаты с ним больше не сливаются.
+ *
+ * <p>Строки длиннее {@link #MAX_STRING_LENGTH} не хранятся, поэтому память пула ограничена и
+ * по количеству, и по размеру значений.
+ */
+public class BoundedInterner implements Interner {
+
+  public static final long DEFAULT_MAXIMUM_STRINGS = 65_536;
+  public static final long DEFAULT_MAXIMUM_PRICES = 16_384;
+  public static final int MAX_STRING_LENGTH = 1024;
+
+  private final Cache<String, String> strings;
+  private final Cache<BigDecimal, BigDecimal> prices;
+  private final LongAdder bytesSaved = new LongAdder();
+
+  public BoundedInterner() {
+    this(DEFAULT_MAXIMUM_STRINGS, DEFAULT_MAXIMUM_PRICES);
+  }
+
+  /**
+   * @param maximumStrings максимальное количество строк в пуле
+   * @param maximumPrices максимальное количество цен в пуле
+   * @throws IllegalArgumentException если размер не положительный
+   */
+  public BoundedInterner(long maximumStrings, long maximumPrices) {
+    this.strings = new TinyLfuCache<>(maximumStrings, null);
+    this.prices = new TinyLfuCache<>(maximumPrices, null);
+  }
+
+  @Override
+  public String intern(String value) {
+    if (value == null || value.length() > MAX_STRING_LENGTH) {
+      return value;
+    }
+    String canonical = strings.get(value, Function.identity());
+    if (canonical != value) {
+      bytesSaved.add(HeapFootprint.string(value));
+    }
+    return canonical;
+  }
+
+  @Override
+  public BigDecimal intern(BigDecimal value) {
+    if (value == null) {
+      return null;
+    }
+    BigDecimal canonical = prices.get(value, Function.identity());
+    if (canonical != value) {
+      bytesSaved.add(HeapFootprint.bigDecimal(value));
+    }
+    return canonical;
+  }
+
+  @Override
+  public InternStats stats() {
+    CacheStats stringStats = strings.stats();
+    CacheStats priceStats = prices.stats();
+    return new InternStats(
+        stringStats.hits() + priceStats.hits(),
+        stringStats.misses() + priceStats.misses(),
+        stringStats.evictions() + priceStats.evictions(),
+        strings.size() + prices.size(),
+        bytesSaved.sum());
+  }
+}
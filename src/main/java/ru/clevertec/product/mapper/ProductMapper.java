@@ -16,6 +16,14 @@ public interface ProductMapper {
    */
   Product toProduct(ProductDto productDto);
 
+  /**
+   * Маппит пачку DTO в продукты без UUID за один проход, порядок сохраняется
+   *
+   * @param productDtos - DTO для маппинга
+   * @return новые продукты с общей датой создания
+   */
+  List<Product> toListProduct(List<ProductDto> productDtos);
+
   /**
    * Маппит текущий продукт в DTO без даты
    *
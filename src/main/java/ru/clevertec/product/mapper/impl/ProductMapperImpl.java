@@ -3,29 +3,161 @@ package ru.clevertec.product.mapper.impl;
 import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.intern.Interner;
+import ru.clevertec.product.intern.impl.BoundedInterner;
 import ru.clevertec.product.mapper.ProductMapper;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class ProductMapperImpl implements ProductMapper {
 
+  /** Размер списка, начиная с которого DTO собираются параллельно в общем ForkJoinPool */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
+  private static final int MIN_LEAF_SIZE = 1024;
+  private static final int LEAVES_PER_THREAD = 4;
+
+  private final Interner interner;
+  private final int parallelThreshold;
+
+  public ProductMapperImpl() {
+    this(DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * @param parallelThreshold минимальный размер списка для параллельного маппинга
+   * @throws IllegalArgumentException если порог не положительный
+   */
+  public ProductMapperImpl(int parallelThreshold) {
+    this(new BoundedInterner(), parallelThreshold);
+  }
+
+  /**
+   * @param interner пул, через который проходят имя, описание и цена при записи
+   * @param parallelThreshold минимальный размер списка для параллельного маппинга
+   * @throws IllegalArgumentException если порог не положительный
+   */
+  public ProductMapperImpl(Interner interner, int parallelThreshold) {
+    if (parallelThreshold <= 0) {
+      throw new IllegalArgumentException(
+          "Parallel threshold must be positive: " + parallelThreshold);
+    }
+    this.interner = interner;
+    this.parallelThreshold = parallelThreshold;
+  }
+
   @Override
   public Product toProduct(ProductDto productDto) {
-    return null;
+    return toProduct(productDto, LocalDateTime.now());
+  }
+
+  @Override
+  public List<Product> toListProduct(List<ProductDto> productDtos) {
+    LocalDateTime created = LocalDateTime.now();
+    return productDtos.stream().map(dto -> toProduct(dto, created)).toList();
   }
 
   @Override
   public InfoProductDto toInfoProductDto(Product product) {
-    return null;
+    return Optional.ofNullable(product)
+        .map(
+            value ->
+                InfoProductDto.builder()
+                    .uuid(value.getUuid())
+                    .name(value.getName())
+                    .description(value.getDescription())
+                    .price(value.getPrice())
+                    .version(value.getVersion())
+                    .build())
+        .orElseThrow(ProductNotFoundException::new);
   }
 
+  /**
+   * Маленькие списки маппятся в текущем потоке. Начиная с порога список делится на отрезки,
+   * которые ForkJoinPool заполняет в общий массив заранее известного размера, поэтому порядок
+   * сохраняется без промежуточных коллекций.
+   */
   @Override
   public List<InfoProductDto> toListInfoProductDto(List<Product> products) {
-      return null;
+    List<Product> source = products instanceof RandomAccess ? products : new ArrayList<>(products);
+    int size = source.size();
+    InfoProductDto[] result = new InfoProductDto[size];
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    if (size < parallelThreshold || parallelism < 2) {
+      for (int i = 0; i < size; i++) {
+        result[i] = toInfoProductDto(source.get(i));
+      }
+    } else {
+      int leafSize = Math.max(MIN_LEAF_SIZE, size / (parallelism * LEAVES_PER_THREAD));
+      ForkJoinPool.commonPool().invoke(new MapTask(source, result, 0, size, leafSize));
+    }
+    return Collections.unmodifiableList(Arrays.asList(result));
   }
 
   @Override
   public Product merge(Product product, ProductDto productDto) {
-      return null;
+    return Optional.ofNullable(product)
+        .map(
+            value ->
+                value.toBuilder()
+                    .name(interner.intern(productDto.name()))
+                    .description(interner.intern(productDto.description()))
+                    .price(interner.intern(productDto.price()))
+                    .build())
+        .orElseThrow(ProductNotFoundException::new);
+  }
+
+  private Product toProduct(ProductDto productDto, LocalDateTime created) {
+    return Optional.ofNullable(productDto)
+        .map(
+            dto ->
+                Product.builder()
+                    .name(interner.intern(dto.name()))
+                    .description(interner.intern(dto.description()))
+                    .price(interner.intern(dto.price()))
+                    .created(created)
+                    .build())
+        .orElseThrow(ProductNotFoundException::new);
+  }
+
+  /** Заполняет отрезок [from, to) массива результата, делясь пополам до размера листа */
+  private final class MapTask extends RecursiveAction {
+
+    private final List<Product> source;
+    private final InfoProductDto[] target;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    private MapTask(List<Product> source, InfoProductDto[] target, int from, int to, int leafSize) {
+      this.source = source;
+      this.target = target;
+      this.from = from;
+      this.to = to;
+      this.leafSize = leafSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= leafSize) {
+        for (int i = from; i < to; i++) {
+          target[i] = toInfoProductDto(source.get(i));
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(
+          new MapTask(source, target, from, middle, leafSize),
+          new MapTask(source, target, middle, to, leafSize));
+    }
   }
 }
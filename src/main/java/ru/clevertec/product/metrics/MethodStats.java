@@ -0,0 +1,34 @@
+package ru.clevertec.product.metrics;
+
+import java.util.Map;
+
+public record MethodStats(
+
+    /** Количество завершённых вызовов, включая завершившиеся исключением */
+    long calls,
+
+    /** Количество вызовов, завершившихся исключением */
+    long errors,
+
+    /** Количество исключений по простому имени класса, например ProductNotFoundException */
+    Map<String, Long> errorsByType,
+
+    /** Медиана задержки в наносекундах */
+    long p50Nanos,
+
+    /** 99-й перцентиль задержки в наносекундах */
+    long p99Nanos,
+
+    /** 99.9-й перцентиль задержки в наносекундах */
+    long p999Nanos,
+
+    /** Максимальная задержка в наносекундах */
+    long maxNanos,
+
+    /** Среднее количество вызовов в секунду с момента создания счётчиков */
+    double throughput) {
+
+  public double errorRate() {
+    return calls == 0 ? 0.0 : (double) errors / calls;
+  }
+}
@@ -0,0 +1,14 @@
+package ru.clevertec.product.metrics;
+
+import java.math.BigDecimal;
+
+public record PriceBucket(
+
+    /** Нижняя граница цены включительно */
+    BigDecimal from,
+
+    /** Верхняя граница цены включительно */
+    BigDecimal to,
+
+    /** Количество продуктов с ценой в границах корзины */
+    long count) {}
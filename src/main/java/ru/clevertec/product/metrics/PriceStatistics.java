@@ -0,0 +1,56 @@
+package ru.clevertec.product.metrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Сводка и распределение цен каталога. Продукты без цены не учитываются */
+public interface PriceStatistics {
+
+  /**
+   * @return количество, минимум, максимум и сумма цен
+   */
+  PriceSummary summary();
+
+  /**
+   * @return непустые корзины распределения цен по возрастанию границ
+   */
+  List<PriceBucket> histogram();
+
+  /**
+   * Оценивает квантили цен по {@link #histogram()}: квантиль - верхняя граница корзины, в которую
+   * он попал, прижатая к минимуму и максимуму {@link #summary()}
+   *
+   * @param quantiles доли от 0 до 1
+   * @return оценки квантилей в порядке аргументов, пустой список если продуктов нет
+   * @throws IllegalArgumentException если доля вне [0, 1]
+   */
+  default List<BigDecimal> quantiles(double... quantiles) {
+    for (double quantile : quantiles) {
+      if (!(quantile >= 0 && quantile <= 1)) {
+        throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+      }
+    }
+    List<PriceBucket> buckets = histogram();
+    PriceSummary summary = summary();
+    long total = buckets.stream().mapToLong(PriceBucket::count).sum();
+    if (total == 0 || summary.min() == null) {
+      return List.of();
+    }
+    List<BigDecimal> result = new ArrayList<>(quantiles.length);
+    for (double quantile : quantiles) {
+      long rank = Math.max(1, (long) Math.ceil(quantile * total));
+      long seen = 0;
+      BigDecimal estimate = summary.max();
+      for (PriceBucket bucket : buckets) {
+        seen += bucket.count();
+        if (seen >= rank) {
+          estimate = bucket.to().min(summary.max());
+          break;
+        }
+      }
+      result.add(estimate.max(summary.min()));
+    }
+    return result;
+  }
+}
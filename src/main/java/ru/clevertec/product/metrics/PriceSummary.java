@@ -0,0 +1,26 @@
+package ru.clevertec.product.metrics;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+public record PriceSummary(
+
+    /** Количество продуктов с ценой */
+    long count,
+
+    /** Минимальная цена, null если продуктов нет */
+    BigDecimal min,
+
+    /** Максимальная цена, null если продуктов нет */
+    BigDecimal max,
+
+    /** Сумма цен */
+    BigDecimal sum) {
+
+  /**
+   * @return средняя цена, null если продуктов нет
+   */
+  public BigDecimal average() {
+    return count == 0 ? null : sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+  }
+}
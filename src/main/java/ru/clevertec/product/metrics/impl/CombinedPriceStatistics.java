@@ -0,0 +1,60 @@
+package ru.clevertec.product.metrics.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import ru.clevertec.product.metrics.PriceBucket;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.PriceSummary;
+
+/**
+ * Общая статистика нескольких независимых частей, например разделов хранилища. Ничего не
+ * копирует: каждое чтение складывает сводки частей и сливает их корзины с одинаковой нижней
+ * границей.
+ */
+public class CombinedPriceStatistics implements PriceStatistics {
+
+  private final List<PriceStatistics> parts;
+
+  /**
+   * @param parts статистики частей, читаются при каждом обращении
+   */
+  public CombinedPriceStatistics(List<? extends PriceStatistics> parts) {
+    this.parts = List.copyOf(parts);
+  }
+
+  @Override
+  public PriceSummary summary() {
+    long count = 0;
+    BigDecimal min = null;
+    BigDecimal max = null;
+    BigDecimal sum = BigDecimal.ZERO;
+    for (PriceStatistics part : parts) {
+      PriceSummary summary = part.summary();
+      count += summary.count();
+      sum = sum.add(summary.sum());
+      if (summary.min() != null) {
+        min = min == null ? summary.min() : min.min(summary.min());
+        max = max == null ? summary.max() : max.max(summary.max());
+      }
+    }
+    return new PriceSummary(count, min, max, sum);
+  }
+
+  @Override
+  public List<PriceBucket> histogram() {
+    TreeMap<BigDecimal, PriceBucket> merged = new TreeMap<>();
+    for (PriceStatistics part : parts) {
+      for (PriceBucket bucket : part.histogram()) {
+        merged.merge(
+            bucket.from(),
+            bucket,
+            (left, right) ->
+                new PriceBucket(
+                    left.from(), left.to().max(right.to()), left.count() + right.count()));
+      }
+    }
+    return new ArrayList<>(merged.values());
+  }
+}
@@ -0,0 +1,106 @@
+package ru.clevertec.product.metrics.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма неотрицательных значений с логарифмическими корзинами фиксированного размера.
+ *
+ * <p>Каждая степень двойки делится на {@link #SUB_BUCKETS} равных корзин, поэтому относительная
+ * погрешность перцентиля не больше 1/16 при любом масштабе: от наносекунд до часов. Все корзины
+ * выделяются в конструкторе (960 счётчиков), запись - один атомарный инкремент без блокировок и
+ * выделения памяти. Перцентили читаются на ходу без остановки записи; снимок не атомарен, но
+ * каждый счётчик в нём монотонен.
+ */
+public final class LogHistogram {
+
+  public static final int SUB_BUCKET_BITS = 4;
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param value значение, отрицательные считаются нулём
+   */
+  public void record(long value) {
+    long clamped = Math.max(0, value);
+    counts.incrementAndGet(index(clamped));
+    long current = max.get();
+    while (clamped > current && !max.compareAndSet(current, clamped)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * @return количество записанных значений
+   */
+  public long count() {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * @return максимальное записанное значение, 0 если значений нет
+   */
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * Считает несколько перцентилей за один проход по корзинам
+   *
+   * @param quantiles доли от 0 до 1 по возрастанию
+   * @return верхние границы корзин с перцентилями, не больше {@link #max()}; нули если значений
+   *     нет
+   */
+  public long[] percentiles(double... quantiles) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    long[] result = new long[quantiles.length];
+    if (total == 0) {
+      return result;
+    }
+    long maximum = max.get();
+    long seen = 0;
+    int q = 0;
+    for (int i = 0; i < BUCKETS && q < quantiles.length; i++) {
+      seen += snapshot[i];
+      while (q < quantiles.length && seen >= Math.max(1, (long) Math.ceil(quantiles[q] * total))) {
+        result[q++] = Math.min(upperBound(i), maximum);
+      }
+    }
+    while (q < quantiles.length) {
+      result[q++] = maximum;
+    }
+    return result;
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + sub;
+  }
+
+  static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,43 @@
+package ru.clevertec.product.metrics.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import ru.clevertec.product.metrics.MethodStats;
+
+/**
+ * Набор {@link MethodRecorder} одного компонента. Счётчики регистрируются в конструкторе
+ * декоратора и хранятся в его полях, поэтому на пути вызова нет поиска по имени метода.
+ */
+public final class MethodMetrics {
+
+  private final Map<String, MethodRecorder> recorders = new LinkedHashMap<>();
+  private final long createdNanos = System.nanoTime();
+
+  /**
+   * Регистрирует счётчики метода. Вызывается только при построении декоратора
+   *
+   * @param method имя метода в снимке
+   * @return счётчики метода
+   * @throws IllegalArgumentException если метод уже зарегистрирован
+   */
+  public MethodRecorder register(String method) {
+    MethodRecorder recorder = new MethodRecorder();
+    if (recorders.putIfAbsent(method, recorder) != null) {
+      throw new IllegalArgumentException("Method already registered: " + method);
+    }
+    return recorder;
+  }
+
+  /**
+   * Снимает статистику на ходу, запись при этом не останавливается
+   *
+   * @return статистика по методам в порядке регистрации
+   */
+  public Map<String, MethodStats> snapshot() {
+    long uptime = System.nanoTime() - createdNanos;
+    Map<String, MethodStats> snapshot = new LinkedHashMap<>();
+    recorders.forEach((method, recorder) -> snapshot.put(method, recorder.stats(uptime)));
+    return Collections.unmodifiableMap(snapshot);
+  }
+}
@@ -0,0 +1,78 @@
+package ru.clevertec.product.metrics.impl;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import ru.clevertec.product.metrics.MethodStats;
+
+/**
+ * Счётчики одного метода: гистограмма задержек всех вызовов и количество исключений по типам.
+ * Успешный вызов стоит два чтения {@link System#nanoTime()} и один атомарный инкремент.
+ */
+public final class MethodRecorder {
+
+  private final LogHistogram latency = new LogHistogram();
+  private final LongAdder errors = new LongAdder();
+  private final ConcurrentHashMap<Class<?>, LongAdder> errorsByType = new ConcurrentHashMap<>();
+
+  MethodRecorder() {}
+
+  /**
+   * Выполняет вызов и записывает его задержку, исключение учитывается и пробрасывается
+   *
+   * @param call измеряемый вызов
+   * @return результат вызова
+   */
+  public <T> T time(Supplier<T> call) {
+    long start = System.nanoTime();
+    try {
+      return call.get();
+    } catch (RuntimeException | Error e) {
+      failed(e);
+      throw e;
+    } finally {
+      latency.record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Выполняет вызов без результата и записывает его задержку
+   *
+   * @param call измеряемый вызов
+   */
+  public void run(Runnable call) {
+    long start = System.nanoTime();
+    try {
+      call.run();
+    } catch (RuntimeException | Error e) {
+      failed(e);
+      throw e;
+    } finally {
+      latency.record(System.nanoTime() - start);
+    }
+  }
+
+  MethodStats stats(long uptimeNanos) {
+    long[] percentiles = latency.percentiles(0.5, 0.99, 0.999);
+    long calls = latency.count();
+    Map<String, Long> byType = new TreeMap<>();
+    errorsByType.forEach((type, count) -> byType.put(type.getSimpleName(), count.sum()));
+    double seconds = uptimeNanos / 1e9;
+    return new MethodStats(
+        calls,
+        errors.sum(),
+        byType,
+        percentiles[0],
+        percentiles[1],
+        percentiles[2],
+        latency.max(),
+        seconds <= 0 ? 0.0 : calls / seconds);
+  }
+
+  private void failed(Throwable error) {
+    errors.increment();
+    errorsByType.computeIfAbsent(error.getClass(), type -> new LongAdder()).increment();
+  }
+}
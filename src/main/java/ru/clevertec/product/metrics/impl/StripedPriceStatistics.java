@@ -0,0 +1,171 @@
+package ru.clevertec.product.metrics.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.metrics.PriceBucket;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.PriceSummary;
+
+/**
+ * Статистика цен, которую хранилище обновляет при каждой записи, поэтому чтение не просматривает
+ * каталог.
+ *
+ * <p>Всё состояние разложено по ячейкам по хэшу UUID: количество, сумма, мультимножество цен и
+ * счётчики корзин. Записи разных продуктов обычно попадают в разные ячейки и не ждут друг друга
+ * и не делят общих структур, а чтение сливает фиксированное число ячеек. Изменения одного
+ * продукта всегда идут в одну ячейку.
+ *
+ * <p>Минимум и максимум точные: каждая ячейка хранит свои цены мультимножеством цена -
+ * количество продуктов, после удаления самого дешёвого или дорогого продукта крайней становится
+ * следующая цена без пересчёта. Чтение берёт крайние цены ячеек за O(s log k), где s -
+ * количество ячеек, k - различных цен в ячейке.
+ *
+ * <p>Распределение считается в копейках на корзинах {@link LogHistogram}, относительная
+ * погрешность квантиля не больше 1/16. Счётчики корзин уменьшаются при удалении, чтение
+ * складывает их по ячейкам. Снимок согласован внутри ячейки, но не между ячейками: сводка и
+ * распределение могут разойтись на записи, идущие во время чтения.
+ */
+public class StripedPriceStatistics implements PriceStatistics {
+
+  public static final int DEFAULT_STRIPES = 16;
+
+  private static final int SCALE = 2;
+
+  private final Cell[] cells;
+  private final int mask;
+
+  public StripedPriceStatistics() {
+    this(DEFAULT_STRIPES);
+  }
+
+  /**
+   * @param stripes количество ячеек счётчиков, округляется вверх до степени двойки
+   * @throws IllegalArgumentException если количество ячеек не положительное
+   */
+  public StripedPriceStatistics(int stripes) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Stripes count must be positive: " + stripes);
+    }
+    int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.cells = new Cell[size];
+    for (int i = 0; i < size; i++) {
+      cells[i] = new Cell();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * Учитывает изменение продукта. Изменения одного продукта должны передаваться
+   * последовательно, в порядке записи
+   *
+   * @param before состояние до изменения, null если продукт создан
+   * @param after состояние после изменения, null если продукт удалён
+   */
+  public void update(Product before, Product after) {
+    BigDecimal removed = before == null ? null : before.getPrice();
+    BigDecimal added = after == null ? null : after.getPrice();
+    if (removed == null && added == null
+        || removed != null && added != null && removed.compareTo(added) == 0) {
+      return;
+    }
+    Cell cell = cells[stripe(after == null ? before.getUuid() : after.getUuid())];
+    synchronized (cell) {
+      if (added != null) {
+        cell.count++;
+        cell.sum = cell.sum.add(added);
+        cell.prices.merge(added, 1L, Long::sum);
+        cell.buckets[index(added)]++;
+      }
+      if (removed != null) {
+        cell.count--;
+        cell.sum = cell.sum.subtract(removed);
+        cell.prices.computeIfPresent(removed, (price, count) -> count == 1 ? null : count - 1);
+        cell.buckets[index(removed)]--;
+      }
+    }
+  }
+
+  @Override
+  public PriceSummary summary() {
+    long count = 0;
+    BigDecimal sum = BigDecimal.ZERO;
+    BigDecimal min = null;
+    BigDecimal max = null;
+    for (Cell cell : cells) {
+      synchronized (cell) {
+        count += cell.count;
+        sum = sum.add(cell.sum);
+        if (!cell.prices.isEmpty()) {
+          min = min(min, cell.prices.firstKey());
+          max = max(max, cell.prices.lastKey());
+        }
+      }
+    }
+    if (count == 0) {
+      return new PriceSummary(count, null, null, sum);
+    }
+    return new PriceSummary(count, min, max, sum);
+  }
+
+  @Override
+  public List<PriceBucket> histogram() {
+    long[] buckets = new long[LogHistogram.BUCKETS];
+    for (Cell cell : cells) {
+      synchronized (cell) {
+        for (int i = 0; i < buckets.length; i++) {
+          buckets[i] += cell.buckets[i];
+        }
+      }
+    }
+    List<PriceBucket> histogram = new ArrayList<>();
+    for (int i = 0; i < buckets.length; i++) {
+      long count = buckets[i];
+      if (count > 0) {
+        long from = i == 0 ? 0 : LogHistogram.upperBound(i - 1) + 1;
+        histogram.add(
+            new PriceBucket(
+                BigDecimal.valueOf(from, SCALE),
+                BigDecimal.valueOf(LogHistogram.upperBound(i), SCALE),
+                count));
+      }
+    }
+    return histogram;
+  }
+
+  private int stripe(UUID uuid) {
+    int hash = Objects.hashCode(uuid);
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static BigDecimal min(BigDecimal current, BigDecimal candidate) {
+    return current == null || candidate.compareTo(current) < 0 ? candidate : current;
+  }
+
+  private static BigDecimal max(BigDecimal current, BigDecimal candidate) {
+    return current == null || candidate.compareTo(current) > 0 ? candidate : current;
+  }
+
+  /** Корзина цены в копейках с округлением вверх, неположительные цены попадают в нулевую */
+  private static int index(BigDecimal price) {
+    BigDecimal kopecks = price.movePointRight(SCALE).setScale(0, RoundingMode.CEILING);
+    if (kopecks.signum() <= 0) {
+      return 0;
+    }
+    return LogHistogram.index(
+        kopecks.toBigInteger().bitLength() < Long.SIZE ? kopecks.longValue() : Long.MAX_VALUE);
+  }
+
+  private static final class Cell {
+
+    private final TreeMap<BigDecimal, Long> prices = new TreeMap<>();
+    private final long[] buckets = new long[LogHistogram.BUCKETS];
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+  }
+}
@@ -0,0 +1,17 @@
+package ru.clevertec.product.query;
+
+/** Способ, которым хранилище перебирает кандидатов запроса */
+public enum AccessPath {
+
+  /** Перебор всех продуктов, каждое условие проверяется на лету */
+  FULL_SCAN,
+
+  /** Диапазон индекса цены */
+  PRICE_INDEX,
+
+  /** Диапазон индекса даты создания */
+  CREATED_INDEX,
+
+  /** Пересечение списков полнотекстового индекса */
+  TEXT_INDEX
+}
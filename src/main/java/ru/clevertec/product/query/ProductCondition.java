@@ -0,0 +1,115 @@
+package ru.clevertec.product.query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.search.Tokenizer;
+
+/**
+ * Условие отбора продуктов в {@link ProductQuery}. Набор условий закрыт: планировщик хранилища
+ * знает каждое из них и выбирает по нему индекс, остальные условия проверяются на лету.
+ */
+public sealed interface ProductCondition {
+
+  /**
+   * @param product проверяемый продукт
+   * @return true если продукт удовлетворяет условию
+   */
+  boolean test(Product product);
+
+  /**
+   * @param words слова, каждое должно совпасть со словом или началом слова названия
+   * @throws IllegalArgumentException если слова null
+   */
+  static ProductCondition nameMatches(String words) {
+    return new NameMatches(words);
+  }
+
+  /**
+   * @param words слова, каждое должно совпасть со словом или началом слова описания
+   * @throws IllegalArgumentException если слова null
+   */
+  static ProductCondition descriptionMatches(String words) {
+    return new DescriptionMatches(words);
+  }
+
+  /**
+   * @param from нижняя граница цены включительно, null - без границы
+   * @param to верхняя граница цены включительно, null - без границы
+   */
+  static ProductCondition priceBetween(BigDecimal from, BigDecimal to) {
+    return new PriceBetween(from, to);
+  }
+
+  /**
+   * @param from начало промежутка включительно, null - без границы
+   * @param to конец промежутка включительно, null - без границы
+   */
+  static ProductCondition createdBetween(LocalDateTime from, LocalDateTime to) {
+    return new CreatedBetween(from, to);
+  }
+
+  record NameMatches(String words) implements ProductCondition {
+
+    public NameMatches {
+      if (words == null) {
+        throw new IllegalArgumentException("Words must not be null");
+      }
+    }
+
+    @Override
+    public boolean test(Product product) {
+      return matches(product.getName(), words);
+    }
+  }
+
+  record DescriptionMatches(String words) implements ProductCondition {
+
+    public DescriptionMatches {
+      if (words == null) {
+        throw new IllegalArgumentException("Words must not be null");
+      }
+    }
+
+    @Override
+    public boolean test(Product product) {
+      return matches(product.getDescription(), words);
+    }
+  }
+
+  /** Продукт без цены не попадает ни в какой диапазон */
+  record PriceBetween(BigDecimal from, BigDecimal to) implements ProductCondition {
+
+    @Override
+    public boolean test(Product product) {
+      BigDecimal price = product.getPrice();
+      return price != null
+          && (from == null || price.compareTo(from) >= 0)
+          && (to == null || price.compareTo(to) <= 0);
+    }
+  }
+
+  /** Продукт без даты создания не попадает ни в какой промежуток */
+  record CreatedBetween(LocalDateTime from, LocalDateTime to) implements ProductCondition {
+
+    @Override
+    public boolean test(Product product) {
+      LocalDateTime created = product.getCreated();
+      return created != null
+          && (from == null || !created.isBefore(from))
+          && (to == null || !created.isAfter(to));
+    }
+  }
+
+  /** Та же нормализация слов, что у полнотекстового индекса, но по одному полю */
+  private static boolean matches(String text, String words) {
+    List<String> tokens = Tokenizer.tokenize(text);
+    for (String word : Tokenizer.tokenize(words)) {
+      if (tokens.stream().noneMatch(token -> token.startsWith(word))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,132 @@
+package ru.clevertec.product.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Неизменяемая спецификация запроса к хранилищу: условия, объединённые через И, сортировка и
+ * лимит. Каждый метод построения возвращает новый запрос, поэтому общую часть можно
+ * переиспользовать.
+ *
+ * <pre>{@code
+ * ProductQuery query =
+ *     ProductQuery.where(priceBetween(from, to), nameMatches("ноут"))
+ *         .orderBy(SortField.PRICE)
+ *         .withLimit(10);
+ * }</pre>
+ *
+ * <p>Продукты без значения поля сортировки идут в конце в любом направлении, равные значения
+ * упорядочиваются по идентификатору в том же направлении.
+ *
+ * @param conditions условия отбора, пустой список - все продукты
+ * @param sortBy поле сортировки, null - порядок не важен
+ * @param descending true для сортировки по убыванию
+ * @param limit максимальное количество результатов, {@link #NO_LIMIT} - без ограничения
+ */
+public record ProductQuery(
+    List<ProductCondition> conditions, SortField sortBy, boolean descending, int limit) {
+
+  public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+  /**
+   * @throws IllegalArgumentException если условия или одно из них null, limit не положительный
+   *     или задано убывание без поля сортировки
+   */
+  public ProductQuery {
+    if (conditions == null || conditions.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Conditions must not be null");
+    }
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Query limit must be positive: " + limit);
+    }
+    if (descending && sortBy == null) {
+      throw new IllegalArgumentException("Descending order requires a sort field");
+    }
+    conditions = List.copyOf(conditions);
+  }
+
+  /**
+   * @return запрос всех продуктов без сортировки и лимита
+   */
+  public static ProductQuery all() {
+    return new ProductQuery(List.of(), null, false, NO_LIMIT);
+  }
+
+  /**
+   * @param conditions условия, которым должен удовлетворять каждый продукт
+   * @return запрос без сортировки и лимита
+   */
+  public static ProductQuery where(ProductCondition... conditions) {
+    if (conditions == null) {
+      throw new IllegalArgumentException("Conditions must not be null");
+    }
+    return new ProductQuery(Arrays.asList(conditions), null, false, NO_LIMIT);
+  }
+
+  /**
+   * @param condition дополнительное условие
+   * @return запрос с условием, добавленным через И
+   */
+  public ProductQuery and(ProductCondition condition) {
+    List<ProductCondition> extended = new ArrayList<>(conditions);
+    extended.add(condition);
+    return new ProductQuery(extended, sortBy, descending, limit);
+  }
+
+  public ProductQuery orderBy(SortField field) {
+    return new ProductQuery(conditions, field, false, limit);
+  }
+
+  public ProductQuery orderByDescending(SortField field) {
+    return new ProductQuery(conditions, field, true, limit);
+  }
+
+  public ProductQuery withLimit(int limit) {
+    return new ProductQuery(conditions, sortBy, descending, limit);
+  }
+
+  /**
+   * @param product проверяемый продукт
+   * @return true если продукт удовлетворяет всем условиям
+   */
+  public boolean test(Product product) {
+    for (ProductCondition condition : conditions) {
+      if (!condition.test(product)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return порядок результата, null если сортировка не задана
+   */
+  public Comparator<Product> comparator() {
+    if (sortBy == null) {
+      return null;
+    }
+    return switch (sortBy) {
+      case ID -> by(Product::getUuid);
+      case NAME -> by(Product::getName).thenComparing(by(Product::getUuid));
+      case PRICE -> by(Product::getPrice).thenComparing(by(Product::getUuid));
+      case CREATED -> by(Product::getCreated).thenComparing(by(Product::getUuid));
+    };
+  }
+
+  /**
+   * @return true если задан лимит
+   */
+  public boolean limited() {
+    return limit != NO_LIMIT;
+  }
+
+  private <K extends Comparable<? super K>> Comparator<Product> by(Function<Product, K> key) {
+    Comparator<K> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+    return Comparator.comparing(key, Comparator.nullsLast(order));
+  }
+}
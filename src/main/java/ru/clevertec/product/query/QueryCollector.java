@@ -0,0 +1,69 @@
+package ru.clevertec.product.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Собирает результат {@link ProductQuery} из перебираемых кандидатов. Без сортировки или при
+ * кандидатах, уже идущих в нужном порядке, перебор останавливается на лимите. Иначе лучшие
+ * limit продуктов держатся в куче: память O(limit), а не O(кандидатов).
+ */
+public final class QueryCollector {
+
+  private final ProductQuery query;
+  private final Comparator<Product> order;
+  private final List<Product> found = new ArrayList<>();
+  private final PriorityQueue<Product> heap;
+  private long examined;
+
+  /**
+   * @param query выполняемый запрос
+   * @param ordered true если кандидаты приходят в порядке сортировки запроса
+   */
+  public QueryCollector(ProductQuery query, boolean ordered) {
+    this.query = query;
+    this.order = ordered ? null : query.comparator();
+    this.heap = order != null && query.limited() ? new PriorityQueue<>(order.reversed()) : null;
+  }
+
+  /**
+   * @param product очередной кандидат, не null
+   * @return false если результат полон и перебор можно остановить
+   */
+  public boolean offer(Product product) {
+    examined++;
+    if (!query.test(product)) {
+      return true;
+    }
+    if (heap != null) {
+      heap.add(product);
+      if (heap.size() > query.limit()) {
+        heap.poll();
+      }
+      return true;
+    }
+    found.add(product);
+    return order != null || found.size() < query.limit();
+  }
+
+  /**
+   * @return количество кандидатов, переданных в {@link #offer(Product)}
+   */
+  public long examined() {
+    return examined;
+  }
+
+  /**
+   * @return найденные продукты в порядке запроса
+   */
+  public List<Product> result() {
+    List<Product> result = heap != null ? new ArrayList<>(heap) : found;
+    if (order != null) {
+      result.sort(order);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,36 @@
+package ru.clevertec.product.query;
+
+import java.util.List;
+
+/**
+ * План выполнения {@link ProductQuery}
+ *
+ * @param access способ перебора кандидатов
+ * @param estimatedRows оценка количества кандидатов сверху
+ * @param ordered true если кандидаты приходят уже в порядке сортировки запроса и перебор
+ *     останавливается на лимите
+ * @param residual условия, проверяемые на каждом кандидате
+ */
+public record QueryPlan(
+    AccessPath access, long estimatedRows, boolean ordered, List<ProductCondition> residual) {
+
+  public QueryPlan {
+    residual = List.copyOf(residual);
+  }
+
+  /**
+   * @param rows количество продуктов хранилища
+   * @param query выполняемый запрос
+   * @return план перебора всех продуктов
+   */
+  public static QueryPlan scanAll(long rows, ProductQuery query) {
+    return new QueryPlan(AccessPath.FULL_SCAN, rows, false, query.conditions());
+  }
+
+  /**
+   * @return true если ни один индекс не сузил перебор
+   */
+  public boolean fullScan() {
+    return access == AccessPath.FULL_SCAN;
+  }
+}
@@ -0,0 +1,15 @@
+package ru.clevertec.product.query;
+
+import java.util.List;
+import ru.clevertec.product.entity.Product;
+
+public record QueryResult(
+
+    /** Найденные продукты в порядке сортировки запроса, не больше лимита */
+    List<Product> products,
+
+    /** Выбранный план */
+    QueryPlan plan,
+
+    /** Количество продуктов, на которых проверялись условия */
+    long examined) {}
@@ -0,0 +1,14 @@
+package ru.clevertec.product.query;
+
+/** Поле сортировки результата {@link ProductQuery} */
+public enum SortField {
+
+  /** Идентификатор, совпадает с порядком постраничного чтения */
+  ID,
+
+  NAME,
+
+  PRICE,
+
+  CREATED
+}
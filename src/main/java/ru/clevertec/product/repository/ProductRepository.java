@@ -1,9 +1,19 @@
 package ru.clevertec.product.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryCollector;
+import ru.clevertec.product.query.QueryPlan;
+import ru.clevertec.product.query.QueryResult;
 
 public interface ProductRepository {
 
@@ -31,10 +41,154 @@ public interface ProductRepository {
    */
   Product save(Product product);
 
+  /**
+   * Обновляет существующий продукт, только если его текущая версия равна ожидаемой
+   * (compare-and-set). Сохранённый продукт получает версию expectedVersion + 1
+   *
+   * @param product новое состояние продукта с идентификатором
+   * @param expectedVersion версия, прочитанная перед изменением
+   * @return сохранённый продукт, Optional.empty() если продукт удалён или версия уже другая
+   * @throws IllegalArgumentException если продукт или его идентификатор null
+   */
+  Optional<Product> saveIfVersion(Product product, long expectedVersion);
+
   /**
    * Удаляет продукт из памяти по идентификатору
    *
    * @param uuid идентификатор продукта
    */
   void delete(UUID uuid);
+
+  /**
+   * Сохраняет или обновляет пачку продуктов. Реализация по умолчанию сохраняет их по одному,
+   * хранилища с сегментами синхронизируются один раз на сегмент
+   *
+   * @param products сохраняемые продукты
+   * @return сохранённые продукты в порядке передачи
+   * @throws IllegalArgumentException если пачка или один из продуктов null
+   */
+  default List<Product> saveAll(Collection<Product> products) {
+    if (products == null) {
+      throw new IllegalArgumentException("Products must not be null");
+    }
+    return products.stream().map(this::save).toList();
+  }
+
+  /**
+   * Удаляет продукты по идентификаторам, неизвестные и null идентификаторы пропускаются
+   *
+   * @param uuids идентификаторы продуктов
+   */
+  default void deleteAll(Collection<UUID> uuids) {
+    if (uuids != null) {
+      uuids.forEach(this::delete);
+    }
+  }
+
+  /**
+   * Возвращает страницу продуктов по возрастанию идентификатора (keyset-пагинация). Реализация
+   * по умолчанию сортирует весь каталог, хранилища с упорядоченным индексом читают только
+   * страницу
+   *
+   * @param after идентификатор последнего продукта предыдущей страницы, null - с начала
+   * @param limit максимальный размер страницы
+   * @return продукты с идентификатором больше after, не больше limit штук
+   * @throws IllegalArgumentException если limit не положительный
+   */
+  default List<Product> findPage(UUID after, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+    return findAll().stream()
+        .filter(product -> after == null || product.getUuid().compareTo(after) > 0)
+        .sorted(Comparator.comparing(Product::getUuid))
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Ищет продукты с ценой в диапазоне [from, to]. Реализация по умолчанию просматривает все
+   * продукты, хранилища с индексом отвечают за O(log n + k)
+   *
+   * @param from нижняя граница цены включительно, null - без границы
+   * @param to верхняя граница цены включительно, null - без границы
+   * @return продукты по возрастанию цены
+   */
+  default List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+    return findAll().stream()
+        .filter(product -> product.getPrice() != null)
+        .filter(product -> from == null || product.getPrice().compareTo(from) >= 0)
+        .filter(product -> to == null || product.getPrice().compareTo(to) <= 0)
+        .sorted(Comparator.comparing(Product::getPrice))
+        .toList();
+  }
+
+  /**
+   * Ищет продукты, созданные в промежутке [from, to]. Реализация по умолчанию просматривает все
+   * продукты, хранилища с индексом отвечают за O(log n + k)
+   *
+   * @param from начало промежутка включительно, null - без границы
+   * @param to конец промежутка включительно, null - без границы
+   * @return продукты по возрастанию даты создания
+   */
+  default List<Product> findByCreatedBetween(LocalDateTime from, LocalDateTime to) {
+    return findAll().stream()
+        .filter(product -> product.getCreated() != null)
+        .filter(product -> from == null || !product.getCreated().isBefore(from))
+        .filter(product -> to == null || !product.getCreated().isAfter(to))
+        .sorted(Comparator.comparing(Product::getCreated))
+        .toList();
+  }
+
+  /**
+   * Полнотекстовый поиск по названию и описанию: каждое слово запроса должно совпасть со словом
+   * или началом слова. Хранилища с постоянным индексом обновляют его при каждой записи,
+   * остальные строят временный индекс по каталогу
+   *
+   * @param query слова запроса
+   * @param limit максимальное количество результатов
+   * @return продукты по убыванию релевантности
+   * @throws IllegalArgumentException если запрос null или limit не положительный
+   */
+  List<Product> search(String query, int limit);
+
+  /**
+   * Выполняет запрос по спецификации: условия, сортировка и лимит. Реализация по умолчанию
+   * просматривает весь каталог и всегда сообщает полный перебор, хранилища с индексами выбирают
+   * самый селективный из них
+   *
+   * @param query спецификация запроса
+   * @return найденные продукты, выбранный план и количество проверенных продуктов
+   * @throws IllegalArgumentException если запрос null
+   */
+  default QueryResult query(ProductQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    List<Product> all = findAll();
+    QueryCollector collector = new QueryCollector(query, false);
+    for (Product product : all) {
+      if (!collector.offer(product)) {
+        break;
+      }
+    }
+    return new QueryResult(
+        collector.result(), QueryPlan.scanAll(all.size(), query), collector.examined());
+  }
+
+  /**
+   * Сводка и распределение цен каталога. Хранилища с постоянной статистикой обновляют её при
+   * каждой записи и отвечают без просмотра продуктов, остальные считают её заново по каталогу
+   *
+   * @return статистика цен
+   */
+  PriceStatistics priceStatistics();
+
+  /**
+   * Поток изменений хранилища для кэшей, индексов и внешних потребителей. Изменения
+   * публикуются без ожидания подписчиков, изменения одного продукта приходят в порядке записи
+   *
+   * @return поток созданий, обновлений и удалений продуктов
+   */
+  ProductChangeStream changes();
 }
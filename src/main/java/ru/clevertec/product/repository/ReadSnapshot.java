@@ -0,0 +1,39 @@
+package ru.clevertec.product.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Согласованный срез хранилища на момент открытия. Пока срез открыт, хранилище сохраняет
+ * нужные ему старые версии продуктов; после {@link #close()} они освобождаются.
+ */
+public interface ReadSnapshot extends AutoCloseable {
+
+  /**
+   * @return эпоха среза: видны все изменения с эпохой не больше этой и ни одного более позднего
+   */
+  long epoch();
+
+  /**
+   * Ищет продукт в состоянии на момент среза
+   *
+   * @param uuid идентификатор продукта
+   * @return Optional<Product> если продукт существовал на момент среза, иначе Optional.empty()
+   * @throws IllegalStateException если срез уже закрыт
+   */
+  Optional<Product> findById(UUID uuid);
+
+  /**
+   * Читает все продукты в состоянии на момент среза, не блокируя записи
+   *
+   * @return список продуктов среза
+   * @throws IllegalStateException если срез уже закрыт
+   */
+  List<Product> findAll();
+
+  /** Освобождает срез, повторный вызов ничего не делает */
+  @Override
+  void close();
+}
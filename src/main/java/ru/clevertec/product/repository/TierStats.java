@@ -0,0 +1,50 @@
+package ru.clevertec.product.repository;
+
+public record TierStats(
+
+    /** Чтений по идентификатору, найденных в памяти */
+    long hotHits,
+
+    /** Чтений по идентификатору, найденных на диске */
+    long coldHits,
+
+    /** Чтений по идентификатору, не найденных ни на одном уровне */
+    long misses,
+
+    /** Продуктов, вытесненных из памяти на диск */
+    long evictions,
+
+    /** Продуктов, поднятых с диска в память после повторного чтения */
+    long promotions,
+
+    /** Продуктов в памяти */
+    long hotProducts,
+
+    /** Продуктов на диске */
+    long coldProducts,
+
+    /** Оценка байт на куче, занятых продуктами в памяти */
+    long hotBytes,
+
+    /** Байт на куче, занятых индексом дискового уровня */
+    long coldIndexBytes,
+
+    /** Байт файла дискового уровня, включая ещё не сжатые мёртвые записи */
+    long coldFileBytes) {
+
+  /**
+   * @return доля чтений, найденных в памяти, 1.0 если чтений не было
+   */
+  public double hotHitRate() {
+    long requests = hotHits + coldHits + misses;
+    return requests == 0 ? 1.0 : (double) hotHits / requests;
+  }
+
+  /**
+   * @return доля найденных на диске среди чтений, дошедших до диска, 1.0 если таких не было
+   */
+  public double coldHitRate() {
+    long requests = coldHits + misses;
+    return requests == 0 ? 1.0 : (double) coldHits / requests;
+  }
+}
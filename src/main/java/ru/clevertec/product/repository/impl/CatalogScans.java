@@ -0,0 +1,52 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.impl.StripedPriceStatistics;
+import ru.clevertec.product.search.SearchHit;
+import ru.clevertec.product.search.impl.InvertedIndex;
+
+/**
+ * Поиск и статистика цен по готовому набору продуктов для хранилищ без постоянного индекса:
+ * структуры строятся заново при каждом вызове.
+ */
+final class CatalogScans {
+
+  private CatalogScans() {}
+
+  /**
+   * Строит временный полнотекстовый индекс по продуктам и ищет в нём
+   *
+   * @param products продукты с различными UUID
+   * @return продукты по убыванию релевантности
+   * @throws IllegalArgumentException если запрос null или limit не положительный
+   */
+  static List<Product> search(Collection<Product> products, String query, int limit) {
+    InvertedIndex index = new InvertedIndex();
+    Map<UUID, Product> byUuid = new HashMap<>();
+    if (query != null && limit > 0) {
+      for (Product product : products) {
+        index.update(null, product);
+        byUuid.put(product.getUuid(), product);
+      }
+    }
+    return index.search(query, limit).stream().map(SearchHit::uuid).map(byUuid::get).toList();
+  }
+
+  /**
+   * @param products продукты с различными UUID
+   * @return сводка и распределение цен продуктов
+   */
+  static PriceStatistics priceStatistics(Collection<Product> products) {
+    StripedPriceStatistics statistics = new StripedPriceStatistics(1);
+    for (Product product : products) {
+      statistics.update(null, product);
+    }
+    return statistics;
+  }
+}
@@ -0,0 +1,376 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.event.impl.RingBufferChangeStream;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.repository.ProductRepository;
+
+/**
+ * Хранилище продуктов по колонкам из примитивных массивов.
+ *
+ * <p>UUID хранится парой long, цена - немасштабированным long и шкалой, дата создания -
+ * наносекундами эпохи UTC, название и описание - кодами общего {@link TextDictionary}: повторы
+ * хранятся один раз, а сами значения упакованы по 7 бит на символ. Объект {@link Product}
+ * собирается только по запросу, строки распаковываются там же. Удаление переносит последнюю
+ * строку на место удалённой.
+ *
+ * <p>Изменения публикуются в {@link #changes()} под блокировкой записи. Пока подписчиков нет,
+ * состояния продукта для публикации не собираются.
+ */
+public class ColumnarProductRepository implements ProductRepository {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final byte NULL_SCALE = Byte.MIN_VALUE;
+  private static final long NULL_CREATED = Long.MIN_VALUE;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private final StampedLock lock = new StampedLock();
+  private final UuidRowIndex index = new UuidRowIndex();
+  private final TextDictionary dictionary = new TextDictionary();
+  private final RingBufferChangeStream changes;
+
+  private long[] uuidMsb = new long[INITIAL_CAPACITY];
+  private long[] uuidLsb = new long[INITIAL_CAPACITY];
+  private long[] priceUnscaled = new long[INITIAL_CAPACITY];
+  private byte[] priceScale = new byte[INITIAL_CAPACITY];
+  private long[] created = new long[INITIAL_CAPACITY];
+  private long[] version = new long[INITIAL_CAPACITY];
+  private int[] name = new int[INITIAL_CAPACITY];
+  private int[] description = new int[INITIAL_CAPACITY];
+  private int size;
+
+  public ColumnarProductRepository() {
+    this(RingBufferChangeStream.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param changeCapacity ёмкость кольцевого буфера изменений
+   * @throws IllegalArgumentException если ёмкость буфера вне допустимых границ
+   */
+  public ColumnarProductRepository(int changeCapacity) {
+    this.changes = new RingBufferChangeStream(changeCapacity);
+  }
+
+  @Override
+  public Optional<Product> findById(UUID uuid) {
+    if (uuid == null) {
+      return Optional.empty();
+    }
+    long stamp = lock.readLock();
+    try {
+      int row = index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+      return row == UuidRowIndex.ABSENT ? Optional.empty() : Optional.of(materialize(row));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public List<Product> findAll() {
+    long stamp = lock.readLock();
+    try {
+      List<Product> products = new ArrayList<>(size);
+      for (int row = 0; row < size; row++) {
+        products.add(materialize(row));
+      }
+      return products;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public Product save(Product product) {
+    Row row = encode(product);
+    long stamp = lock.writeLock();
+    try {
+      return store(row);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public List<Product> saveAll(Collection<Product> products) {
+    if (products == null) {
+      throw new IllegalArgumentException("Products must not be null");
+    }
+    List<Row> rows = products.stream().map(ColumnarProductRepository::encode).toList();
+    long stamp = lock.writeLock();
+    try {
+      List<Product> saved = new ArrayList<>(rows.size());
+      for (Row row : rows) {
+        saved.add(store(row));
+      }
+      return saved;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public Optional<Product> saveIfVersion(Product product, long expectedVersion) {
+    if (product == null || product.getUuid() == null) {
+      throw new IllegalArgumentException("Product and its uuid must not be null");
+    }
+    Row row = encode(product.toBuilder().version(expectedVersion + 1).build());
+    long stamp = lock.writeLock();
+    try {
+      int current = index.get(row.msb(), row.lsb());
+      if (current == UuidRowIndex.ABSENT || version[current] != expectedVersion) {
+        return Optional.empty();
+      }
+      return Optional.of(store(row));
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    if (uuid == null) {
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      int row = index.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+      if (row == UuidRowIndex.ABSENT) {
+        return;
+      }
+      Product before = changes.hasSubscribers() ? materialize(row) : null;
+      dictionary.release(name[row]);
+      dictionary.release(description[row]);
+      int last = --size;
+      if (row != last) {
+        moveRow(last, row);
+        index.put(uuidMsb[row], uuidLsb[row], row);
+      }
+      if (before != null) {
+        changes.publish(before, null);
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** Постоянного индекса нет: временный индекс строится по всему каталогу */
+  @Override
+  public List<Product> search(String query, int limit) {
+    return CatalogScans.search(findAll(), query, limit);
+  }
+
+  /** Статистика считается заново по всему каталогу */
+  @Override
+  public PriceStatistics priceStatistics() {
+    return CatalogScans.priceStatistics(findAll());
+  }
+
+  @Override
+  public ProductChangeStream changes() {
+    return changes;
+  }
+
+  /**
+   * Возвращает количество байт, занятых колонками, индексом и словарём строк
+   *
+   * @return занятая память в байтах
+   */
+  public long footprintBytes() {
+    long stamp = lock.readLock();
+    try {
+      return footprint();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Средний объём памяти на один продукт, сравним с {@link
+   * InMemoryProductRepository#estimatedBytesPerProduct()}
+   *
+   * @return байт на продукт, 0 если хранилище пустое
+   */
+  public double bytesPerProduct() {
+    long stamp = lock.readLock();
+    try {
+      return size == 0 ? 0 : (double) footprint() / size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * @return количество различных названий и описаний в словаре
+   */
+  public int distinctTexts() {
+    long stamp = lock.readLock();
+    try {
+      return dictionary.size();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** Вызывается под блокировкой: StampedLock не реентерабелен, повторный readLock может ждать */
+  private long footprint() {
+    long rowBytes = 5L * Long.BYTES + 2L * Integer.BYTES + Byte.BYTES;
+    return uuidMsb.length * rowBytes + dictionary.footprintBytes() + index.footprintBytes();
+  }
+
+  /** Записывает строку и публикует изменение, вызывается под блокировкой записи */
+  private Product store(Row source) {
+    boolean publishing = changes.hasSubscribers();
+    int current = publishing ? index.get(source.msb(), source.lsb()) : UuidRowIndex.ABSENT;
+    Product before = current == UuidRowIndex.ABSENT ? null : materialize(current);
+    int row = write(source);
+    if (publishing) {
+      changes.publish(before, materialize(row));
+    }
+    return materialize(row);
+  }
+
+  private int write(Row source) {
+    int row = index.get(source.msb(), source.lsb());
+    int previousName = TextDictionary.NULL;
+    int previousDescription = TextDictionary.NULL;
+    if (row == UuidRowIndex.ABSENT) {
+      ensureCapacity(size + 1);
+      row = size++;
+      index.put(source.msb(), source.lsb(), row);
+    } else {
+      previousName = name[row];
+      previousDescription = description[row];
+    }
+    uuidMsb[row] = source.msb();
+    uuidLsb[row] = source.lsb();
+    priceUnscaled[row] = source.unscaled();
+    priceScale[row] = source.scale();
+    created[row] = source.createdNanos();
+    version[row] = source.version();
+    name[row] = dictionary.acquire(source.name());
+    description[row] = dictionary.acquire(source.description());
+    dictionary.release(previousName);
+    dictionary.release(previousDescription);
+    return row;
+  }
+
+  private Product materialize(int row) {
+    return Product.builder()
+        .uuid(new UUID(uuidMsb[row], uuidLsb[row]))
+        .name(dictionary.decode(name[row]))
+        .description(dictionary.decode(description[row]))
+        .price(
+            priceScale[row] == NULL_SCALE
+                ? null
+                : BigDecimal.valueOf(priceUnscaled[row], priceScale[row]))
+        .created(
+            created[row] == NULL_CREATED
+                ? null
+                : LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(created[row], NANOS_PER_SECOND),
+                    (int) Math.floorMod(created[row], NANOS_PER_SECOND),
+                    ZoneOffset.UTC))
+        .version(version[row])
+        .build();
+  }
+
+  private void moveRow(int from, int to) {
+    uuidMsb[to] = uuidMsb[from];
+    uuidLsb[to] = uuidLsb[from];
+    priceUnscaled[to] = priceUnscaled[from];
+    priceScale[to] = priceScale[from];
+    created[to] = created[from];
+    version[to] = version[from];
+    name[to] = name[from];
+    description[to] = description[from];
+  }
+
+  private void ensureCapacity(int required) {
+    if (required <= uuidMsb.length) {
+      return;
+    }
+    int capacity = Math.max(required, uuidMsb.length + (uuidMsb.length >> 1));
+    uuidMsb = Arrays.copyOf(uuidMsb, capacity);
+    uuidLsb = Arrays.copyOf(uuidLsb, capacity);
+    priceUnscaled = Arrays.copyOf(priceUnscaled, capacity);
+    priceScale = Arrays.copyOf(priceScale, capacity);
+    created = Arrays.copyOf(created, capacity);
+    version = Arrays.copyOf(version, capacity);
+    name = Arrays.copyOf(name, capacity);
+    description = Arrays.copyOf(description, capacity);
+  }
+
+  private static Row encode(Product product) {
+    if (product == null) {
+      throw new IllegalArgumentException("Product must not be null");
+    }
+    if (product.getUuid() == null) {
+      product.setUuid(UUID.randomUUID());
+    }
+    return new Row(
+        product.getUuid().getMostSignificantBits(),
+        product.getUuid().getLeastSignificantBits(),
+        unscaled(product.getPrice()),
+        scale(product.getPrice()),
+        epochNanos(product.getCreated()),
+        product.getVersion(),
+        TextDictionary.key(product.getName()),
+        TextDictionary.key(product.getDescription()));
+  }
+
+  private static long unscaled(BigDecimal price) {
+    if (price == null) {
+      return 0;
+    }
+    BigInteger unscaled = price.unscaledValue();
+    if (unscaled.bitLength() >= Long.SIZE) {
+      throw new IllegalArgumentException("Price does not fit into long: " + price);
+    }
+    return unscaled.longValue();
+  }
+
+  private static byte scale(BigDecimal price) {
+    if (price == null) {
+      return NULL_SCALE;
+    }
+    if (price.scale() <= NULL_SCALE || price.scale() > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Price scale is out of range: " + price);
+    }
+    return (byte) price.scale();
+  }
+
+  private static long epochNanos(LocalDateTime dateTime) {
+    if (dateTime == null) {
+      return NULL_CREATED;
+    }
+    try {
+      return Math.addExact(
+          Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+          dateTime.getNano());
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Creation time is out of range: " + dateTime, e);
+    }
+  }
+
+  private record Row(
+      long msb,
+      long lsb,
+      long unscaled,
+      byte scale,
+      long createdNanos,
+      long version,
+      TextDictionary.Key name,
+      TextDictionary.Key description) {}
+}
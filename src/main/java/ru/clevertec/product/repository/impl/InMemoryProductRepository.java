@@ -1,28 +1,637 @@
 package ru.clevertec.product.repository.impl;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.event.impl.RingBufferChangeStream;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.impl.StripedPriceStatistics;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
 import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.ReadSnapshot;
+import ru.clevertec.product.search.SearchHit;
+import ru.clevertec.product.search.impl.InvertedIndex;
+import ru.clevertec.product.util.HeapFootprint;
 
+/**
+ * Потокобезопасное хранилище продуктов в памяти.
+ *
+ * <p>Чтение по идентификатору идёт без блокировок. Запись берёт блокировку только своего
+ * сегмента (stripe), поэтому записи разных UUID не конкурируют между собой.
+ *
+ * <p>{@link #findAll()} и {@link #openSnapshot()} читают многоверсионный срез (MVCC). Каждая
+ * запись получает эпоху из общего счётчика, читатель закрепляет текущую эпоху и видит для
+ * каждого продукта последнюю версию не новее неё. Пока закреплён хоть один читатель, запись
+ * не затирает прежнюю версию, а цепляет её к новой, удаление оставляет надгробие. Писатели
+ * никогда не ждут читателей; читатель при открытии ждёт лишь завершения записей, уже
+ * получивших эпоху, по нечётному счётчику сегмента (seqlock). Версии, которые не видит ни
+ * один закреплённый читатель, обрезаются при закрытии среза.
+ *
+ * <p>Пакетные операции группируют элементы по сегментам и берут каждую блокировку один раз.
+ * Условное сохранение сверяет версию под той же блокировкой, поэтому конкурирующие обновления
+ * одного продукта не теряются, а обновления других продуктов их не ждут.
+ *
+ * <p>Упорядоченный набор идентификаторов для постраничного чтения, вторичные индексы по цене и
+ * дате создания, полнотекстовый индекс и статистика цен обновляются под той же блокировкой
+ * сегмента. Там же изменение публикуется в {@link #changes()}: хранимые экземпляры после записи
+ * не меняются, поэтому в кольцевой буфер попадают ссылки на них без копирования. По тем же
+ * индексам {@link #query(ProductQuery)} выбирает способ перебора кандидатов. Записи нового ключа
+ * попадают в индексы цены и даты до публикации продукта, а старые удаляются после неё, поэтому
+ * диапазонный запрос не теряет продукт, ключ которого меняется.
+ */
 public class InMemoryProductRepository implements ProductRepository {
 
+  private static final int DEFAULT_STRIPES = 64;
+  private static final long PENDING = Long.MAX_VALUE;
+  private static final long REVISION_BYTES =
+      HeapFootprint.object(2 * HeapFootprint.REFERENCE + Long.BYTES);
+
+  private final ConcurrentHashMap<UUID, Revision> products = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListSet<UUID> ids = new ConcurrentSkipListSet<>();
+  private final SortedIndex<BigDecimal> priceIndex = new SortedIndex<>(Product::getPrice);
+  private final SortedIndex<LocalDateTime> createdIndex = new SortedIndex<>(Product::getCreated);
+  private final InvertedIndex textIndex = new InvertedIndex();
+  private final StripedPriceStatistics priceStatistics = new StripedPriceStatistics();
+  private final QueryPlanner planner =
+      new QueryPlanner(
+          ids, priceIndex, createdIndex, textIndex, this::latest, products::mappingCount);
+  private final ReentrantLock[] locks;
+  private final AtomicLongArray versions;
+  private final int mask;
+  private final RingBufferChangeStream changes;
+  private final AtomicLong epoch = new AtomicLong();
+  private final AtomicInteger readers = new AtomicInteger();
+  private final Set<PinnedSnapshot> pins = ConcurrentHashMap.newKeySet();
+  private final Set<UUID> retired = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean reclaiming = new AtomicBoolean();
+
+  public InMemoryProductRepository() {
+    this(DEFAULT_STRIPES);
+  }
+
+  /**
+   * @param stripes количество сегментов блокировок, округляется вверх до степени двойки
+   * @throws IllegalArgumentException если количество сегментов не положительное
+   */
+  public InMemoryProductRepository(int stripes) {
+    this(stripes, RingBufferChangeStream.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param stripes количество сегментов блокировок, округляется вверх до степени двойки
+   * @param changeCapacity ёмкость кольцевого буфера изменений
+   * @throws IllegalArgumentException если количество сегментов не положительное или ёмкость
+   *     буфера вне допустимых границ
+   */
+  public InMemoryProductRepository(int stripes, int changeCapacity) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Stripes count must be positive: " + stripes);
+    }
+    int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.locks = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.versions = new AtomicLongArray(size);
+    this.mask = size - 1;
+    this.changes = new RingBufferChangeStream(changeCapacity);
+  }
+
   @Override
   public Optional<Product> findById(UUID uuid) {
-    return Optional.empty();
+    if (uuid == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(latest(uuid)).map(InMemoryProductRepository::copy);
   }
 
   @Override
   public List<Product> findAll() {
-    return null;
+    try (ReadSnapshot snapshot = openSnapshot()) {
+      return snapshot.findAll();
+    }
+  }
+
+  /**
+   * Закрепляет текущую эпоху. Срез нужно закрыть, иначе старые версии продуктов, изменённых
+   * после открытия, будут храниться до закрытия
+   *
+   * @return согласованный срез хранилища, не блокирующий записи
+   */
+  public ReadSnapshot openSnapshot() {
+    PinnedSnapshot snapshot = new PinnedSnapshot();
+    readers.incrementAndGet();
+    pins.add(snapshot);
+    snapshot.pinnedEpoch = epoch.get();
+    awaitStripes();
+    return snapshot;
   }
 
   @Override
   public Product save(Product product) {
-    return null;
+    if (product == null) {
+      throw new IllegalArgumentException("Product must not be null");
+    }
+    if (product.getUuid() == null) {
+      product.setUuid(UUID.randomUUID());
+    }
+    Product stored = copy(product);
+    int stripe = stripe(stored.getUuid());
+    ReentrantLock lock = locks[stripe];
+    lock.lock();
+    try {
+      Product previous = latest(stored.getUuid());
+      addIndexEntries(previous, stored);
+      versions.incrementAndGet(stripe);
+      install(stored.getUuid(), stored, epoch.incrementAndGet());
+      versions.incrementAndGet(stripe);
+      updateIndexes(previous, stored);
+    } finally {
+      lock.unlock();
+    }
+    return copy(stored);
+  }
+
+  @Override
+  public Optional<Product> saveIfVersion(Product product, long expectedVersion) {
+    if (product == null || product.getUuid() == null) {
+      throw new IllegalArgumentException("Product and its uuid must not be null");
+    }
+    Product stored = copy(product);
+    stored.setVersion(expectedVersion + 1);
+    int stripe = stripe(stored.getUuid());
+    ReentrantLock lock = locks[stripe];
+    lock.lock();
+    try {
+      Product previous = latest(stored.getUuid());
+      if (previous == null || previous.getVersion() != expectedVersion) {
+        return Optional.empty();
+      }
+      addIndexEntries(previous, stored);
+      versions.incrementAndGet(stripe);
+      install(stored.getUuid(), stored, epoch.incrementAndGet());
+      versions.incrementAndGet(stripe);
+      updateIndexes(previous, stored);
+    } finally {
+      lock.unlock();
+    }
+    return Optional.of(copy(stored));
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    if (uuid == null) {
+      return;
+    }
+    int stripe = stripe(uuid);
+    ReentrantLock lock = locks[stripe];
+    lock.lock();
+    try {
+      if (latest(uuid) != null) {
+        versions.incrementAndGet(stripe);
+        Product previous = install(uuid, null, epoch.incrementAndGet());
+        versions.incrementAndGet(stripe);
+        updateIndexes(previous, null);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<Product> saveAll(Collection<Product> batch) {
+    if (batch == null) {
+      throw new IllegalArgumentException("Products must not be null");
+    }
+    Product[] stored = new Product[batch.size()];
+    int i = 0;
+    for (Product product : batch) {
+      if (product == null) {
+        throw new IllegalArgumentException("Product must not be null");
+      }
+      if (product.getUuid() == null) {
+        product.setUuid(UUID.randomUUID());
+      }
+      stored[i++] = copy(product);
+    }
+    applyByStripe(
+        stored,
+        Product::getUuid,
+        (product, revision) -> {
+          Product previous = latest(product.getUuid());
+          addIndexEntries(previous, product);
+          install(product.getUuid(), product, revision);
+          updateIndexes(previous, product);
+        });
+    return Arrays.stream(stored).map(InMemoryProductRepository::copy).toList();
+  }
+
+  @Override
+  public void deleteAll(Collection<UUID> uuids) {
+    if (uuids == null) {
+      return;
+    }
+    UUID[] existing =
+        uuids.stream().filter(uuid -> uuid != null && latest(uuid) != null).toArray(UUID[]::new);
+    applyByStripe(
+        existing,
+        Function.identity(),
+        (uuid, revision) -> {
+          Product previous = latest(uuid) == null ? null : install(uuid, null, revision);
+          if (previous != null) {
+            updateIndexes(previous, null);
+          }
+        });
+  }
+
+  @Override
+  public List<Product> findPage(UUID after, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+    List<Product> page = new ArrayList<>(Math.min(limit, products.size()));
+    Iterable<UUID> tail = after == null ? ids : ids.tailSet(after, false);
+    for (UUID uuid : tail) {
+      Product product = latest(uuid);
+      if (product != null) {
+        page.add(copy(product));
+        if (page.size() == limit) {
+          break;
+        }
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+    return findInRange(priceIndex, from, to);
+  }
+
+  @Override
+  public List<Product> findByCreatedBetween(LocalDateTime from, LocalDateTime to) {
+    return findInRange(createdIndex, from, to);
+  }
+
+  @Override
+  public List<Product> search(String query, int limit) {
+    List<SearchHit> hits = textIndex.search(query, limit);
+    List<Product> found = new ArrayList<>(hits.size());
+    for (SearchHit hit : hits) {
+      Product product = latest(hit.uuid());
+      if (product != null) {
+        found.add(copy(product));
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Выбирает самый селективный из индексов цены, даты создания и полнотекстового, остальные
+   * условия проверяются на лету. Запрос читает текущие версии продуктов, а не срез
+   */
+  @Override
+  public QueryResult query(ProductQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    QueryResult result = planner.execute(query);
+    List<Product> found = result.products().stream().map(InMemoryProductRepository::copy).toList();
+    return new QueryResult(found, result.plan(), result.examined());
+  }
+
+  /**
+   * @return оценка байт на куче, занятых полнотекстовым индексом
+   */
+  public long estimatedSearchIndexBytes() {
+    return textIndex.estimatedBytes();
+  }
+
+  @Override
+  public PriceStatistics priceStatistics() {
+    return priceStatistics;
   }
 
   @Override
-  public void delete(UUID uuid) {}
+  public ProductChangeStream changes() {
+    return changes;
+  }
+
+  /**
+   * Оценивает средний объём кучи на один продукт: объектный граф продукта, его версия и узел
+   * таблицы. Старые версии, удерживаемые открытыми срезами, не учитываются
+   *
+   * @return байт на продукт, 0 если хранилище пустое
+   */
+  public double estimatedBytesPerProduct() {
+    long count = 0;
+    long bytes = 0;
+    for (Revision head : products.values()) {
+      if (head.product != null) {
+        bytes += HeapFootprint.MAP_ENTRY + REVISION_BYTES + HeapFootprint.of(head.product);
+        count++;
+      }
+    }
+    return count == 0 ? 0 : (double) bytes / count;
+  }
+
+  /**
+   * @return количество старых версий и надгробий, ещё не освобождённых после чтения срезов
+   */
+  public long retainedRevisions() {
+    long retainedCount = 0;
+    for (Revision head : products.values()) {
+      for (Revision revision = head; revision != null; revision = revision.previous) {
+        if (revision != head || revision.product == null) {
+          retainedCount++;
+        }
+      }
+    }
+    return retainedCount;
+  }
+
+  private <T> void applyByStripe(T[] items, Function<T, UUID> key, ObjLongConsumer<T> action) {
+    int[] stripes = new int[items.length];
+    int[] starts = new int[locks.length + 1];
+    for (int i = 0; i < items.length; i++) {
+      stripes[i] = stripe(key.apply(items[i]));
+      starts[stripes[i] + 1]++;
+    }
+    for (int stripe = 0; stripe < locks.length; stripe++) {
+      starts[stripe + 1] += starts[stripe];
+    }
+    int[] order = new int[items.length];
+    int[] next = Arrays.copyOf(starts, locks.length);
+    for (int i = 0; i < items.length; i++) {
+      order[next[stripes[i]]++] = i;
+    }
+    for (int stripe = 0; stripe < locks.length; stripe++) {
+      if (starts[stripe] == starts[stripe + 1]) {
+        continue;
+      }
+      ReentrantLock lock = locks[stripe];
+      lock.lock();
+      try {
+        versions.incrementAndGet(stripe);
+        long revision = epoch.incrementAndGet();
+        for (int i = starts[stripe]; i < starts[stripe + 1]; i++) {
+          action.accept(items[order[i]], revision);
+        }
+        versions.incrementAndGet(stripe);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Продукт, ключ которого изменился во время перебора, но остался в диапазоне, берётся по
+   * устаревшей записи: итератор skip list мог уже пройти место новой записи. Такой продукт может
+   * встретиться дважды, поэтому при сдвиге ключей результат схлопывается по UUID и сортируется
+   */
+  private <K extends Comparable<? super K>> List<Product> findInRange(
+      SortedIndex<K> index, K from, K to) {
+    List<Product> found = new ArrayList<>();
+    boolean moved = false;
+    for (SortedIndex.Entry<K> entry : index.range(from, to)) {
+      Product product = latest(entry.uuid());
+      K current = index.key(product);
+      if (current == null) {
+        continue;
+      }
+      if (current.compareTo(entry.key()) == 0) {
+        found.add(copy(product));
+      } else if (SortedIndex.within(current, from, to)) {
+        found.add(copy(product));
+        moved = true;
+      }
+    }
+    if (!moved) {
+      return found;
+    }
+    Map<UUID, Product> latestFound = new LinkedHashMap<>();
+    for (Product product : found) {
+      latestFound.put(product.getUuid(), product);
+    }
+    return latestFound.values().stream()
+        .sorted(Comparator.comparing(index::key).thenComparing(Product::getUuid))
+        .toList();
+  }
+
+  /**
+   * Добавляет записи нового состояния в упорядоченные индексы до его публикации: пока старая
+   * запись ещё не удалена, продукт виден хотя бы в одном диапазоне
+   */
+  private void addIndexEntries(Product before, Product after) {
+    if (before == null && after != null) {
+      ids.add(after.getUuid());
+    }
+    priceIndex.add(after);
+    createdIndex.add(after);
+  }
+
+  /** Удаляет устаревшие записи после публикации и обновляет остальные производные данные */
+  private void updateIndexes(Product before, Product after) {
+    if (after == null) {
+      ids.remove(before.getUuid());
+    }
+    priceIndex.retire(before, after);
+    createdIndex.retire(before, after);
+    textIndex.update(before, after);
+    priceStatistics.update(before, after);
+    changes.publish(before, after);
+  }
+
+  /**
+   * Устанавливает новое состояние продукта под блокировкой его сегмента. Эпоха уже получена,
+   * поэтому читатель, закрепившийся раньше неё, виден здесь как readers > 0
+   *
+   * @param product новое состояние, null - удаление
+   * @return предыдущее состояние, null если продукта не было
+   */
+  private Product install(UUID uuid, Product product, long revision) {
+    Revision head = products.get(uuid);
+    Product previous = head == null ? null : head.product;
+    if (readers.get() > 0) {
+      products.put(uuid, new Revision(product, revision, head));
+      retired.add(uuid);
+    } else if (product != null) {
+      products.put(uuid, new Revision(product, revision, null));
+    } else if (head != null) {
+      products.remove(uuid);
+    }
+    return previous;
+  }
+
+  private Product latest(UUID uuid) {
+    Revision head = products.get(uuid);
+    return head == null ? null : head.product;
+  }
+
+  /** Ждёт записи, которые уже могли получить эпоху не новее закреплённой, но ещё не видны */
+  private void awaitStripes() {
+    for (int i = 0; i < locks.length; i++) {
+      long version = versions.get(i);
+      if ((version & 1L) != 0) {
+        while (versions.get(i) == version) {
+          Thread.onSpinWait();
+        }
+      }
+    }
+  }
+
+  /**
+   * Обрезает версии, которые не видит ни один читатель. Выполняется одним закрывающим срез
+   * потоком без блокировок сегментов: обрезаются только ссылки на версии старше самой ранней
+   * закреплённой эпохи, а надгробие убирается условным remove
+   */
+  private void reclaim() {
+    if (retired.isEmpty() || !reclaiming.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long horizon = epoch.get();
+      for (PinnedSnapshot pin : pins) {
+        if (pin.pinnedEpoch == PENDING) {
+          return;
+        }
+        horizon = Math.min(horizon, pin.pinnedEpoch);
+      }
+      for (UUID uuid : retired) {
+        Revision head = products.get(uuid);
+        if (trim(uuid, head, horizon)) {
+          retired.remove(uuid);
+          Revision current = products.get(uuid);
+          if (current != null && current != head) {
+            retired.add(uuid);
+          }
+        }
+      }
+    } finally {
+      reclaiming.set(false);
+    }
+  }
+
+  /**
+   * @return true если у продукта не осталось старых версий и надгробия
+   */
+  private boolean trim(UUID uuid, Revision head, long horizon) {
+    if (head == null) {
+      return true;
+    }
+    Revision visible = head;
+    while (visible != null && visible.epoch > horizon) {
+      visible = visible.previous;
+    }
+    if (visible == null) {
+      return false;
+    }
+    visible.previous = null;
+    if (visible != head) {
+      return false;
+    }
+    return head.product != null || products.remove(uuid, head);
+  }
+
+  private static Product visibleAt(Revision head, long snapshotEpoch) {
+    Revision revision = head;
+    while (revision != null && revision.epoch > snapshotEpoch) {
+      revision = revision.previous;
+    }
+    return revision == null ? null : revision.product;
+  }
+
+  private int stripe(UUID uuid) {
+    int hash = uuid.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static Product copy(Product product) {
+    return product.toBuilder().build();
+  }
+
+  /** Версия продукта с эпохой записи и ссылкой на предыдущую, product null - надгробие */
+  private static final class Revision {
+
+    private final Product product;
+    private final long epoch;
+    private volatile Revision previous;
+
+    private Revision(Product product, long epoch, Revision previous) {
+      this.product = product;
+      this.epoch = epoch;
+      this.previous = previous;
+    }
+  }
+
+  private final class PinnedSnapshot implements ReadSnapshot {
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile long pinnedEpoch = PENDING;
+
+    @Override
+    public long epoch() {
+      return pinnedEpoch;
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+      ensureOpen();
+      if (uuid == null) {
+        return Optional.empty();
+      }
+      Revision head = products.get(uuid);
+      return Optional.ofNullable(head == null ? null : visibleAt(head, pinnedEpoch))
+          .map(InMemoryProductRepository::copy);
+    }
+
+    @Override
+    public List<Product> findAll() {
+      ensureOpen();
+      List<Product> snapshot = new ArrayList<>(products.size());
+      for (Revision head : products.values()) {
+        Product product = visibleAt(head, pinnedEpoch);
+        if (product != null) {
+          snapshot.add(copy(product));
+        }
+      }
+      return snapshot;
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        pins.remove(this);
+        readers.decrementAndGet();
+        reclaim();
+      }
+    }
+
+    private void ensureOpen() {
+      if (closed.get()) {
+        throw new IllegalStateException("Snapshot is closed");
+      }
+    }
+  }
 }
@@ -0,0 +1,122 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.metrics.MethodStats;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.impl.MethodMetrics;
+import ru.clevertec.product.metrics.impl.MethodRecorder;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.repository.ProductRepository;
+
+/**
+ * Декоратор {@link ProductRepository}, записывающий задержку, количество вызовов и исключения
+ * каждого метода. Все методы, включая методы по умолчанию, передаются делегату, чтобы не
+ * потерять его собственные реализации.
+ */
+public class InstrumentedProductRepository implements ProductRepository {
+
+  private final ProductRepository delegate;
+  private final MethodMetrics metrics = new MethodMetrics();
+  private final MethodRecorder findById = metrics.register("findById");
+  private final MethodRecorder findAll = metrics.register("findAll");
+  private final MethodRecorder save = metrics.register("save");
+  private final MethodRecorder saveIfVersion = metrics.register("saveIfVersion");
+  private final MethodRecorder delete = metrics.register("delete");
+  private final MethodRecorder saveAll = metrics.register("saveAll");
+  private final MethodRecorder deleteAll = metrics.register("deleteAll");
+  private final MethodRecorder findPage = metrics.register("findPage");
+  private final MethodRecorder findByPriceBetween = metrics.register("findByPriceBetween");
+  private final MethodRecorder findByCreatedBetween = metrics.register("findByCreatedBetween");
+  private final MethodRecorder search = metrics.register("search");
+  private final MethodRecorder query = metrics.register("query");
+
+  public InstrumentedProductRepository(ProductRepository delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Optional<Product> findById(UUID uuid) {
+    return findById.time(() -> delegate.findById(uuid));
+  }
+
+  @Override
+  public List<Product> findAll() {
+    return findAll.time(delegate::findAll);
+  }
+
+  @Override
+  public Product save(Product product) {
+    return save.time(() -> delegate.save(product));
+  }
+
+  @Override
+  public Optional<Product> saveIfVersion(Product product, long expectedVersion) {
+    return saveIfVersion.time(() -> delegate.saveIfVersion(product, expectedVersion));
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    delete.run(() -> delegate.delete(uuid));
+  }
+
+  @Override
+  public List<Product> saveAll(Collection<Product> products) {
+    return saveAll.time(() -> delegate.saveAll(products));
+  }
+
+  @Override
+  public void deleteAll(Collection<UUID> uuids) {
+    deleteAll.run(() -> delegate.deleteAll(uuids));
+  }
+
+  @Override
+  public List<Product> findPage(UUID after, int limit) {
+    return findPage.time(() -> delegate.findPage(after, limit));
+  }
+
+  @Override
+  public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+    return findByPriceBetween.time(() -> delegate.findByPriceBetween(from, to));
+  }
+
+  @Override
+  public List<Product> findByCreatedBetween(LocalDateTime from, LocalDateTime to) {
+    return findByCreatedBetween.time(() -> delegate.findByCreatedBetween(from, to));
+  }
+
+  @Override
+  public List<Product> search(String query, int limit) {
+    return search.time(() -> delegate.search(query, limit));
+  }
+
+  @Override
+  public QueryResult query(ProductQuery query) {
+    return this.query.time(() -> delegate.query(query));
+  }
+
+  @Override
+  public PriceStatistics priceStatistics() {
+    return delegate.priceStatistics();
+  }
+
+  @Override
+  public ProductChangeStream changes() {
+    return delegate.changes();
+  }
+
+  /**
+   * @return статистика по методам хранилища, снимается без остановки записи
+   */
+  public Map<String, MethodStats> stats() {
+    return metrics.snapshot();
+  }
+}
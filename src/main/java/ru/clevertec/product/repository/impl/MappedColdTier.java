@@ -0,0 +1,319 @@
+package ru.clevertec.product.repository.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.storage.ProductCodec;
+
+/**
+ * Холодный уровень {@link TieredProductRepository}: продукты в формате {@link ProductCodec} с
+ * префиксом длины дописываются в файл, отображённый в память сегментами фиксированного размера.
+ *
+ * <p>На куче нет объекта на продукт: индекс UUID - номер записи лежит в {@link UuidRowIndex}, а
+ * смещения записей - в массиве long, всего около 36 байт на продукт. Продукт собирается из
+ * отображённой памяти только на чтение и сразу становится мусором молодого поколения.
+ *
+ * <p>Перезапись и удаление только помечают прежнюю запись мёртвой. Когда мёртвых байт больше
+ * живых и хотя бы на сегмент, живые записи переписываются в новый файл, старый удаляется. Файлы
+ * не переживают перезапуск: при открытии каталог очищается от файлов прошлых запусков, поэтому
+ * каталог принадлежит одному хранилищу.
+ */
+final class MappedColdTier implements AutoCloseable {
+
+  private static final String PREFIX = "cold-";
+  private static final String SUFFIX = ".tier";
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private UuidRowIndex index = new UuidRowIndex();
+  private long[] offsets = new long[INITIAL_CAPACITY];
+  private int size;
+  private long liveBytes;
+  private long generation;
+  private Path file;
+  private FileChannel channel;
+  private List<MappedByteBuffer> segments = new ArrayList<>();
+  private int writePosition;
+
+  /**
+   * @param directory каталог файлов уровня, создаётся при необходимости
+   * @param segmentBytes размер сегмента отображения, запись продукта не может быть длиннее
+   * @throws UncheckedIOException при ошибке ввода-вывода
+   */
+  MappedColdTier(Path directory, int segmentBytes) {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    try {
+      Files.createDirectories(directory);
+      try (var stale = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+        for (Path path : stale) {
+          Files.delete(path);
+        }
+      }
+      open();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Дописывает продукт, прежняя запись с тем же UUID становится мёртвой
+   *
+   * @param product продукт с UUID
+   * @throws IllegalArgumentException если запись длиннее сегмента
+   */
+  void put(Product product) {
+    byte[] record = ProductCodec.encode(product);
+    lock.writeLock().lock();
+    try {
+      long offset = append(record);
+      UUID uuid = product.getUuid();
+      int row = index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+      if (row == UuidRowIndex.ABSENT) {
+        if (size == offsets.length) {
+          offsets = Arrays.copyOf(offsets, size << 1);
+        }
+        row = size++;
+        index.put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), row);
+      } else {
+        liveBytes -= recordBytes(offsets[row]);
+      }
+      offsets[row] = offset;
+      liveBytes += Integer.BYTES + record.length;
+      compactIfSparse();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param uuid идентификатор продукта
+   * @return новый экземпляр продукта, null если его нет на уровне
+   */
+  Product get(UUID uuid) {
+    lock.readLock().lock();
+    try {
+      int row = index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+      return row == UuidRowIndex.ABSENT ? null : read(offsets[row]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  boolean contains(UUID uuid) {
+    lock.readLock().lock();
+    try {
+      return index.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())
+          != UuidRowIndex.ABSENT;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param uuid идентификатор продукта
+   * @return удалённый продукт, null если его не было на уровне
+   */
+  Product remove(UUID uuid) {
+    lock.writeLock().lock();
+    try {
+      int row = index.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+      if (row == UuidRowIndex.ABSENT) {
+        return null;
+      }
+      Product removed = read(offsets[row]);
+      liveBytes -= recordBytes(offsets[row]);
+      int last = --size;
+      if (row != last) {
+        offsets[row] = offsets[last];
+        MappedByteBuffer segment = segment(offsets[row]);
+        int position = position(offsets[row]) + Integer.BYTES;
+        index.put(segment.getLong(position), segment.getLong(position + Long.BYTES), row);
+      }
+      compactIfSparse();
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Передаёт продукты уровня, пока получатель не вернёт false. Запись на уровень ждёт окончания
+   * обхода
+   *
+   * @param consumer получатель новых экземпляров продуктов, false останавливает обход
+   */
+  void forEach(Predicate<Product> consumer) {
+    lock.readLock().lock();
+    try {
+      for (int row = 0; row < size; row++) {
+        if (!consumer.test(read(offsets[row]))) {
+          return;
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return байт файла до позиции записи, включая мёртвые записи
+   */
+  long fileBytes() {
+    lock.readLock().lock();
+    try {
+      return segments.isEmpty() ? 0 : (long) (segments.size() - 1) * segmentBytes + writePosition;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return байт на куче, занятых индексом уровня
+   */
+  long indexBytes() {
+    lock.readLock().lock();
+    try {
+      return index.footprintBytes() + (long) offsets.length * Long.BYTES;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Закрывает и удаляет файл. Отображения освобождаются сборщиком мусора, поэтому после закрытия
+   * к уровню нельзя обращаться
+   */
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      channel.close();
+      Files.deleteIfExists(file);
+      segments = List.of();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private long append(byte[] record) {
+    int recordBytes = Integer.BYTES + record.length;
+    if (recordBytes > segmentBytes) {
+      throw new IllegalArgumentException(
+          "Product record of " + recordBytes + " bytes is longer than segment");
+    }
+    if (segments.isEmpty() || segmentBytes - writePosition < recordBytes) {
+      map(segments.size());
+      writePosition = 0;
+    }
+    MappedByteBuffer segment = segments.get(segments.size() - 1);
+    segment.putInt(writePosition, record.length);
+    segment.put(writePosition + Integer.BYTES, record);
+    long offset = (long) (segments.size() - 1) * segmentBytes + writePosition;
+    writePosition += recordBytes;
+    return offset;
+  }
+
+  private void compactIfSparse() {
+    long deadBytes = fileBytes() - liveBytes;
+    if (deadBytes > Math.max(liveBytes, segmentBytes)) {
+      compact();
+    }
+  }
+
+  /** Переписывает живые записи в файл следующего поколения в порядке строк */
+  private void compact() {
+    FileChannel previousChannel = channel;
+    Path previousFile = file;
+    List<MappedByteBuffer> previousSegments = segments;
+    long[] previousOffsets = offsets;
+    UuidRowIndex rebuilt = new UuidRowIndex();
+    long[] moved = new long[Math.max(INITIAL_CAPACITY, size)];
+    try {
+      open();
+      for (int row = 0; row < size; row++) {
+        MappedByteBuffer segment =
+            previousSegments.get((int) (previousOffsets[row] / segmentBytes));
+        int position = (int) (previousOffsets[row] % segmentBytes);
+        byte[] record = new byte[segment.getInt(position)];
+        segment.get(position + Integer.BYTES, record);
+        moved[row] = append(record);
+        rebuilt.put(
+            segment.getLong(position + Integer.BYTES),
+            segment.getLong(position + Integer.BYTES + Long.BYTES),
+            row);
+      }
+      previousChannel.close();
+      Files.delete(previousFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    index = rebuilt;
+    offsets = moved;
+  }
+
+  private void open() throws IOException {
+    file = directory.resolve(PREFIX + ++generation + SUFFIX);
+    channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    segments = new ArrayList<>();
+    writePosition = 0;
+  }
+
+  private void map(int segment) {
+    try {
+      segments.add(
+          channel.map(FileChannel.MapMode.READ_WRITE, (long) segment * segmentBytes, segmentBytes));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Product read(long offset) {
+    MappedByteBuffer segment = segment(offset);
+    int position = position(offset);
+    int length = segment.getInt(position);
+    return ProductCodec.decode(segment.slice(position + Integer.BYTES, length));
+  }
+
+  private int recordBytes(long offset) {
+    return Integer.BYTES + segment(offset).getInt(position(offset));
+  }
+
+  private MappedByteBuffer segment(long offset) {
+    return segments.get((int) (offset / segmentBytes));
+  }
+
+  private int position(long offset) {
+    return (int) (offset % segmentBytes);
+  }
+}
@@ -0,0 +1,246 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.query.AccessPath;
+import ru.clevertec.product.query.ProductCondition;
+import ru.clevertec.product.query.ProductCondition.CreatedBetween;
+import ru.clevertec.product.query.ProductCondition.DescriptionMatches;
+import ru.clevertec.product.query.ProductCondition.NameMatches;
+import ru.clevertec.product.query.ProductCondition.PriceBetween;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryCollector;
+import ru.clevertec.product.query.QueryPlan;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.query.SortField;
+import ru.clevertec.product.search.SearchIndex;
+
+/**
+ * Планировщик запросов {@link InMemoryProductRepository}.
+ *
+ * <p>Для каждого условия с индексом оценивается количество кандидатов: у текстового условия -
+ * длина самого короткого списка термина, у диапазона - число записей индекса, которое считается
+ * только до лучшей уже найденной оценки, поэтому оценка стоит не больше выбранного перебора.
+ * Побеждает индекс с наименьшей оценкой, если она меньше половины каталога, иначе полный
+ * перебор дешевле случайных обращений по индексу. Все условия, включая ведущее, проверяются на
+ * каждом кандидате по текущему состоянию продукта, поэтому устаревшие записи индексов не
+ * попадают в результат.
+ *
+ * <p>Если кандидаты идут в порядке сортировки запроса (индекс цены или даты по тому же полю,
+ * полный перебор по идентификатору), перебор останавливается на лимите. Если диапазон по полю
+ * сортировки не селективен, но запрос с лимитом, индекс всё равно выбирается ради порядка.
+ */
+final class QueryPlanner {
+
+  private final NavigableSet<UUID> ids;
+  private final SortedIndex<BigDecimal> priceIndex;
+  private final SortedIndex<LocalDateTime> createdIndex;
+  private final SearchIndex textIndex;
+  private final Function<UUID, Product> lookup;
+  private final LongSupplier size;
+
+  /**
+   * @param ids идентификаторы всех продуктов по возрастанию
+   * @param lookup текущее состояние продукта по идентификатору, null если продукта нет
+   * @param size количество продуктов, допускается неточная оценка
+   */
+  QueryPlanner(
+      NavigableSet<UUID> ids,
+      SortedIndex<BigDecimal> priceIndex,
+      SortedIndex<LocalDateTime> createdIndex,
+      SearchIndex textIndex,
+      Function<UUID, Product> lookup,
+      LongSupplier size) {
+    this.ids = ids;
+    this.priceIndex = priceIndex;
+    this.createdIndex = createdIndex;
+    this.textIndex = textIndex;
+    this.lookup = lookup;
+    this.size = size;
+  }
+
+  /**
+   * @param query выполняемый запрос
+   * @return найденные продукты без копирования, план и количество проверенных кандидатов
+   */
+  QueryResult execute(ProductQuery query) {
+    Plan plan = plan(query);
+    QueryCollector collector = new QueryCollector(query, plan.ordered());
+    switch (plan.access()) {
+      case PRICE_INDEX -> scan(priceIndex, priceRange(query), query.descending(), collector);
+      case CREATED_INDEX -> scan(createdIndex, createdRange(query), query.descending(), collector);
+      case TEXT_INDEX -> {
+        for (UUID uuid : textIndex.matches(plan.words())) {
+          Product product = lookup.apply(uuid);
+          if (product != null && !collector.offer(product)) {
+            break;
+          }
+        }
+      }
+      case FULL_SCAN -> {
+        for (UUID uuid : query.descending() ? ids.descendingSet() : ids) {
+          Product product = lookup.apply(uuid);
+          if (product != null && !collector.offer(product)) {
+            break;
+          }
+        }
+      }
+    }
+    return new QueryResult(collector.result(), plan.toQueryPlan(query), collector.examined());
+  }
+
+  private Plan plan(ProductQuery query) {
+    long rows = size.getAsLong();
+    Plan best = new Plan(AccessPath.FULL_SCAN, rows, query.sortBy() == SortField.ID, null);
+    long threshold = rows / 2;
+    for (ProductCondition condition : query.conditions()) {
+      String words = words(condition);
+      if (words != null) {
+        int estimate = textIndex.estimate(words);
+        if (estimate < Math.min(best.estimatedRows(), threshold)) {
+          best = new Plan(AccessPath.TEXT_INDEX, estimate, false, words);
+        }
+      }
+    }
+    Range<BigDecimal> prices = priceRange(query);
+    if (prices != null) {
+      long estimate = count(priceIndex, prices, Math.min(best.estimatedRows(), threshold));
+      best = choose(best, threshold, query, AccessPath.PRICE_INDEX, SortField.PRICE, estimate);
+    }
+    Range<LocalDateTime> created = createdRange(query);
+    if (created != null) {
+      long estimate = count(createdIndex, created, Math.min(best.estimatedRows(), threshold));
+      best =
+          choose(best, threshold, query, AccessPath.CREATED_INDEX, SortField.CREATED, estimate);
+    }
+    return best;
+  }
+
+  /**
+   * Диапазон по полю сортировки выигрывает и без селективности, если у запроса есть лимит и
+   * сейчас выбран полный перебор: упорядоченный индекс остановится на лимите
+   *
+   * @param counted записей диапазона, подсчитанных не дальше лучшей оценки и половины каталога
+   */
+  private static Plan choose(
+      Plan best,
+      long threshold,
+      ProductQuery query,
+      AccessPath access,
+      SortField field,
+      long counted) {
+    boolean ordered = query.sortBy() == field;
+    boolean selective = counted < Math.min(best.estimatedRows(), threshold);
+    if (selective) {
+      return new Plan(access, counted, ordered, null);
+    }
+    if (ordered && query.limited() && best.access() == AccessPath.FULL_SCAN) {
+      return new Plan(access, best.estimatedRows(), true, null);
+    }
+    return best;
+  }
+
+  private static <K extends Comparable<? super K>> long count(
+      SortedIndex<K> index, Range<K> range, long cap) {
+    long counted = 0;
+    Iterator<SortedIndex.Entry<K>> entries = index.range(range.from(), range.to()).iterator();
+    while (counted < cap && entries.hasNext()) {
+      entries.next();
+      counted++;
+    }
+    return counted;
+  }
+
+  private <K extends Comparable<? super K>> void scan(
+      SortedIndex<K> index, Range<K> range, boolean descending, QueryCollector collector) {
+    NavigableSet<SortedIndex.Entry<K>> entries = index.range(range.from(), range.to());
+    for (SortedIndex.Entry<K> entry : descending ? entries.descendingSet() : entries) {
+      Product product = lookup.apply(entry.uuid());
+      K current = index.key(product);
+      if (current == null || current.compareTo(entry.key()) != 0) {
+        continue;
+      }
+      if (!collector.offer(product)) {
+        return;
+      }
+    }
+  }
+
+  private static String words(ProductCondition condition) {
+    if (condition instanceof NameMatches name) {
+      return name.words();
+    }
+    if (condition instanceof DescriptionMatches description) {
+      return description.words();
+    }
+    return null;
+  }
+
+  /** Пересечение всех условий на цену, null если их нет */
+  private static Range<BigDecimal> priceRange(ProductQuery query) {
+    Range<BigDecimal> range = null;
+    for (ProductCondition condition : query.conditions()) {
+      if (condition instanceof PriceBetween price) {
+        range = Range.intersect(range, price.from(), price.to());
+      }
+    }
+    return range;
+  }
+
+  /** Пересечение всех условий на дату создания, null если их нет */
+  private static Range<LocalDateTime> createdRange(ProductQuery query) {
+    Range<LocalDateTime> range = null;
+    for (ProductCondition condition : query.conditions()) {
+      if (condition instanceof CreatedBetween created) {
+        range = Range.intersect(range, created.from(), created.to());
+      }
+    }
+    return range;
+  }
+
+  /** Границы включительно, null - без границы */
+  private record Range<K extends Comparable<? super K>>(K from, K to) {
+
+    static <K extends Comparable<? super K>> Range<K> intersect(Range<K> range, K from, K to) {
+      if (range == null) {
+        return new Range<>(from, to);
+      }
+      return new Range<>(max(range.from, from), min(range.to, to));
+    }
+
+    private static <K extends Comparable<? super K>> K max(K a, K b) {
+      return a == null ? b : b == null || a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static <K extends Comparable<? super K>> K min(K a, K b) {
+      return a == null ? b : b == null || a.compareTo(b) <= 0 ? a : b;
+    }
+  }
+
+  /**
+   * @param words слова текстового условия, ведущего перебор, null для остальных способов
+   */
+  private record Plan(AccessPath access, long estimatedRows, boolean ordered, String words) {
+
+    QueryPlan toQueryPlan(ProductQuery query) {
+      List<ProductCondition> residual = new ArrayList<>();
+      for (ProductCondition condition : query.conditions()) {
+        boolean answered =
+            (access == AccessPath.PRICE_INDEX && condition instanceof PriceBetween)
+                || (access == AccessPath.CREATED_INDEX && condition instanceof CreatedBetween);
+        if (!answered) {
+          residual.add(condition);
+        }
+      }
+      return new QueryPlan(access, estimatedRows, ordered, residual);
+    }
+  }
+}
@@ -0,0 +1,314 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.event.impl.MergedChangeStream;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.impl.CombinedPriceStatistics;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryCollector;
+import ru.clevertec.product.query.QueryPlan;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.repository.ProductRepository;
+
+/**
+ * Хранилище, разбитое на независимые разделы по хэшу UUID. У каждого раздела свои блокировки и
+ * свои структуры на куче, поэтому записи в разные разделы не конкурируют вовсе, а большой
+ * каталог не упирается в рост одной таблицы.
+ *
+ * <p>Операции по одному UUID идут в его раздел. Пакетные операции группируются по разделам.
+ * {@link #findAll()}, диапазонные запросы, страницы и поиск опрашивают разделы параллельно в
+ * общем {@link java.util.concurrent.ForkJoinPool} и сливают упорядоченные ответы.
+ *
+ * <p>Раздел выбирается по старшим битам перемешанного хэша, а не по тем же младшим битам, что и
+ * сегмент блокировки внутри {@link InMemoryProductRepository}: иначе в каждом разделе
+ * использовалась бы только часть сегментов.
+ *
+ * <p>{@link #changes()} сливает потоки изменений разделов. Общего порядка записей между
+ * разделами нет, но продукт живёт в одном разделе, и его изменения приходят в порядке записи.
+ */
+public class ShardedProductRepository implements ProductRepository {
+
+  public static final int DEFAULT_PARTITIONS = Runtime.getRuntime().availableProcessors();
+
+  private static final long MIX = 0x9E3779B97F4A7C15L;
+  private static final Comparator<QueryPlan> PLAN_COST =
+      Comparator.comparing(QueryPlan::fullScan).thenComparingLong(QueryPlan::estimatedRows);
+
+  private final ProductRepository[] partitions;
+  private final MergedChangeStream changes;
+
+  public ShardedProductRepository() {
+    this(DEFAULT_PARTITIONS);
+  }
+
+  /**
+   * @param partitions количество разделов в памяти
+   * @throws IllegalArgumentException если количество разделов не положительное
+   */
+  public ShardedProductRepository(int partitions) {
+    this(partitions, InMemoryProductRepository::new);
+  }
+
+  /**
+   * @param partitions количество разделов
+   * @param factory создаёт хранилище раздела, каждый вызов - новый независимый экземпляр
+   * @throws IllegalArgumentException если количество разделов не положительное
+   */
+  public ShardedProductRepository(int partitions, Supplier<ProductRepository> factory) {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException("Partitions count must be positive: " + partitions);
+    }
+    this.partitions = new ProductRepository[partitions];
+    for (int i = 0; i < partitions; i++) {
+      this.partitions[i] = factory.get();
+    }
+    this.changes =
+        new MergedChangeStream(
+            Arrays.stream(this.partitions).map(ProductRepository::changes).toList());
+  }
+
+  @Override
+  public Optional<Product> findById(UUID uuid) {
+    if (uuid == null) {
+      return Optional.empty();
+    }
+    return partition(uuid).findById(uuid);
+  }
+
+  @Override
+  public List<Product> findAll() {
+    return Arrays.stream(partitions)
+        .parallel()
+        .map(ProductRepository::findAll)
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  @Override
+  public Product save(Product product) {
+    if (product == null) {
+      throw new IllegalArgumentException("Product must not be null");
+    }
+    if (product.getUuid() == null) {
+      product.setUuid(UUID.randomUUID());
+    }
+    return partition(product.getUuid()).save(product);
+  }
+
+  @Override
+  public Optional<Product> saveIfVersion(Product product, long expectedVersion) {
+    if (product == null || product.getUuid() == null) {
+      throw new IllegalArgumentException("Product and its uuid must not be null");
+    }
+    return partition(product.getUuid()).saveIfVersion(product, expectedVersion);
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    if (uuid != null) {
+      partition(uuid).delete(uuid);
+    }
+  }
+
+  @Override
+  public List<Product> saveAll(Collection<Product> products) {
+    if (products == null) {
+      throw new IllegalArgumentException("Products must not be null");
+    }
+    List<List<Integer>> positions = new ArrayList<>(partitions.length);
+    List<List<Product>> batches = new ArrayList<>(partitions.length);
+    for (int i = 0; i < partitions.length; i++) {
+      positions.add(new ArrayList<>());
+      batches.add(new ArrayList<>());
+    }
+    int position = 0;
+    for (Product product : products) {
+      if (product == null) {
+        throw new IllegalArgumentException("Product must not be null");
+      }
+      if (product.getUuid() == null) {
+        product.setUuid(UUID.randomUUID());
+      }
+      int index = index(product.getUuid());
+      positions.get(index).add(position++);
+      batches.get(index).add(product);
+    }
+    Product[] saved = new Product[position];
+    for (int i = 0; i < partitions.length; i++) {
+      if (batches.get(i).isEmpty()) {
+        continue;
+      }
+      List<Product> stored = partitions[i].saveAll(batches.get(i));
+      for (int j = 0; j < stored.size(); j++) {
+        saved[positions.get(i).get(j)] = stored.get(j);
+      }
+    }
+    return Arrays.asList(saved);
+  }
+
+  @Override
+  public void deleteAll(Collection<UUID> uuids) {
+    if (uuids == null) {
+      return;
+    }
+    Map<Integer, List<UUID>> batches = new HashMap<>();
+    for (UUID uuid : uuids) {
+      if (uuid != null) {
+        batches.computeIfAbsent(index(uuid), key -> new ArrayList<>()).add(uuid);
+      }
+    }
+    batches.forEach((index, batch) -> partitions[index].deleteAll(batch));
+  }
+
+  @Override
+  public List<Product> findPage(UUID after, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+    List<Product> merged =
+        merge(fanOut(partition -> partition.findPage(after, limit)), Product::getUuid);
+    return merged.size() > limit ? merged.subList(0, limit) : merged;
+  }
+
+  @Override
+  public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+    return merge(fanOut(partition -> partition.findByPriceBetween(from, to)), Product::getPrice);
+  }
+
+  @Override
+  public List<Product> findByCreatedBetween(LocalDateTime from, LocalDateTime to) {
+    return merge(
+        fanOut(partition -> partition.findByCreatedBetween(from, to)), Product::getCreated);
+  }
+
+  /**
+   * Каждый раздел возвращает свои лучшие limit результатов, затем объединение ранжируется заново
+   * по общему индексу: у разделов своя статистика слов, и их оценки несравнимы напрямую
+   */
+  @Override
+  public List<Product> search(String query, int limit) {
+    List<Product> found =
+        fanOut(partition -> partition.search(query, limit)).stream()
+            .flatMap(List::stream)
+            .toList();
+    return CatalogScans.search(found, query, limit);
+  }
+
+  /**
+   * Каждый раздел выполняет запрос со своим планом и лимитом, ответы сливаются тем же запросом.
+   * Сообщается план самого дорогого раздела с суммарной оценкой кандидатов: полный перебор хотя
+   * бы в одном разделе означает полный перебор запроса
+   */
+  @Override
+  public QueryResult query(ProductQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    List<QueryResult> results =
+        Arrays.stream(partitions).parallel().map(partition -> partition.query(query)).toList();
+    QueryCollector collector = new QueryCollector(query, false);
+    long examined = 0;
+    long estimatedRows = 0;
+    boolean ordered = true;
+    QueryPlan costliest = null;
+    boolean collecting = true;
+    for (QueryResult result : results) {
+      Iterator<Product> found = result.products().iterator();
+      while (collecting && found.hasNext()) {
+        collecting = collector.offer(found.next());
+      }
+      examined += result.examined();
+      QueryPlan plan = result.plan();
+      estimatedRows += plan.estimatedRows();
+      ordered &= plan.ordered();
+      if (costliest == null || PLAN_COST.compare(plan, costliest) > 0) {
+        costliest = plan;
+      }
+    }
+    QueryPlan plan =
+        new QueryPlan(costliest.access(), estimatedRows, ordered, costliest.residual());
+    return new QueryResult(collector.result(), plan, examined);
+  }
+
+  /**
+   * Статистика разделов не копируется: каждое чтение складывает сводки и распределения разделов,
+   * поэтому стоимость чтения зависит от количества разделов, а не от размера каталога
+   */
+  @Override
+  public PriceStatistics priceStatistics() {
+    return new CombinedPriceStatistics(
+        Arrays.stream(partitions).map(ProductRepository::priceStatistics).toList());
+  }
+
+  @Override
+  public ProductChangeStream changes() {
+    return changes;
+  }
+
+  /**
+   * @return количество разделов
+   */
+  public int partitions() {
+    return partitions.length;
+  }
+
+  private List<List<Product>> fanOut(Function<ProductRepository, List<Product>> query) {
+    return Arrays.stream(partitions).parallel().map(query).toList();
+  }
+
+  /** Слияние k упорядоченных списков через кучу из текущих голов списков */
+  private static <K extends Comparable<? super K>> List<Product> merge(
+      List<List<Product>> sorted, Function<Product, K> key) {
+    int total = sorted.stream().mapToInt(List::size).sum();
+    List<Product> merged = new ArrayList<>(total);
+    PriorityQueue<Head<K>> heads =
+        new PriorityQueue<>(Math.max(1, sorted.size()), Comparator.comparing(Head::key));
+    for (List<Product> list : sorted) {
+      Iterator<Product> iterator = list.iterator();
+      if (iterator.hasNext()) {
+        heads.add(Head.of(iterator, key));
+      }
+    }
+    while (!heads.isEmpty()) {
+      Head<K> head = heads.poll();
+      merged.add(head.product());
+      if (head.rest().hasNext()) {
+        heads.add(Head.of(head.rest(), key));
+      }
+    }
+    return merged;
+  }
+
+  private ProductRepository partition(UUID uuid) {
+    return partitions[index(uuid)];
+  }
+
+  private int index(UUID uuid) {
+    long hash = (uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits()) * MIX;
+    return (int) (((hash >>> 32) * partitions.length) >>> 32);
+  }
+
+  private record Head<K>(K key, Product product, Iterator<Product> rest) {
+
+    static <K> Head<K> of(Iterator<Product> iterator, Function<Product, K> key) {
+      Product product = iterator.next();
+      return new Head<>(key.apply(product), product, iterator);
+    }
+  }
+}
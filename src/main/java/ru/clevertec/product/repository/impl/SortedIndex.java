@@ -0,0 +1,97 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Вторичный упорядоченный индекс по полю продукта. Записи вида (ключ, UUID) лежат в
+ * неблокирующем skip list, поэтому диапазонный поиск стоит O(log n + k).
+ *
+ * <p>Изменения одного UUID должны быть упорядочены вызывающим кодом (блокировкой сегмента).
+ * Запись нового ключа добавляется через {@link #add(Product)} до публикации нового состояния
+ * продукта, а запись старого удаляется через {@link #retire(Product, Product)} после неё. В любой
+ * момент у текущего ключа продукта есть запись, поэтому читатель не пропустит продукт во время
+ * обновления, но может увидеть обе записи: сверяйте ключ с текущим состоянием продукта.
+ */
+final class SortedIndex<K extends Comparable<? super K>> {
+
+  private static final UUID MIN_UUID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+  private static final UUID MAX_UUID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+  private final Function<Product, K> extractor;
+  private final ConcurrentSkipListSet<Entry<K>> entries = new ConcurrentSkipListSet<>();
+
+  SortedIndex(Function<Product, K> extractor) {
+    this.extractor = extractor;
+  }
+
+  K key(Product product) {
+    return product == null ? null : extractor.apply(product);
+  }
+
+  /**
+   * Добавляет запись нового состояния, вызывается до его публикации
+   *
+   * @param after новое состояние, null если продукт удаляется
+   */
+  void add(Product after) {
+    K newKey = key(after);
+    if (newKey != null) {
+      entries.add(new Entry<>(newKey, after.getUuid()));
+    }
+  }
+
+  /**
+   * Удаляет запись прежнего состояния, вызывается после публикации нового
+   *
+   * @param before прежнее состояние, null если продукт создан
+   * @param after опубликованное состояние, null если продукт удалён
+   */
+  void retire(Product before, Product after) {
+    K oldKey = key(before);
+    K newKey = key(after);
+    if (oldKey != null && (newKey == null || oldKey.compareTo(newKey) != 0)) {
+      entries.remove(new Entry<>(oldKey, before.getUuid()));
+    }
+  }
+
+  /**
+   * @param from нижняя граница включительно, null - без границы
+   * @param to верхняя граница включительно, null - без границы
+   * @return записи диапазона по возрастанию ключа
+   */
+  NavigableSet<Entry<K>> range(K from, K to) {
+    if (from == null && to == null) {
+      return entries;
+    }
+    if (from == null) {
+      return entries.headSet(new Entry<>(to, MAX_UUID), true);
+    }
+    if (to == null) {
+      return entries.tailSet(new Entry<>(from, MIN_UUID), true);
+    }
+    if (from.compareTo(to) > 0) {
+      return entries.subSet(new Entry<>(from, MIN_UUID), true, new Entry<>(from, MIN_UUID), false);
+    }
+    return entries.subSet(new Entry<>(from, MIN_UUID), true, new Entry<>(to, MAX_UUID), true);
+  }
+
+  /**
+   * @return true если ключ внутри диапазона, границы как у {@link #range(Comparable, Comparable)}
+   */
+  static <K extends Comparable<? super K>> boolean within(K key, K from, K to) {
+    return (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) <= 0);
+  }
+
+  record Entry<K extends Comparable<? super K>>(K key, UUID uuid) implements Comparable<Entry<K>> {
+
+    @Override
+    public int compareTo(Entry<K> other) {
+      int byKey = key.compareTo(other.key);
+      return byKey != 0 ? byKey : uuid.compareTo(other.uuid);
+    }
+  }
+}
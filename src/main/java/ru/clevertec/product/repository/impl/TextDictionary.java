@@ -0,0 +1,204 @@
+package ru.clevertec.product.repository.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import ru.clevertec.product.storage.PackedText;
+import ru.clevertec.product.util.HeapFootprint;
+
+/**
+ * Словарь строк {@link ColumnarProductRepository}: каждое различное значение хранится один раз,
+ * строка хранилища держит только его код. Значения лежат упакованными {@link PackedText}, а
+ * строки вне алфавита - в UTF-8. Объекты String на куче словарь не держит: поиск идёт по
+ * открытой адресации над упакованными байтами.
+ *
+ * <p>У кода есть счётчик ссылок, код без ссылок освобождается и переиспользуется. Не
+ * потокобезопасен, вызывающий код держит блокировку хранилища.
+ */
+final class TextDictionary {
+
+  /** Код отсутствующей строки (null) */
+  static final int NULL = -1;
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int EMPTY = -1;
+  private static final int UTF8 = -1;
+
+  private byte[][] values = new byte[INITIAL_CAPACITY][];
+  private int[] chars = new int[INITIAL_CAPACITY];
+  private int[] references = new int[INITIAL_CAPACITY];
+  private int[] free = new int[INITIAL_CAPACITY];
+  private int freeCount;
+  private int codes;
+  private int size;
+  private long valueBytes;
+  private int[] slots = newSlots(INITIAL_CAPACITY * 2);
+
+  /**
+   * Кодирует строку вне блокировки хранилища
+   *
+   * @param value строка, null допускается
+   * @return ключ для {@link #acquire(Key)}, null для null
+   */
+  static Key key(String value) {
+    if (value == null) {
+      return null;
+    }
+    if (PackedText.packable(value)) {
+      return new Key(PackedText.pack(value), value.length());
+    }
+    return new Key(value.getBytes(StandardCharsets.UTF_8), UTF8);
+  }
+
+  /**
+   * @param key ключ строки, null - отсутствующая строка
+   * @return код значения с учтённой новой ссылкой
+   */
+  int acquire(Key key) {
+    if (key == null) {
+      return NULL;
+    }
+    int slot = find(key);
+    int code = slots[slot];
+    if (code == EMPTY) {
+      code = allocate(key);
+      slots[slot] = code;
+      size++;
+      if (size * 2 > slots.length) {
+        rehash(slots.length * 2);
+      }
+    }
+    references[code]++;
+    return code;
+  }
+
+  /**
+   * Снимает ссылку, значение без ссылок удаляется
+   *
+   * @param code код, полученный из {@link #acquire(Key)}
+   */
+  void release(int code) {
+    if (code == NULL || --references[code] > 0) {
+      return;
+    }
+    remove(find(new Key(values[code], chars[code])));
+    valueBytes -= values[code].length;
+    values[code] = null;
+    if (freeCount == free.length) {
+      free = Arrays.copyOf(free, freeCount * 2);
+    }
+    free[freeCount++] = code;
+  }
+
+  /**
+   * @param code код значения
+   * @return новая строка, null для {@link #NULL}
+   */
+  String decode(int code) {
+    if (code == NULL) {
+      return null;
+    }
+    byte[] value = values[code];
+    return chars[code] == UTF8
+        ? new String(value, StandardCharsets.UTF_8)
+        : PackedText.unpack(value, 0, chars[code]);
+  }
+
+  /**
+   * @return количество различных значений
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return байт на куче: значения с заголовками массивов, счётчики и таблица поиска
+   */
+  long footprintBytes() {
+    long perCode = HeapFootprint.REFERENCE + 2L * Integer.BYTES;
+    long arrays = valueBytes + size * HeapFootprint.array(Byte.BYTES, 0);
+    return arrays + values.length * perCode + (long) (slots.length + free.length) * Integer.BYTES;
+  }
+
+  private int allocate(Key key) {
+    int code;
+    if (freeCount > 0) {
+      code = free[--freeCount];
+    } else {
+      if (codes == values.length) {
+        int capacity = codes * 2;
+        values = Arrays.copyOf(values, capacity);
+        chars = Arrays.copyOf(chars, capacity);
+        references = Arrays.copyOf(references, capacity);
+      }
+      code = codes++;
+    }
+    values[code] = key.bytes();
+    chars[code] = key.chars();
+    references[code] = 0;
+    valueBytes += key.bytes().length;
+    return code;
+  }
+
+  /**
+   * @return слот со значением ключа или пустой слот, куда его можно вставить
+   */
+  private int find(Key key) {
+    int mask = slots.length - 1;
+    int slot = key.hash() & mask;
+    while (true) {
+      int code = slots[slot];
+      if (code == EMPTY
+          || (chars[code] == key.chars() && Arrays.equals(values[code], key.bytes()))) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /** Удаление со сдвигом назад: цепочки линейного пробирования остаются без дыр */
+  private void remove(int slot) {
+    int mask = slots.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (slots[next] != EMPTY) {
+      int home = new Key(values[slots[next]], chars[slots[next]]).hash() & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        slots[hole] = slots[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    slots[hole] = EMPTY;
+    size--;
+  }
+
+  private void rehash(int capacity) {
+    int[] previous = slots;
+    slots = newSlots(capacity);
+    for (int code : previous) {
+      if (code != EMPTY) {
+        slots[find(new Key(values[code], chars[code]))] = code;
+      }
+    }
+  }
+
+  private static int[] newSlots(int capacity) {
+    int[] slots = new int[capacity];
+    Arrays.fill(slots, EMPTY);
+    return slots;
+  }
+
+  /**
+   * Закодированная строка
+   *
+   * @param bytes упакованные символы или UTF-8
+   * @param chars количество упакованных символов, -1 для UTF-8
+   */
+  record Key(byte[] bytes, int chars) {
+
+    int hash() {
+      int hash = Arrays.hashCode(bytes) * 31 + chars;
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
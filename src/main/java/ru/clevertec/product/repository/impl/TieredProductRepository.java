@@ -0,0 +1,531 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.event.impl.RingBufferChangeStream;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.impl.StripedPriceStatistics;
+import ru.clevertec.product.query.ProductCondition;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryCollector;
+import ru.clevertec.product.query.QueryPlan;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.query.SortField;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.TierStats;
+import ru.clevertec.product.search.Tokenizer;
+import ru.clevertec.product.search.impl.InvertedIndex;
+import ru.clevertec.product.util.HeapFootprint;
+
+/**
+ * Хранилище из двух уровней: горячие продукты в памяти в пределах бюджета кучи, холодные - в
+ * файле, отображённом в память ({@link MappedColdTier}). Каждый продукт лежит ровно на одном
+ * уровне, кроме момента переноса.
+ *
+ * <p>Запись всегда кладёт продукт в память. Когда оценка занятой кучи ({@link HeapFootprint})
+ * превышает бюджет, записавший поток вытесняет продукты на диск по алгоритму CLOCK: прочитанный
+ * после прошлого обхода продукт получает второй шанс. Вытеснением занимается один поток за раз,
+ * поэтому бюджет может кратковременно превышаться на записи, идущие во время вытеснения.
+ *
+ * <p>Чтение с диска собирает продукт из отображённой памяти и не кладёт его в кучу надолго:
+ * поток чтений холодных продуктов создаёт только короткоживущие объекты, которые умирают в
+ * молодом поколении. Продукт поднимается в память лишь при повторном чтении, пока о нём помнит
+ * таблица допуска из примитивных ячеек, поэтому разовые чтения не вытесняют горячие продукты и
+ * не плодят долгоживущий мусор.
+ *
+ * <p>Операции одного UUID сериализуются блокировкой сегмента. Перенос между уровнями сначала
+ * кладёт продукт на новый уровень, затем убирает со старого, а чтение по идентификатору
+ * проверяет память, диск и ещё раз память, поэтому продукт не теряется посередине переноса.
+ * {@link #findAll()} видит все продукты: обход повторяется, если во время него шёл перенос, и
+ * после нескольких попыток выполняется под всеми блокировками сегментов.
+ *
+ * <p>Страницы читаются по упорядоченному множеству UUID обоих уровней: страница стоит O(limit
+ * log n) и не поднимает продукты в память. Множество держится на куче вне бюджета, порядка 100
+ * байт на продукт. Диапазонные запросы, запросы по спецификации и поиск обходят уровни так же,
+ * как {@link #findAll()}, но держат только подходящие продукты, а запрос с лимитом - не больше
+ * limit лучших.
+ *
+ * <p>Записи и удаления публикуются в {@link #changes()} под блокировкой сегмента. Перенос между
+ * уровнями продукт не меняет и изменением не считается.
+ */
+public class TieredProductRepository implements ProductRepository, AutoCloseable {
+
+  public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+  private static final int STRIPES = 64;
+  private static final int ADMISSION_SLOTS = 1 << 12;
+  private static final int OPTIMISTIC_SCANS = 3;
+  private static final long HOT_ENTRY_BYTES =
+      HeapFootprint.MAP_ENTRY + HeapFootprint.object(HeapFootprint.REFERENCE + Long.BYTES + 1);
+
+  private final long memoryBudgetBytes;
+  private final ConcurrentHashMap<UUID, Hot> hot = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListSet<UUID> ids = new ConcurrentSkipListSet<>();
+  private final AtomicLong hotBytes = new AtomicLong();
+  private final MappedColdTier cold;
+  private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final AtomicLongArray admissions = new AtomicLongArray(ADMISSION_SLOTS);
+  private final AtomicLong movesStarted = new AtomicLong();
+  private final AtomicLong movesFinished = new AtomicLong();
+  private final StripedPriceStatistics priceStatistics = new StripedPriceStatistics();
+  private final RingBufferChangeStream changes = new RingBufferChangeStream();
+  private final LongAdder hotHits = new LongAdder();
+  private final LongAdder coldHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder promotions = new LongAdder();
+  private Iterator<Hot> hand;
+
+  /**
+   * @param directory каталог файла холодного уровня, принадлежит только этому хранилищу
+   * @param memoryBudgetBytes бюджет кучи для продуктов в памяти
+   * @throws IllegalArgumentException если бюджет отрицательный
+   * @throws java.io.UncheckedIOException если каталог недоступен
+   */
+  public TieredProductRepository(Path directory, long memoryBudgetBytes) {
+    this(directory, memoryBudgetBytes, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * @param directory каталог файла холодного уровня, принадлежит только этому хранилищу
+   * @param memoryBudgetBytes бюджет кучи для продуктов в памяти
+   * @param segmentBytes размер сегмента отображения файла, продукт не может быть длиннее
+   * @throws IllegalArgumentException если бюджет отрицательный или сегмент не положительный
+   * @throws java.io.UncheckedIOException если каталог недоступен
+   */
+  public TieredProductRepository(Path directory, long memoryBudgetBytes, int segmentBytes) {
+    if (memoryBudgetBytes < 0) {
+      throw new IllegalArgumentException(
+          "Memory budget must not be negative: " + memoryBudgetBytes);
+    }
+    if (segmentBytes <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive: " + segmentBytes);
+    }
+    this.memoryBudgetBytes = memoryBudgetBytes;
+    this.cold = new MappedColdTier(directory, segmentBytes);
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  @Override
+  public Optional<Product> findById(UUID uuid) {
+    if (uuid == null) {
+      return Optional.empty();
+    }
+    Hot entry = hot.get(uuid);
+    if (entry == null) {
+      Product product = cold.get(uuid);
+      if (product != null) {
+        coldHits.increment();
+        if (admit(uuid)) {
+          promote(uuid);
+        }
+        return Optional.of(product);
+      }
+      entry = hot.get(uuid);
+    }
+    if (entry == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    entry.referenced = true;
+    hotHits.increment();
+    return Optional.of(copy(entry.product));
+  }
+
+  @Override
+  public List<Product> findAll() {
+    return scan(() -> new ArrayList<>(hot.size() + cold.size()), List::add);
+  }
+
+  @Override
+  public List<Product> findPage(UUID after, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+    List<Product> page = new ArrayList<>(Math.min(limit, ids.size()));
+    Iterator<UUID> candidates = (after == null ? ids : ids.tailSet(after, false)).iterator();
+    while (page.size() < limit && candidates.hasNext()) {
+      Product product = peek(candidates.next());
+      if (product != null) {
+        page.add(product);
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+    return query(
+            ProductQuery.where(ProductCondition.priceBetween(from, to)).orderBy(SortField.PRICE))
+        .products();
+  }
+
+  @Override
+  public List<Product> findByCreatedBetween(LocalDateTime from, LocalDateTime to) {
+    return query(
+            ProductQuery.where(ProductCondition.createdBetween(from, to))
+                .orderBy(SortField.CREATED))
+        .products();
+  }
+
+  /** Индексов нет: обход обоих уровней, в памяти только результат или его лучшие limit */
+  @Override
+  public QueryResult query(ProductQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    QueryCollector collector = scan(() -> new QueryCollector(query, false), QueryCollector::offer);
+    return new QueryResult(
+        collector.result(), QueryPlan.scanAll(ids.size(), query), collector.examined());
+  }
+
+  /**
+   * Обход оставляет только продукты, где каждое слово запроса совпало со словом или началом
+   * слова, и ранжирует их временным индексом. Частоты слов считаются по найденным продуктам, а
+   * не по всему каталогу, как и при слиянии разделов {@link ShardedProductRepository}
+   */
+  @Override
+  public List<Product> search(String query, int limit) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Search limit must be positive: " + limit);
+    }
+    List<String> words =
+        Tokenizer.tokenize(query).stream()
+            .filter(word -> word.length() >= InvertedIndex.MIN_PREFIX)
+            .toList();
+    if (words.isEmpty()) {
+      return List.of();
+    }
+    List<Product> found =
+        scan(
+            ArrayList::new,
+            (matched, product) -> !matches(product, words) || matched.add(product));
+    return CatalogScans.search(found, query, limit);
+  }
+
+  @Override
+  public Product save(Product product) {
+    if (product == null) {
+      throw new IllegalArgumentException("Product must not be null");
+    }
+    if (product.getUuid() == null) {
+      product.setUuid(UUID.randomUUID());
+    }
+    Product stored = copy(product);
+    ReentrantLock lock = lock(stored.getUuid());
+    lock.lock();
+    try {
+      install(stored);
+    } finally {
+      lock.unlock();
+    }
+    evictOverBudget();
+    return copy(stored);
+  }
+
+  @Override
+  public Optional<Product> saveIfVersion(Product product, long expectedVersion) {
+    if (product == null || product.getUuid() == null) {
+      throw new IllegalArgumentException("Product and its uuid must not be null");
+    }
+    Product stored = copy(product);
+    stored.setVersion(expectedVersion + 1);
+    ReentrantLock lock = lock(stored.getUuid());
+    lock.lock();
+    try {
+      Product previous = current(stored.getUuid());
+      if (previous == null || previous.getVersion() != expectedVersion) {
+        return Optional.empty();
+      }
+      install(stored);
+    } finally {
+      lock.unlock();
+    }
+    evictOverBudget();
+    return Optional.of(copy(stored));
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    if (uuid == null) {
+      return;
+    }
+    ReentrantLock lock = lock(uuid);
+    lock.lock();
+    try {
+      Hot removed = hot.remove(uuid);
+      Product previous;
+      if (removed != null) {
+        hotBytes.addAndGet(-removed.bytes);
+        previous = removed.product;
+      } else {
+        previous = cold.remove(uuid);
+      }
+      if (previous != null) {
+        priceStatistics.update(previous, null);
+        ids.remove(uuid);
+        changes.publish(previous, null);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public PriceStatistics priceStatistics() {
+    return priceStatistics;
+  }
+
+  @Override
+  public ProductChangeStream changes() {
+    return changes;
+  }
+
+  /**
+   * @return попадания по уровням, вытеснения, подъёмы и занятая память; счётчики читаются без
+   *     остановки записи
+   */
+  public TierStats stats() {
+    return new TierStats(
+        hotHits.sum(),
+        coldHits.sum(),
+        misses.sum(),
+        evictions.sum(),
+        promotions.sum(),
+        hot.size(),
+        cold.size(),
+        hotBytes.get(),
+        cold.indexBytes(),
+        cold.fileBytes());
+  }
+
+  /** Закрывает и удаляет файл холодного уровня, после закрытия хранилищем нельзя пользоваться */
+  @Override
+  public void close() {
+    cold.close();
+  }
+
+  /** Кладёт продукт в память под блокировкой его сегмента и убирает прежнюю версию с диска */
+  private void install(Product stored) {
+    UUID uuid = stored.getUuid();
+    Hot entry = new Hot(stored);
+    Product previous;
+    if (hot.containsKey(uuid) || !cold.contains(uuid)) {
+      Hot replaced = hot.put(uuid, entry);
+      hotBytes.addAndGet(entry.bytes - (replaced == null ? 0 : replaced.bytes));
+      previous = replaced == null ? null : replaced.product;
+    } else {
+      movesStarted.incrementAndGet();
+      hot.put(uuid, entry);
+      hotBytes.addAndGet(entry.bytes);
+      previous = cold.remove(uuid);
+      movesFinished.incrementAndGet();
+    }
+    if (previous == null) {
+      ids.add(uuid);
+    }
+    priceStatistics.update(previous, stored);
+    changes.publish(previous, stored);
+  }
+
+  private Product current(UUID uuid) {
+    Hot entry = hot.get(uuid);
+    return entry != null ? entry.product : cold.get(uuid);
+  }
+
+  /**
+   * Продукт по идентификатору без учёта в статистике и без подъёма в память: память, диск и
+   * ещё раз память, как в {@link #findById(UUID)}
+   */
+  private Product peek(UUID uuid) {
+    Hot entry = hot.get(uuid);
+    if (entry == null) {
+      Product product = cold.get(uuid);
+      if (product != null) {
+        return product;
+      }
+      entry = hot.get(uuid);
+    }
+    return entry == null ? null : copy(entry.product);
+  }
+
+  /**
+   * Передаёт сборщику каждый продукт обоих уровней один раз. Если во время обхода шёл перенос,
+   * обход повторяется с новым сборщиком, после нескольких попыток - под всеми блокировками
+   *
+   * @param collectors создаёт пустой сборщик для каждой попытки
+   * @param offer передаёт продукт сборщику, false останавливает обход
+   * @return сборщик удачной попытки
+   */
+  private <C> C scan(Supplier<C> collectors, BiPredicate<C, Product> offer) {
+    for (int attempt = 0; attempt < OPTIMISTIC_SCANS; attempt++) {
+      long started = movesStarted.get();
+      if (movesFinished.get() != started) {
+        Thread.onSpinWait();
+        continue;
+      }
+      C collector = scanOnce(collectors.get(), offer);
+      if (movesStarted.get() == started) {
+        return collector;
+      }
+    }
+    for (ReentrantLock lock : locks) {
+      lock.lock();
+    }
+    try {
+      return scanOnce(collectors.get(), offer);
+    } finally {
+      for (ReentrantLock lock : locks) {
+        lock.unlock();
+      }
+    }
+  }
+
+  private <C> C scanOnce(C collector, BiPredicate<C, Product> offer) {
+    Set<UUID> inMemory = new HashSet<>();
+    for (Hot entry : hot.values()) {
+      inMemory.add(entry.product.getUuid());
+      if (!offer.test(collector, copy(entry.product))) {
+        return collector;
+      }
+    }
+    cold.forEach(
+        product -> inMemory.contains(product.getUuid()) || offer.test(collector, product));
+    return collector;
+  }
+
+  /** Каждое слово совпадает с началом слова названия или описания, как в {@link InvertedIndex} */
+  private static boolean matches(Product product, List<String> words) {
+    List<String> tokens = new ArrayList<>(Tokenizer.tokenize(product.getName()));
+    tokens.addAll(Tokenizer.tokenize(product.getDescription()));
+    for (String word : words) {
+      if (tokens.stream().noneMatch(token -> token.startsWith(word))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Таблица допуска помнит отпечаток последнего холодного UUID в каждой ячейке. Повторное чтение
+   * того же UUID, пока ячейку не заняли другим, разрешает подъём в память
+   */
+  private boolean admit(UUID uuid) {
+    long fingerprint = (uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits()) | 1;
+    int slot = (int) (fingerprint * 0x9E3779B97F4A7C15L >>> 52) & (ADMISSION_SLOTS - 1);
+    if (admissions.get(slot) == fingerprint) {
+      admissions.compareAndSet(slot, fingerprint, 0);
+      return true;
+    }
+    admissions.set(slot, fingerprint);
+    return false;
+  }
+
+  private void promote(UUID uuid) {
+    ReentrantLock lock = lock(uuid);
+    lock.lock();
+    try {
+      Product product = hot.containsKey(uuid) ? null : cold.get(uuid);
+      if (product == null) {
+        return;
+      }
+      movesStarted.incrementAndGet();
+      Hot entry = new Hot(product);
+      hot.put(uuid, entry);
+      hotBytes.addAndGet(entry.bytes);
+      cold.remove(uuid);
+      movesFinished.incrementAndGet();
+      promotions.increment();
+    } finally {
+      lock.unlock();
+    }
+    evictOverBudget();
+  }
+
+  private void evictOverBudget() {
+    if (hotBytes.get() <= memoryBudgetBytes || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      while (hotBytes.get() > memoryBudgetBytes && !hot.isEmpty()) {
+        if (hand == null || !hand.hasNext()) {
+          hand = hot.values().iterator();
+          continue;
+        }
+        Hot candidate = hand.next();
+        if (candidate.referenced) {
+          candidate.referenced = false;
+        } else {
+          evict(candidate);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void evict(Hot candidate) {
+    UUID uuid = candidate.product.getUuid();
+    ReentrantLock lock = lock(uuid);
+    lock.lock();
+    try {
+      if (hot.get(uuid) != candidate) {
+        return;
+      }
+      movesStarted.incrementAndGet();
+      cold.put(candidate.product);
+      hot.remove(uuid, candidate);
+      hotBytes.addAndGet(-candidate.bytes);
+      movesFinished.incrementAndGet();
+      evictions.increment();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ReentrantLock lock(UUID uuid) {
+    int hash = uuid.hashCode();
+    return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  private static Product copy(Product product) {
+    return product.toBuilder().build();
+  }
+
+  /** Продукт в памяти с оценкой занятой кучи и битом обращения для CLOCK */
+  private static final class Hot {
+
+    private final Product product;
+    private final long bytes;
+    private volatile boolean referenced;
+
+    private Hot(Product product) {
+      this.product = product;
+      this.bytes = HOT_ENTRY_BYTES + HeapFootprint.of(product);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица с открытой адресацией из UUID (пара long) в номер строки. Не создаёт объектов на
+ * запись и не потокобезопасна: синхронизация лежит на владельце.
+ */
+final class UuidRowIndex {
+
+  static final int ABSENT = -1;
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] rows;
+  private int size;
+  private int mask;
+
+  UuidRowIndex() {
+    allocate(MIN_CAPACITY);
+  }
+
+  int get(long msb, long lsb) {
+    for (int slot = slot(msb, lsb); ; slot = (slot + 1) & mask) {
+      int row = rows[slot];
+      if (row == ABSENT) {
+        return ABSENT;
+      }
+      if (keys[slot << 1] == msb && keys[(slot << 1) + 1] == lsb) {
+        return row;
+      }
+    }
+  }
+
+  void put(long msb, long lsb, int row) {
+    if ((size + 1) * 4L > rows.length * 3L) {
+      resize(rows.length << 1);
+    }
+    int slot = slot(msb, lsb);
+    while (rows[slot] != ABSENT) {
+      if (keys[slot << 1] == msb && keys[(slot << 1) + 1] == lsb) {
+        rows[slot] = row;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot << 1] = msb;
+    keys[(slot << 1) + 1] = lsb;
+    rows[slot] = row;
+    size++;
+  }
+
+  int remove(long msb, long lsb) {
+    int slot = slot(msb, lsb);
+    while (rows[slot] != ABSENT) {
+      if (keys[slot << 1] == msb && keys[(slot << 1) + 1] == lsb) {
+        int row = rows[slot];
+        shiftBack(slot);
+        size--;
+        return row;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return ABSENT;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long footprintBytes() {
+    return keys.length * (long) Long.BYTES + rows.length * (long) Integer.BYTES;
+  }
+
+  private void shiftBack(int hole) {
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (rows[slot] == ABSENT) {
+        break;
+      }
+      int home = slot(keys[slot << 1], keys[(slot << 1) + 1]);
+      boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+      if (movable) {
+        keys[hole << 1] = keys[slot << 1];
+        keys[(hole << 1) + 1] = keys[(slot << 1) + 1];
+        rows[hole] = rows[slot];
+        hole = slot;
+      }
+    }
+    rows[hole] = ABSENT;
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldRows = rows;
+    allocate(capacity);
+    size = 0;
+    for (int slot = 0; slot < oldRows.length; slot++) {
+      if (oldRows[slot] != ABSENT) {
+        put(oldKeys[slot << 1], oldKeys[(slot << 1) + 1], oldRows[slot]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity << 1];
+    rows = new int[capacity];
+    Arrays.fill(rows, ABSENT);
+    mask = capacity - 1;
+  }
+
+  private int slot(long msb, long lsb) {
+    long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
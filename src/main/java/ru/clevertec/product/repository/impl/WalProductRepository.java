@@ -0,0 +1,419 @@
+package ru.clevertec.product.repository.impl;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ProductChangeStream;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.storage.DurabilityMode;
+import ru.clevertec.product.storage.LogRecord;
+import ru.clevertec.product.storage.Snapshot;
+import ru.clevertec.product.storage.WriteAheadLog;
+
+/**
+ * Персистентное хранилище: каждая запись сначала попадает в {@link WriteAheadLog}, затем
+ * применяется к хранилищу в памяти. При открытии состояние восстанавливается из журнала.
+ *
+ * <p>Добавление в журнал и применение выполняются под блокировкой сегмента UUID, поэтому
+ * порядок записей одного продукта в журнале совпадает с порядком в памяти. Ожидание fsync идёт
+ * уже без блокировки, чтобы писатели разных продуктов разделяли один fsync. Изменение видно
+ * читателям до того, как оно стало надёжным. Пакетные операции группируют элементы по сегментам:
+ * каждая блокировка берётся один раз, записи сегмента дописываются в журнал одним вызовом и
+ * применяются к хранилищу пакетом.
+ *
+ * <p>Периодически в фоне пишется {@link Snapshot}, после чего сегменты журнала до него
+ * удаляются, поэтому время запуска ограничено размером каталога и хвостом журнала. Снимок
+ * читается постранично без глобальной блокировки: запись и чтение во время снимка не
+ * останавливаются, а изменения, не попавшие в снимок, лежат в новом сегменте и проигрываются
+ * поверх него. Ошибки фонового снимка считаются, последняя доступна через {@link
+ * #lastSnapshotFailure()}.
+ */
+public class WalProductRepository implements ProductRepository, AutoCloseable {
+
+  public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(10);
+  public static final Duration DEFAULT_SNAPSHOT_INTERVAL = Duration.ofMinutes(5);
+
+  private static final int STRIPES = 64;
+  private static final int BATCH_SIZE = 4096;
+
+  private final Path directory;
+  private final ProductRepository delegate;
+  private final WriteAheadLog log;
+  private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+  private final ReentrantLock snapshotLock = new ReentrantLock();
+  private final ScheduledExecutorService snapshotter;
+  private final AtomicLong snapshotFailures = new AtomicLong();
+  private volatile long snapshotLsn;
+  private volatile RuntimeException lastSnapshotFailure;
+
+  public WalProductRepository(Path directory, DurabilityMode mode) {
+    this(
+        directory,
+        mode,
+        DEFAULT_FLUSH_INTERVAL,
+        DEFAULT_SNAPSHOT_INTERVAL,
+        new InMemoryProductRepository());
+  }
+
+  /**
+   * @param directory каталог журнала и снимков
+   * @param mode режим надёжности записи
+   * @param flushInterval период фонового fsync для режимов BATCH и ASYNC
+   * @param snapshotInterval период фонового снимка, null - только по {@link #snapshot()}
+   * @param delegate пустое хранилище в памяти, в которое загружается снимок и журнал
+   * @throws IllegalStateException если снимок или журнал повреждены
+   */
+  public WalProductRepository(
+      Path directory,
+      DurabilityMode mode,
+      Duration flushInterval,
+      Duration snapshotInterval,
+      ProductRepository delegate) {
+    this.directory = directory;
+    this.delegate = delegate;
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    List<Product> batch = new ArrayList<>(BATCH_SIZE);
+    long firstSegment =
+        Snapshot.load(
+            directory,
+            product -> {
+              batch.add(product);
+              if (batch.size() == BATCH_SIZE) {
+                delegate.saveAll(batch);
+                batch.clear();
+              }
+            });
+    delegate.saveAll(batch);
+    this.log = WriteAheadLog.open(directory, mode, flushInterval, firstSegment, this::apply);
+    this.snapshotLsn = log.writtenLsn();
+    if (snapshotInterval == null) {
+      this.snapshotter = null;
+    } else {
+      this.snapshotter =
+          Executors.newSingleThreadScheduledExecutor(
+              task -> {
+                Thread thread = new Thread(task, "wal-snapshot");
+                thread.setDaemon(true);
+                return thread;
+              });
+      long period = snapshotInterval.toNanos();
+      snapshotter.scheduleWithFixedDelay(
+          this::snapshotIfChanged, period, period, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public Optional<Product> findById(UUID uuid) {
+    return delegate.findById(uuid);
+  }
+
+  @Override
+  public List<Product> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<Product> findPage(UUID after, int limit) {
+    return delegate.findPage(after, limit);
+  }
+
+  @Override
+  public List<Product> search(String query, int limit) {
+    return delegate.search(query, limit);
+  }
+
+  @Override
+  public QueryResult query(ProductQuery query) {
+    return delegate.query(query);
+  }
+
+  @Override
+  public PriceStatistics priceStatistics() {
+    return delegate.priceStatistics();
+  }
+
+  @Override
+  public ProductChangeStream changes() {
+    return delegate.changes();
+  }
+
+  @Override
+  public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+    return delegate.findByPriceBetween(from, to);
+  }
+
+  @Override
+  public List<Product> findByCreatedBetween(LocalDateTime from, LocalDateTime to) {
+    return delegate.findByCreatedBetween(from, to);
+  }
+
+  @Override
+  public Product save(Product product) {
+    if (product == null) {
+      throw new IllegalArgumentException("Product must not be null");
+    }
+    Saved saved = saveLogged(product);
+    log.awaitDurable(saved.lsn());
+    return saved.product();
+  }
+
+  @Override
+  public Optional<Product> saveIfVersion(Product product, long expectedVersion) {
+    if (product == null || product.getUuid() == null) {
+      throw new IllegalArgumentException("Product and its uuid must not be null");
+    }
+    LogRecord record = LogRecord.save(product.toBuilder().version(expectedVersion + 1).build());
+    Saved saved;
+    ReentrantLock lock = lock(record.uuid());
+    lock.lock();
+    try {
+      Optional<Product> current = delegate.findById(record.uuid());
+      if (current.isEmpty() || current.get().getVersion() != expectedVersion) {
+        return Optional.empty();
+      }
+      long lsn = log.append(record);
+      saved = new Saved(delegate.save(record.product()), lsn);
+    } finally {
+      lock.unlock();
+    }
+    log.awaitDurable(saved.lsn());
+    return Optional.of(saved.product());
+  }
+
+  @Override
+  public List<Product> saveAll(Collection<Product> products) {
+    if (products == null) {
+      throw new IllegalArgumentException("Products must not be null");
+    }
+    if (products.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Product must not be null");
+    }
+    LogRecord[] records = new LogRecord[products.size()];
+    int i = 0;
+    for (Product product : products) {
+      if (product.getUuid() == null) {
+        product.setUuid(UUID.randomUUID());
+      }
+      records[i++] = LogRecord.save(product.toBuilder().build());
+    }
+    Product[] result = new Product[records.length];
+    long lsn =
+        appendByStripe(
+            records,
+            (group, batch) -> {
+              List<Product> saved =
+                  delegate.saveAll(batch.stream().map(LogRecord::product).toList());
+              for (int j = 0; j < group.length; j++) {
+                result[group[j]] = saved.get(j);
+              }
+            });
+    log.awaitDurable(lsn);
+    return List.of(result);
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    if (uuid != null) {
+      log.awaitDurable(deleteLogged(uuid));
+    }
+  }
+
+  @Override
+  public void deleteAll(Collection<UUID> uuids) {
+    if (uuids == null) {
+      return;
+    }
+    LogRecord[] records =
+        uuids.stream().filter(Objects::nonNull).map(LogRecord::delete).toArray(LogRecord[]::new);
+    long lsn =
+        appendByStripe(
+            records,
+            (group, batch) -> delegate.deleteAll(batch.stream().map(LogRecord::uuid).toList()));
+    log.awaitDurable(lsn);
+  }
+
+  /**
+   * Пишет снимок текущего состояния и удаляет вошедшие в него сегменты журнала. Не блокирует
+   * чтение и запись, одновременно выполняется не больше одного снимка
+   *
+   * @throws java.io.UncheckedIOException при ошибке ввода-вывода. Журнал к этому моменту уже
+   *     мог перейти на новый сегмент, но прежние сегменты удаляются только после успешного
+   *     снимка, поэтому данные не теряются, а растёт лишь время запуска
+   */
+  public void snapshot() {
+    snapshotLock.lock();
+    try {
+      long lsn = log.writtenLsn();
+      long segment = log.roll();
+      for (ReentrantLock lock : locks) {
+        lock.lock();
+        lock.unlock();
+      }
+      try (Snapshot.Writer writer = Snapshot.create(directory, segment)) {
+        UUID after = null;
+        List<Product> page;
+        do {
+          page = delegate.findPage(after, BATCH_SIZE);
+          page.forEach(writer::append);
+          after = page.isEmpty() ? after : page.get(page.size() - 1).getUuid();
+        } while (page.size() == BATCH_SIZE);
+        writer.commit();
+      }
+      log.deleteSegmentsBefore(segment);
+      snapshotLsn = lsn;
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (snapshotter != null) {
+      snapshotter.shutdown();
+    }
+    snapshotLock.lock();
+    try {
+      log.close();
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  /**
+   * @return количество неудачных фоновых снимков с момента открытия
+   */
+  public long snapshotFailures() {
+    return snapshotFailures.get();
+  }
+
+  /**
+   * Постоянная ошибка фонового снимка (нет места, повреждённая страница) не теряет данных, но
+   * сегменты журнала перестают удаляться и время запуска растёт без ограничения
+   *
+   * @return ошибка последнего фонового снимка, пусто если он удался или ещё не выполнялся
+   */
+  public Optional<RuntimeException> lastSnapshotFailure() {
+    return Optional.ofNullable(lastSnapshotFailure);
+  }
+
+  private void snapshotIfChanged() {
+    try {
+      if (log.writtenLsn() != snapshotLsn) {
+        snapshot();
+        lastSnapshotFailure = null;
+      }
+    } catch (RuntimeException e) {
+      // сегменты до снимка остаются на месте, снимок будет повторён в следующий период
+      snapshotFailures.incrementAndGet();
+      lastSnapshotFailure = e;
+    }
+  }
+
+  private Saved saveLogged(Product product) {
+    if (product.getUuid() == null) {
+      product.setUuid(UUID.randomUUID());
+    }
+    LogRecord record = LogRecord.save(product.toBuilder().build());
+    ReentrantLock lock = lock(record.uuid());
+    lock.lock();
+    try {
+      long lsn = log.append(record);
+      return new Saved(delegate.save(record.product()), lsn);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long deleteLogged(UUID uuid) {
+    ReentrantLock lock = lock(uuid);
+    lock.lock();
+    try {
+      long lsn = log.append(LogRecord.delete(uuid));
+      delegate.delete(uuid);
+      return lsn;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Группирует записи по сегментам блокировок и для каждого сегмента один раз берёт его
+   * блокировку, дописывает его записи в журнал одним вызовом и применяет их пакетом. Записи
+   * одного UUID остаются в исходном порядке
+   *
+   * @param action применение пакета: индексы записей в исходном массиве и сами записи
+   * @return LSN конца последней дописанной записи, 0 если записей нет
+   */
+  private long appendByStripe(LogRecord[] records, BiConsumer<int[], List<LogRecord>> action) {
+    int[] counts = new int[STRIPES];
+    for (LogRecord record : records) {
+      counts[stripe(record.uuid())]++;
+    }
+    int[][] groups = new int[STRIPES][];
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      groups[stripe] = new int[counts[stripe]];
+      counts[stripe] = 0;
+    }
+    for (int i = 0; i < records.length; i++) {
+      int stripe = stripe(records[i].uuid());
+      groups[stripe][counts[stripe]++] = i;
+    }
+    long lsn = 0;
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      int[] group = groups[stripe];
+      if (group.length == 0) {
+        continue;
+      }
+      List<LogRecord> batch = new ArrayList<>(group.length);
+      for (int i : group) {
+        batch.add(records[i]);
+      }
+      ReentrantLock lock = locks[stripe];
+      lock.lock();
+      try {
+        lsn = Math.max(lsn, log.appendAll(batch));
+        action.accept(group, batch);
+      } finally {
+        lock.unlock();
+      }
+    }
+    return lsn;
+  }
+
+  private void apply(LogRecord record) {
+    switch (record.type()) {
+      case SAVE -> delegate.save(record.product());
+      case DELETE -> delegate.delete(record.uuid());
+    }
+  }
+
+  private ReentrantLock lock(UUID uuid) {
+    return locks[stripe(uuid)];
+  }
+
+  private static int stripe(UUID uuid) {
+    int hash = uuid.hashCode();
+    return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+  }
+
+  private record Saved(Product product, long lsn) {}
+}
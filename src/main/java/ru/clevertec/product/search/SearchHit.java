@@ -0,0 +1,11 @@
+package ru.clevertec.product.search;
+
+import java.util.UUID;
+
+public record SearchHit(
+
+    /** Идентификатор найденного продукта */
+    UUID uuid,
+
+    /** Релевантность, чем больше тем выше в выдаче */
+    double score) {}
@@ -0,0 +1,52 @@
+package ru.clevertec.product.search;
+
+import java.util.List;
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+
+public interface SearchIndex {
+
+  /**
+   * Переиндексирует продукт после изменения. Изменения одного продукта должны передаваться
+   * последовательно, в порядке записи
+   *
+   * @param before состояние до изменения, null если продукт создан
+   * @param after состояние после изменения, null если продукт удалён
+   */
+  void update(Product before, Product after);
+
+  /**
+   * Ищет продукты, у которых каждое слово запроса совпадает со словом или началом слова в
+   * названии или описании
+   *
+   * @param query слова запроса, слова короче двух символов не учитываются
+   * @param limit максимальное количество результатов
+   * @return результаты по убыванию релевантности
+   * @throws IllegalArgumentException если запрос null или limit не положительный
+   */
+  List<SearchHit> search(String query, int limit);
+
+  /**
+   * Ищет те же продукты, что и {@link #search(String, int)}, но без ранжирования и лимита
+   *
+   * @param query слова запроса, слова короче двух символов не учитываются
+   * @return идентификаторы найденных продуктов в произвольном порядке
+   * @throws IllegalArgumentException если запрос null
+   */
+  List<UUID> matches(String query);
+
+  /**
+   * Оценивает количество совпадений без пересечения списков: длина самого короткого списка
+   * слова запроса, включая ещё не вычищенные устаревшие записи
+   *
+   * @param query слова запроса
+   * @return оценка сверху, Integer.MAX_VALUE если в запросе нет слов длиной от двух символов
+   * @throws IllegalArgumentException если запрос null
+   */
+  int estimate(String query);
+
+  /**
+   * @return оценка байт на куче, занятых индексом
+   */
+  long estimatedBytes();
+}
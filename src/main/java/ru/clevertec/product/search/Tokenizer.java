@@ -0,0 +1,44 @@
+package ru.clevertec.product.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбивает текст на слова: непрерывные последовательности букв и цифр любого алфавита.
+ * Слова приводятся к нижнему регистру, буква ё заменяется на е, чтобы "Ёлка" и "елка"
+ * совпадали.
+ */
+public final class Tokenizer {
+
+  private Tokenizer() {}
+
+  /**
+   * @param text текст, null - нет слов
+   * @return слова в порядке появления, с повторами
+   */
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    StringBuilder token = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        token.append(normalize(c));
+      } else if (!token.isEmpty()) {
+        tokens.add(token.toString());
+        token.setLength(0);
+      }
+    }
+    if (!token.isEmpty()) {
+      tokens.add(token.toString());
+    }
+    return tokens;
+  }
+
+  private static char normalize(char c) {
+    char lower = Character.toLowerCase(c);
+    return lower == 'ё' ? 'е' : lower;
+  }
+}
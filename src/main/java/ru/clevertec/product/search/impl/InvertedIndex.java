@@ -0,0 +1,340 @@
+package ru.clevertec.product.search.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.search.SearchHit;
+import ru.clevertec.product.search.SearchIndex;
+import ru.clevertec.product.search.Tokenizer;
+import ru.clevertec.product.util.HeapFootprint;
+
+/**
+ * Инвертированный индекс по названию и описанию продукта.
+ *
+ * <p>Для каждого слова индексируется само слово и все его префиксы от {@link #MIN_PREFIX}
+ * символов (edge n-граммы), поэтому поиск по началу слова - один поиск в таблице термов. Запись
+ * в списке термина хранит ссылку на документ, поколение документа и битовую маску полей, где
+ * встретился термин: целое слово или префикс, в названии или в описании.
+ *
+ * <p>Переиндексация не ищет старые записи: она дописывает записи нового поколения и затем
+ * переключает поколение документа, после чего старые записи считаются устаревшими. Удаление
+ * помечает документ удалённым. Термины прежнего состояния продукта считают свои устаревшие
+ * записи и вычищают их, как только устаревших становится не меньше половины списка; список без
+ * живых записей удаляется из таблицы термов. Поэтому память и её оценка пропорциональны живым
+ * записям и после удалений. Если название и описание не изменились, индекс не трогается.
+ *
+ * <p>Чтение идёт без блокировок: списки только дописываются, а чистка копирует живые записи в
+ * новые массивы. Дописывание и удаление списка идут через compute таблицы термов, поэтому
+ * запись не попадёт в уже удалённый список.
+ */
+public class InvertedIndex implements SearchIndex {
+
+  public static final int MIN_PREFIX = 2;
+
+  private static final int NAME_WORD = 1;
+  private static final int NAME_PREFIX = 1 << 1;
+  private static final int DESCRIPTION_WORD = 1 << 2;
+  private static final int DESCRIPTION_PREFIX = 1 << 3;
+  private static final int DELETED = -1;
+
+  private static final Comparator<SearchHit> RANKING =
+      Comparator.comparingDouble(SearchHit::score)
+          .reversed()
+          .thenComparing(SearchHit::uuid);
+
+  private final ConcurrentHashMap<String, Postings> terms = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<UUID, Document> documents = new ConcurrentHashMap<>();
+
+  @Override
+  public void update(Product before, Product after) {
+    if (after == null) {
+      Document document = documents.remove(before.getUuid());
+      if (document != null) {
+        document.generation = DELETED;
+        retire(before);
+      }
+      return;
+    }
+    if (before != null
+        && Objects.equals(before.getName(), after.getName())
+        && Objects.equals(before.getDescription(), after.getDescription())) {
+      return;
+    }
+    Document document = documents.computeIfAbsent(after.getUuid(), Document::new);
+    int generation = document.generation + 1;
+    Map<String, Integer> fields = new HashMap<>();
+    collect(after.getName(), NAME_WORD, NAME_PREFIX, fields);
+    collect(after.getDescription(), DESCRIPTION_WORD, DESCRIPTION_PREFIX, fields);
+    fields.forEach(
+        (term, mask) ->
+            terms.compute(
+                term,
+                (key, postings) -> {
+                  Postings target = postings == null ? new Postings() : postings;
+                  target.add(document, generation, mask.byteValue());
+                  return target;
+                }));
+    document.generation = generation;
+    if (before != null) {
+      retire(before);
+    }
+  }
+
+  @Override
+  public List<SearchHit> search(String query, int limit) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Search limit must be positive: " + limit);
+    }
+    Map<Document, Double> scores = score(query);
+    return scores.isEmpty() ? List.of() : top(scores, limit);
+  }
+
+  @Override
+  public List<UUID> matches(String query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    List<UUID> matched = new ArrayList<>();
+    score(query).keySet().forEach(document -> matched.add(document.uuid));
+    return matched;
+  }
+
+  @Override
+  public int estimate(String query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query must not be null");
+    }
+    Set<String> words = words(query);
+    if (words.isEmpty()) {
+      return Integer.MAX_VALUE;
+    }
+    int estimate = Integer.MAX_VALUE;
+    for (String word : words) {
+      Postings postings = terms.get(word);
+      if (postings == null) {
+        return 0;
+      }
+      estimate = Math.min(estimate, postings.snapshot().size());
+    }
+    return estimate;
+  }
+
+  @Override
+  public long estimatedBytes() {
+    long bytes = 0;
+    for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+      bytes += HeapFootprint.MAP_ENTRY + HeapFootprint.string(entry.getKey());
+      bytes += entry.getValue().estimatedBytes();
+    }
+    long document = HeapFootprint.object(HeapFootprint.REFERENCE + Integer.BYTES);
+    return bytes + documents.size() * (HeapFootprint.MAP_ENTRY + document);
+  }
+
+  private static Set<String> words(String query) {
+    Set<String> words = new LinkedHashSet<>();
+    for (String token : Tokenizer.tokenize(query)) {
+      if (token.length() >= MIN_PREFIX) {
+        words.add(token);
+      }
+    }
+    return words;
+  }
+
+  /** Пересекает списки от самого короткого, устаревшие записи пропускаются */
+  private Map<Document, Double> score(String query) {
+    Set<String> words = words(query);
+    List<Snapshot> lists = new ArrayList<>(words.size());
+    for (String word : words) {
+      Postings postings = terms.get(word);
+      if (postings == null) {
+        return Map.of();
+      }
+      lists.add(postings.snapshot());
+    }
+    if (lists.isEmpty()) {
+      return Map.of();
+    }
+    lists.sort(Comparator.comparingInt(Snapshot::size));
+    double total = Math.max(1, documents.size());
+    Map<Document, Double> scores = null;
+    for (Snapshot list : lists) {
+      double idf = Math.log(1 + total / list.size());
+      Map<Document, Double> matched = new HashMap<>();
+      for (int i = 0; i < list.size(); i++) {
+        Document document = list.documents()[i];
+        if (document.generation != list.generations()[i]) {
+          continue;
+        }
+        double previous = scores == null ? 0 : scores.getOrDefault(document, -1.0);
+        if (previous >= 0) {
+          matched.put(document, previous + idf * weight(list.fields()[i]));
+        }
+      }
+      scores = matched;
+      if (scores.isEmpty()) {
+        return Map.of();
+      }
+    }
+    return scores;
+  }
+
+  /** Отмечает устаревшими записи терминов прежнего состояния, пустые списки удаляются */
+  private void retire(Product before) {
+    Map<String, Integer> fields = new HashMap<>();
+    collect(before.getName(), NAME_WORD, NAME_PREFIX, fields);
+    collect(before.getDescription(), DESCRIPTION_WORD, DESCRIPTION_PREFIX, fields);
+    for (String term : fields.keySet()) {
+      terms.computeIfPresent(term, (key, postings) -> postings.retire() ? null : postings);
+    }
+  }
+
+  private static void collect(String text, int word, int prefix, Map<String, Integer> fields) {
+    for (String token : Tokenizer.tokenize(text)) {
+      fields.merge(token, word, (a, b) -> a | b);
+      for (int length = MIN_PREFIX; length < token.length(); length++) {
+        fields.merge(token.substring(0, length), prefix, (a, b) -> a | b);
+      }
+    }
+  }
+
+  /** Целое слово весит вдвое больше префикса, название - вдвое больше описания */
+  private static double weight(byte mask) {
+    double name = (mask & NAME_WORD) != 0 ? 4 : (mask & NAME_PREFIX) != 0 ? 2 : 0;
+    double description =
+        (mask & DESCRIPTION_WORD) != 0 ? 2 : (mask & DESCRIPTION_PREFIX) != 0 ? 1 : 0;
+    return name + description;
+  }
+
+  private static List<SearchHit> top(Map<Document, Double> scores, int limit) {
+    PriorityQueue<SearchHit> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+    scores.forEach(
+        (document, score) -> {
+          heap.add(new SearchHit(document.uuid, score));
+          if (heap.size() > limit) {
+            heap.poll();
+          }
+        });
+    List<SearchHit> hits = new ArrayList<>(heap);
+    hits.sort(RANKING);
+    return hits;
+  }
+
+  private static final class Document {
+
+    private final UUID uuid;
+    private volatile int generation;
+
+    private Document(UUID uuid) {
+      this.uuid = uuid;
+    }
+  }
+
+  private record Snapshot(Document[] documents, int[] generations, byte[] fields, int size) {}
+
+  /** Список записей одного термина, дописывается под своим монитором */
+  private static final class Postings {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private Document[] documents = new Document[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private byte[] fields = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int stale;
+
+    synchronized void add(Document document, int generation, byte mask) {
+      if (size == documents.length) {
+        resize();
+      }
+      documents[size] = document;
+      generations[size] = generation;
+      fields[size] = mask;
+      size++;
+    }
+
+    /**
+     * Учитывает одну устаревшую запись и вычищает список, когда устаревших не меньше половины
+     *
+     * @return true если живых записей не осталось
+     */
+    synchronized boolean retire() {
+      if (++stale * 2 < size) {
+        return false;
+      }
+      compact(Math.max(INITIAL_CAPACITY, live() * 2));
+      return size == 0;
+    }
+
+    synchronized Snapshot snapshot() {
+      return new Snapshot(documents, generations, fields, size);
+    }
+
+    synchronized long estimatedBytes() {
+      return HeapFootprint.object(3 * HeapFootprint.REFERENCE + Integer.BYTES)
+          + HeapFootprint.array(HeapFootprint.REFERENCE, documents.length)
+          + HeapFootprint.array(Integer.BYTES, generations.length)
+          + HeapFootprint.array(Byte.BYTES, fields.length);
+    }
+
+    /** Ёмкость удваивается, только если живых записей больше половины */
+    private void resize() {
+      int capacity = live() * 2 > documents.length ? documents.length * 2 : documents.length;
+      compact(capacity);
+    }
+
+    private int live() {
+      int live = 0;
+      for (int i = 0; i < size; i++) {
+        if (!isStale(i)) {
+          live++;
+        }
+      }
+      return live;
+    }
+
+    /**
+     * Переносит неустаревшие записи в новые массивы: читатели, снявшие снимок раньше,
+     * продолжают читать старые
+     */
+    private void compact(int capacity) {
+      Document[] newDocuments = new Document[capacity];
+      int[] newGenerations = new int[capacity];
+      byte[] newFields = new byte[capacity];
+      int j = 0;
+      for (int i = 0; i < size; i++) {
+        if (!isStale(i)) {
+          newDocuments[j] = documents[i];
+          newGenerations[j] = generations[i];
+          newFields[j] = fields[i];
+          j++;
+        }
+      }
+      documents = newDocuments;
+      generations = newGenerations;
+      fields = newFields;
+      size = j;
+      stale = 0;
+    }
+
+    /**
+     * Запись новее поколения документа не устарела: её переиндексация ещё не переключила
+     * поколение
+     */
+    private boolean isStale(int i) {
+      int current = documents[i].generation;
+      return current == DELETED || generations[i] < current;
+    }
+  }
+}
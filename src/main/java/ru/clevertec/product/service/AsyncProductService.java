@@ -0,0 +1,70 @@
+package ru.clevertec.product.service;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ValidationException;
+import ru.clevertec.product.exception.VersionConflictException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+public interface AsyncProductService {
+
+  /**
+   * Асинхронно ищет продукт по идентификатору
+   *
+   * @param uuid идентификатор продукта
+   * @return future с найденным продуктом, завершается с {@link ProductNotFoundException} если
+   *     продукт не найден
+   */
+  CompletableFuture<InfoProductDto> get(UUID uuid);
+
+  /**
+   * Публикует все продукты по возрастанию идентификатора. Хранилище читается страницами только
+   * под запрошенный подписчиком объём, поэтому медленный подписчик не заставляет держать в
+   * памяти весь каталог
+   *
+   * @return холодный издатель, каждая подписка обходит каталог заново
+   */
+  Flow.Publisher<InfoProductDto> getAll();
+
+  /**
+   * Асинхронно создаёт новый продукт из DTO
+   *
+   * @param productDto DTO с информацией о создании
+   * @return future с идентификатором созданного продукта, завершается с {@link
+   *     ValidationException} если DTO нарушает правила продукта
+   */
+  CompletableFuture<UUID> create(ProductDto productDto);
+
+  /**
+   * Асинхронно обновляет уже существующий продукт из информации полученной в DTO
+   *
+   * @param uuid идентификатор продукта для обновления
+   * @param productDto DTO с информацией об обновлении
+   * @return future, завершается с {@link ValidationException}, {@link ProductNotFoundException}
+   *     или {@link VersionConflictException} как и {@link ProductService#update(UUID,
+   *     ProductDto)}
+   */
+  CompletableFuture<Void> update(UUID uuid, ProductDto productDto);
+
+  /**
+   * Асинхронно обновляет продукт, только если его версия не изменилась с момента чтения
+   *
+   * @param uuid идентификатор продукта для обновления
+   * @param productDto DTO с информацией об обновлении
+   * @param expectedVersion версия из {@link InfoProductDto#version()}
+   * @return future, завершается с {@link VersionConflictException} если версия уже другая
+   */
+  CompletableFuture<Void> update(UUID uuid, ProductDto productDto, long expectedVersion);
+
+  /**
+   * Асинхронно удаляет существующий продукт
+   *
+   * @param uuid идентификатор продукта для удаления
+   * @return future, завершающийся после удаления
+   */
+  CompletableFuture<Void> delete(UUID uuid);
+}
@@ -1,11 +1,15 @@
 package ru.clevertec.product.service;
 
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ValidationException;
+import ru.clevertec.product.exception.VersionConflictException;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ProductService {
 
@@ -25,22 +29,76 @@ public interface ProductService {
    */
   List<InfoProductDto> getAll();
 
+  /**
+   * Возвращает страницу продуктов по возрастанию идентификатора
+   *
+   * @param cursor курсор из предыдущей страницы, null - первая страница
+   * @param size размер страницы
+   * @return страница с информацией о продуктах и курсором следующей страницы
+   * @throws IllegalArgumentException если курсор повреждён или размер вне допустимых границ
+   */
+  Page<InfoProductDto> getPage(String cursor, int size);
+
+  /**
+   * Лениво обходит весь каталог. Хранилище читается страницами по мере потребления стрима,
+   * поэтому память ограничена размером страницы
+   *
+   * @return стрим с информацией о продуктах по возрастанию идентификатора
+   */
+  Stream<InfoProductDto> streamAll();
+
+  /**
+   * Ищет продукты по словам и началам слов в названии и описании
+   *
+   * @param query поисковый запрос
+   * @param limit максимальное количество результатов
+   * @return информация о продуктах по убыванию релевантности
+   * @throws IllegalArgumentException если запрос null или limit вне допустимых границ
+   */
+  List<InfoProductDto> search(String query, int limit);
+
   /**
    * Создаёт новый продукт из DTO
    *
    * @param productDto DTO с информацией о создании
    * @return идентификатор созданного продукта
+   * @throws ValidationException если DTO нарушает правила продукта
    */
   UUID create(ProductDto productDto);
 
   /**
-   * Обновляет уже существующий продукт из информации полученной в DTO
+   * Создаёт продукты из пачки DTO за один проход маппинга и одну запись в хранилище
+   *
+   * @param productDtos DTO с информацией о создании
+   * @return идентификаторы созданных продуктов в порядке передачи
+   * @throws ValidationException с ошибками всех некорректных DTO, ничего не создаётся
+   */
+  List<UUID> createAll(List<ProductDto> productDtos);
+
+  /**
+   * Обновляет уже существующий продукт из информации полученной в DTO. При конкурентном
+   * изменении продукта обновление повторяется поверх свежей версии
    *
    * @param uuid идентификатор продукта для обновления
    * @param productDto DTO с информацией об обновлении
+   * @throws ValidationException если DTO нарушает правила продукта
+   * @throws ProductNotFoundException если продукт не найден
+   * @throws VersionConflictException если продукт слишком часто меняется конкурентно
    */
   void update(UUID uuid, ProductDto productDto);
 
+  /**
+   * Обновляет продукт, только если его версия не изменилась с момента чтения клиентом
+   *
+   * @param uuid идентификатор продукта для обновления
+   * @param productDto DTO с информацией об обновлении
+   * @param expectedVersion версия из {@link InfoProductDto#version()}
+   * @throws ValidationException если DTO нарушает правила продукта
+   * @throws ProductNotFoundException если продукт не найден
+   * @throws VersionConflictException если версия продукта уже другая
+   */
+  void update(UUID uuid, ProductDto productDto, long expectedVersion);
+
   /**
    * Удаляет существующий продукт
    *
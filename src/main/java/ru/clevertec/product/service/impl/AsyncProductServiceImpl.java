@@ -0,0 +1,129 @@
+package ru.clevertec.product.service.impl;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.service.AsyncProductService;
+import ru.clevertec.product.service.ProductService;
+
+/**
+ * Асинхронная обёртка над синхронным {@link ProductService}. Каждый вызов выполняется на
+ * переданном исполнителе; по умолчанию это исполнитель виртуальных потоков, если среда
+ * выполнения их поддерживает, иначе кэширующий пул daemon-потоков. Вызовы сервиса могут
+ * блокироваться на fsync журнала, поэтому общий {@link java.util.concurrent.ForkJoinPool} для
+ * них не используется.
+ */
+public class AsyncProductServiceImpl implements AsyncProductService, AutoCloseable {
+
+  public static final int DEFAULT_PUBLISHER_PAGE_SIZE = 256;
+
+  private final ProductService delegate;
+  private final Executor executor;
+  private final ExecutorService ownedExecutor;
+  private final int publisherPageSize;
+
+  /** Создаёт сервис с собственным исполнителем, который останавливается в {@link #close()} */
+  public AsyncProductServiceImpl(ProductService delegate) {
+    this(delegate, defaultExecutor(), DEFAULT_PUBLISHER_PAGE_SIZE, true);
+  }
+
+  /**
+   * @param delegate синхронный сервис
+   * @param executor исполнитель вызовов, жизненным циклом управляет вызывающий
+   */
+  public AsyncProductServiceImpl(ProductService delegate, Executor executor) {
+    this(delegate, executor, DEFAULT_PUBLISHER_PAGE_SIZE);
+  }
+
+  /**
+   * @param delegate синхронный сервис
+   * @param executor исполнитель вызовов, жизненным циклом управляет вызывающий
+   * @param publisherPageSize сколько продуктов издатель {@link #getAll()} читает за раз
+   * @throws IllegalArgumentException если размер страницы вне границ {@link
+   *     ProductServiceImpl#MAX_PAGE_SIZE}
+   */
+  public AsyncProductServiceImpl(
+      ProductService delegate, Executor executor, int publisherPageSize) {
+    this(delegate, executor, publisherPageSize, false);
+  }
+
+  private AsyncProductServiceImpl(
+      ProductService delegate, Executor executor, int publisherPageSize, boolean owned) {
+    if (publisherPageSize <= 0 || publisherPageSize > ProductServiceImpl.MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Page size must be between 1 and %d: %d",
+              ProductServiceImpl.MAX_PAGE_SIZE, publisherPageSize));
+    }
+    this.delegate = delegate;
+    this.executor = executor;
+    this.ownedExecutor = owned ? (ExecutorService) executor : null;
+    this.publisherPageSize = publisherPageSize;
+  }
+
+  @Override
+  public CompletableFuture<InfoProductDto> get(UUID uuid) {
+    return CompletableFuture.supplyAsync(() -> delegate.get(uuid), executor);
+  }
+
+  @Override
+  public Flow.Publisher<InfoProductDto> getAll() {
+    return new ProductPagePublisher(delegate, executor, publisherPageSize);
+  }
+
+  @Override
+  public CompletableFuture<UUID> create(ProductDto productDto) {
+    return CompletableFuture.supplyAsync(() -> delegate.create(productDto), executor);
+  }
+
+  @Override
+  public CompletableFuture<Void> update(UUID uuid, ProductDto productDto) {
+    return CompletableFuture.runAsync(() -> delegate.update(uuid, productDto), executor);
+  }
+
+  @Override
+  public CompletableFuture<Void> update(UUID uuid, ProductDto productDto, long expectedVersion) {
+    return CompletableFuture.runAsync(
+        () -> delegate.update(uuid, productDto, expectedVersion), executor);
+  }
+
+  @Override
+  public CompletableFuture<Void> delete(UUID uuid) {
+    return CompletableFuture.runAsync(() -> delegate.delete(uuid), executor);
+  }
+
+  /**
+   * Останавливает собственный исполнитель, уже принятые вызовы дорабатывают. Переданный
+   * снаружи исполнитель не трогает
+   */
+  @Override
+  public void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Проект собирается под Java 17, поэтому {@code Executors.newVirtualThreadPerTaskExecutor}
+   * ищется рефлексией: на Java 21+ он есть, на 19-20 без --enable-preview бросает исключение.
+   */
+  static ExecutorService defaultExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      return Executors.newCachedThreadPool(
+          task -> {
+            Thread thread = new Thread(task, "product-async");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.cache.Cache;
+import ru.clevertec.product.cache.CacheStats;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.service.ProductService;
+
+/**
+ * Декоратор {@link ProductService}, кэширующий готовые {@link InfoProductDto} для {@link
+ * #get(UUID)}. Обновление и удаление инвалидируют запись после изменения в хранилище, списки
+ * читаются мимо кэша.
+ */
+@RequiredArgsConstructor
+public class CachingProductService implements ProductService {
+
+  private final ProductService delegate;
+  private final Cache<UUID, InfoProductDto> cache;
+
+  @Override
+  public InfoProductDto get(UUID uuid) {
+    return cache.get(uuid, delegate::get);
+  }
+
+  @Override
+  public List<InfoProductDto> getAll() {
+    return delegate.getAll();
+  }
+
+  @Override
+  public Page<InfoProductDto> getPage(String cursor, int size) {
+    return delegate.getPage(cursor, size);
+  }
+
+  @Override
+  public Stream<InfoProductDto> streamAll() {
+    return delegate.streamAll();
+  }
+
+  @Override
+  public List<InfoProductDto> search(String query, int limit) {
+    return delegate.search(query, limit);
+  }
+
+  @Override
+  public UUID create(ProductDto productDto) {
+    return delegate.create(productDto);
+  }
+
+  @Override
+  public List<UUID> createAll(List<ProductDto> productDtos) {
+    return delegate.createAll(productDtos);
+  }
+
+  @Override
+  public void update(UUID uuid, ProductDto productDto) {
+    try {
+      delegate.update(uuid, productDto);
+    } finally {
+      cache.invalidate(uuid);
+    }
+  }
+
+  @Override
+  public void update(UUID uuid, ProductDto productDto, long expectedVersion) {
+    try {
+      delegate.update(uuid, productDto, expectedVersion);
+    } finally {
+      cache.invalidate(uuid);
+    }
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    try {
+      delegate.delete(uuid);
+    } finally {
+      cache.invalidate(uuid);
+    }
+  }
+
+  /**
+   * @return счётчики попаданий, промахов и вытеснений кэша
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
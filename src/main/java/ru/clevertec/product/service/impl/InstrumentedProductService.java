@@ -0,0 +1,95 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.metrics.MethodStats;
+import ru.clevertec.product.metrics.impl.MethodMetrics;
+import ru.clevertec.product.metrics.impl.MethodRecorder;
+import ru.clevertec.product.service.ProductService;
+
+/**
+ * Декоратор {@link ProductService}, записывающий задержку, количество вызовов и исключения
+ * каждого метода. {@link #streamAll()} измеряет только создание ленивого стрима, чтение страниц
+ * видно в статистике хранилища.
+ */
+public class InstrumentedProductService implements ProductService {
+
+  private final ProductService delegate;
+  private final MethodMetrics metrics = new MethodMetrics();
+  private final MethodRecorder get = metrics.register("get");
+  private final MethodRecorder getAll = metrics.register("getAll");
+  private final MethodRecorder getPage = metrics.register("getPage");
+  private final MethodRecorder streamAll = metrics.register("streamAll");
+  private final MethodRecorder search = metrics.register("search");
+  private final MethodRecorder create = metrics.register("create");
+  private final MethodRecorder createAll = metrics.register("createAll");
+  private final MethodRecorder update = metrics.register("update");
+  private final MethodRecorder updateVersioned = metrics.register("updateVersioned");
+  private final MethodRecorder delete = metrics.register("delete");
+
+  public InstrumentedProductService(ProductService delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public InfoProductDto get(UUID uuid) {
+    return get.time(() -> delegate.get(uuid));
+  }
+
+  @Override
+  public List<InfoProductDto> getAll() {
+    return getAll.time(delegate::getAll);
+  }
+
+  @Override
+  public Page<InfoProductDto> getPage(String cursor, int size) {
+    return getPage.time(() -> delegate.getPage(cursor, size));
+  }
+
+  @Override
+  public Stream<InfoProductDto> streamAll() {
+    return streamAll.time(delegate::streamAll);
+  }
+
+  @Override
+  public List<InfoProductDto> search(String query, int limit) {
+    return search.time(() -> delegate.search(query, limit));
+  }
+
+  @Override
+  public UUID create(ProductDto productDto) {
+    return create.time(() -> delegate.create(productDto));
+  }
+
+  @Override
+  public List<UUID> createAll(List<ProductDto> productDtos) {
+    return createAll.time(() -> delegate.createAll(productDtos));
+  }
+
+  @Override
+  public void update(UUID uuid, ProductDto productDto) {
+    update.run(() -> delegate.update(uuid, productDto));
+  }
+
+  @Override
+  public void update(UUID uuid, ProductDto productDto, long expectedVersion) {
+    updateVersioned.run(() -> delegate.update(uuid, productDto, expectedVersion));
+  }
+
+  @Override
+  public void delete(UUID uuid) {
+    delete.run(() -> delegate.delete(uuid));
+  }
+
+  /**
+   * @return статистика по методам сервиса, снимается без остановки записи
+   */
+  public Map<String, MethodStats> stats() {
+    return metrics.snapshot();
+  }
+}
@@ -0,0 +1,41 @@
+package ru.clevertec.product.service.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/** Кодирует последний UUID страницы в непрозрачный курсор и обратно */
+final class PageCursor {
+
+  private static final int UUID_BYTES = 2 * Long.BYTES;
+
+  private PageCursor() {}
+
+  static String encode(UUID last) {
+    ByteBuffer buffer = ByteBuffer.allocate(UUID_BYTES);
+    buffer.putLong(last.getMostSignificantBits()).putLong(last.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * @param cursor курсор, null - начало каталога
+   * @return UUID, после которого начинается страница, null для начала каталога
+   * @throws IllegalArgumentException если курсор повреждён
+   */
+  static UUID decode(String cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed page cursor: " + cursor, e);
+    }
+    if (bytes.length != UUID_BYTES) {
+      throw new IllegalArgumentException("Malformed page cursor: " + cursor);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+}
@@ -0,0 +1,141 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
+import ru.clevertec.product.service.ProductService;
+
+/**
+ * Холодный издатель каталога поверх {@link ProductService#getPage(String, int)}. Следующая
+ * страница читается, только когда текущая выдана и у подписчика остался спрос, поэтому в памяти
+ * на подписку не больше одной страницы.
+ *
+ * <p>Сигналы подписчику идут строго последовательно: {@link Flow.Subscription#request(long)}
+ * только увеличивает спрос и, если обход не запущен, ставит его на исполнитель. Обход
+ * повторяется, пока за время работы приходили новые запросы.
+ */
+final class ProductPagePublisher implements Flow.Publisher<InfoProductDto> {
+
+  private final ProductService productService;
+  private final Executor executor;
+  private final int pageSize;
+
+  ProductPagePublisher(ProductService productService, Executor executor, int pageSize) {
+    this.productService = productService;
+    this.executor = executor;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super InfoProductDto> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    subscriber.onSubscribe(new PageSubscription(subscriber));
+  }
+
+  private final class PageSubscription implements Flow.Subscription, Runnable {
+
+    private final Flow.Subscriber<? super InfoProductDto> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean cancelled = false;
+    private volatile Throwable error = null;
+
+    /** Состояние обхода, доступно только потоку, выполняющему {@link #run()} */
+    private Iterator<InfoProductDto> current = Collections.emptyIterator();
+
+    private String cursor = null;
+    private boolean lastPage = false;
+
+    PageSubscription(Flow.Subscriber<? super InfoProductDto> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("Demand must be positive: " + n);
+      } else {
+        requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        try {
+          executor.execute(this);
+        } catch (RuntimeException e) {
+          cancelled = true;
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        drain();
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drain() {
+      while (!cancelled) {
+        Throwable failure = error;
+        if (failure != null) {
+          terminate();
+          subscriber.onError(failure);
+          return;
+        }
+        if (!current.hasNext()) {
+          if (lastPage) {
+            terminate();
+            subscriber.onComplete();
+            return;
+          }
+          if (requested.get() == 0) {
+            return;
+          }
+          Page<InfoProductDto> page;
+          try {
+            page = productService.getPage(cursor, pageSize);
+          } catch (RuntimeException e) {
+            terminate();
+            subscriber.onError(e);
+            return;
+          }
+          current = page.content().iterator();
+          cursor = page.nextCursor();
+          lastPage = !page.hasNext();
+          continue;
+        }
+        if (requested.get() == 0) {
+          return;
+        }
+        subscriber.onNext(current.next());
+        if (requested.get() != Long.MAX_VALUE) {
+          requested.decrementAndGet();
+        }
+      }
+      current = Collections.emptyIterator();
+    }
+
+    private void terminate() {
+      cancelled = true;
+      current = Collections.emptyIterator();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package ru.clevertec.product.service.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+
+/**
+ * Обходит каталог страницами по возрастанию UUID. В памяти держится только текущая страница,
+ * следующая запрашивается у хранилища при исчерпании предыдущей.
+ */
+final class ProductPageSpliterator extends Spliterators.AbstractSpliterator<Product> {
+
+  private final ProductRepository productRepository;
+  private final int pageSize;
+
+  private Iterator<Product> current = null;
+  private UUID last = null;
+  private boolean exhausted = false;
+
+  ProductPageSpliterator(ProductRepository productRepository, int pageSize) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT);
+    this.productRepository = productRepository;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Product> action) {
+    while (current == null || !current.hasNext()) {
+      if (exhausted) {
+        return false;
+      }
+      List<Product> page = productRepository.findPage(last, pageSize);
+      exhausted = page.size() < pageSize;
+      if (page.isEmpty()) {
+        return false;
+      }
+      last = page.get(page.size() - 1).getUuid();
+      current = page.iterator();
+    }
+    action.accept(current.next());
+    return true;
+  }
+}
@@ -2,37 +2,135 @@ package ru.clevertec.product.service.impl;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
 import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.VersionConflictException;
+import ru.clevertec.product.id.IdGenerator;
+import ru.clevertec.product.id.impl.TimeOrderedUuidGenerator;
 import ru.clevertec.product.mapper.ProductMapper;
 import ru.clevertec.product.repository.ProductRepository;
 import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.validator.ProductValidator;
 
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private static final int STREAM_PAGE_SIZE = 256;
+  private static final int MAX_UPDATE_ATTEMPTS = 64;
+
   private final ProductMapper mapper;
   private final ProductRepository productRepository;
+  private final ProductValidator validator;
+  private final IdGenerator idGenerator;
+
+  public ProductServiceImpl(
+      ProductMapper mapper, ProductRepository productRepository, ProductValidator validator) {
+    this(mapper, productRepository, validator, new TimeOrderedUuidGenerator());
+  }
 
   @Override
   public InfoProductDto get(UUID uuid) {
-    return null;
+    return productRepository
+        .findById(uuid)
+        .map(mapper::toInfoProductDto)
+        .orElseThrow(() -> new ProductNotFoundException(uuid));
   }
 
   @Override
   public List<InfoProductDto> getAll() {
-    return null;
+    return mapper.toListInfoProductDto(productRepository.findAll());
+  }
+
+  @Override
+  public Page<InfoProductDto> getPage(String cursor, int size) {
+    if (size <= 0 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          String.format("Page size must be between 1 and %d: %d", MAX_PAGE_SIZE, size));
+    }
+    List<Product> products = productRepository.findPage(PageCursor.decode(cursor), size);
+    String next =
+        products.size() < size
+            ? null
+            : PageCursor.encode(products.get(products.size() - 1).getUuid());
+    return new Page<>(mapper.toListInfoProductDto(products), next);
+  }
+
+  @Override
+  public Stream<InfoProductDto> streamAll() {
+    return StreamSupport.stream(
+            new ProductPageSpliterator(productRepository, STREAM_PAGE_SIZE), false)
+        .map(mapper::toInfoProductDto);
+  }
+
+  @Override
+  public List<InfoProductDto> search(String query, int limit) {
+    if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          String.format("Search limit must be between 1 and %d: %d", MAX_PAGE_SIZE, limit));
+    }
+    return mapper.toListInfoProductDto(productRepository.search(query, limit));
   }
 
   @Override
   public UUID create(ProductDto productDto) {
-    return null;
+    validator.validate(productDto);
+    Product product = mapper.toProduct(productDto);
+    product.setUuid(idGenerator.next());
+    return productRepository.save(product).getUuid();
   }
 
   @Override
-  public void update(UUID uuid, ProductDto productDto) {}
+  public List<UUID> createAll(List<ProductDto> productDtos) {
+    validator.validateAll(productDtos);
+    List<Product> products = mapper.toListProduct(productDtos);
+    products.forEach(product -> product.setUuid(idGenerator.next()));
+    return productRepository.saveAll(products).stream()
+        .map(Product::getUuid)
+        .toList();
+  }
+
+  @Override
+  public void update(UUID uuid, ProductDto productDto) {
+    validator.validate(productDto);
+    long version = 0;
+    for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+      Product product = find(uuid);
+      version = product.getVersion();
+      if (tryUpdate(product, productDto)) {
+        return;
+      }
+    }
+    throw new VersionConflictException(uuid, version);
+  }
+
+  @Override
+  public void update(UUID uuid, ProductDto productDto, long expectedVersion) {
+    validator.validate(productDto);
+    Product product = find(uuid);
+    if (product.getVersion() != expectedVersion || !tryUpdate(product, productDto)) {
+      throw new VersionConflictException(uuid, expectedVersion);
+    }
+  }
 
   @Override
-  public void delete(UUID uuid) {}
+  public void delete(UUID uuid) {
+    productRepository.delete(uuid);
+  }
+
+  private Product find(UUID uuid) {
+    return productRepository.findById(uuid).orElseThrow(() -> new ProductNotFoundException(uuid));
+  }
+
+  private boolean tryUpdate(Product product, ProductDto productDto) {
+    Product merged = mapper.merge(product, productDto);
+    return productRepository.saveIfVersion(merged, product.getVersion()).isPresent();
+  }
 }
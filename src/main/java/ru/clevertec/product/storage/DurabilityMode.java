@@ -0,0 +1,23 @@
+package ru.clevertec.product.storage;
+
+/** Когда запись в журнал считается завершённой */
+public enum DurabilityMode {
+
+  /**
+   * Операция ждёт fsync своей записи. Одновременные писатели разделяют один fsync: пока лидер
+   * сбрасывает журнал, остальные копятся и затем оказываются покрыты его или следующим fsync
+   */
+  SYNC,
+
+  /**
+   * Операция ждёт ближайшего периодического fsync. Больше записей на один fsync ценой задержки
+   * до интервала сброса
+   */
+  BATCH,
+
+  /**
+   * Операция не ждёт fsync, журнал сбрасывается периодически. При сбое ОС теряются записи за
+   * последний интервал
+   */
+  ASYNC
+}
@@ -0,0 +1,29 @@
+package ru.clevertec.product.storage;
+
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+
+public record LogRecord(
+
+    /** Тип операции */
+    Type type,
+
+    /** Идентификатор продукта */
+    UUID uuid,
+
+    /** Сохранённый продукт для {@link Type#SAVE}, null для {@link Type#DELETE} */
+    Product product) {
+
+  public static LogRecord save(Product product) {
+    return new LogRecord(Type.SAVE, product.getUuid(), product);
+  }
+
+  public static LogRecord delete(UUID uuid) {
+    return new LogRecord(Type.DELETE, uuid, null);
+  }
+
+  public enum Type {
+    SAVE,
+    DELETE
+  }
+}
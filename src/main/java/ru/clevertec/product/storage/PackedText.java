@@ -0,0 +1,119 @@
+package ru.clevertec.product.storage;
+
+import java.util.Arrays;
+
+/**
+ * Упаковка строк узкого алфавита по 7 бит на символ: кириллица обоих регистров, цифры, пробел,
+ * строчная латиница и частые знаки препинания. Название из 10 кириллических символов занимает
+ * 9 байт вместо 20 в UTF-8. Строки с символами вне алфавита не упаковываются, вызывающий код
+ * хранит их как есть.
+ *
+ * <p>Символы пишутся старшими битами вперёд, последний байт добивается нулями. Количество
+ * символов в упакованные байты не входит и хранится рядом с ними.
+ */
+public final class PackedText {
+
+  public static final int BITS_PER_CHAR = 7;
+
+  private static final String ALPHABET =
+      " 0123456789"
+          + "абвгдежзийклмнопрстуфхцчшщъыьэюяё"
+          + "АБВГДЕЖЗИЙКЛМНОПРСТУФХЦЧШЩЪЫЬЭЮЯЁ"
+          + "abcdefghijklmnopqrstuvwxyz"
+          + ".,-:;!?()\"'%/+#_&";
+  private static final int MASK = (1 << BITS_PER_CHAR) - 1;
+  private static final char[] SYMBOLS = ALPHABET.toCharArray();
+  private static final byte[] CODES = new byte['ё' + 1];
+
+  static {
+    Arrays.fill(CODES, (byte) -1);
+    for (int code = 0; code < SYMBOLS.length; code++) {
+      CODES[SYMBOLS[code]] = (byte) code;
+    }
+  }
+
+  private PackedText() {}
+
+  /**
+   * @param text проверяемая строка, не null
+   * @return true если каждый символ строки есть в алфавите
+   */
+  public static boolean packable(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (code(text.charAt(i)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param chars количество символов
+   * @return байт в упакованном виде
+   */
+  public static int packedLength(int chars) {
+    return (int) (((long) chars * BITS_PER_CHAR + Byte.SIZE - 1) / Byte.SIZE);
+  }
+
+  /**
+   * @param text строка из символов алфавита
+   * @return упакованные символы, {@link #packedLength(int)} байт
+   * @throws IllegalArgumentException если в строке есть символ вне алфавита
+   */
+  public static byte[] pack(String text) {
+    byte[] packed = new byte[packedLength(text.length())];
+    long bits = 0;
+    int pending = 0;
+    int position = 0;
+    for (int i = 0; i < text.length(); i++) {
+      int code = code(text.charAt(i));
+      if (code < 0) {
+        throw new IllegalArgumentException("Character is out of packed alphabet: " + text);
+      }
+      bits = bits << BITS_PER_CHAR | code;
+      pending += BITS_PER_CHAR;
+      while (pending >= Byte.SIZE) {
+        pending -= Byte.SIZE;
+        packed[position++] = (byte) (bits >>> pending);
+      }
+    }
+    if (pending > 0) {
+      packed[position] = (byte) (bits << (Byte.SIZE - pending));
+    }
+    return packed;
+  }
+
+  /**
+   * @param packed буфер с упакованными символами
+   * @param offset начало упакованных символов в буфере
+   * @param chars количество символов
+   * @return распакованная строка
+   * @throws IllegalArgumentException если байт меньше, чем нужно, или код вне алфавита
+   */
+  public static String unpack(byte[] packed, int offset, int chars) {
+    if (chars < 0 || offset < 0 || packed.length - offset < packedLength(chars)) {
+      throw new IllegalArgumentException("Packed text is truncated");
+    }
+    char[] text = new char[chars];
+    long bits = 0;
+    int pending = 0;
+    int position = offset;
+    for (int i = 0; i < chars; i++) {
+      if (pending < BITS_PER_CHAR) {
+        bits = bits << Byte.SIZE | (packed[position++] & 0xFF);
+        pending += Byte.SIZE;
+      }
+      pending -= BITS_PER_CHAR;
+      int code = (int) (bits >>> pending) & MASK;
+      if (code >= SYMBOLS.length) {
+        throw new IllegalArgumentException("Packed code is out of alphabet: " + code);
+      }
+      text[i] = SYMBOLS[code];
+    }
+    return new String(text);
+  }
+
+  private static int code(char c) {
+    return c < CODES.length ? CODES[c] : -1;
+  }
+}
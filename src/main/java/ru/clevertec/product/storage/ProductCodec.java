@@ -0,0 +1,168 @@
+package ru.clevertec.product.storage;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Двоичный формат продукта для журнала и снимков: UUID (16 байт), флаги заполненных полей,
+ * строки как длина и UTF-8, цена как шкала и дополнительный код немасштабированного значения,
+ * дата создания как секунды и наносекунды эпохи UTC, ненулевая версия как long.
+ *
+ * <p>Название и описание из символов алфавита {@link PackedText} пишутся как количество
+ * символов и 7-битный код, о чём говорит отдельный флаг поля. Записи без этих флагов, в том
+ * числе записанные до появления упаковки, читаются как UTF-8.
+ */
+public final class ProductCodec {
+
+  public static final int UUID_BYTES = 2 * Long.BYTES;
+
+  private static final int NAME = 1;
+  private static final int DESCRIPTION = 1 << 1;
+  private static final int PRICE = 1 << 2;
+  private static final int CREATED = 1 << 3;
+  private static final int VERSION = 1 << 4;
+  private static final int PACKED_NAME = 1 << 5;
+  private static final int PACKED_DESCRIPTION = 1 << 6;
+
+  private ProductCodec() {}
+
+  public static byte[] encode(Product product) {
+    Text name = Text.of(product.getName());
+    Text description = Text.of(product.getDescription());
+    byte[] unscaled =
+        product.getPrice() == null ? null : product.getPrice().unscaledValue().toByteArray();
+    int size = UUID_BYTES + Byte.BYTES;
+    size += name == null ? 0 : Integer.BYTES + name.bytes().length;
+    size += description == null ? 0 : Integer.BYTES + description.bytes().length;
+    size += unscaled == null ? 0 : 2 * Integer.BYTES + unscaled.length;
+    size += product.getCreated() == null ? 0 : Long.BYTES + Integer.BYTES;
+    size += product.getVersion() == 0 ? 0 : Long.BYTES;
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    writeUuid(buffer, product.getUuid());
+    int flags = (name == null ? 0 : NAME) | (description == null ? 0 : DESCRIPTION);
+    flags |= (unscaled == null ? 0 : PRICE) | (product.getCreated() == null ? 0 : CREATED);
+    flags |= product.getVersion() == 0 ? 0 : VERSION;
+    flags |= name != null && name.packed() ? PACKED_NAME : 0;
+    flags |= description != null && description.packed() ? PACKED_DESCRIPTION : 0;
+    buffer.put((byte) flags);
+    putText(buffer, name);
+    putText(buffer, description);
+    if (unscaled != null) {
+      buffer.putInt(product.getPrice().scale());
+      putBytes(buffer, unscaled);
+    }
+    if (product.getCreated() != null) {
+      buffer.putLong(product.getCreated().toEpochSecond(ZoneOffset.UTC));
+      buffer.putInt(product.getCreated().getNano());
+    }
+    if (product.getVersion() != 0) {
+      buffer.putLong(product.getVersion());
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Читает продукт с текущей позиции буфера и сдвигает позицию за него
+   *
+   * @param buffer буфер с закодированным продуктом
+   * @return декодированный продукт
+   * @throws IllegalArgumentException если данные повреждены
+   */
+  public static Product decode(ByteBuffer buffer) {
+    try {
+      Product.ProductBuilder builder = Product.builder().uuid(readUuid(buffer));
+      int flags = buffer.get();
+      if ((flags & NAME) != 0) {
+        builder.name(string(buffer, (flags & PACKED_NAME) != 0));
+      }
+      if ((flags & DESCRIPTION) != 0) {
+        builder.description(string(buffer, (flags & PACKED_DESCRIPTION) != 0));
+      }
+      if ((flags & PRICE) != 0) {
+        int scale = buffer.getInt();
+        builder.price(new BigDecimal(new BigInteger(getBytes(buffer)), scale));
+      }
+      if ((flags & CREATED) != 0) {
+        builder.created(
+            LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC));
+      }
+      if ((flags & VERSION) != 0) {
+        builder.version(buffer.getLong());
+      }
+      return builder.build();
+    } catch (BufferUnderflowException | DateTimeException e) {
+      throw new IllegalArgumentException("Malformed product record", e);
+    }
+  }
+
+  public static void writeUuid(ByteBuffer buffer, UUID uuid) {
+    buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+  }
+
+  public static UUID readUuid(ByteBuffer buffer) {
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] value) {
+    if (value != null) {
+      buffer.putInt(value.length).put(value);
+    }
+  }
+
+  private static void putText(ByteBuffer buffer, Text text) {
+    if (text != null) {
+      buffer.putInt(text.length()).put(text.bytes());
+    }
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer) {
+    return getBytes(buffer, buffer.getInt());
+  }
+
+  /** Длина проверяется до выделения массива: повреждённая запись не должна исчерпать память */
+  private static byte[] getBytes(ByteBuffer buffer, int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("Malformed product record: length " + length);
+    }
+    byte[] value = new byte[length];
+    buffer.get(value);
+    return value;
+  }
+
+  private static String string(ByteBuffer buffer, boolean packed) {
+    if (!packed) {
+      return new String(getBytes(buffer), StandardCharsets.UTF_8);
+    }
+    int chars = buffer.getInt();
+    if (chars < 0) {
+      throw new IllegalArgumentException("Malformed product record: length " + chars);
+    }
+    return PackedText.unpack(getBytes(buffer, PackedText.packedLength(chars)), 0, chars);
+  }
+
+  /**
+   * @param length количество символов упакованной строки или байт UTF-8
+   */
+  private record Text(byte[] bytes, int length, boolean packed) {
+
+    static Text of(String value) {
+      if (value == null) {
+        return null;
+      }
+      if (PackedText.packable(value)) {
+        return new Text(PackedText.pack(value), value.length(), true);
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      return new Text(bytes, bytes.length, false);
+    }
+  }
+}
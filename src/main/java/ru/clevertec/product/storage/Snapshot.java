@@ -0,0 +1,286 @@
+package ru.clevertec.product.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Снимок хранилища в файле {@code snapshot-<номер>.snap}, где номер - первый сегмент журнала,
+ * который нужно проиграть поверх снимка.
+ *
+ * <p>Формат: заголовок (магическое число, версия, номер сегмента), продукты в формате {@link
+ * ProductCodec} с префиксом длины, подвал (количество продуктов, CRC32C всего предыдущего).
+ * Файл пишется во временный и атомарно переименовывается, поэтому на диске либо старый, либо
+ * новый полный снимок. Загрузка читает файл через {@link MappedByteBuffer} окнами до 1 ГБ.
+ */
+public final class Snapshot {
+
+  /** Номер первого сегмента журнала, если снимка нет */
+  public static final long NO_SNAPSHOT = 1;
+
+  static final String SNAPSHOT_PREFIX = "snapshot-";
+  static final String SNAPSHOT_SUFFIX = ".snap";
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final int MAGIC = 0x50524f44;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+  private static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+  private static final int BUFFER_BYTES = 1 << 20;
+  private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+  private Snapshot() {}
+
+  /**
+   * Начинает запись нового снимка
+   *
+   * @param directory каталог журнала
+   * @param firstSegment первый сегмент журнала, не вошедший в снимок полностью
+   * @return писатель, снимок появится только после {@link Writer#commit()}
+   * @throws UncheckedIOException при ошибке ввода-вывода
+   */
+  public static Writer create(Path directory, long firstSegment) {
+    try {
+      return new Writer(directory, firstSegment);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Загружает последний снимок каталога, если он есть
+   *
+   * @param directory каталог журнала
+   * @param consumer получатель продуктов снимка
+   * @return первый сегмент журнала для проигрывания, {@link #NO_SNAPSHOT} если снимка нет
+   * @throws UncheckedIOException при ошибке ввода-вывода
+   * @throws IllegalStateException если снимок повреждён
+   */
+  public static long load(Path directory, Consumer<Product> consumer) {
+    try {
+      if (!Files.isDirectory(directory)) {
+        return NO_SNAPSHOT;
+      }
+      deleteTemporary(directory);
+      List<Path> snapshots = snapshots(directory);
+      if (snapshots.isEmpty()) {
+        return NO_SNAPSHOT;
+      }
+      Path latest = snapshots.get(snapshots.size() - 1);
+      try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+        return read(latest, channel, consumer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static long read(Path path, FileChannel channel, Consumer<Product> consumer)
+      throws IOException {
+    long size = channel.size();
+    if (size < HEADER_BYTES + FOOTER_BYTES) {
+      throw corrupted(path);
+    }
+    ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+    channel.read(footer, size - FOOTER_BYTES);
+    long count = footer.getLong(0);
+    if (checksum(channel, size - Integer.BYTES) != footer.getInt(Long.BYTES)) {
+      throw corrupted(path);
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    channel.read(header, 0);
+    if (header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != VERSION) {
+      throw corrupted(path);
+    }
+    long firstSegment = header.getLong(2 * Integer.BYTES);
+
+    long end = size - FOOTER_BYTES;
+    long windowStart = HEADER_BYTES;
+    MappedByteBuffer window = map(channel, windowStart, end);
+    try {
+      for (long i = 0; i < count; i++) {
+        if (window.remaining() < Integer.BYTES) {
+          windowStart += window.position();
+          window = map(channel, windowStart, end);
+        }
+        int length = window.getInt(window.position());
+        if (length <= 0 || Integer.BYTES + (long) length > end - windowStart - window.position()) {
+          throw corrupted(path);
+        }
+        if (window.remaining() < Integer.BYTES + length) {
+          windowStart += window.position();
+          window = map(channel, windowStart, end);
+        }
+        window.position(window.position() + Integer.BYTES);
+        consumer.accept(ProductCodec.decode(window.slice(window.position(), length)));
+        window.position(window.position() + length);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Corrupted snapshot: " + path, e);
+    }
+    if (windowStart + window.position() != end) {
+      throw corrupted(path);
+    }
+    return firstSegment;
+  }
+
+  private static int checksum(FileChannel channel, long length) throws IOException {
+    CRC32C crc = new CRC32C();
+    for (long position = 0; position < length; position += MAP_WINDOW_BYTES) {
+      crc.update(map(channel, position, length));
+    }
+    return (int) crc.getValue();
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long position, long end)
+      throws IOException {
+    return channel.map(
+        FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_BYTES, end - position));
+  }
+
+  private static IllegalStateException corrupted(Path path) {
+    return new IllegalStateException("Corrupted snapshot: " + path);
+  }
+
+  static List<Path> snapshots(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(SNAPSHOT_PREFIX))
+          .filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  static Path snapshotPath(Path directory, long firstSegment) {
+    return directory.resolve(
+        String.format("%s%016d%s", SNAPSHOT_PREFIX, firstSegment, SNAPSHOT_SUFFIX));
+  }
+
+  private static void deleteTemporary(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path path : files.toList()) {
+        String name = path.getFileName().toString();
+        if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(TEMPORARY_SUFFIX)) {
+          Files.deleteIfExists(path);
+        }
+      }
+    }
+  }
+
+  /** Последовательная запись снимка, не потокобезопасна */
+  public static final class Writer implements AutoCloseable {
+
+    private final Path directory;
+    private final Path temporary;
+    private final Path target;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private long count;
+    private boolean committed;
+
+    private Writer(Path directory, long firstSegment) throws IOException {
+      this.directory = directory;
+      this.target = snapshotPath(directory, firstSegment);
+      this.temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+      this.channel =
+          FileChannel.open(
+              temporary,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE);
+      buffer.putInt(MAGIC).putInt(VERSION).putLong(firstSegment);
+    }
+
+    public void append(Product product) {
+      byte[] encoded = ProductCodec.encode(product);
+      try {
+        if (buffer.remaining() < Integer.BYTES + encoded.length) {
+          drain();
+        }
+        if (buffer.remaining() < Integer.BYTES + encoded.length) {
+          write(ByteBuffer.allocate(Integer.BYTES + encoded.length).putInt(encoded.length));
+          write(ByteBuffer.wrap(encoded).position(encoded.length));
+        } else {
+          buffer.putInt(encoded.length).put(encoded);
+        }
+        count++;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * Сбрасывает снимок и запись каталога о нём на диск, затем удаляет предыдущие снимки
+     *
+     * @throws UncheckedIOException при ошибке ввода-вывода
+     */
+    public void commit() {
+      try {
+        if (buffer.remaining() < Long.BYTES) {
+          drain();
+        }
+        buffer.putLong(count);
+        drain();
+        write(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()), false);
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        WriteAheadLog.forceDirectory(directory);
+        committed = true;
+        for (Path snapshot : snapshots(directory)) {
+          if (!snapshot.equals(target)) {
+            Files.deleteIfExists(snapshot);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /** Закрывает писатель, незавершённый снимок удаляется */
+    @Override
+    public void close() {
+      if (committed) {
+        return;
+      }
+      try {
+        channel.close();
+        Files.deleteIfExists(temporary);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void drain() throws IOException {
+      write(buffer);
+      buffer.clear();
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+      write(source, true);
+    }
+
+    private void write(ByteBuffer source, boolean checksummed) throws IOException {
+      source.flip();
+      if (checksummed) {
+        crc.update(source.duplicate());
+      }
+      while (source.hasRemaining()) {
+        channel.write(source);
+      }
+    }
+  }
+}
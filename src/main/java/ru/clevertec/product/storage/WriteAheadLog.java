@@ -0,0 +1,477 @@
+package ru.clevertec.product.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал упреждающей записи (WAL) из файлов-сегментов {@code wal-<номер>.log}.
+ *
+ * <p>Запись: длина тела (int), CRC32C тела (int), тело - тип операции (byte) и продукт в
+ * формате {@link ProductCodec} либо UUID удаляемого продукта. При открытии все сегменты
+ * проигрываются по порядку, а оборванная или повреждённая запись в хвосте последнего
+ * сегмента отрезается.
+ *
+ * <p>Запись в канал упорядочена блокировкой добавления. Синхронизация на диск идёт по схеме
+ * group commit: каждый fsync покрывает все записи, добавленные до его начала.
+ *
+ * <p>{@link #roll()} начинает новый сегмент, после чего сегменты, целиком вошедшие в {@link
+ * Snapshot}, удаляются через {@link #deleteSegmentsBefore(long)}.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+  static final String SEGMENT_PREFIX = "wal-";
+  static final String SEGMENT_SUFFIX = ".log";
+
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+  private static final int MAX_RECORD_BYTES = 64 << 20;
+  private static final byte SAVE = 1;
+  private static final byte DELETE = 2;
+
+  private final Path directory;
+  private final DurabilityMode mode;
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private final Condition synced = syncLock.newCondition();
+  private final ScheduledExecutorService flusher;
+
+  private FileChannel channel;
+  private long segment;
+  private volatile long writtenLsn;
+  private volatile long durableLsn;
+  private volatile boolean closed;
+  private volatile IOException failure;
+
+  private WriteAheadLog(Path directory, DurabilityMode mode, Duration flushInterval) {
+    this.directory = directory;
+    this.mode = mode;
+    if (mode == DurabilityMode.SYNC) {
+      this.flusher = null;
+    } else {
+      this.flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              task -> {
+                Thread thread = new Thread(task, "wal-flusher");
+                thread.setDaemon(true);
+                return thread;
+              });
+      long period = flushInterval.toNanos();
+      flusher.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Открывает журнал в каталоге, проигрывая все сохранённые записи
+   *
+   * @param directory каталог журнала, создаётся при отсутствии
+   * @param mode режим надёжности
+   * @param flushInterval период фонового fsync для {@link DurabilityMode#BATCH} и {@link
+   *     DurabilityMode#ASYNC}
+   * @param replay получатель записей при восстановлении
+   * @return журнал, готовый к добавлению
+   * @throws UncheckedIOException при ошибке ввода-вывода
+   * @throws IllegalStateException если повреждён не последний сегмент
+   */
+  public static WriteAheadLog open(
+      Path directory, DurabilityMode mode, Duration flushInterval, Consumer<LogRecord> replay) {
+    return open(directory, mode, flushInterval, Snapshot.NO_SNAPSHOT, replay);
+  }
+
+  /**
+   * Открывает журнал, проигрывая сегменты начиная с firstSegment. Более старые сегменты уже
+   * вошли в снимок и удаляются
+   *
+   * @param directory каталог журнала, создаётся при отсутствии
+   * @param mode режим надёжности
+   * @param flushInterval период фонового fsync для {@link DurabilityMode#BATCH} и {@link
+   *     DurabilityMode#ASYNC}
+   * @param firstSegment первый сегмент для проигрывания, результат {@link Snapshot#load}
+   * @param replay получатель записей при восстановлении
+   * @return журнал, готовый к добавлению
+   * @throws UncheckedIOException при ошибке ввода-вывода
+   * @throws IllegalStateException если повреждён не последний сегмент
+   */
+  public static WriteAheadLog open(
+      Path directory,
+      DurabilityMode mode,
+      Duration flushInterval,
+      long firstSegment,
+      Consumer<LogRecord> replay) {
+    try {
+      Files.createDirectories(directory);
+      deleteSegmentsBefore(directory, firstSegment);
+      List<Path> segments = segments(directory);
+      for (int i = 0; i < segments.size(); i++) {
+        Path path = segments.get(i);
+        long valid = replaySegment(path, replay);
+        if (valid < Files.size(path)) {
+          if (i != segments.size() - 1) {
+            throw new IllegalStateException("Corrupted write-ahead log segment: " + path);
+          }
+          try (FileChannel truncated = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            truncated.truncate(valid);
+            truncated.force(true);
+          }
+        }
+      }
+      WriteAheadLog log = new WriteAheadLog(directory, mode, flushInterval);
+      log.segment =
+          segments.isEmpty()
+              ? firstSegment
+              : Math.max(firstSegment, segmentNumber(segments.get(segments.size() - 1)));
+      log.channel = openSegment(directory, log.segment);
+      return log;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Дописывает запись в текущий сегмент. Запись не обязательно уже на диске, см. {@link
+   * #awaitDurable(long)}
+   *
+   * @param record операция
+   * @return порядковый номер (LSN) конца записи
+   */
+  public long append(LogRecord record) {
+    ByteBuffer buffer = frame(record);
+    appendLock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Write-ahead log is closed");
+      }
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      long lsn = writtenLsn + buffer.limit();
+      writtenLsn = lsn;
+      return lsn;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Дописывает записи подряд под одним захватом блокировки добавления: кадры готовятся заранее
+   * и уходят в канал сборной записью (gathering write)
+   *
+   * @param records операции в порядке применения
+   * @return LSN конца последней записи, текущий LSN для пустого списка
+   */
+  public long appendAll(List<LogRecord> records) {
+    ByteBuffer[] buffers = new ByteBuffer[records.size()];
+    long length = 0;
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = frame(records.get(i));
+      length += buffers[i].limit();
+    }
+    appendLock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Write-ahead log is closed");
+      }
+      long written = 0;
+      while (written < length) {
+        written += channel.write(buffers);
+      }
+      long lsn = writtenLsn + length;
+      writtenLsn = lsn;
+      return lsn;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Ждёт, пока запись с данным LSN станет надёжной согласно режиму журнала
+   *
+   * @param lsn результат {@link #append(LogRecord)}
+   */
+  public void awaitDurable(long lsn) {
+    switch (mode) {
+      case SYNC -> sync(lsn);
+      case BATCH -> awaitFlush(lsn);
+      case ASYNC -> {}
+    }
+  }
+
+  /**
+   * Сбрасывает текущий сегмент на диск и начинает следующий. Записи, добавленные после возврата,
+   * попадут в новый сегмент
+   *
+   * @return номер нового сегмента
+   * @throws IllegalStateException если журнал закрыт
+   */
+  public long roll() {
+    appendLock.lock();
+    syncLock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Write-ahead log is closed");
+      }
+      force();
+      FileChannel next = openSegment(directory, segment + 1);
+      channel.close();
+      channel = next;
+      return ++segment;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      syncLock.unlock();
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Удаляет сегменты, целиком вошедшие в снимок
+   *
+   * @param firstSegment первый сегмент, который нужно сохранить
+   */
+  public void deleteSegmentsBefore(long firstSegment) {
+    try {
+      deleteSegmentsBefore(directory, firstSegment);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return LSN конца последней добавленной записи
+   */
+  public long writtenLsn() {
+    return writtenLsn;
+  }
+
+  public DurabilityMode mode() {
+    return mode;
+  }
+
+  @Override
+  public void close() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+    appendLock.lock();
+    syncLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      force();
+      closed = true;
+      synced.signalAll();
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      syncLock.unlock();
+      appendLock.unlock();
+    }
+  }
+
+  private void sync(long lsn) {
+    if (durableLsn >= lsn) {
+      return;
+    }
+    syncLock.lock();
+    try {
+      if (durableLsn < lsn) {
+        force();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  private void awaitFlush(long lsn) {
+    if (durableLsn >= lsn) {
+      return;
+    }
+    syncLock.lock();
+    try {
+      while (durableLsn < lsn && !closed && failure == null) {
+        synced.await();
+      }
+      if (durableLsn < lsn && failure != null) {
+        throw new UncheckedIOException(failure);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for write-ahead log flush", e);
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  private void flush() {
+    syncLock.lock();
+    try {
+      if (!closed && durableLsn < writtenLsn) {
+        force();
+      }
+    } catch (IOException e) {
+      failure = e;
+      synced.signalAll();
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  private void force() throws IOException {
+    long target = writtenLsn;
+    channel.force(false);
+    durableLsn = Math.max(durableLsn, target);
+    synced.signalAll();
+  }
+
+  private static ByteBuffer frame(LogRecord record) {
+    byte[] payload =
+        record.type() == LogRecord.Type.SAVE ? ProductCodec.encode(record.product()) : null;
+    int bodyLength = Byte.BYTES + (payload == null ? ProductCodec.UUID_BYTES : payload.length);
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+    buffer.position(HEADER_BYTES);
+    if (payload == null) {
+      buffer.put(DELETE);
+      ProductCodec.writeUuid(buffer, record.uuid());
+    } else {
+      buffer.put(SAVE).put(payload);
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.array(), HEADER_BYTES, bodyLength);
+    buffer.putInt(0, bodyLength).putInt(Integer.BYTES, (int) crc.getValue());
+    return buffer.flip();
+  }
+
+  private static LogRecord parse(ByteBuffer body) {
+    byte type = body.get();
+    return switch (type) {
+      case SAVE -> LogRecord.save(ProductCodec.decode(body));
+      case DELETE -> LogRecord.delete(ProductCodec.readUuid(body));
+      default -> throw new IllegalArgumentException("Unknown log record type: " + type);
+    };
+  }
+
+  /**
+   * @return длина корректного префикса сегмента в байтах
+   */
+  private static long replaySegment(Path path, Consumer<LogRecord> replay) throws IOException {
+    try (FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      long position = 0;
+      while (true) {
+        header.clear();
+        if (!readFully(segmentChannel, header)) {
+          return position;
+        }
+        int length = header.getInt(0);
+        int checksum = header.getInt(Integer.BYTES);
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+          return position;
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        if (!readFully(segmentChannel, body)) {
+          return position;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(body.array(), 0, length);
+        if ((int) crc.getValue() != checksum) {
+          return position;
+        }
+        LogRecord record;
+        try {
+          record = parse(body.flip());
+        } catch (IllegalArgumentException e) {
+          return position;
+        }
+        replay.accept(record);
+        position += HEADER_BYTES + length;
+      }
+    }
+  }
+
+  private static boolean readFully(FileChannel source, ByteBuffer target) throws IOException {
+    while (target.hasRemaining()) {
+      if (source.read(target) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static List<Path> segments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+          .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private static void deleteSegmentsBefore(Path directory, long firstSegment)
+      throws IOException {
+    for (Path path : segments(directory)) {
+      if (segmentNumber(path) < firstSegment) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  static long segmentNumber(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  static Path segmentPath(Path directory, long segment) {
+    return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  /** Запись каталога о новом сегменте сбрасывается до удаления прежних сегментов */
+  private static FileChannel openSegment(Path directory, long segment) throws IOException {
+    FileChannel opened =
+        FileChannel.open(
+            segmentPath(directory, segment),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.READ);
+    try {
+      forceDirectory(directory);
+    } catch (IOException e) {
+      opened.close();
+      throw e;
+    }
+    opened.position(opened.size());
+    return opened;
+  }
+
+  /**
+   * Сбрасывает на диск сам каталог: без этого созданный или переименованный файл может исчезнуть
+   * после сбоя питания, хотя его содержимое уже сброшено
+   */
+  static void forceDirectory(Path directory) throws IOException {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package ru.clevertec.product.transfer;
+
+public enum CatalogFormat {
+
+  /**
+   * Текст UTF-8 с заголовком uuid,name,description,price,created. Поля с запятой, кавычкой или
+   * переводом строки заключаются в кавычки, кавычка внутри удваивается (RFC 4180), пустое поле
+   * без кавычек - null
+   */
+  CSV,
+
+  /**
+   * Записи {@link ru.clevertec.product.storage.ProductCodec} с префиксом длины, как в снимке
+   * хранилища
+   */
+  BINARY
+}
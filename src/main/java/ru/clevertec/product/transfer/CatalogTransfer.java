@@ -0,0 +1,30 @@
+package ru.clevertec.product.transfer;
+
+import java.nio.file.Path;
+
+public interface CatalogTransfer {
+
+  /**
+   * Загружает продукты из файла. Каждая корректная строка создаёт новый продукт с новым
+   * идентификатором и датой создания, идентификатор и дата из файла не используются
+   *
+   * @param source файл каталога
+   * @param format формат файла
+   * @return количество загруженных и отброшенных строк и скорость загрузки
+   * @throws java.io.UncheckedIOException при ошибке ввода-вывода
+   * @throws IllegalStateException если файл повреждён или запись длиннее буфера чтения
+   */
+  TransferReport importFrom(Path source, CatalogFormat format);
+
+  /**
+   * Выгружает каталог в файл страницами, не собирая его в памяти целиком. Продукты, изменённые
+   * во время выгрузки, попадают в файл в одном из своих состояний
+   *
+   * @param target файл каталога, существующий перезаписывается
+   * @param format формат файла
+   * @return количество выгруженных продуктов и скорость выгрузки
+   * @throws java.io.UncheckedIOException при ошибке ввода-вывода
+   * @throws IllegalStateException если продукт длиннее буфера записи
+   */
+  TransferReport exportTo(Path target, CatalogFormat format);
+}
@@ -0,0 +1,22 @@
+package ru.clevertec.product.transfer;
+
+import java.time.Duration;
+
+/**
+ * Итог импорта или экспорта каталога
+ *
+ * @param rows количество загруженных или выгруженных продуктов
+ * @param rejected количество строк, отброшенных из-за ошибок разбора или проверки
+ * @param bytes количество прочитанных или записанных байт
+ * @param elapsed время выполнения
+ */
+public record TransferReport(long rows, long rejected, long bytes, Duration elapsed) {
+
+  /**
+   * @return продуктов в секунду, 0 если время не измерено
+   */
+  public double rowsPerSecond() {
+    long nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : rows * 1e9 / nanos;
+  }
+}
@@ -0,0 +1,171 @@
+package ru.clevertec.product.transfer.impl;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Разбор и запись строк CSV каталога прямо по байтам UTF-8: разделители и кавычки - ASCII и не
+ * встречаются внутри многобайтовых символов, поэтому строки декодируются только для значений
+ * полей.
+ */
+final class CsvRows {
+
+  static final byte[] HEADER =
+      "uuid,name,description,price,created\n".getBytes(StandardCharsets.UTF_8);
+
+  private static final int COLUMNS = 5;
+  private static final int NAME = 1;
+  private static final int DESCRIPTION = 2;
+  private static final int PRICE = 3;
+  private static final byte COMMA = ',';
+  private static final byte QUOTE = '"';
+  private static final byte NEWLINE = '\n';
+  private static final byte CARRIAGE_RETURN = '\r';
+
+  private CsvRows() {}
+
+  /**
+   * Ищет конец последней полной строки буфера, переводы строк внутри кавычек не считаются
+   *
+   * @param buffer прочитанные байты от начала строки до limit
+   * @return позиция за последним переводом строки, 0 если полной строки нет
+   */
+  static int lastRowEnd(ByteBuffer buffer) {
+    int end = 0;
+    boolean quoted = false;
+    for (int i = 0; i < buffer.limit(); i++) {
+      byte value = buffer.get(i);
+      if (value == QUOTE) {
+        quoted = !quoted;
+      } else if (value == NEWLINE && !quoted) {
+        end = i + 1;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Разбирает фрагмент из целых строк. Пустые строки пропускаются, строки с другим числом полей,
+   * незакрытой кавычкой или нечисловой ценой отбрасываются
+   *
+   * @param chunk целые строки CSV без заголовка
+   * @param rows получатель разобранных DTO в порядке строк
+   * @return количество отброшенных строк
+   */
+  static int parse(byte[] chunk, List<ProductDto> rows) {
+    String[] fields = new String[COLUMNS];
+    int rejected = 0;
+    int position = 0;
+    while (position < chunk.length) {
+      int count = 0;
+      boolean malformed = false;
+      while (true) {
+        String field;
+        if (position < chunk.length && chunk[position] == QUOTE) {
+          int start = ++position;
+          boolean escaped = false;
+          while (position < chunk.length) {
+            if (chunk[position] == QUOTE) {
+              if (position + 1 < chunk.length && chunk[position + 1] == QUOTE) {
+                escaped = true;
+                position++;
+              } else {
+                break;
+              }
+            }
+            position++;
+          }
+          malformed |= position == chunk.length;
+          field = new String(chunk, start, position - start, StandardCharsets.UTF_8);
+          field = escaped ? field.replace("\"\"", "\"") : field;
+          position++;
+        } else {
+          int start = position;
+          while (position < chunk.length
+              && chunk[position] != COMMA
+              && chunk[position] != NEWLINE) {
+            position++;
+          }
+          int end = position;
+          if (end > start && chunk[end - 1] == CARRIAGE_RETURN) {
+            end--;
+          }
+          field =
+              end == start ? null : new String(chunk, start, end - start, StandardCharsets.UTF_8);
+        }
+        if (count < COLUMNS) {
+          fields[count] = field;
+        }
+        count++;
+        if (position < chunk.length && chunk[position] == COMMA) {
+          position++;
+          continue;
+        }
+        if (position < chunk.length && chunk[position] == CARRIAGE_RETURN) {
+          position++;
+        }
+        if (position < chunk.length && chunk[position] != NEWLINE) {
+          malformed = true;
+          while (position < chunk.length && chunk[position] != NEWLINE) {
+            position++;
+          }
+        }
+        position++;
+        break;
+      }
+      if (count == 1 && fields[0] == null && !malformed) {
+        continue;
+      }
+      ProductDto row = malformed || count != COLUMNS ? null : toDto(fields);
+      if (row == null) {
+        rejected++;
+      } else {
+        rows.add(row);
+      }
+    }
+    return rejected;
+  }
+
+  /**
+   * @param product продукт каталога
+   * @return строка CSV с переводом строки в UTF-8
+   */
+  static byte[] encode(Product product) {
+    StringBuilder row = new StringBuilder(128);
+    append(row, product.getUuid() == null ? null : product.getUuid().toString()).append(',');
+    append(row, product.getName()).append(',');
+    append(row, product.getDescription()).append(',');
+    append(row, product.getPrice() == null ? null : product.getPrice().toPlainString());
+    row.append(',');
+    append(row, product.getCreated() == null ? null : product.getCreated().toString());
+    return row.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static ProductDto toDto(String[] fields) {
+    try {
+      BigDecimal price = fields[PRICE] == null ? null : new BigDecimal(fields[PRICE]);
+      return new ProductDto(fields[NAME], fields[DESCRIPTION], price);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static StringBuilder append(StringBuilder row, String value) {
+    if (value == null) {
+      return row;
+    }
+    boolean quote = value.isEmpty();
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char symbol = value.charAt(i);
+      quote = symbol == ',' || symbol == '"' || symbol == '\n' || symbol == '\r';
+    }
+    if (!quote) {
+      return row.append(value);
+    }
+    return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+  }
+}
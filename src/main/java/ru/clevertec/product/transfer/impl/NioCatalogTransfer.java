@@ -0,0 +1,322 @@
+package ru.clevertec.product.transfer.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.id.IdGenerator;
+import ru.clevertec.product.id.impl.TimeOrderedUuidGenerator;
+import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.storage.ProductCodec;
+import ru.clevertec.product.transfer.CatalogFormat;
+import ru.clevertec.product.transfer.CatalogTransfer;
+import ru.clevertec.product.transfer.TransferReport;
+import ru.clevertec.product.validator.ProductValidator;
+
+/**
+ * Импорт и экспорт каталога через {@link FileChannel} и прямые буферы.
+ *
+ * <p>Импорт читает файл фрагментами размера буфера. Читающий поток только находит конец
+ * последней целой записи и передаёт фрагмент исполнителю; разбор в {@link ProductDto},
+ * проверка, маппинг и пакетная запись {@link ProductRepository#saveAll} идут параллельно по
+ * фрагментам. Семафор ограничивает количество фрагментов в работе, поэтому память импорта не
+ * зависит от размера файла. Порядок вставки между фрагментами не сохраняется.
+ *
+ * <p>Запись фрагмента может ждать fsync журнала, поэтому общий {@link
+ * java.util.concurrent.ForkJoinPool} не используется: без переданного исполнителя импорт
+ * создаёт на время работы свой пул по числу процессоров.
+ *
+ * <p>Некорректные строки CSV и двоичные записи, которые не удалось разобрать, отбрасываются и
+ * считаются в отчёте. Двоичная запись с неверной длиной прерывает импорт: границы следующих
+ * записей после неё неизвестны.
+ *
+ * <p>Экспорт читает хранилище страницами {@link ProductRepository#findPage} и пишет их через
+ * один буфер.
+ */
+public class NioCatalogTransfer implements CatalogTransfer {
+
+  public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+
+  private static final int EXPORT_PAGE_SIZE = 4096;
+
+  private final ProductMapper mapper;
+  private final ProductRepository productRepository;
+  private final ProductValidator validator;
+  private final IdGenerator idGenerator;
+  private final Executor executor;
+  private final int chunkBytes;
+  private final int chunksInFlight;
+
+  public NioCatalogTransfer(
+      ProductMapper mapper, ProductRepository productRepository, ProductValidator validator) {
+    this(
+        mapper,
+        productRepository,
+        validator,
+        new TimeOrderedUuidGenerator(),
+        null,
+        DEFAULT_CHUNK_BYTES);
+  }
+
+  /**
+   * @param executor исполнитель разбора и записи фрагментов, null - собственный пул на время
+   *     каждого импорта
+   * @param chunkBytes размер буфера чтения и записи, запись файла не может быть длиннее
+   * @throws IllegalArgumentException если размер буфера меньше заголовка CSV
+   */
+  public NioCatalogTransfer(
+      ProductMapper mapper,
+      ProductRepository productRepository,
+      ProductValidator validator,
+      IdGenerator idGenerator,
+      Executor executor,
+      int chunkBytes) {
+    if (chunkBytes < CsvRows.HEADER.length) {
+      throw new IllegalArgumentException("Chunk size is too small: " + chunkBytes);
+    }
+    this.mapper = mapper;
+    this.productRepository = productRepository;
+    this.validator = validator;
+    this.idGenerator = idGenerator;
+    this.executor = executor;
+    this.chunkBytes = chunkBytes;
+    this.chunksInFlight = Runtime.getRuntime().availableProcessors() + 1;
+  }
+
+  @Override
+  public TransferReport importFrom(Path source, CatalogFormat format) {
+    long started = System.nanoTime();
+    LongAdder rows = new LongAdder();
+    LongAdder rejected = new LongAdder();
+    Semaphore permits = new Semaphore(chunksInFlight);
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    ExecutorService ownedExecutor = executor == null ? newImportExecutor() : null;
+    Executor loader = executor == null ? ownedExecutor : executor;
+    long bytes = 0;
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(chunkBytes);
+      boolean header = format == CatalogFormat.CSV;
+      boolean eof = false;
+      while (!eof && failure.get() == null) {
+        int read = 0;
+        while (buffer.hasRemaining() && (read = channel.read(buffer)) >= 0) {
+          bytes += read;
+        }
+        eof = read < 0;
+        buffer.flip();
+        if (header) {
+          skipHeader(buffer);
+          header = false;
+        }
+        int end = eof ? buffer.limit() : recordsEnd(buffer, format);
+        if (end == 0 && buffer.limit() == buffer.capacity()) {
+          throw new IllegalStateException(
+              "Record is longer than chunk of " + chunkBytes + " bytes");
+        }
+        byte[] chunk = new byte[end - buffer.position()];
+        buffer.get(chunk);
+        if (chunk.length > 0) {
+          acquire(permits, 1);
+          try {
+            loader.execute(() -> load(chunk, format, rows, rejected, permits, failure));
+          } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+          }
+        }
+        buffer.compact();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      try {
+        acquire(permits, chunksInFlight);
+      } finally {
+        if (ownedExecutor != null) {
+          ownedExecutor.shutdown();
+        }
+      }
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return new TransferReport(
+        rows.sum(), rejected.sum(), bytes, Duration.ofNanos(System.nanoTime() - started));
+  }
+
+  @Override
+  public TransferReport exportTo(Path target, CatalogFormat format) {
+    long started = System.nanoTime();
+    long rows = 0;
+    long bytes = 0;
+    try (FileChannel channel =
+        FileChannel.open(
+            target,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(chunkBytes);
+      if (format == CatalogFormat.CSV) {
+        buffer.put(CsvRows.HEADER);
+      }
+      UUID after = null;
+      List<Product> page;
+      do {
+        page = productRepository.findPage(after, EXPORT_PAGE_SIZE);
+        for (Product product : page) {
+          byte[] record =
+              format == CatalogFormat.CSV ? CsvRows.encode(product) : ProductCodec.encode(product);
+          int size = format == CatalogFormat.CSV ? record.length : Integer.BYTES + record.length;
+          if (buffer.remaining() < size) {
+            bytes += flush(channel, buffer);
+          }
+          if (buffer.remaining() < size) {
+            throw new IllegalStateException(
+                "Record is longer than chunk of " + chunkBytes + " bytes: " + product.getUuid());
+          }
+          if (format == CatalogFormat.BINARY) {
+            buffer.putInt(record.length);
+          }
+          buffer.put(record);
+          rows++;
+        }
+        after = page.isEmpty() ? after : page.get(page.size() - 1).getUuid();
+      } while (page.size() == EXPORT_PAGE_SIZE);
+      bytes += flush(channel, buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new TransferReport(rows, 0, bytes, Duration.ofNanos(System.nanoTime() - started));
+  }
+
+  private void load(
+      byte[] chunk,
+      CatalogFormat format,
+      LongAdder rows,
+      LongAdder rejected,
+      Semaphore permits,
+      AtomicReference<RuntimeException> failure) {
+    try {
+      if (failure.get() != null) {
+        return;
+      }
+      List<ProductDto> parsed = new ArrayList<>();
+      int invalid =
+          format == CatalogFormat.CSV ? CsvRows.parse(chunk, parsed) : decode(chunk, parsed);
+      List<ProductDto> valid = new ArrayList<>(parsed.size());
+      for (ProductDto productDto : parsed) {
+        if (validator.check(productDto) == 0) {
+          valid.add(productDto);
+        } else {
+          invalid++;
+        }
+      }
+      List<Product> products = mapper.toListProduct(valid);
+      products.forEach(product -> product.setUuid(idGenerator.next()));
+      productRepository.saveAll(products);
+      rows.add(products.size());
+      rejected.add(invalid);
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * @return количество записей, которые не удалось разобрать
+   * @throws IllegalStateException если длина записи неверна и границы следующих неизвестны
+   */
+  private static int decode(byte[] chunk, List<ProductDto> rows) {
+    ByteBuffer buffer = ByteBuffer.wrap(chunk);
+    int invalid = 0;
+    while (buffer.hasRemaining()) {
+      int length = buffer.remaining() < Integer.BYTES ? -1 : buffer.getInt();
+      if (length <= 0 || length > buffer.remaining()) {
+        throw new IllegalStateException("Malformed binary catalog record");
+      }
+      ByteBuffer record = buffer.slice(buffer.position(), length);
+      buffer.position(buffer.position() + length);
+      Product product;
+      try {
+        product = ProductCodec.decode(record);
+      } catch (IllegalArgumentException e) {
+        invalid++;
+        continue;
+      }
+      rows.add(new ProductDto(product.getName(), product.getDescription(), product.getPrice()));
+    }
+    return invalid;
+  }
+
+  private static void skipHeader(ByteBuffer buffer) {
+    int length = CsvRows.HEADER.length;
+    if (buffer.remaining() >= length
+        && buffer.slice(0, length).equals(ByteBuffer.wrap(CsvRows.HEADER))) {
+      buffer.position(length);
+    }
+  }
+
+  private static int recordsEnd(ByteBuffer buffer, CatalogFormat format) {
+    if (format == CatalogFormat.CSV) {
+      return Math.max(CsvRows.lastRowEnd(buffer), buffer.position());
+    }
+    int position = buffer.position();
+    while (position + Integer.BYTES <= buffer.limit()) {
+      int length = buffer.getInt(position);
+      if (length <= 0) {
+        throw new IllegalStateException("Malformed binary catalog record");
+      }
+      if ((long) position + Integer.BYTES + length > buffer.limit()) {
+        break;
+      }
+      position += Integer.BYTES + length;
+    }
+    return position;
+  }
+
+  private static long flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    long written = 0;
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer);
+    }
+    buffer.clear();
+    return written;
+  }
+
+  private ExecutorService newImportExecutor() {
+    return Executors.newFixedThreadPool(
+        chunksInFlight - 1,
+        task -> {
+          Thread thread = new Thread(task, "catalog-import");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private static void acquire(Semaphore permits, int count) {
+    try {
+      permits.acquire(count);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Catalog import interrupted", e);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package ru.clevertec.product.util;
+
+import java.math.BigDecimal;
+import ru.clevertec.product.entity.Product;
+
+/**
+ * Оценка размера объектного графа продукта на куче для 64-битной JVM со сжатыми указателями
+ * (заголовок объекта 12 байт, ссылка 4 байта, выравнивание 8 байт).
+ */
+public final class HeapFootprint {
+
+  /** Размер ссылки со сжатыми указателями */
+  public static final int REFERENCE = 4;
+
+  private static final int HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+
+  /** Узел ConcurrentHashMap и ячейка таблицы при коэффициенте заполнения 0.75 */
+  public static final long MAP_ENTRY = align(HEADER + Integer.BYTES + 3 * REFERENCE) + 6;
+
+  private static final long PRODUCT = align(HEADER + 5 * REFERENCE);
+  private static final long UUID = align(HEADER + 2 * Long.BYTES);
+  private static final long BIG_DECIMAL =
+      align(HEADER + 2 * REFERENCE + 2 * Integer.BYTES + Long.BYTES);
+  private static final long STRING = align(HEADER + REFERENCE + Integer.BYTES + 3);
+  private static final long LOCAL_DATE_TIME = align(HEADER + 2 * REFERENCE);
+  private static final long LOCAL_DATE = align(HEADER + Integer.BYTES + 2 * Short.BYTES);
+  private static final long LOCAL_TIME = align(HEADER + 3 + Integer.BYTES);
+
+  private HeapFootprint() {}
+
+  /**
+   * @param product продукт
+   * @return байт, занятых продуктом и всеми его полями
+   */
+  public static long of(Product product) {
+    long bytes = PRODUCT;
+    if (product.getUuid() != null) {
+      bytes += UUID;
+    }
+    bytes += string(product.getName()) + string(product.getDescription());
+    if (product.getPrice() != null) {
+      bytes += bigDecimal(product.getPrice());
+    }
+    if (product.getCreated() != null) {
+      bytes += LOCAL_DATE_TIME + LOCAL_DATE + LOCAL_TIME;
+    }
+    return bytes;
+  }
+
+  /**
+   * @param value строка, null - 0 байт
+   * @return байт, занятых строкой и её массивом
+   */
+  public static long string(String value) {
+    if (value == null) {
+      return 0;
+    }
+    boolean latin1 = value.chars().allMatch(c -> c < 256);
+    return STRING + align(ARRAY_HEADER + (long) value.length() * (latin1 ? 1 : 2));
+  }
+
+  /**
+   * @param value число
+   * @return байт, занятых числом и его немасштабированным значением
+   */
+  public static long bigDecimal(BigDecimal value) {
+    if (value.unscaledValue().bitLength() < Long.SIZE) {
+      return BIG_DECIMAL;
+    }
+    int magnitudeInts = (value.unscaledValue().bitLength() + Integer.SIZE - 1) / Integer.SIZE;
+    long bigInteger = align(HEADER + REFERENCE + 5 * Integer.BYTES);
+    return BIG_DECIMAL + bigInteger + align(ARRAY_HEADER + (long) magnitudeInts * Integer.BYTES);
+  }
+
+  /**
+   * @param fieldBytes суммарный размер полей объекта
+   * @return байт, занятых объектом с заголовком и выравниванием
+   */
+  public static long object(int fieldBytes) {
+    return align(HEADER + fieldBytes);
+  }
+
+  /**
+   * @param elementBytes размер элемента, для ссылок {@link #REFERENCE}
+   * @param length длина массива
+   * @return байт, занятых массивом
+   */
+  public static long array(int elementBytes, long length) {
+    return align(ARRAY_HEADER + elementBytes * length);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+}
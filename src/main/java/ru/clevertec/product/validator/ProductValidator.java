@@ -0,0 +1,32 @@
+package ru.clevertec.product.validator;
+
+import java.util.List;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ValidationException;
+
+public interface ProductValidator {
+
+  /**
+   * Проверяет DTO без создания объектов
+   *
+   * @param productDto DTO для проверки, null нарушает обязательные поля
+   * @return маска {@link Violation#mask()} нарушений, 0 если DTO корректен
+   */
+  int check(ProductDto productDto);
+
+  /**
+   * Проверяет DTO перед созданием или изменением продукта
+   *
+   * @param productDto DTO для проверки
+   * @throws ValidationException со всеми нарушениями, если DTO некорректен
+   */
+  void validate(ProductDto productDto);
+
+  /**
+   * Проверяет пачку DTO за один проход
+   *
+   * @param productDtos DTO для проверки
+   * @throws ValidationException с ошибками всех некорректных DTO и их позициями
+   */
+  void validateAll(List<ProductDto> productDtos);
+}
@@ -0,0 +1,22 @@
+package ru.clevertec.product.validator;
+
+import java.util.Set;
+
+public record ValidationError(
+
+    /** Позиция DTO в проверяемой пачке, 0 для одиночной проверки */
+    int index,
+
+    /** Нарушенные правила */
+    Set<Violation> violations) {
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append('#').append(index).append(':');
+    for (Violation violation : violations) {
+      builder.append(' ').append(violation.field()).append(' ').append(violation.message());
+      builder.append(';');
+    }
+    return builder.toString();
+  }
+}
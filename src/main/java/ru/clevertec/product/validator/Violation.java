@@ -0,0 +1,55 @@
+package ru.clevertec.product.validator;
+
+import java.util.EnumSet;
+import java.util.Set;
+import ru.clevertec.product.data.ProductDto;
+
+/** Нарушение правила {@link ru.clevertec.product.entity.Product}, кодируется битом в маске */
+public enum Violation {
+  NAME_REQUIRED(ProductDto.Fields.name, "must not be null"),
+  NAME_LENGTH(ProductDto.Fields.name, "must contain 5-10 characters"),
+  NAME_CHARACTERS(ProductDto.Fields.name, "must contain only Cyrillic letters and spaces"),
+  DESCRIPTION_LENGTH(ProductDto.Fields.description, "must contain 10-30 characters"),
+  DESCRIPTION_CHARACTERS(
+      ProductDto.Fields.description, "must contain only Cyrillic letters and spaces"),
+  PRICE_REQUIRED(ProductDto.Fields.price, "must not be null"),
+  PRICE_NOT_POSITIVE(ProductDto.Fields.price, "must be positive");
+
+  private static final Violation[] VALUES = values();
+
+  private final String field;
+  private final String message;
+  private final int mask;
+
+  Violation(String field, String message) {
+    this.field = field;
+    this.message = message;
+    this.mask = 1 << ordinal();
+  }
+
+  public String field() {
+    return field;
+  }
+
+  public String message() {
+    return message;
+  }
+
+  public int mask() {
+    return mask;
+  }
+
+  /**
+   * @param mask результат {@link ProductValidator#check(ProductDto)}
+   * @return нарушения, биты которых выставлены в маске
+   */
+  public static Set<Violation> of(int mask) {
+    Set<Violation> violations = EnumSet.noneOf(Violation.class);
+    for (Violation violation : VALUES) {
+      if ((mask & violation.mask) != 0) {
+        violations.add(violation);
+      }
+    }
+    return violations;
+  }
+}
@@ -0,0 +1,126 @@
+package ru.clevertec.product.validator.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ValidationException;
+import ru.clevertec.product.validator.ProductValidator;
+import ru.clevertec.product.validator.ValidationError;
+import ru.clevertec.product.validator.Violation;
+
+/**
+ * Проверка правил {@link ru.clevertec.product.entity.Product} без регулярных выражений.
+ *
+ * <p>Допустимые символы (кириллица А-я, Ё, ё и пробел) заранее собраны в битовую маску по
+ * блоку U+0400-U+047F, поэтому проверка символа - сдвиг и сравнение. Корректный DTO
+ * проверяется без аллокаций, объекты ошибок создаются только для некорректных.
+ */
+public class ProductValidatorImpl implements ProductValidator {
+
+  public static final int NAME_MIN_LENGTH = 5;
+  public static final int NAME_MAX_LENGTH = 10;
+  public static final int DESCRIPTION_MIN_LENGTH = 10;
+  public static final int DESCRIPTION_MAX_LENGTH = 30;
+
+  private static final char BLOCK_START = '\u0400';
+  private static final long ALLOWED_LOW;
+  private static final long ALLOWED_HIGH;
+
+  static {
+    long low = 0;
+    long high = 0;
+    for (char c = BLOCK_START; c < BLOCK_START + 2 * Long.SIZE; c++) {
+      boolean allowed = (c >= 'А' && c <= 'я') || c == 'Ё' || c == 'ё';
+      int offset = c - BLOCK_START;
+      if (allowed && offset < Long.SIZE) {
+        low |= 1L << offset;
+      } else if (allowed) {
+        high |= 1L << (offset - Long.SIZE);
+      }
+    }
+    ALLOWED_LOW = low;
+    ALLOWED_HIGH = high;
+  }
+
+  @Override
+  public int check(ProductDto productDto) {
+    if (productDto == null) {
+      return Violation.NAME_REQUIRED.mask() | Violation.PRICE_REQUIRED.mask();
+    }
+    int violations = 0;
+    String name = productDto.name();
+    if (name == null) {
+      violations |= Violation.NAME_REQUIRED.mask();
+    } else {
+      if (name.length() < NAME_MIN_LENGTH || name.length() > NAME_MAX_LENGTH) {
+        violations |= Violation.NAME_LENGTH.mask();
+      }
+      if (!allowed(name)) {
+        violations |= Violation.NAME_CHARACTERS.mask();
+      }
+    }
+    String description = productDto.description();
+    if (description != null) {
+      if (description.length() < DESCRIPTION_MIN_LENGTH
+          || description.length() > DESCRIPTION_MAX_LENGTH) {
+        violations |= Violation.DESCRIPTION_LENGTH.mask();
+      }
+      if (!allowed(description)) {
+        violations |= Violation.DESCRIPTION_CHARACTERS.mask();
+      }
+    }
+    BigDecimal price = productDto.price();
+    if (price == null) {
+      violations |= Violation.PRICE_REQUIRED.mask();
+    } else if (price.signum() <= 0) {
+      violations |= Violation.PRICE_NOT_POSITIVE.mask();
+    }
+    return violations;
+  }
+
+  @Override
+  public void validate(ProductDto productDto) {
+    int violations = check(productDto);
+    if (violations != 0) {
+      throw new ValidationException(List.of(new ValidationError(0, Violation.of(violations))));
+    }
+  }
+
+  @Override
+  public void validateAll(List<ProductDto> productDtos) {
+    List<ValidationError> errors = null;
+    int index = 0;
+    for (ProductDto productDto : productDtos) {
+      int violations = check(productDto);
+      if (violations != 0) {
+        if (errors == null) {
+          errors = new ArrayList<>();
+        }
+        errors.add(new ValidationError(index, Violation.of(violations)));
+      }
+      index++;
+    }
+    if (errors != null) {
+      throw new ValidationException(errors);
+    }
+  }
+
+  private static boolean allowed(String value) {
+    for (int i = 0, length = value.length(); i < length; i++) {
+      if (!allowed(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allowed(char c) {
+    int offset = c - BLOCK_START;
+    if (offset < 0 || offset >= 2 * Long.SIZE) {
+      return c == ' ';
+    }
+    long bits = offset < Long.SIZE ? ALLOWED_LOW : ALLOWED_HIGH;
+    return (bits >>> (offset & (Long.SIZE - 1)) & 1) != 0;
+  }
+}
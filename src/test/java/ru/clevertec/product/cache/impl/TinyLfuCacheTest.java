@@ -0,0 +1,143 @@
+package ru.clevertec.product.cache.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.clevertec.product.cache.CacheStats;
+
+class TinyLfuCacheTest {
+
+  private final AtomicLong ticker = new AtomicLong();
+
+  @Test
+  void get_whenLoadedTwice_thenLoaderCalledOnceAndHitCountedExpected() {
+    // given
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, null, ticker::get);
+    AtomicInteger loads = new AtomicInteger();
+    Function<Integer, String> loader = key -> "value" + loads.incrementAndGet();
+
+    // when
+    cache.get(1, loader);
+    String actual = cache.get(1, loader);
+
+    // then
+    assertThat(actual).isEqualTo("value1");
+    assertThat(cache.stats()).isEqualTo(new CacheStats(1, 1, 0));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 10, 100, 1000})
+  void get_whenManyKeysLoaded_thenSizeNeverExceedsMaximumExpected(int maximumSize) {
+    // given
+    TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(maximumSize, null, ticker::get);
+
+    // when
+    for (int key = 0; key < maximumSize * 10; key++) {
+      cache.get(key, Function.identity());
+    }
+
+    // then
+    assertThat(cache.size()).isLessThanOrEqualTo(maximumSize);
+    assertThat(cache.stats().evictions()).isEqualTo(maximumSize * 10L - cache.size());
+  }
+
+  @Test
+  void get_whenHotKeysInterleavedWithScan_thenHotKeysStayCachedExpected() {
+    // given
+    TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100, null, ticker::get);
+    for (int round = 0; round < 20; round++) {
+      for (int key = 0; key < 50; key++) {
+        cache.get(key, Function.identity());
+      }
+    }
+
+    // when
+    for (int key = 1_000; key < 100_000; key++) {
+      cache.get(key, Function.identity());
+      cache.get(key % 50, Function.identity());
+    }
+
+    // then
+    for (int key = 0; key < 50; key++) {
+      assertThat(cache.getIfPresent(key)).contains(key);
+    }
+  }
+
+  @Test
+  void get_whenExpired_thenReloadExpected() {
+    // given
+    TinyLfuCache<Integer, Long> cache =
+        new TinyLfuCache<>(10, Duration.ofSeconds(1), ticker::get);
+    cache.get(1, key -> ticker.get());
+
+    // when
+    ticker.addAndGet(Duration.ofSeconds(2).toNanos());
+
+    // then
+    assertThat(cache.getIfPresent(1)).isEmpty();
+    assertThat(cache.get(1, key -> ticker.get())).isEqualTo(ticker.get());
+  }
+
+  @Test
+  void invalidate_whenInvalidatedDuringLoad_thenLoadedValueNotCachedExpected() {
+    // given
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, null, ticker::get);
+
+    // when
+    cache.get(
+        1,
+        key -> {
+          cache.invalidate(key);
+          return "stale";
+        });
+
+    // then
+    assertThat(cache.getIfPresent(1)).isEmpty();
+  }
+
+  @Test
+  void invalidate_whenInvalidated_thenValueRemovedExpected() {
+    // given
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, null, ticker::get);
+    cache.get(1, String::valueOf);
+
+    // when
+    cache.invalidate(1);
+
+    // then
+    assertThat(cache.getIfPresent(1)).isEmpty();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void get_whenLoaderThrows_thenExceptionPropagatedAndNothingCachedExpected() {
+    // given
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, null, ticker::get);
+
+    // when
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                1,
+                key -> {
+                  throw new IllegalStateException();
+                }));
+
+    // then
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void constructor_whenNotPositiveSize_thenIllegalArgumentExceptionExpected() {
+    // given, when, then
+    assertThrows(IllegalArgumentException.class, () -> new TinyLfuCache<>(0, null));
+  }
+}
@@ -0,0 +1,201 @@
+package ru.clevertec.product.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ChangeSubscription;
+import ru.clevertec.product.event.OverflowPolicy;
+import ru.clevertec.product.event.ProductChange;
+import ru.clevertec.product.event.ProductChangeListener;
+import ru.clevertec.product.util.ProductTestData;
+
+class RingBufferChangeStreamTest {
+
+  private static final int THREADS = 4;
+  private static final int EVENTS_PER_THREAD = 1000;
+
+  private final Product product = ProductTestData.builder().build().buildProduct();
+
+  @Test
+  void publish_whenNoSubscribers_thenNothingPublishedExpected() {
+    // given
+    RingBufferChangeStream stream = new RingBufferChangeStream(4);
+
+    // when
+    stream.publish(null, product);
+
+    // then
+    assertThat(stream.published()).isZero();
+  }
+
+  @Test
+  void subscribe_whenParallelWriters_thenAllEventsInSequenceOrderExpected() throws Exception {
+    // given
+    RingBufferChangeStream stream = new RingBufferChangeStream(1 << 16);
+    RecordingListener listener = new RecordingListener(THREADS * EVENTS_PER_THREAD);
+    listener.release.countDown();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    // when
+    try (ChangeSubscription ignored = stream.subscribe(listener, OverflowPolicy.DISCONNECT)) {
+      List<Future<?>> writers =
+          IntStream.range(0, THREADS)
+              .<Future<?>>mapToObj(
+                  thread ->
+                      executor.submit(
+                          () -> {
+                            for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                              stream.publish(product, product);
+                            }
+                          }))
+              .toList();
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      assertThat(listener.received.await(10, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      executor.shutdown();
+    }
+
+    // then
+    assertThat(listener.changes)
+        .extracting(ProductChange::sequence)
+        .isSorted()
+        .doesNotHaveDuplicates()
+        .hasSize(THREADS * EVENTS_PER_THREAD);
+    assertThat(listener.lost.get()).isZero();
+  }
+
+  @Test
+  void subscribe_whenSkipToOldestAndOverrun_thenLatestEventsDeliveredExpected() throws Exception {
+    // given
+    RingBufferChangeStream stream = new RingBufferChangeStream(4);
+    RecordingListener listener = new RecordingListener(4);
+    ChangeSubscription subscription = stream.subscribe(listener, OverflowPolicy.SKIP_TO_OLDEST);
+    stream.publish(null, product);
+    assertThat(listener.first.await(10, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    for (int i = 1; i < 20; i++) {
+      stream.publish(product, product);
+    }
+    listener.release.countDown();
+
+    // then
+    assertThat(listener.overflowed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(listener.received.await(10, TimeUnit.SECONDS)).isTrue();
+    subscription.close();
+    assertThat(listener.changes).extracting(ProductChange::sequence).isSorted().contains(0L, 19L);
+    assertThat(listener.lost.get() + listener.changes.size()).isLessThanOrEqualTo(20);
+    assertThat(subscription.isClosed()).isTrue();
+  }
+
+  @Test
+  void subscribe_whenSkipToLatestAndOverrun_thenOnlyNewEventsDeliveredExpected() throws Exception {
+    // given
+    RingBufferChangeStream stream = new RingBufferChangeStream(4);
+    RecordingListener listener = new RecordingListener(2);
+    ChangeSubscription subscription = stream.subscribe(listener, OverflowPolicy.SKIP_TO_LATEST);
+    stream.publish(null, product);
+    assertThat(listener.first.await(10, TimeUnit.SECONDS)).isTrue();
+    for (int i = 1; i < 20; i++) {
+      stream.publish(product, product);
+    }
+    listener.release.countDown();
+    assertThat(listener.overflowed.await(10, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    stream.publish(product, null);
+
+    // then
+    assertThat(listener.received.await(10, TimeUnit.SECONDS)).isTrue();
+    subscription.close();
+    assertThat(listener.changes).extracting(ProductChange::sequence).containsExactly(0L, 20L);
+    assertThat(listener.lost.get()).isEqualTo(19);
+  }
+
+  @Test
+  void subscribe_whenDisconnectAndOverrun_thenSubscriptionClosedExpected() throws Exception {
+    // given
+    RingBufferChangeStream stream = new RingBufferChangeStream(4);
+    RecordingListener listener = new RecordingListener(Integer.MAX_VALUE);
+    ChangeSubscription subscription = stream.subscribe(listener, OverflowPolicy.DISCONNECT);
+    stream.publish(null, product);
+    assertThat(listener.first.await(10, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    for (int i = 1; i < 20; i++) {
+      stream.publish(product, product);
+    }
+    listener.release.countDown();
+
+    // then
+    assertThat(listener.overflowed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(subscription.isClosed()).isTrue();
+    assertThat(listener.changes).hasSize(1);
+  }
+
+  @Test
+  void subscribe_whenChangeDelivered_thenListenerGetsCopiesExpected() throws Exception {
+    // given
+    RingBufferChangeStream stream = new RingBufferChangeStream(4);
+    RecordingListener listener = new RecordingListener(1);
+    listener.release.countDown();
+
+    // when
+    try (ChangeSubscription ignored = stream.subscribe(listener, OverflowPolicy.DISCONNECT)) {
+      stream.publish(null, product);
+      assertThat(listener.received.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // then
+    Product actual = listener.changes.get(0).after();
+    assertThat(actual).isEqualTo(product).isNotSameAs(product);
+    assertThat(listener.changes.get(0).before()).isNull();
+  }
+
+  /** Задерживает первое изменение до release, чтобы писатели успели обогнать подписчика */
+  private static class RecordingListener implements ProductChangeListener {
+
+    private final List<ProductChange> changes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch first = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch overflowed = new CountDownLatch(1);
+    private final CountDownLatch received;
+    private final AtomicLong lost = new AtomicLong();
+
+    RecordingListener(int expected) {
+      this.received = new CountDownLatch(expected);
+    }
+
+    @Override
+    public void onChange(ProductChange change) {
+      changes.add(change);
+      received.countDown();
+      if (change.sequence() == 0) {
+        first.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    @Override
+    public void onOverflow(long count) {
+      lost.addAndGet(count);
+      overflowed.countDown();
+    }
+  }
+}
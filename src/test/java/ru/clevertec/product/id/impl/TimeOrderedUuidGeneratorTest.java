@@ -0,0 +1,117 @@
+package ru.clevertec.product.id.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedUuidGeneratorTest {
+
+  private static final long NOW = 1_698_742_800_000L;
+
+  @Test
+  void next_whenGenerated_thenVersion7AndIetfVariantExpected() {
+    // given
+    TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> NOW);
+
+    // when
+    UUID actual = generator.next();
+
+    // then
+    assertThat(actual.version()).isEqualTo(7);
+    assertThat(actual.variant()).isEqualTo(2);
+    assertThat(TimeOrderedUuidGenerator.unixMillis(actual)).isEqualTo(NOW);
+  }
+
+  @Test
+  void next_whenSameMillisecond_thenStrictlyIncreasingExpected() {
+    // given
+    TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> NOW);
+    List<UUID> generated = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < 10_000; i++) {
+      generated.add(generator.next());
+    }
+
+    // then
+    assertThat(generated).isSortedAccordingTo(UUID::compareTo).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void next_whenClockGoesBackwards_thenStillIncreasingExpected() {
+    // given
+    AtomicLong clock = new AtomicLong(NOW);
+    TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(clock::get);
+    UUID before = generator.next();
+    clock.set(NOW - 1_000);
+
+    // when
+    UUID actual = generator.next();
+
+    // then
+    assertThat(actual).isGreaterThan(before);
+    assertThat(TimeOrderedUuidGenerator.unixMillis(actual)).isEqualTo(NOW);
+  }
+
+  @Test
+  void next_whenLaterMillisecond_thenGreaterThanEveryEarlierExpected() {
+    // given
+    AtomicLong clock = new AtomicLong(NOW);
+    TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(clock::get);
+    TimeOrderedUuidGenerator otherThreadLike = new TimeOrderedUuidGenerator(clock::get);
+    UUID earlier = otherThreadLike.next();
+    clock.incrementAndGet();
+
+    // when
+    UUID actual = generator.next();
+
+    // then
+    assertThat(actual).isGreaterThan(earlier);
+  }
+
+  @Test
+  void next_whenManyThreads_thenAllUniqueExpected() throws Exception {
+    // given
+    TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator();
+    Set<UUID> generated = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < 8; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int j = 0; j < 50_000; j++) {
+                  generated.add(generator.next());
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    // then
+    assertThat(generated).hasSize(8 * 50_000);
+  }
+
+  @Test
+  void unixMillis_whenRandomUuid_thenIllegalArgumentExceptionExpected() {
+    // given
+    UUID uuid = UUID.randomUUID();
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> TimeOrderedUuidGenerator.unixMillis(uuid));
+  }
+}
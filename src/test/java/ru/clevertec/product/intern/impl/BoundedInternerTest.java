@@ -0,0 +1,83 @@
+package ru.clevertec.product.intern.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.intern.InternStats;
+
+class BoundedInternerTest {
+
+  private final BoundedInterner interner = new BoundedInterner(100, 100);
+
+  @Test
+  void intern_whenEqualStrings_thenFirstInstanceReturnedExpected() {
+    // given
+    String first = new String("Рабочий ноутбук");
+    String second = new String("Рабочий ноутбук");
+
+    // when
+    interner.intern(first);
+    String actual = interner.intern(second);
+
+    // then
+    assertThat(actual).isSameAs(first);
+    assertThat(interner.stats().bytesSaved()).isPositive();
+  }
+
+  @Test
+  void intern_whenEqualPricesWithDifferentScale_thenScaleKeptExpected() {
+    // given
+    BigDecimal price = new BigDecimal("10.0");
+    BigDecimal samePrice = new BigDecimal("10.0");
+    BigDecimal otherScale = new BigDecimal("10.00");
+
+    // when
+    interner.intern(price);
+    BigDecimal actual = interner.intern(samePrice);
+    BigDecimal actualOtherScale = interner.intern(otherScale);
+
+    // then
+    assertThat(actual).isSameAs(price);
+    assertThat(actualOtherScale).isSameAs(otherScale);
+  }
+
+  @Test
+  void intern_whenStringTooLong_thenNotPooledExpected() {
+    // given
+    String first = "а".repeat(BoundedInterner.MAX_STRING_LENGTH + 1);
+    String second = new String(first);
+
+    // when
+    interner.intern(first);
+    String actual = interner.intern(second);
+
+    // then
+    assertThat(actual).isSameAs(second);
+    assertThat(interner.stats().size()).isZero();
+  }
+
+  @Test
+  void intern_whenManyDistinctValues_thenPoolSizeBoundedExpected() {
+    // given
+    int values = 10_000;
+
+    // when
+    for (int i = 0; i < values; i++) {
+      interner.intern("описание " + i);
+      interner.intern(BigDecimal.valueOf(i, 2));
+    }
+
+    // then
+    InternStats actual = interner.stats();
+    assertThat(actual.size()).isLessThanOrEqualTo(200);
+    assertThat(actual.evictions()).isEqualTo(2L * values - actual.size());
+  }
+
+  @Test
+  void intern_whenNull_thenNullExpected() {
+    // given, when, then
+    assertThat(interner.intern((String) null)).isNull();
+    assertThat(interner.intern((BigDecimal) null)).isNull();
+  }
+}
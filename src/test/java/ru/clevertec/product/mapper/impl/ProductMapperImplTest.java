@@ -2,6 +2,9 @@ package ru.clevertec.product.mapper.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -81,6 +84,106 @@ class ProductMapperImplTest {
     assertThat(thrown).hasMessage(ProductNotFoundException.DEFAULT_MESSAGE);
   }
 
+  @Test
+  void testToListProduct_whenToListProduct_thenSameOrderAndCreatedExpected() {
+    // given
+    List<ProductDto> productDtos =
+        List.of(
+            ProductTestData.builder().withName("phone").build().buildProductDto(),
+            ProductTestData.builder().withName("keyboard").build().buildProductDto());
+
+    // when
+    List<Product> actual = productMapper.toListProduct(productDtos);
+
+    // then
+    assertThat(actual).extracting(Product::getName).containsExactly("phone", "keyboard");
+    assertThat(actual).extracting(Product::getCreated).doesNotContainNull();
+    assertThat(actual).extracting(Product::getUuid).containsOnlyNulls();
+  }
+
+  @Test
+  void testToProduct_whenEqualDescriptions_thenSharedInstanceExpected() {
+    // given
+    ProductDto first =
+        ProductTestData.builder()
+            .withDescription(new String("work laptop"))
+            .build()
+            .buildProductDto();
+    ProductDto second =
+        ProductTestData.builder()
+            .withDescription(new String("work laptop"))
+            .build()
+            .buildProductDto();
+
+    // when
+    Product actualFirst = productMapper.toProduct(first);
+    Product actualSecond = productMapper.toProduct(second);
+
+    // then
+    assertThat(actualSecond.getDescription()).isSameAs(actualFirst.getDescription());
+  }
+
+  @Test
+  void testToInfoProductDto_whenVersionedProduct_thenVersionCopiedExpected() {
+    // given
+    Product product = ProductTestData.builder().build().buildProduct();
+    product.setVersion(5);
+
+    // when
+    InfoProductDto actual = productMapper.toInfoProductDto(product);
+
+    // then
+    assertThat(actual.version()).isEqualTo(5);
+  }
+
+  @Test
+  void testToListInfoProductDto_whenToList_thenSameOrderExpected() {
+    // given
+    List<Product> products =
+        List.of(
+            ProductTestData.builder().withName("phone").build().buildProduct(),
+            ProductTestData.builder().withName("keyboard").build().buildProduct());
+
+    // when
+    List<InfoProductDto> actual = productMapper.toListInfoProductDto(products);
+
+    // then
+    assertThat(actual).extracting(InfoProductDto::name).containsExactly("phone", "keyboard");
+  }
+
+  @Test
+  void testToListInfoProductDto_whenAboveParallelThreshold_thenSameOrderExpected() {
+    // given
+    ProductMapperImpl parallelMapper = new ProductMapperImpl(1);
+    List<Product> products =
+        IntStream.range(0, 10_000)
+            .mapToObj(i -> ProductTestData.builder().withName("product " + i).build())
+            .map(ProductTestData::buildProduct)
+            .toList();
+
+    // when
+    List<InfoProductDto> actual = parallelMapper.toListInfoProductDto(products);
+
+    // then
+    assertThat(actual)
+        .extracting(InfoProductDto::name)
+        .containsExactlyElementsOf(products.stream().map(Product::getName).toList());
+  }
+
+  @Test
+  void testToListInfoProductDto_whenNullProductAboveParallelThreshold_thenExceptionExpected() {
+    // given
+    ProductMapperImpl parallelMapper = new ProductMapperImpl(1);
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      products.add(i == 7_777 ? null : ProductTestData.builder().build().buildProduct());
+    }
+
+    // when, then
+    Assertions.assertThrows(
+        ProductNotFoundException.class, () -> parallelMapper.toListInfoProductDto(products));
+  }
+
   @ParameterizedTest
   @ArgumentsSource(ArgumentsProviderMerge.class)
   void testMerge_whenMerge_thenProductExpected(
@@ -0,0 +1,68 @@
+package ru.clevertec.product.metrics.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LogHistogramTest {
+
+  private final LogHistogram histogram = new LogHistogram();
+
+  @Test
+  void percentiles_whenEmpty_thenZerosExpected() {
+    // given, when
+    long[] actual = histogram.percentiles(0.5, 0.99);
+
+    // then
+    assertThat(actual).containsExactly(0, 0);
+    assertThat(histogram.count()).isZero();
+  }
+
+  @Test
+  void percentiles_whenUniformValues_thenWithinBucketPrecisionExpected() {
+    // given
+    for (long value = 1; value <= 100_000; value++) {
+      histogram.record(value);
+    }
+
+    // when
+    long[] actual = histogram.percentiles(0.5, 0.99, 0.999);
+
+    // then
+    assertThat(actual[0]).isCloseTo(50_000, within(50_000 / LogHistogram.SUB_BUCKETS + 1L));
+    assertThat(actual[1]).isCloseTo(99_000, within(99_000 / LogHistogram.SUB_BUCKETS + 1L));
+    assertThat(actual[2]).isCloseTo(99_900, within(99_900 / LogHistogram.SUB_BUCKETS + 1L));
+    assertThat(histogram.count()).isEqualTo(100_000);
+    assertThat(histogram.max()).isEqualTo(100_000);
+  }
+
+  @Test
+  void percentiles_whenSingleOutlier_thenMaxExactExpected() {
+    // given
+    for (int i = 0; i < 999; i++) {
+      histogram.record(100);
+    }
+    histogram.record(123_456_789);
+
+    // when
+    long[] actual = histogram.percentiles(0.5, 1.0);
+
+    // then
+    assertThat(actual[0]).isBetween(100L, 100L + 100 / LogHistogram.SUB_BUCKETS);
+    assertThat(actual[1]).isEqualTo(123_456_789);
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = {0, 15, 16, 17, 1_000, 1L << 40, Long.MAX_VALUE})
+  void index_whenValue_thenValueInsideBucketExpected(long value) {
+    // given, when
+    int index = LogHistogram.index(value);
+
+    // then
+    assertThat(LogHistogram.upperBound(index)).isGreaterThanOrEqualTo(value);
+    assertThat(index == 0 ? -1 : LogHistogram.upperBound(index - 1)).isLessThan(value);
+  }
+}
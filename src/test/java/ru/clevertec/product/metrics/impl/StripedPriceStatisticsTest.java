@@ -0,0 +1,206 @@
+package ru.clevertec.product.metrics.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.metrics.PriceBucket;
+import ru.clevertec.product.metrics.PriceSummary;
+import ru.clevertec.product.util.ProductTestData;
+
+class StripedPriceStatisticsTest {
+
+  private final StripedPriceStatistics statistics = new StripedPriceStatistics();
+
+  @Test
+  void summary_whenEmpty_thenZeroCountAndNullBoundsExpected() {
+    // given, when
+    PriceSummary actual = statistics.summary();
+
+    // then
+    assertThat(actual.count()).isZero();
+    assertThat(actual.min()).isNull();
+    assertThat(actual.max()).isNull();
+    assertThat(actual.average()).isNull();
+    assertThat(statistics.quantiles(0.5)).isEmpty();
+  }
+
+  @Test
+  void summary_whenCreated_thenCountMinMaxSumAverageExpected() {
+    // given
+    statistics.update(null, product("10.00"));
+    statistics.update(null, product("20.50"));
+    statistics.update(null, product("30.00"));
+
+    // when
+    PriceSummary actual = statistics.summary();
+
+    // then
+    assertThat(actual.count()).isEqualTo(3);
+    assertThat(actual.min()).isEqualByComparingTo("10.00");
+    assertThat(actual.max()).isEqualByComparingTo("30.00");
+    assertThat(actual.sum()).isEqualByComparingTo("60.50");
+    assertThat(actual.average()).isEqualByComparingTo("20.16666666666667");
+  }
+
+  @Test
+  void summary_whenExtremeProductsDeleted_thenNextPricesBecomeBoundsExpected() {
+    // given
+    Product cheapest = product("1.00");
+    Product dearest = product("999.99");
+    statistics.update(null, cheapest);
+    statistics.update(null, product("5.00"));
+    statistics.update(null, product("5.00"));
+    statistics.update(null, product("50.00"));
+    statistics.update(null, dearest);
+
+    // when
+    statistics.update(cheapest, null);
+    statistics.update(dearest, null);
+    PriceSummary actual = statistics.summary();
+
+    // then
+    assertThat(actual.count()).isEqualTo(3);
+    assertThat(actual.min()).isEqualByComparingTo("5.00");
+    assertThat(actual.max()).isEqualByComparingTo("50.00");
+    assertThat(actual.sum()).isEqualByComparingTo("60.00");
+  }
+
+  @Test
+  void summary_whenPriceUpdated_thenOldPriceReplacedExpected() {
+    // given
+    Product before = product("100.00");
+    Product after = before.toBuilder().price(new BigDecimal("7.00")).build();
+    statistics.update(null, before);
+
+    // when
+    statistics.update(before, after);
+    PriceSummary actual = statistics.summary();
+
+    // then
+    assertThat(actual.count()).isEqualTo(1);
+    assertThat(actual.min()).isEqualByComparingTo("7.00");
+    assertThat(actual.max()).isEqualByComparingTo("7.00");
+    assertThat(actual.sum()).isEqualByComparingTo("7.00");
+    assertThat(statistics.histogram()).extracting(PriceBucket::count).containsExactly(1L);
+  }
+
+  @Test
+  void quantiles_whenUniformPrices_thenWithinBucketPrecisionExpected() {
+    // given
+    for (int rubles = 1; rubles <= 10_000; rubles++) {
+      statistics.update(null, product(rubles + ".00"));
+    }
+
+    // when
+    List<BigDecimal> actual = statistics.quantiles(0, 0.5, 0.99, 1);
+
+    // then
+    assertThat(actual.get(0).doubleValue()).isCloseTo(1, within(1.0 / 16));
+    assertThat(actual.get(1).doubleValue()).isCloseTo(5_000, within(5_000.0 / 16));
+    assertThat(actual.get(2).doubleValue()).isCloseTo(9_900, within(9_900.0 / 16));
+    assertThat(actual.get(3)).isEqualByComparingTo("10000.00");
+  }
+
+  @Test
+  void quantiles_whenOutOfRange_thenIllegalArgumentExceptionExpected() {
+    // given, when, then
+    assertThrows(IllegalArgumentException.class, () -> statistics.quantiles(1.5));
+  }
+
+  @Test
+  void histogram_whenPrices_thenBucketsContainTheirPricesExpected() {
+    // given
+    List<BigDecimal> prices =
+        List.of(new BigDecimal("0.05"), new BigDecimal("12.34"), new BigDecimal("98765.43"));
+    prices.forEach(price -> statistics.update(null, product(price.toPlainString())));
+
+    // when
+    List<PriceBucket> actual = statistics.histogram();
+
+    // then
+    assertThat(actual).hasSize(3);
+    for (int i = 0; i < prices.size(); i++) {
+      assertThat(prices.get(i)).isBetween(actual.get(i).from(), actual.get(i).to());
+    }
+  }
+
+  @Test
+  void summary_whenProductsSpreadOverStripes_thenBoundsAndBucketsMergedExpected() {
+    // given
+    List<Product> products = new ArrayList<>();
+    for (int i = 1; i <= 1_000; i++) {
+      Product product = product(i + ".00");
+      products.add(product);
+      statistics.update(null, product);
+    }
+
+    // when
+    products.subList(0, 100).forEach(product -> statistics.update(product, null));
+    products.subList(900, 1_000).forEach(product -> statistics.update(product, null));
+
+    // then
+    PriceSummary actual = statistics.summary();
+    assertThat(actual.count()).isEqualTo(800);
+    assertThat(actual.min()).isEqualByComparingTo("101.00");
+    assertThat(actual.max()).isEqualByComparingTo("900.00");
+    assertThat(statistics.histogram().stream().mapToLong(PriceBucket::count).sum())
+        .isEqualTo(800);
+  }
+
+  @Test
+  void update_whenParallelCreateAndDelete_thenOnlySurvivorsCountedExpected() throws Exception {
+    // given
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // when
+    try {
+      for (int thread = 0; thread < threads; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 1; i <= 1_000; i++) {
+                    Product product = product(i + ".00");
+                    statistics.update(null, product);
+                    if (i != 1_000) {
+                      statistics.update(product, null);
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    PriceSummary actual = statistics.summary();
+
+    // then
+    assertThat(actual.count()).isEqualTo(threads);
+    assertThat(actual.min()).isEqualByComparingTo("1000.00");
+    assertThat(actual.max()).isEqualByComparingTo("1000.00");
+    assertThat(actual.sum()).isEqualByComparingTo("8000.00");
+    assertThat(statistics.histogram()).extracting(PriceBucket::count).containsExactly(8L);
+  }
+
+  private static Product product(String price) {
+    return ProductTestData.builder()
+        .withUuid(UUID.randomUUID())
+        .withPrice(new BigDecimal(price))
+        .build()
+        .buildProduct();
+  }
+}
@@ -0,0 +1,90 @@
+package ru.clevertec.product.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.ProductTestData;
+
+class ProductQueryTest {
+
+  @Test
+  void comparator_whenDescendingPrice_thenProductWithoutPriceLastExpected() {
+    // given
+    Product cheap =
+        ProductTestData.builder().withUuid(null).withPrice(BigDecimal.ONE).build().buildProduct();
+    Product unpriced =
+        ProductTestData.builder().withUuid(null).withPrice(null).build().buildProduct();
+    Product dear =
+        ProductTestData.builder().withUuid(null).withPrice(BigDecimal.TEN).build().buildProduct();
+    List<Product> products = new ArrayList<>(List.of(cheap, unpriced, dear));
+
+    // when
+    products.sort(ProductQuery.all().orderByDescending(SortField.PRICE).comparator());
+
+    // then
+    assertThat(products).containsExactly(dear, cheap, unpriced);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"ноут", "Игровой", "ИГР НОУТБУК", "ёлочн"})
+  void test_whenEveryWordStartsNameWord_thenMatchedExpected(String words) {
+    // given
+    Product product =
+        ProductTestData.builder()
+            .withName("Игровой ноутбук Ёлочный")
+            .withPrice(BigDecimal.TEN)
+            .build()
+            .buildProduct();
+    ProductQuery query =
+        ProductQuery.where(ProductCondition.nameMatches(words))
+            .and(ProductCondition.priceBetween(BigDecimal.ONE, BigDecimal.TEN));
+
+    // when
+    boolean actual = query.test(product);
+
+    // then
+    assertThat(actual).isTrue();
+  }
+
+  @Test
+  void test_whenWordOnlyInDescription_thenNameConditionRejectsExpected() {
+    // given
+    Product product =
+        ProductTestData.builder()
+            .withName("Ноутбук")
+            .withDescription("Игровой")
+            .build()
+            .buildProduct();
+
+    // when
+    boolean actual = ProductQuery.where(ProductCondition.nameMatches("игровой")).test(product);
+
+    // then
+    assertThat(actual).isFalse();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, -1})
+  void withLimit_whenNotPositive_thenIllegalArgumentExceptionExpected(int limit) {
+    // given
+    ProductQuery query = ProductQuery.all();
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> query.withLimit(limit));
+  }
+
+  @Test
+  void where_whenNullCondition_thenIllegalArgumentExceptionExpected() {
+    // given, when, then
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ProductQuery.where(ProductCondition.nameMatches("ноут"), null));
+  }
+}
@@ -0,0 +1,307 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ChangeSubscription;
+import ru.clevertec.product.event.ChangeType;
+import ru.clevertec.product.event.OverflowPolicy;
+import ru.clevertec.product.event.ProductChange;
+import ru.clevertec.product.query.ProductCondition;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.query.SortField;
+import ru.clevertec.product.util.ProductTestData;
+
+class ColumnarProductRepositoryTest {
+
+  private final ColumnarProductRepository columnarProductRepository =
+      new ColumnarProductRepository();
+
+  @Test
+  void findById_whenFindSavedProduct_thenEqualProductExpected() {
+    // given
+    Product expected =
+        ProductTestData.builder().withPrice(new BigDecimal("199.99")).build().buildProduct();
+    columnarProductRepository.save(expected);
+
+    // when
+    Optional<Product> actual = columnarProductRepository.findById(expected.getUuid());
+
+    // then
+    assertThat(actual).contains(expected);
+  }
+
+  @Test
+  void saveIfVersion_whenVersionMatchesOnlyOnce_thenSecondUpdateRejectedExpected() {
+    // given
+    Product product =
+        columnarProductRepository.save(ProductTestData.builder().build().buildProduct());
+    Product first = product.toBuilder().price(BigDecimal.ONE).build();
+    Product second = product.toBuilder().price(BigDecimal.TEN).build();
+
+    // when
+    Optional<Product> actualFirst = columnarProductRepository.saveIfVersion(first, 0);
+    Optional<Product> actualSecond = columnarProductRepository.saveIfVersion(second, 0);
+
+    // then
+    assertThat(actualFirst).contains(first.toBuilder().version(1).build());
+    assertThat(actualSecond).isEmpty();
+    assertThat(columnarProductRepository.findById(product.getUuid())).isEqualTo(actualFirst);
+  }
+
+  @Test
+  void findById_whenFindByNull_thenOptionalEmptyExpected() {
+    // given
+    UUID uuid = null;
+
+    // when
+    Optional<Product> actual = columnarProductRepository.findById(uuid);
+
+    // then
+    assertThat(actual).isEmpty();
+  }
+
+  @Test
+  void findById_whenProductHasNullDescription_thenNullDescriptionExpected() {
+    // given
+    Product expected = ProductTestData.builder().withDescription(null).build().buildProduct();
+    columnarProductRepository.save(expected);
+
+    // when
+    Optional<Product> actual = columnarProductRepository.findById(expected.getUuid());
+
+    // then
+    assertThat(actual).get().extracting(Product::getDescription).isNull();
+  }
+
+  @Test
+  void save_whenSaveProductWithNullUuid_thenProductWithUuidExpected() {
+    // given
+    Product product = ProductTestData.builder().withUuid(null).build().buildProduct();
+
+    // when
+    Product actual = columnarProductRepository.save(product);
+
+    // then
+    assertThat(actual.getUuid()).isNotNull();
+    assertThat(columnarProductRepository.findById(actual.getUuid())).isNotEmpty();
+  }
+
+  @Test
+  void save_whenSaveNull_thenIllegalArgumentExceptionExpected() {
+    // given
+    Product product = null;
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> columnarProductRepository.save(product));
+  }
+
+  @Test
+  void save_whenSaveExistingUuid_thenProductOverwrittenExpected() {
+    // given
+    Product product = ProductTestData.builder().build().buildProduct();
+    columnarProductRepository.save(product);
+    Product expected = ProductTestData.builder().withName("monitor").build().buildProduct();
+
+    // when
+    columnarProductRepository.save(expected);
+
+    // then
+    assertThat(columnarProductRepository.findAll()).containsExactly(expected);
+  }
+
+  @Test
+  void delete_whenDeleteFirstOfMany_thenOtherProductsStillFoundExpected() {
+    // given
+    List<Product> products =
+        List.of(
+            ProductTestData.builder().withUuid(UUID.randomUUID()).build().buildProduct(),
+            ProductTestData.builder().withUuid(UUID.randomUUID()).build().buildProduct(),
+            ProductTestData.builder().withUuid(UUID.randomUUID()).build().buildProduct());
+    products.forEach(columnarProductRepository::save);
+
+    // when
+    columnarProductRepository.delete(products.get(0).getUuid());
+
+    // then
+    assertThat(columnarProductRepository.findById(products.get(0).getUuid())).isEmpty();
+    assertThat(columnarProductRepository.findById(products.get(2).getUuid()))
+        .contains(products.get(2));
+    assertThat(columnarProductRepository.findAll())
+        .containsExactlyInAnyOrder(products.get(1), products.get(2));
+  }
+
+  @Test
+  void bytesPerProduct_whenSameCatalog_thenLessThanMapBasedStoreExpected() {
+    // given
+    InMemoryProductRepository inMemoryProductRepository = new InMemoryProductRepository();
+    for (int i = 0; i < 10_000; i++) {
+      Product product =
+          ProductTestData.builder()
+              .withUuid(UUID.randomUUID())
+              .withName("Продукт " + i % 100)
+              .withDescription("Описание продукта номер " + i % 1000)
+              .withPrice(BigDecimal.valueOf(i, 2))
+              .build()
+              .buildProduct();
+      inMemoryProductRepository.save(product);
+      columnarProductRepository.save(product);
+    }
+
+    // when
+    double actual = columnarProductRepository.bytesPerProduct();
+
+    // then
+    assertThat(actual).isLessThan(inMemoryProductRepository.estimatedBytesPerProduct());
+  }
+
+  @Test
+  void bytesPerProduct_whenWritersQueued_thenCompletesWithoutDeadlockExpected() throws Exception {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int thread = 0; thread < 2; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 20_000; i++) {
+                    UUID uuid = UUID.randomUUID();
+                    Product product =
+                        ProductTestData.builder().withUuid(uuid).build().buildProduct();
+                    columnarProductRepository.save(product);
+                  }
+                }));
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 20_000; i++) {
+                    columnarProductRepository.bytesPerProduct();
+                  }
+                }));
+      }
+
+      // when
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // then
+    assertThat(columnarProductRepository.bytesPerProduct()).isPositive();
+  }
+
+  @Test
+  void distinctTexts_whenRepeatedTextsSavedAndDeleted_thenOnlyReferencedValuesKeptExpected() {
+    // given
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      products.add(
+          columnarProductRepository.save(
+              ProductTestData.builder()
+                  .withUuid(null)
+                  .withName(i < 99 ? "Ноутбук" : "Монитор")
+                  .withDescription("Рабочий ноутбук")
+                  .build()
+                  .buildProduct()));
+    }
+
+    // when
+    columnarProductRepository.delete(products.get(99).getUuid());
+
+    // then
+    assertThat(columnarProductRepository.distinctTexts()).isEqualTo(2);
+    assertThat(columnarProductRepository.findById(products.get(0).getUuid()))
+        .contains(products.get(0));
+  }
+
+  @Test
+  void findById_whenTextOutOfPackedAlphabet_thenSameTextExpected() {
+    // given
+    Product expected =
+        ProductTestData.builder().withName("Laptop™").withDescription("日本").build().buildProduct();
+    columnarProductRepository.save(expected);
+
+    // when
+    Optional<Product> actual = columnarProductRepository.findById(expected.getUuid());
+
+    // then
+    assertThat(actual).contains(expected);
+  }
+
+  @Test
+  void query_whenPriceCondition_thenFullScanReportedExpected() {
+    // given
+    for (int i = 1; i <= 10; i++) {
+      columnarProductRepository.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withPrice(BigDecimal.valueOf(i))
+              .build()
+              .buildProduct());
+    }
+    ProductQuery query =
+        ProductQuery.where(ProductCondition.priceBetween(BigDecimal.valueOf(3), null))
+            .orderBy(SortField.PRICE)
+            .withLimit(2);
+
+    // when
+    QueryResult actual = columnarProductRepository.query(query);
+
+    // then
+    assertThat(actual.products())
+        .extracting(Product::getPrice)
+        .containsExactly(BigDecimal.valueOf(3), BigDecimal.valueOf(4));
+    assertThat(actual.plan().fullScan()).isTrue();
+    assertThat(actual.examined()).isEqualTo(10);
+  }
+
+  @Test
+  void changes_whenSaveUpdateDelete_thenEventsWithStatesInOrderExpected() throws Exception {
+    // given
+    List<ProductChange> changes = new CopyOnWriteArrayList<>();
+    CountDownLatch received = new CountDownLatch(3);
+    Product product = ProductTestData.builder().build().buildProduct();
+    Product updated = ProductTestData.builder().withName("monitor").build().buildProduct();
+
+    // when
+    try (ChangeSubscription ignored =
+        columnarProductRepository
+            .changes()
+            .subscribe(
+                change -> {
+                  changes.add(change);
+                  received.countDown();
+                },
+                OverflowPolicy.DISCONNECT)) {
+      columnarProductRepository.save(product);
+      columnarProductRepository.save(updated);
+      columnarProductRepository.delete(product.getUuid());
+      assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // then
+    assertThat(changes)
+        .extracting(ProductChange::type)
+        .containsExactly(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED);
+    assertThat(changes.get(1).before()).isEqualTo(product);
+    assertThat(changes.get(1).after()).isEqualTo(updated);
+    assertThat(changes.get(2).before()).isEqualTo(updated);
+  }
+}
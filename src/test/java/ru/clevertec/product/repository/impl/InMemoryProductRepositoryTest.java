@@ -1,16 +1,45 @@
 package ru.clevertec.product.repository.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ChangeSubscription;
+import ru.clevertec.product.event.ChangeType;
+import ru.clevertec.product.event.OverflowPolicy;
+import ru.clevertec.product.event.ProductChange;
+import ru.clevertec.product.metrics.PriceSummary;
+import ru.clevertec.product.query.AccessPath;
+import ru.clevertec.product.query.ProductCondition;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.query.SortField;
+import ru.clevertec.product.repository.ReadSnapshot;
 import ru.clevertec.product.util.ProductTestData;
 
 class InMemoryProductRepositoryTest {
 
+  private static final int THREADS = 8;
+  private static final int OPERATIONS_PER_THREAD = 10_000;
+
   private final InMemoryProductRepository inMemoryProductRepository =
       new InMemoryProductRepository();
 
@@ -81,4 +110,783 @@ class InMemoryProductRepositoryTest {
     // then
     assertThat(deleteProduct).isEmpty();
   }
+
+  @Test
+  void save_whenParallelSaveDistinctProducts_thenNoLostUpdates() throws Exception {
+    // given
+    List<List<UUID>> saved = runInParallel(
+        thread -> {
+          List<UUID> uuids = new ArrayList<>(OPERATIONS_PER_THREAD);
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            Product product = ProductTestData.builder().withUuid(null).build().buildProduct();
+            uuids.add(inMemoryProductRepository.save(product).getUuid());
+          }
+          return uuids;
+        });
+
+    // when
+    List<Product> actual = inMemoryProductRepository.findAll();
+
+    // then
+    assertThat(actual).hasSize(THREADS * OPERATIONS_PER_THREAD);
+    saved.stream()
+        .flatMap(List::stream)
+        .forEach(uuid -> assertThat(inMemoryProductRepository.findById(uuid)).isNotEmpty());
+  }
+
+  @Test
+  void delete_whenParallelSaveAndDelete_thenOnlyNotDeletedProductsRemain() throws Exception {
+    // given
+    List<List<UUID>> survivors = runInParallel(
+        thread -> {
+          List<UUID> kept = new ArrayList<>(OPERATIONS_PER_THREAD / 2);
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            Product product = ProductTestData.builder().withUuid(null).build().buildProduct();
+            UUID uuid = inMemoryProductRepository.save(product).getUuid();
+            if (i % 2 == 0) {
+              inMemoryProductRepository.delete(uuid);
+            } else {
+              kept.add(uuid);
+            }
+          }
+          return kept;
+        });
+
+    // when
+    List<Product> actual = inMemoryProductRepository.findAll();
+
+    // then
+    assertThat(actual)
+        .extracting(Product::getUuid)
+        .containsExactlyInAnyOrderElementsOf(survivors.stream().flatMap(List::stream).toList());
+  }
+
+  @Test
+  void save_whenParallelUpdateSameProduct_thenLastWrittenPriceOfSomeWriterExpected()
+      throws Exception {
+    // given
+    Product product = ProductTestData.builder().build().buildProduct();
+    inMemoryProductRepository.save(product);
+
+    // when
+    runInParallel(
+        thread -> {
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            Product update = ProductTestData.builder()
+                .withPrice(BigDecimal.valueOf(thread))
+                .build()
+                .buildProduct();
+            inMemoryProductRepository.save(update);
+          }
+          return null;
+        });
+
+    // then
+    assertThat(inMemoryProductRepository.findAll()).hasSize(1);
+    assertThat(inMemoryProductRepository.findById(product.getUuid()))
+        .get()
+        .extracting(Product::getPrice)
+        .matches(price -> price.intValue() >= 0 && price.intValue() < THREADS);
+  }
+
+  @Test
+  void findAll_whenConcurrentWriters_thenSnapshotContainsOnlyWholeProducts() throws Exception {
+    // given
+    ExecutorService writers = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch done = new CountDownLatch(THREADS);
+    for (int thread = 0; thread < THREADS; thread++) {
+      writers.submit(
+          () -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+              Product product = ProductTestData.builder().withUuid(null).build().buildProduct();
+              inMemoryProductRepository.delete(inMemoryProductRepository.save(product).getUuid());
+            }
+            done.countDown();
+          });
+    }
+
+    // when
+    List<Integer> sizes = new ArrayList<>();
+    while (done.getCount() > 0) {
+      List<Product> snapshot = inMemoryProductRepository.findAll();
+      snapshot.forEach(product -> assertThat(product.getUuid()).isNotNull());
+      sizes.add(snapshot.size());
+    }
+    writers.shutdown();
+
+    // then
+    assertThat(writers.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    assertThat(sizes).allMatch(size -> size <= THREADS);
+    assertThat(inMemoryProductRepository.findAll()).isEmpty();
+  }
+
+  @Test
+  void findByPriceBetween_whenFindInRange_thenOnlyProductsInRangeSortedByPriceExpected() {
+    // given
+    List.of(50, 100, 300, 500, 700).forEach(
+        price -> inMemoryProductRepository.save(
+            ProductTestData.builder()
+                .withUuid(null)
+                .withPrice(BigDecimal.valueOf(price))
+                .build()
+                .buildProduct()));
+
+    // when
+    List<Product> actual =
+        inMemoryProductRepository.findByPriceBetween(
+            BigDecimal.valueOf(100), new BigDecimal("500.00"));
+
+    // then
+    assertThat(actual)
+        .extracting(product -> product.getPrice().intValue())
+        .containsExactly(100, 300, 500);
+  }
+
+  @Test
+  void findByPriceBetween_whenPriceUpdated_thenProductFoundOnlyByNewPrice() {
+    // given
+    Product product =
+        ProductTestData.builder().withPrice(BigDecimal.valueOf(100)).build().buildProduct();
+    inMemoryProductRepository.save(product);
+    product.setPrice(BigDecimal.valueOf(900));
+
+    // when
+    inMemoryProductRepository.save(product);
+
+    // then
+    assertThat(inMemoryProductRepository.findByPriceBetween(null, BigDecimal.valueOf(500)))
+        .isEmpty();
+    assertThat(inMemoryProductRepository.findByPriceBetween(BigDecimal.valueOf(500), null))
+        .extracting(Product::getUuid)
+        .containsExactly(product.getUuid());
+  }
+
+  @Test
+  void findByCreatedBetween_whenDeleted_thenDeletedProductNotFoundExpected() {
+    // given
+    LocalDateTime created = LocalDateTime.of(2023, 10, 31, 9, 0);
+    Product kept =
+        ProductTestData.builder().withUuid(null).withCreated(created).build().buildProduct();
+    Product deleted =
+        ProductTestData.builder()
+            .withUuid(null)
+            .withCreated(created.plusMinutes(30))
+            .build()
+            .buildProduct();
+    inMemoryProductRepository.save(kept);
+    inMemoryProductRepository.save(deleted);
+
+    // when
+    inMemoryProductRepository.delete(deleted.getUuid());
+
+    // then
+    assertThat(inMemoryProductRepository.findByCreatedBetween(created, created.plusHours(1)))
+        .extracting(Product::getUuid)
+        .containsExactly(kept.getUuid());
+  }
+
+  @Test
+  void findByPriceBetween_whenParallelUpdates_thenIndexMatchesFullScanExpected() throws Exception {
+    // given
+    List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      uuids.add(inMemoryProductRepository
+          .save(ProductTestData.builder().withUuid(null).build().buildProduct())
+          .getUuid());
+    }
+
+    // when
+    runInParallel(
+        thread -> {
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            UUID uuid = uuids.get((thread * 31 + i) % uuids.size());
+            if (i % 10 == 0) {
+              inMemoryProductRepository.delete(uuid);
+            }
+            inMemoryProductRepository.save(
+                ProductTestData.builder()
+                    .withUuid(uuid)
+                    .withPrice(BigDecimal.valueOf(i % 1000))
+                    .build()
+                    .buildProduct());
+          }
+          return null;
+        });
+
+    // then
+    List<Product> expected = inMemoryProductRepository.findAll().stream()
+        .filter(product -> product.getPrice().intValue() >= 200)
+        .filter(product -> product.getPrice().intValue() <= 600)
+        .toList();
+    assertThat(
+            inMemoryProductRepository.findByPriceBetween(
+                BigDecimal.valueOf(200), BigDecimal.valueOf(600)))
+        .containsExactlyInAnyOrderElementsOf(expected)
+        .isSortedAccordingTo((left, right) -> left.getPrice().compareTo(right.getPrice()));
+    assertThat(inMemoryProductRepository.findByPriceBetween(null, null)).hasSize(uuids.size());
+  }
+
+  @Test
+  void findByPriceBetween_whenPriceMovesDuringRangeQuery_thenProductAlwaysFoundExpected()
+      throws Exception {
+    // given
+    Product product = ProductTestData.builder().withPrice(BigDecimal.ZERO).build().buildProduct();
+    UUID uuid = inMemoryProductRepository.save(product).getUuid();
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    Future<?> writes =
+        writer.submit(
+            () -> {
+              for (long price = 1; running.get(); price++) {
+                Product moved = inMemoryProductRepository.findById(uuid).orElseThrow();
+                moved.setPrice(BigDecimal.valueOf(price));
+                inMemoryProductRepository.save(moved);
+              }
+            });
+
+    // when
+    int misses = 0;
+    for (int read = 0; read < 20_000; read++) {
+      BigDecimal seen = inMemoryProductRepository.findById(uuid).orElseThrow().getPrice();
+      if (inMemoryProductRepository.findByPriceBetween(seen, null).isEmpty()) {
+        misses++;
+      }
+    }
+    running.set(false);
+    writes.get(1, TimeUnit.MINUTES);
+    writer.shutdown();
+
+    // then
+    assertThat(misses).isZero();
+  }
+
+  @Test
+  void findPage_whenWalkAllPages_thenEveryProductOnceInUuidOrderExpected() {
+    // given
+    for (int i = 0; i < 25; i++) {
+      inMemoryProductRepository.save(
+          ProductTestData.builder().withUuid(null).build().buildProduct());
+    }
+    List<UUID> actual = new ArrayList<>();
+
+    // when
+    List<Product> page = inMemoryProductRepository.findPage(null, 10);
+    while (!page.isEmpty()) {
+      page.forEach(product -> actual.add(product.getUuid()));
+      page = inMemoryProductRepository.findPage(actual.get(actual.size() - 1), 10);
+    }
+
+    // then
+    assertThat(actual).hasSize(25).isSorted().doesNotHaveDuplicates();
+  }
+
+  @Test
+  void findPage_whenDeletedProduct_thenSkippedExpected() {
+    // given
+    Product first = ProductTestData.builder().withUuid(null).build().buildProduct();
+    Product second = ProductTestData.builder().withUuid(null).build().buildProduct();
+    inMemoryProductRepository.save(first);
+    inMemoryProductRepository.save(second);
+
+    // when
+    inMemoryProductRepository.delete(first.getUuid());
+
+    // then
+    assertThat(inMemoryProductRepository.findPage(null, 10))
+        .extracting(Product::getUuid)
+        .containsExactly(second.getUuid());
+  }
+
+  @Test
+  void saveAll_whenSaveBatch_thenSavedInInputOrderWithUuidsExpected() {
+    // given
+    List<Product> batch = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      batch.add(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withPrice(BigDecimal.valueOf(i))
+              .build()
+              .buildProduct());
+    }
+
+    // when
+    List<Product> actual = inMemoryProductRepository.saveAll(batch);
+
+    // then
+    assertThat(actual)
+        .extracting(product -> product.getPrice().intValue())
+        .isSorted()
+        .hasSize(1000);
+    assertThat(inMemoryProductRepository.findAll()).hasSize(1000);
+    assertThat(inMemoryProductRepository.findByPriceBetween(BigDecimal.ZERO, BigDecimal.TEN))
+        .hasSize(11);
+  }
+
+  @Test
+  void saveAll_whenBatchContainsNull_thenIllegalArgumentExceptionExpected() {
+    // given
+    List<Product> batch = new ArrayList<>();
+    batch.add(ProductTestData.builder().build().buildProduct());
+    batch.add(null);
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> inMemoryProductRepository.saveAll(batch));
+  }
+
+  @Test
+  void deleteAll_whenDeleteBatch_thenOnlyOtherProductsRemainExpected() {
+    // given
+    List<Product> saved = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      saved.add(
+          inMemoryProductRepository.save(
+              ProductTestData.builder().withUuid(null).build().buildProduct()));
+    }
+    List<UUID> deleted = saved.subList(0, 50).stream().map(Product::getUuid).toList();
+
+    // when
+    inMemoryProductRepository.deleteAll(deleted);
+
+    // then
+    assertThat(inMemoryProductRepository.findAll())
+        .extracting(Product::getUuid)
+        .doesNotContainAnyElementsOf(deleted)
+        .hasSize(50);
+  }
+
+  @Test
+  void saveIfVersion_whenExpectedVersion_thenSavedWithNextVersionExpected() {
+    // given
+    Product product =
+        inMemoryProductRepository.save(ProductTestData.builder().build().buildProduct());
+    Product update = product.toBuilder().price(BigDecimal.ONE).build();
+
+    // when
+    Optional<Product> actual = inMemoryProductRepository.saveIfVersion(update, 0);
+
+    // then
+    assertThat(actual).get().extracting(Product::getVersion).isEqualTo(1L);
+    assertThat(inMemoryProductRepository.findById(product.getUuid()))
+        .get()
+        .extracting(Product::getPrice)
+        .isEqualTo(BigDecimal.ONE);
+  }
+
+  @Test
+  void saveIfVersion_whenStaleVersion_thenNotSavedExpected() {
+    // given
+    Product product =
+        inMemoryProductRepository.save(ProductTestData.builder().build().buildProduct());
+    inMemoryProductRepository.saveIfVersion(product, 0);
+    Product update = product.toBuilder().price(BigDecimal.ONE).build();
+
+    // when
+    Optional<Product> actual = inMemoryProductRepository.saveIfVersion(update, 0);
+
+    // then
+    assertThat(actual).isEmpty();
+    assertThat(inMemoryProductRepository.findById(product.getUuid()))
+        .get()
+        .extracting(Product::getPrice)
+        .isEqualTo(product.getPrice());
+  }
+
+  @Test
+  void saveIfVersion_whenProductAbsent_thenNotSavedExpected() {
+    // given
+    Product product = ProductTestData.builder().build().buildProduct();
+
+    // when
+    Optional<Product> actual = inMemoryProductRepository.saveIfVersion(product, 0);
+
+    // then
+    assertThat(actual).isEmpty();
+    assertThat(inMemoryProductRepository.findAll()).isEmpty();
+  }
+
+  @Test
+  void saveIfVersion_whenParallelIncrementsOfSameProduct_thenNoLostUpdatesExpected()
+      throws Exception {
+    // given
+    Product product =
+        inMemoryProductRepository.save(
+            ProductTestData.builder().withPrice(BigDecimal.ZERO).build().buildProduct());
+    int increments = 1_000;
+
+    // when
+    runInParallel(
+        thread -> {
+          for (int i = 0; i < increments; i++) {
+            Optional<Product> saved = Optional.empty();
+            while (saved.isEmpty()) {
+              Product current =
+                  inMemoryProductRepository.findById(product.getUuid()).orElseThrow();
+              Product next =
+                  current.toBuilder().price(current.getPrice().add(BigDecimal.ONE)).build();
+              saved = inMemoryProductRepository.saveIfVersion(next, current.getVersion());
+            }
+          }
+          return null;
+        });
+
+    // then
+    Product actual = inMemoryProductRepository.findById(product.getUuid()).orElseThrow();
+    assertThat(actual.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(THREADS * increments));
+    assertThat(actual.getVersion()).isEqualTo((long) THREADS * increments);
+  }
+
+  @Test
+  void changes_whenSaveUpdateDelete_thenEventsWithStatesInOrderExpected() throws Exception {
+    // given
+    List<ProductChange> changes = new CopyOnWriteArrayList<>();
+    CountDownLatch received = new CountDownLatch(3);
+    Product product = ProductTestData.builder().build().buildProduct();
+    Product updated = ProductTestData.builder().withName("monitor").build().buildProduct();
+
+    // when
+    try (ChangeSubscription ignored =
+        inMemoryProductRepository
+            .changes()
+            .subscribe(
+                change -> {
+                  changes.add(change);
+                  received.countDown();
+                },
+                OverflowPolicy.DISCONNECT)) {
+      inMemoryProductRepository.save(product);
+      inMemoryProductRepository.save(updated);
+      inMemoryProductRepository.delete(product.getUuid());
+      assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // then
+    assertThat(changes)
+        .extracting(ProductChange::type)
+        .containsExactly(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED);
+    assertThat(changes.get(1).before()).isEqualTo(product);
+    assertThat(changes.get(1).after()).isEqualTo(updated);
+    assertThat(changes.get(2).after()).isNull();
+  }
+
+  @Test
+  void search_whenProductUpdatedAndDeleted_thenIndexFollowsExpected() {
+    // given
+    Product laptop =
+        ProductTestData.builder().withUuid(null).withName("Ноутбук").build().buildProduct();
+    Product monitor =
+        ProductTestData.builder().withUuid(null).withName("Монитор").build().buildProduct();
+    inMemoryProductRepository.save(laptop);
+    inMemoryProductRepository.save(monitor);
+
+    // when
+    inMemoryProductRepository.save(laptop.toBuilder().name("Планшет").build());
+    inMemoryProductRepository.delete(monitor.getUuid());
+
+    // then
+    assertThat(inMemoryProductRepository.search("ноутбук", 10)).isEmpty();
+    assertThat(inMemoryProductRepository.search("монитор", 10)).isEmpty();
+    assertThat(inMemoryProductRepository.search("план", 10))
+        .extracting(Product::getUuid)
+        .containsExactly(laptop.getUuid());
+  }
+
+  @Test
+  void priceStatistics_whenCheapestDeletedAndPriceUpdated_thenSummaryFollowsExpected() {
+    // given
+    Product cheapest =
+        ProductTestData.builder().withUuid(null).withPrice(BigDecimal.ONE).build().buildProduct();
+    Product middle =
+        ProductTestData.builder().withUuid(null).withPrice(BigDecimal.TEN).build().buildProduct();
+    Product dearest =
+        ProductTestData.builder()
+            .withUuid(null)
+            .withPrice(BigDecimal.valueOf(100))
+            .build()
+            .buildProduct();
+    inMemoryProductRepository.saveAll(List.of(cheapest, middle, dearest));
+
+    // when
+    inMemoryProductRepository.delete(cheapest.getUuid());
+    inMemoryProductRepository.save(dearest.toBuilder().price(BigDecimal.valueOf(50)).build());
+
+    // then
+    assertThat(inMemoryProductRepository.priceStatistics().summary())
+        .extracting(PriceSummary::count, PriceSummary::min, PriceSummary::max, PriceSummary::sum)
+        .containsExactly(2L, BigDecimal.TEN, BigDecimal.valueOf(50), BigDecimal.valueOf(60));
+  }
+
+  @Test
+  void query_whenNarrowPriceRange_thenPriceIndexAndResidualNameExpected() {
+    // given
+    List<Product> saved = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      saved.add(
+          inMemoryProductRepository.save(
+              ProductTestData.builder()
+                  .withUuid(null)
+                  .withName(i % 2 == 0 ? "Ноутбук" : "Монитор")
+                  .withPrice(BigDecimal.valueOf(i))
+                  .build()
+                  .buildProduct()));
+    }
+    ProductQuery query =
+        ProductQuery.where(
+            ProductCondition.priceBetween(BigDecimal.valueOf(11), BigDecimal.valueOf(20)),
+            ProductCondition.nameMatches("ноут"));
+
+    // when
+    QueryResult actual = inMemoryProductRepository.query(query);
+
+    // then
+    assertThat(actual.products())
+        .extracting(Product::getPrice)
+        .containsExactlyInAnyOrder(
+            BigDecimal.valueOf(12),
+            BigDecimal.valueOf(14),
+            BigDecimal.valueOf(16),
+            BigDecimal.valueOf(18),
+            BigDecimal.valueOf(20));
+    assertThat(actual.plan().access()).isEqualTo(AccessPath.PRICE_INDEX);
+    assertThat(actual.plan().residual()).containsExactly(ProductCondition.nameMatches("ноут"));
+    assertThat(actual.examined()).isEqualTo(10);
+  }
+
+  @Test
+  void query_whenSortedByIndexedFieldWithLimit_thenScanStopsAtLimitExpected() {
+    // given
+    for (int i = 1; i <= 100; i++) {
+      inMemoryProductRepository.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withPrice(BigDecimal.valueOf(i))
+              .build()
+              .buildProduct());
+    }
+    ProductQuery query =
+        ProductQuery.where(ProductCondition.priceBetween(BigDecimal.ONE, null))
+            .orderByDescending(SortField.PRICE)
+            .withLimit(3);
+
+    // when
+    QueryResult actual = inMemoryProductRepository.query(query);
+
+    // then
+    assertThat(actual.products())
+        .extracting(Product::getPrice)
+        .containsExactly(BigDecimal.valueOf(100), BigDecimal.valueOf(99), BigDecimal.valueOf(98));
+    assertThat(actual.plan().ordered()).isTrue();
+    assertThat(actual.examined()).isEqualTo(3);
+  }
+
+  @Test
+  void query_whenNoIndexedCondition_thenFullScanReportedExpected() {
+    // given
+    inMemoryProductRepository.save(
+        ProductTestData.builder().withUuid(null).withName("Ноутбук").build().buildProduct());
+    Product monitor =
+        inMemoryProductRepository.save(
+            ProductTestData.builder().withUuid(null).withName("Монитор").build().buildProduct());
+    Product keyboard =
+        inMemoryProductRepository.save(
+            ProductTestData.builder().withUuid(null).withName("Клавиатура").build().buildProduct());
+    ProductQuery query = ProductQuery.all().orderBy(SortField.NAME).withLimit(2);
+
+    // when
+    QueryResult actual = inMemoryProductRepository.query(query);
+
+    // then
+    assertThat(actual.products())
+        .extracting(Product::getUuid)
+        .containsExactly(keyboard.getUuid(), monitor.getUuid());
+    assertThat(actual.plan().fullScan()).isTrue();
+    assertThat(actual.examined()).isEqualTo(3);
+  }
+
+  @Test
+  void query_whenRareWord_thenTextIndexExpected() {
+    // given
+    for (int i = 0; i < 10; i++) {
+      inMemoryProductRepository.save(
+          ProductTestData.builder().withUuid(null).withName("Монитор").build().buildProduct());
+    }
+    Product expected =
+        inMemoryProductRepository.save(
+            ProductTestData.builder()
+                .withUuid(null)
+                .withName("Ноутбук")
+                .withDescription("Игровой ноутбук")
+                .build()
+                .buildProduct());
+    ProductQuery query = ProductQuery.where(ProductCondition.descriptionMatches("игров"));
+
+    // when
+    QueryResult actual = inMemoryProductRepository.query(query);
+
+    // then
+    assertThat(actual.products()).extracting(Product::getUuid).containsExactly(expected.getUuid());
+    assertThat(actual.plan().access()).isEqualTo(AccessPath.TEXT_INDEX);
+    assertThat(actual.examined()).isEqualTo(1);
+  }
+
+  @Test
+  void openSnapshot_whenWrittenAfterOpen_thenSnapshotSeesStateAtOpenExpected() {
+    // given
+    Product updated = ProductTestData.builder().withUuid(null).build().buildProduct();
+    Product deleted =
+        ProductTestData.builder().withUuid(null).withName("monitor").build().buildProduct();
+    inMemoryProductRepository.save(updated);
+    inMemoryProductRepository.save(deleted);
+
+    try (ReadSnapshot snapshot = inMemoryProductRepository.openSnapshot()) {
+      // when
+      inMemoryProductRepository.save(updated.toBuilder().price(BigDecimal.ONE).build());
+      inMemoryProductRepository.delete(deleted.getUuid());
+      Product created = inMemoryProductRepository.save(
+          ProductTestData.builder().withUuid(null).build().buildProduct());
+
+      // then
+      assertThat(snapshot.findAll())
+          .extracting(Product::getUuid, Product::getPrice)
+          .containsExactlyInAnyOrder(
+              tuple(updated.getUuid(), updated.getPrice()),
+              tuple(deleted.getUuid(), deleted.getPrice()));
+      assertThat(snapshot.findById(created.getUuid())).isEmpty();
+      assertThat(inMemoryProductRepository.findAll())
+          .extracting(Product::getUuid, Product::getPrice)
+          .containsExactlyInAnyOrder(
+              tuple(updated.getUuid(), BigDecimal.ONE),
+              tuple(created.getUuid(), created.getPrice()));
+    }
+  }
+
+  @Test
+  void openSnapshot_whenClosed_thenOldRevisionsReclaimedExpected() {
+    // given
+    Product product = inMemoryProductRepository.save(
+        ProductTestData.builder().withUuid(null).build().buildProduct());
+    ReadSnapshot snapshot = inMemoryProductRepository.openSnapshot();
+    for (int i = 0; i < 100; i++) {
+      inMemoryProductRepository.save(product.toBuilder().price(BigDecimal.valueOf(i)).build());
+    }
+    inMemoryProductRepository.delete(product.getUuid());
+
+    // when
+    long retainedWhileOpen = inMemoryProductRepository.retainedRevisions();
+    snapshot.close();
+
+    // then
+    assertThat(retainedWhileOpen).isEqualTo(102);
+    assertThat(inMemoryProductRepository.retainedRevisions()).isZero();
+    assertThrows(IllegalStateException.class, snapshot::findAll);
+  }
+
+  @Test
+  void openSnapshot_whenHeldOpen_thenWritersNotBlockedExpected() throws Exception {
+    // given
+    Product product = inMemoryProductRepository.save(
+        ProductTestData.builder().withUuid(null).build().buildProduct());
+
+    try (ReadSnapshot snapshot = inMemoryProductRepository.openSnapshot()) {
+      // when
+      runInParallel(
+          thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+              inMemoryProductRepository.save(
+                  product.toBuilder().price(BigDecimal.valueOf(thread)).build());
+              inMemoryProductRepository.delete(
+                  inMemoryProductRepository
+                      .save(ProductTestData.builder().withUuid(null).build().buildProduct())
+                      .getUuid());
+            }
+            return null;
+          });
+
+      // then
+      assertThat(snapshot.findAll())
+          .extracting(Product::getUuid, Product::getPrice)
+          .containsExactly(tuple(product.getUuid(), product.getPrice()));
+    }
+  }
+
+  @Test
+  void openSnapshot_whenWriterUpdatesInFixedOrder_thenNoTornSnapshotExpected() throws Exception {
+    // given
+    List<UUID> order = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      order.add(
+          inMemoryProductRepository
+              .save(
+                  ProductTestData.builder()
+                      .withUuid(null)
+                      .withPrice(BigDecimal.ZERO)
+                      .build()
+                      .buildProduct())
+              .getUuid());
+    }
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    Future<?> writes =
+        writer.submit(
+            () -> {
+              for (int generation = 1; running.get(); generation++) {
+                for (UUID uuid : order) {
+                  Product product = inMemoryProductRepository.findById(uuid).orElseThrow();
+                  product.setPrice(BigDecimal.valueOf(generation));
+                  inMemoryProductRepository.save(product);
+                }
+              }
+            });
+
+    // when
+    List<List<Integer>> observed = new ArrayList<>();
+    for (int read = 0; read < 2_000; read++) {
+      Map<UUID, Product> snapshot =
+          inMemoryProductRepository.findAll().stream()
+              .collect(Collectors.toMap(Product::getUuid, Function.identity()));
+      observed.add(order.stream().map(uuid -> snapshot.get(uuid).getPrice().intValue()).toList());
+    }
+    running.set(false);
+    writes.get(1, TimeUnit.MINUTES);
+    writer.shutdown();
+    inMemoryProductRepository.findAll();
+
+    // then
+    for (List<Integer> generations : observed) {
+      assertThat(generations).isSortedAccordingTo((first, second) -> second - first);
+      assertThat(generations.get(0) - generations.get(generations.size() - 1))
+          .isBetween(0, 1);
+    }
+    assertThat(inMemoryProductRepository.retainedRevisions()).isZero();
+  }
+
+  private <T> List<T> runInParallel(ThreadTask<T> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<T>> futures = new ArrayList<>(THREADS);
+      for (int thread = 0; thread < THREADS; thread++) {
+        int number = thread;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return task.run(number);
+                }));
+      }
+      start.countDown();
+      List<T> results = new ArrayList<>(THREADS);
+      for (Future<T> future : futures) {
+        results.add(future.get(1, TimeUnit.MINUTES));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @FunctionalInterface
+  private interface ThreadTask<T> {
+    T run(int thread);
+  }
 }
@@ -0,0 +1,314 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.event.ChangeSubscription;
+import ru.clevertec.product.event.ChangeType;
+import ru.clevertec.product.event.OverflowPolicy;
+import ru.clevertec.product.event.ProductChange;
+import ru.clevertec.product.metrics.PriceBucket;
+import ru.clevertec.product.metrics.PriceStatistics;
+import ru.clevertec.product.metrics.PriceSummary;
+import ru.clevertec.product.query.AccessPath;
+import ru.clevertec.product.query.ProductCondition;
+import ru.clevertec.product.query.ProductQuery;
+import ru.clevertec.product.query.QueryResult;
+import ru.clevertec.product.query.SortField;
+import ru.clevertec.product.util.ProductTestData;
+
+class ShardedProductRepositoryTest {
+
+  private static final int PARTITIONS = 8;
+
+  private final ShardedProductRepository shardedProductRepository =
+      new ShardedProductRepository(PARTITIONS);
+
+  @Test
+  void findById_whenSaved_thenFoundInItsPartitionExpected() {
+    // given
+    List<Product> saved = saveProducts(100);
+
+    // when, then
+    for (Product product : saved) {
+      Optional<Product> actual = shardedProductRepository.findById(product.getUuid());
+      assertThat(actual).map(Product::getUuid).contains(product.getUuid());
+    }
+  }
+
+  @Test
+  void findAll_whenSavedAcrossPartitions_thenAllProductsExpected() {
+    // given
+    List<Product> saved = saveProducts(100);
+
+    // when
+    List<Product> actual = shardedProductRepository.findAll();
+
+    // then
+    assertThat(actual)
+        .extracting(Product::getUuid)
+        .containsExactlyInAnyOrderElementsOf(saved.stream().map(Product::getUuid).toList());
+  }
+
+  @Test
+  void saveAll_whenBatchSpansPartitions_thenResultInInputOrderExpected() {
+    // given
+    List<Product> batch = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      batch.add(ProductTestData.builder().withUuid(null).build().buildProduct());
+    }
+
+    // when
+    List<Product> actual = shardedProductRepository.saveAll(batch);
+
+    // then
+    assertThat(actual)
+        .extracting(Product::getUuid)
+        .doesNotContainNull()
+        .containsExactlyElementsOf(batch.stream().map(Product::getUuid).toList());
+    assertThat(shardedProductRepository.findAll()).hasSize(50);
+  }
+
+  @Test
+  void deleteAll_whenBatchSpansPartitions_thenOnlyRestLeftExpected() {
+    // given
+    List<Product> saved = saveProducts(40);
+    List<UUID> deleted = saved.subList(0, 30).stream().map(Product::getUuid).toList();
+
+    // when
+    shardedProductRepository.deleteAll(deleted);
+
+    // then
+    assertThat(shardedProductRepository.findAll())
+        .extracting(Product::getUuid)
+        .containsExactlyInAnyOrderElementsOf(
+            saved.subList(30, 40).stream().map(Product::getUuid).toList());
+  }
+
+  @Test
+  void findByPriceBetween_whenPricesInDifferentPartitions_thenMergedSortedByPriceExpected() {
+    // given
+    List.of(700, 50, 300, 100, 500, 200, 400).forEach(
+        price -> shardedProductRepository.save(
+            ProductTestData.builder()
+                .withUuid(null)
+                .withPrice(BigDecimal.valueOf(price))
+                .build()
+                .buildProduct()));
+
+    // when
+    List<Product> actual =
+        shardedProductRepository.findByPriceBetween(
+            BigDecimal.valueOf(100), BigDecimal.valueOf(500));
+
+    // then
+    assertThat(actual)
+        .extracting(product -> product.getPrice().intValue())
+        .containsExactly(100, 200, 300, 400, 500);
+  }
+
+  @Test
+  void findByCreatedBetween_whenCreatedInDifferentPartitions_thenMergedSortedByCreatedExpected() {
+    // given
+    LocalDateTime start = LocalDateTime.of(2023, 10, 31, 9, 0);
+    for (int hours : List.of(5, 1, 4, 0, 3, 2)) {
+      shardedProductRepository.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withCreated(start.plusHours(hours))
+              .build()
+              .buildProduct());
+    }
+
+    // when
+    List<Product> actual =
+        shardedProductRepository.findByCreatedBetween(start.plusHours(1), start.plusHours(4));
+
+    // then
+    assertThat(actual)
+        .extracting(Product::getCreated)
+        .containsExactly(
+            start.plusHours(1), start.plusHours(2), start.plusHours(3), start.plusHours(4));
+  }
+
+  @Test
+  void findPage_whenPagedThroughPartitions_thenEveryProductOnceInUuidOrderExpected() {
+    // given
+    List<Product> saved = saveProducts(95);
+    List<UUID> paged = new ArrayList<>();
+    UUID after = null;
+
+    // when
+    List<Product> page;
+    do {
+      page = shardedProductRepository.findPage(after, 10);
+      page.forEach(product -> paged.add(product.getUuid()));
+      after = page.isEmpty() ? after : page.get(page.size() - 1).getUuid();
+    } while (page.size() == 10);
+
+    // then
+    assertThat(paged)
+        .containsExactlyElementsOf(
+            saved.stream().map(Product::getUuid).sorted(Comparator.naturalOrder()).toList());
+  }
+
+  @Test
+  void search_whenMatchesInDifferentPartitions_thenLimitedAcrossPartitionsExpected() {
+    // given
+    for (int i = 0; i < 30; i++) {
+      shardedProductRepository.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withName("Ноутбук")
+              .withDescription("Рабочий ноутбук")
+              .build()
+              .buildProduct());
+    }
+
+    // when
+    List<Product> actual = shardedProductRepository.search("ноут", 7);
+
+    // then
+    assertThat(actual).hasSize(7).extracting(Product::getName).containsOnly("Ноутбук");
+  }
+
+  @Test
+  void priceStatistics_whenSavedAcrossPartitions_thenCombinedSummaryExpected() {
+    // given
+    for (int price = 1; price <= 100; price++) {
+      shardedProductRepository.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withPrice(BigDecimal.valueOf(price))
+              .build()
+              .buildProduct());
+    }
+
+    // when
+    PriceStatistics actual = shardedProductRepository.priceStatistics();
+
+    // then
+    assertThat(actual.summary())
+        .extracting(PriceSummary::count, PriceSummary::min, PriceSummary::max, PriceSummary::sum)
+        .containsExactly(100L, BigDecimal.ONE, BigDecimal.valueOf(100), BigDecimal.valueOf(5050));
+    assertThat(actual.histogram().stream().mapToLong(PriceBucket::count).sum()).isEqualTo(100);
+  }
+
+  @Test
+  void saveIfVersion_whenStaleVersion_thenNotSavedExpected() {
+    // given
+    Product product =
+        shardedProductRepository.save(ProductTestData.builder().build().buildProduct());
+    shardedProductRepository.saveIfVersion(product, 0);
+    Product update = product.toBuilder().price(BigDecimal.ONE).build();
+
+    // when
+    Optional<Product> actual = shardedProductRepository.saveIfVersion(update, 0);
+
+    // then
+    assertThat(actual).isEmpty();
+    assertThat(shardedProductRepository.findById(product.getUuid()))
+        .get()
+        .extracting(Product::getPrice)
+        .isEqualTo(product.getPrice());
+  }
+
+  @Test
+  void query_whenSortedWithLimit_thenTopAcrossPartitionsExpected() {
+    // given
+    for (int i = 1; i <= 100; i++) {
+      shardedProductRepository.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withPrice(BigDecimal.valueOf(i))
+              .build()
+              .buildProduct());
+    }
+    ProductQuery query =
+        ProductQuery.where(ProductCondition.priceBetween(BigDecimal.valueOf(50), null))
+            .orderByDescending(SortField.PRICE)
+            .withLimit(3);
+
+    // when
+    QueryResult actual = shardedProductRepository.query(query);
+
+    // then
+    assertThat(actual.products())
+        .extracting(Product::getPrice)
+        .containsExactly(BigDecimal.valueOf(100), BigDecimal.valueOf(99), BigDecimal.valueOf(98));
+    assertThat(actual.plan().access()).isEqualTo(AccessPath.PRICE_INDEX);
+    assertThat(actual.examined()).isLessThanOrEqualTo(3L * PARTITIONS);
+  }
+
+  @Test
+  void changes_whenWritesInManyPartitions_thenEachProductInWriteOrderExpected() throws Exception {
+    // given
+    int count = 50;
+    List<ProductChange> changes = new CopyOnWriteArrayList<>();
+    CountDownLatch received = new CountDownLatch(3 * count);
+    List<Product> saved;
+
+    // when
+    try (ChangeSubscription ignored =
+        shardedProductRepository
+            .changes()
+            .subscribe(
+                change -> {
+                  changes.add(change);
+                  received.countDown();
+                },
+                OverflowPolicy.DISCONNECT)) {
+      saved = saveProducts(count);
+      for (Product product : saved) {
+        shardedProductRepository.save(product.toBuilder().price(BigDecimal.ONE).build());
+        shardedProductRepository.delete(product.getUuid());
+      }
+      assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // then
+    assertThat(changes).extracting(ProductChange::sequence).isSorted().doesNotHaveDuplicates();
+    assertThat(shardedProductRepository.changes().published()).isEqualTo(3L * count);
+    for (Product product : saved) {
+      assertThat(changes)
+          .filteredOn(change -> product.getUuid().equals(uuid(change)))
+          .extracting(ProductChange::type)
+          .containsExactly(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, -1})
+  void constructor_whenPartitionsNotPositive_thenIllegalArgumentExceptionExpected(int partitions) {
+    // given, when, then
+    assertThrows(IllegalArgumentException.class, () -> new ShardedProductRepository(partitions));
+  }
+
+  private List<Product> saveProducts(int count) {
+    List<Product> saved = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      saved.add(
+          shardedProductRepository.save(
+              ProductTestData.builder().withUuid(null).build().buildProduct()));
+    }
+    return saved;
+  }
+
+  private static UUID uuid(ProductChange change) {
+    return (change.after() != null ? change.after() : change.before()).getUuid();
+  }
+}
@@ -0,0 +1,263 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.TierStats;
+import ru.clevertec.product.util.ProductTestData;
+
+class TieredProductRepositoryTest {
+
+  private static final int SEGMENT_BYTES = 4096;
+
+  @TempDir private Path directory;
+
+  private TieredProductRepository tieredProductRepository;
+
+  @AfterEach
+  void tearDown() {
+    if (tieredProductRepository != null) {
+      tieredProductRepository.close();
+    }
+  }
+
+  @Test
+  void findById_whenEvictedToDisk_thenSameProductExpected() {
+    // given
+    open(0);
+    Product expected = ProductTestData.builder().withUuid(null).build().buildProduct();
+    tieredProductRepository.save(expected);
+
+    // when
+    Optional<Product> actual = tieredProductRepository.findById(expected.getUuid());
+
+    // then
+    assertThat(actual).contains(expected);
+    assertThat(tieredProductRepository.stats())
+        .extracting(TierStats::hotProducts, TierStats::coldProducts, TierStats::coldHits)
+        .containsExactly(0L, 1L, 1L);
+  }
+
+  @Test
+  void save_whenOverBudget_thenHotBytesWithinBudgetAndAllProductsFoundExpected() {
+    // given
+    open(10_000);
+
+    // when
+    List<Product> saved = saveProducts(500);
+
+    // then
+    TierStats stats = tieredProductRepository.stats();
+    assertThat(stats.hotBytes()).isPositive().isLessThanOrEqualTo(10_000);
+    assertThat(stats.hotProducts() + stats.coldProducts()).isEqualTo(500);
+    assertThat(stats.evictions()).isEqualTo(stats.coldProducts());
+    for (Product product : saved) {
+      assertThat(tieredProductRepository.findById(product.getUuid())).contains(product);
+    }
+  }
+
+  @Test
+  void findAll_whenProductsOnBothTiers_thenEveryProductOnceExpected() {
+    // given
+    open(10_000);
+    List<Product> saved = saveProducts(500);
+
+    // when
+    List<Product> actual = tieredProductRepository.findAll();
+
+    // then
+    assertThat(actual).containsExactlyInAnyOrderElementsOf(saved);
+  }
+
+  @Test
+  void findById_whenColdProductReadTwice_thenPromotedExpected() {
+    // given
+    open(0);
+    Product product =
+        tieredProductRepository.save(
+            ProductTestData.builder().withUuid(null).build().buildProduct());
+
+    // when
+    tieredProductRepository.findById(product.getUuid());
+    tieredProductRepository.findById(product.getUuid());
+
+    // then
+    assertThat(tieredProductRepository.stats())
+        .extracting(TierStats::coldHits, TierStats::promotions)
+        .containsExactly(2L, 1L);
+  }
+
+  @Test
+  void stats_whenHotColdAndMissingReads_thenHitRatesPerTierExpected() {
+    // given
+    open(1 << 20);
+    Product product =
+        tieredProductRepository.save(
+            ProductTestData.builder().withUuid(null).build().buildProduct());
+    tieredProductRepository.findById(product.getUuid());
+    tieredProductRepository.findById(UUID.randomUUID());
+
+    // when
+    TierStats actual = tieredProductRepository.stats();
+
+    // then
+    assertThat(actual.hotHits()).isEqualTo(1);
+    assertThat(actual.misses()).isEqualTo(1);
+    assertThat(actual.hotHitRate()).isEqualTo(0.5);
+    assertThat(actual.coldHitRate()).isZero();
+  }
+
+  @Test
+  void delete_whenColdProduct_thenRemovedAndStatisticsUpdatedExpected() {
+    // given
+    open(0);
+    Product product =
+        tieredProductRepository.save(
+            ProductTestData.builder()
+                .withUuid(null)
+                .withPrice(BigDecimal.TEN)
+                .build()
+                .buildProduct());
+
+    // when
+    tieredProductRepository.delete(product.getUuid());
+
+    // then
+    assertThat(tieredProductRepository.findById(product.getUuid())).isEmpty();
+    assertThat(tieredProductRepository.findAll()).isEmpty();
+    assertThat(tieredProductRepository.priceStatistics().summary().count()).isZero();
+  }
+
+  @Test
+  void delete_whenMostColdProductsDeleted_thenFileCompactedExpected() {
+    // given
+    open(0);
+    List<Product> saved = saveProducts(2_000);
+    long before = tieredProductRepository.stats().coldFileBytes();
+
+    // when
+    saved.subList(0, 1_900).forEach(product -> tieredProductRepository.delete(product.getUuid()));
+
+    // then
+    assertThat(tieredProductRepository.stats().coldFileBytes()).isLessThan(before / 2);
+    assertThat(tieredProductRepository.findAll())
+        .containsExactlyInAnyOrderElementsOf(saved.subList(1_900, 2_000));
+  }
+
+  @Test
+  void saveIfVersion_whenColdProductWithExpectedVersion_thenSavedWithNextVersionExpected() {
+    // given
+    open(0);
+    Product product =
+        tieredProductRepository.save(
+            ProductTestData.builder().withUuid(null).build().buildProduct());
+    Product update = product.toBuilder().price(BigDecimal.ONE).build();
+
+    // when
+    Optional<Product> actual = tieredProductRepository.saveIfVersion(update, 0);
+
+    // then
+    assertThat(actual).map(Product::getVersion).contains(1L);
+    assertThat(tieredProductRepository.saveIfVersion(update, 0)).isEmpty();
+    assertThat(tieredProductRepository.findById(product.getUuid()))
+        .map(Product::getPrice)
+        .contains(BigDecimal.ONE);
+  }
+
+  @Test
+  void close_whenClosed_thenColdFileDeletedExpected() throws IOException {
+    // given
+    open(0);
+    saveProducts(10);
+
+    // when
+    tieredProductRepository.close();
+    tieredProductRepository = null;
+
+    // then
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  @Test
+  void findPage_whenProductsOnBothTiers_thenAllPagesInUuidOrderExpected() {
+    // given
+    open(10_000);
+    List<Product> saved = saveProducts(500);
+    saved.subList(0, 50).forEach(product -> tieredProductRepository.delete(product.getUuid()));
+    List<UUID> expected =
+        saved.subList(50, 500).stream().map(Product::getUuid).sorted().toList();
+
+    // when
+    List<UUID> actual = new ArrayList<>();
+    UUID after = null;
+    List<Product> page;
+    do {
+      page = tieredProductRepository.findPage(after, 64);
+      page.forEach(product -> actual.add(product.getUuid()));
+      after = page.isEmpty() ? after : page.get(page.size() - 1).getUuid();
+    } while (page.size() == 64);
+
+    // then
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(tieredProductRepository.stats().promotions()).isZero();
+  }
+
+  @Test
+  void findByPriceBetween_whenProductsOnBothTiers_thenRangeInPriceOrderExpected() {
+    // given
+    open(10_000);
+    saveProducts(500);
+
+    // when
+    List<Product> actual =
+        tieredProductRepository.findByPriceBetween(
+            BigDecimal.valueOf(101), BigDecimal.valueOf(200));
+
+    // then
+    assertThat(actual)
+        .extracting(Product::getPrice)
+        .containsExactlyElementsOf(
+            Stream.iterate(101, i -> i <= 200, i -> i + 1).map(BigDecimal::valueOf).toList());
+  }
+
+  @Test
+  void constructor_whenNegativeBudget_thenIllegalArgumentExceptionExpected() {
+    // given, when, then
+    assertThrows(
+        IllegalArgumentException.class, () -> new TieredProductRepository(directory, -1));
+  }
+
+  private void open(long memoryBudgetBytes) {
+    tieredProductRepository =
+        new TieredProductRepository(directory, memoryBudgetBytes, SEGMENT_BYTES);
+  }
+
+  private List<Product> saveProducts(int count) {
+    List<Product> saved = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      saved.add(
+          tieredProductRepository.save(
+              ProductTestData.builder()
+                  .withUuid(null)
+                  .withPrice(BigDecimal.valueOf(i + 1))
+                  .build()
+                  .buildProduct()));
+    }
+    return saved;
+  }
+}
@@ -0,0 +1,350 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.storage.DurabilityMode;
+import ru.clevertec.product.util.ProductTestData;
+
+class WalProductRepositoryTest {
+
+  @TempDir private Path directory;
+
+  @ParameterizedTest
+  @EnumSource(DurabilityMode.class)
+  void findById_whenReopened_thenSavedProductRestoredExpected(DurabilityMode mode) {
+    // given
+    Product expected = ProductTestData.builder().build().buildProduct();
+    try (WalProductRepository repository = new WalProductRepository(directory, mode)) {
+      repository.save(expected);
+    }
+
+    // when
+    try (WalProductRepository reopened = new WalProductRepository(directory, mode)) {
+
+      // then
+      assertThat(reopened.findById(expected.getUuid())).contains(expected);
+    }
+  }
+
+  @Test
+  void findAll_whenReopenedAfterUpdateAndDelete_thenLastStateRestoredExpected() {
+    // given
+    Product updated = ProductTestData.builder().build().buildProduct();
+    Product deleted = ProductTestData.builder().withUuid(null).build().buildProduct();
+    try (WalProductRepository repository =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      repository.save(deleted);
+      repository.save(ProductTestData.builder().withName("phone").build().buildProduct());
+      repository.save(updated);
+      repository.delete(deleted.getUuid());
+    }
+
+    // when
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+
+      // then
+      assertThat(reopened.findAll()).containsExactly(updated);
+    }
+  }
+
+  @Test
+  void saveIfVersion_whenReopened_thenVersionRestoredExpected() {
+    // given
+    Product product = ProductTestData.builder().build().buildProduct();
+    Product expected;
+    try (WalProductRepository repository =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      repository.save(product);
+      repository.saveIfVersion(product.toBuilder().price(BigDecimal.ONE).build(), 0);
+      expected = repository.saveIfVersion(product, 1).orElseThrow();
+      assertThat(repository.saveIfVersion(product, 1)).isEmpty();
+    }
+
+    // when
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+
+      // then
+      assertThat(reopened.findById(product.getUuid())).contains(expected);
+      assertThat(expected.getVersion()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void findAll_whenTailRecordTruncated_thenPrefixRestoredAndLogWritableExpected()
+      throws IOException {
+    // given
+    List<Product> saved = saveProducts(3);
+    Path segment = singleSegment();
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 5);
+    }
+
+    // when
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      Product added = ProductTestData.builder().withUuid(null).build().buildProduct();
+      reopened.save(added);
+      saved.set(2, added);
+    }
+
+    // then
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      assertThat(reopened.findAll()).containsExactlyInAnyOrderElementsOf(saved);
+    }
+  }
+
+  @Test
+  void findAll_whenGarbageAfterLastRecord_thenGarbageDiscardedExpected() throws IOException {
+    // given
+    List<Product> saved = saveProducts(2);
+    Path segment = singleSegment();
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 42, 1, 2, 3, 4, 5, 6, 7}));
+    }
+    long corruptedSize = Files.size(segment);
+
+    // when
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+
+      // then
+      assertThat(reopened.findAll()).containsExactlyInAnyOrderElementsOf(saved);
+      assertThat(Files.size(segment)).isLessThan(corruptedSize);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(DurabilityMode.class)
+  void save_whenParallelWriters_thenAllProductsRestoredExpected(DurabilityMode mode)
+      throws Exception {
+    // given
+    List<UUID> expected = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (WalProductRepository repository = new WalProductRepository(directory, mode)) {
+      List<Future<List<UUID>>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  List<UUID> uuids = new ArrayList<>();
+                  for (int i = 0; i < 200; i++) {
+                    Product product =
+                        ProductTestData.builder().withUuid(null).build().buildProduct();
+                    uuids.add(repository.save(product).getUuid());
+                  }
+                  return uuids;
+                }));
+      }
+      for (Future<List<UUID>> future : futures) {
+        expected.addAll(future.get(1, TimeUnit.MINUTES));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // when
+    try (WalProductRepository reopened = new WalProductRepository(directory, mode)) {
+
+      // then
+      assertThat(reopened.findAll())
+          .extracting(Product::getUuid)
+          .containsExactlyInAnyOrderElementsOf(expected);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(DurabilityMode.class)
+  void saveAll_whenReopenedAfterBulkSaveAndDelete_thenLastStateRestoredExpected(
+      DurabilityMode mode) {
+    // given
+    List<Product> batch = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      batch.add(ProductTestData.builder().withUuid(null).build().buildProduct());
+    }
+    List<Product> saved;
+    Product updated;
+    try (WalProductRepository repository = new WalProductRepository(directory, mode)) {
+      saved = repository.saveAll(batch);
+      updated = saved.get(0).toBuilder().price(BigDecimal.TEN).build();
+      repository.saveAll(List.of(saved.get(0), updated));
+      repository.deleteAll(saved.subList(1, 101).stream().map(Product::getUuid).toList());
+    }
+    List<Product> expected = new ArrayList<>(saved.subList(101, saved.size()));
+    expected.add(updated);
+
+    // when
+    try (WalProductRepository reopened = new WalProductRepository(directory, mode)) {
+
+      // then
+      assertThat(saved).extracting(Product::getUuid).doesNotContainNull().doesNotHaveDuplicates();
+      assertThat(reopened.findAll()).containsExactlyInAnyOrderElementsOf(expected);
+    }
+  }
+
+  @Test
+  void findAll_whenReopenedAfterSnapshot_thenSnapshotAndLogTailRestoredExpected()
+      throws IOException {
+    // given
+    List<Product> expected = saveProducts(3);
+    try (WalProductRepository repository =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      repository.snapshot();
+      repository.delete(expected.remove(0).getUuid());
+      expected.add(
+          repository.save(ProductTestData.builder().withUuid(null).build().buildProduct()));
+    }
+
+    // when
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+
+      // then
+      assertThat(reopened.findAll()).containsExactlyInAnyOrderElementsOf(expected);
+      assertThat(files(".snap")).hasSize(1);
+      assertThat(files(".log")).hasSize(1);
+    }
+  }
+
+  @Test
+  void snapshot_whenParallelWriters_thenNoChangeLostExpected() throws Exception {
+    // given
+    List<Product> expected;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (WalProductRepository repository =
+        new WalProductRepository(directory, DurabilityMode.ASYNC)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 2_000; i++) {
+                    Product product =
+                        repository.save(
+                            ProductTestData.builder().withUuid(null).build().buildProduct());
+                    if (i % 3 == 0) {
+                      repository.delete(product.getUuid());
+                    }
+                  }
+                }));
+      }
+
+      // when
+      for (int i = 0; i < 5; i++) {
+        repository.snapshot();
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+      expected = repository.findAll();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // then
+    try (WalProductRepository reopened =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      assertThat(reopened.findAll()).containsExactlyInAnyOrderElementsOf(expected);
+    }
+  }
+
+  @Test
+  void snapshotFailures_whenBackgroundSnapshotFails_thenFailureCountedAndExposedExpected()
+      throws IOException, InterruptedException {
+    // given
+    IllegalStateException failure = new IllegalStateException("page is corrupted");
+    InMemoryProductRepository delegate =
+        new InMemoryProductRepository() {
+          @Override
+          public List<Product> findPage(UUID after, int limit) {
+            throw failure;
+          }
+        };
+    try (WalProductRepository repository =
+        new WalProductRepository(
+            directory,
+            DurabilityMode.SYNC,
+            Duration.ofMillis(10),
+            Duration.ofMillis(5),
+            delegate)) {
+      repository.save(ProductTestData.builder().build().buildProduct());
+
+      // when
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      while (repository.snapshotFailures() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      // then
+      assertThat(repository.snapshotFailures()).isGreaterThanOrEqualTo(2);
+      assertThat(repository.lastSnapshotFailure()).containsSame(failure);
+      assertThat(files(".snap")).isEmpty();
+      assertThat(files(".log")).hasSizeGreaterThan(1);
+    }
+  }
+
+  @Test
+  void constructor_whenSnapshotCorrupted_thenIllegalStateExceptionExpected() throws IOException {
+    // given
+    saveProducts(2);
+    try (WalProductRepository repository =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      repository.snapshot();
+    }
+    Path snapshot = files(".snap").get(0);
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {42}), 20);
+    }
+
+    // when, then
+    assertThrows(
+        IllegalStateException.class,
+        () -> new WalProductRepository(directory, DurabilityMode.SYNC));
+  }
+
+  private List<Product> saveProducts(int count) {
+    List<Product> saved = new ArrayList<>();
+    try (WalProductRepository repository =
+        new WalProductRepository(directory, DurabilityMode.SYNC)) {
+      for (int i = 0; i < count; i++) {
+        saved.add(
+            repository.save(ProductTestData.builder().withUuid(null).build().buildProduct()));
+      }
+    }
+    return saved;
+  }
+
+  private Path singleSegment() throws IOException {
+    return files(".log").get(0);
+  }
+
+  private List<Path> files(String suffix) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(suffix)).toList();
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package ru.clevertec.product.search.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.search.SearchHit;
+import ru.clevertec.product.util.ProductTestData;
+
+class InvertedIndexTest {
+
+  private final InvertedIndex invertedIndex = new InvertedIndex();
+
+  @ParameterizedTest
+  @ValueSource(strings = {"ноутбук", "НОУТ", "ноутбук рабочий", "раб ноу", "  Ноутбук!  "})
+  void search_whenWordsOrPrefixes_thenProductFoundExpected(String query) {
+    // given
+    Product product = product("Ноутбук", "Рабочий ноутбук");
+    invertedIndex.update(null, product);
+
+    // when
+    List<SearchHit> actual = invertedIndex.search(query, 10);
+
+    // then
+    assertThat(actual).extracting(SearchHit::uuid).containsExactly(product.getUuid());
+  }
+
+  @Test
+  void search_whenNotEveryWordMatches_thenEmptyExpected() {
+    // given
+    invertedIndex.update(null, product("Ноутбук", "Рабочий ноутбук"));
+
+    // when
+    List<SearchHit> actual = invertedIndex.search("ноутбук игровой", 10);
+
+    // then
+    assertThat(actual).isEmpty();
+  }
+
+  @Test
+  void search_whenWordInNameAndDescription_thenNameMatchRankedHigherExpected() {
+    // given
+    Product inName = product("Монитор", "Большой экран");
+    Product inDescription = product("Телевизор", "Почти монитор");
+    Product prefixOnly = product("Кронштейн", "Для мониторов");
+    invertedIndex.update(null, inDescription);
+    invertedIndex.update(null, prefixOnly);
+    invertedIndex.update(null, inName);
+
+    // when
+    List<SearchHit> actual = invertedIndex.search("монитор", 10);
+
+    // then
+    assertThat(actual)
+        .extracting(SearchHit::uuid)
+        .containsExactly(inName.getUuid(), inDescription.getUuid(), prefixOnly.getUuid());
+  }
+
+  @Test
+  void search_whenYoInQuery_thenMatchedAsYeExpected() {
+    // given
+    Product product = product("Ёлка", "Новогодняя ёлка");
+    invertedIndex.update(null, product);
+
+    // when
+    List<SearchHit> actual = invertedIndex.search("елка", 10);
+
+    // then
+    assertThat(actual).extracting(SearchHit::uuid).containsExactly(product.getUuid());
+  }
+
+  @Test
+  void search_whenProductRenamed_thenOnlyNewWordsMatchExpected() {
+    // given
+    Product before = product("Ноутбук", "Рабочий ноутбук");
+    Product after = before.toBuilder().name("Планшет").description("Рабочий планшет").build();
+    invertedIndex.update(null, before);
+
+    // when
+    invertedIndex.update(before, after);
+
+    // then
+    assertThat(invertedIndex.search("ноутбук", 10)).isEmpty();
+    assertThat(invertedIndex.search("планшет", 10)).hasSize(1);
+  }
+
+  @Test
+  void search_whenProductDeleted_thenNotFoundExpected() {
+    // given
+    Product product = product("Ноутбук", "Рабочий ноутбук");
+    invertedIndex.update(null, product);
+
+    // when
+    invertedIndex.update(product, null);
+
+    // then
+    assertThat(invertedIndex.search("ноутбук", 10)).isEmpty();
+  }
+
+  @Test
+  void search_whenMoreMatchesThanLimit_thenLimitedExpected() {
+    // given
+    for (int i = 0; i < 100; i++) {
+      invertedIndex.update(null, product("Ноутбук", "Рабочий ноутбук"));
+    }
+
+    // when
+    List<SearchHit> actual = invertedIndex.search("ноут", 7);
+
+    // then
+    assertThat(actual).hasSize(7);
+  }
+
+  @Test
+  void update_whenRewrittenManyTimes_thenStalePostingsPurgedExpected() {
+    // given
+    Product product = product("Ноутбук", "Рабочий ноутбук");
+    invertedIndex.update(null, product);
+    long initial = invertedIndex.estimatedBytes();
+
+    // when
+    Product current = product;
+    for (int i = 0; i < 1_000; i++) {
+      Product next = current.toBuilder().description("Рабочий ноутбук " + (i % 2)).build();
+      invertedIndex.update(current, next);
+      current = next;
+    }
+
+    // then
+    assertThat(invertedIndex.search("ноутбук", 10)).hasSize(1);
+    assertThat(invertedIndex.estimatedBytes()).isLessThan(initial * 4);
+  }
+
+  @Test
+  void update_whenAllProductsDeleted_thenTermsDroppedExpected() {
+    // given
+    List<Product> products = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Product product = product("Ноутбук " + i, "Рабочий ноутбук");
+      products.add(product);
+      invertedIndex.update(null, product);
+    }
+
+    // when
+    products.forEach(product -> invertedIndex.update(product, null));
+
+    // then
+    assertThat(invertedIndex.estimate("ноутбук")).isZero();
+    assertThat(invertedIndex.estimatedBytes()).isZero();
+  }
+
+  @Test
+  void search_whenLimitNotPositive_thenIllegalArgumentExceptionExpected() {
+    // given, when, then
+    assertThrows(IllegalArgumentException.class, () -> invertedIndex.search("ноутбук", 0));
+  }
+
+  @Test
+  void estimate_whenWordsOfDifferentFrequency_thenShortestListExpected() {
+    // given
+    invertedIndex.update(null, product("Ноутбук", "Рабочий ноутбук"));
+    invertedIndex.update(null, product("Ноутбук", "Игровой ноутбук"));
+    invertedIndex.update(null, product("Монитор", "Игровой монитор"));
+
+    // when
+    int actual = invertedIndex.estimate("игровой ноут");
+
+    // then
+    assertThat(actual).isEqualTo(2);
+    assertThat(invertedIndex.matches("игровой ноут")).hasSize(1);
+  }
+
+  @Test
+  void estimate_whenOnlyShortWords_thenNoEstimateExpected() {
+    // given
+    invertedIndex.update(null, product("Ноутбук", "Рабочий ноутбук"));
+
+    // when
+    int actual = invertedIndex.estimate("н р");
+
+    // then
+    assertThat(actual).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  private static Product product(String name, String description) {
+    return ProductTestData.builder()
+        .withUuid(UUID.randomUUID())
+        .withName(name)
+        .withDescription(description)
+        .build()
+        .buildProduct();
+  }
+}
@@ -0,0 +1,229 @@
+package ru.clevertec.product.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.ProductTestData;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncProductServiceImplTest {
+
+  @Mock private ProductService delegate;
+
+  private AsyncProductServiceImpl asyncProductService;
+
+  @BeforeEach
+  void setUp() {
+    asyncProductService = new AsyncProductServiceImpl(delegate, Runnable::run, 2);
+  }
+
+  @Test
+  void testGet_whenProductExists_thenCompletedWithProductExpected() throws Exception {
+    // given
+    InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+    doReturn(expected).when(delegate).get(expected.uuid());
+
+    // when
+    InfoProductDto actual = asyncProductService.get(expected.uuid()).get();
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void testGet_whenNotFound_thenCompletedExceptionallyExpected() {
+    // given
+    UUID uuid = UUID.randomUUID();
+    doThrow(new ProductNotFoundException(uuid)).when(delegate).get(uuid);
+
+    // when
+    CompletableFuture<InfoProductDto> actual = asyncProductService.get(uuid);
+
+    // then
+    assertThat(actual)
+        .failsWithin(1, TimeUnit.SECONDS)
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(ProductNotFoundException.class);
+  }
+
+  @Test
+  void testCreate_whenDefaultExecutor_thenRunsOffCallerThreadExpected() throws Exception {
+    // given
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    UUID expected = UUID.randomUUID();
+    Thread caller = Thread.currentThread();
+    List<Thread> workers = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              workers.add(Thread.currentThread());
+              return expected;
+            })
+        .when(delegate)
+        .create(productDto);
+
+    // when
+    UUID actual;
+    try (AsyncProductServiceImpl service = new AsyncProductServiceImpl(delegate)) {
+      actual = service.create(productDto).get(1, TimeUnit.SECONDS);
+    }
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+    assertThat(workers).doesNotContain(caller);
+  }
+
+  @Test
+  void testUpdate_whenCalled_thenDelegateUpdatedExpected() throws Exception {
+    // given
+    UUID uuid = UUID.randomUUID();
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+
+    // when
+    asyncProductService.update(uuid, productDto, 7).get();
+    asyncProductService.delete(uuid).get();
+
+    // then
+    verify(delegate).update(uuid, productDto, 7);
+    verify(delegate).delete(uuid);
+  }
+
+  @Test
+  void testGetAll_whenNoDemand_thenStorageNotReadExpected() {
+    // given
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+
+    // when
+    asyncProductService.getAll().subscribe(subscriber);
+
+    // then
+    assertThat(subscriber.items).isEmpty();
+    verify(delegate, never()).getPage(isNull(), anyInt());
+  }
+
+  @Test
+  void testGetAll_whenRequestedInSteps_thenPagesReadOnDemandExpected() {
+    // given
+    InfoProductDto first =
+        ProductTestData.builder().withName("Ноутбук").build().buildInfoProductDto();
+    InfoProductDto second =
+        ProductTestData.builder().withName("Монитор").build().buildInfoProductDto();
+    InfoProductDto third =
+        ProductTestData.builder().withName("Клавиатура").build().buildInfoProductDto();
+    doReturn(new Page<>(List.of(first, second), "next")).when(delegate).getPage(null, 2);
+    doReturn(new Page<>(List.of(third), null)).when(delegate).getPage("next", 2);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    asyncProductService.getAll().subscribe(subscriber);
+
+    // when
+    subscriber.subscription.request(1);
+
+    // then
+    assertThat(subscriber.items).containsExactly(first);
+    verify(delegate, never()).getPage("next", 2);
+
+    // when
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    // then
+    assertThat(subscriber.items).containsExactly(first, second, third);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test
+  void testGetAll_whenCancelled_thenNoMoreSignalsExpected() {
+    // given
+    InfoProductDto first = ProductTestData.builder().build().buildInfoProductDto();
+    doReturn(new Page<>(List.of(first, first), "next")).when(delegate).getPage(null, 2);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    asyncProductService.getAll().subscribe(subscriber);
+
+    // when
+    subscriber.subscription.request(1);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(10);
+
+    // then
+    assertThat(subscriber.items).hasSize(1);
+    assertThat(subscriber.completed).isFalse();
+    verify(delegate, never()).getPage("next", 2);
+  }
+
+  @Test
+  void testGetAll_whenNonPositiveDemand_thenIllegalArgumentExceptionSignalledExpected() {
+    // given
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    asyncProductService.getAll().subscribe(subscriber);
+
+    // when
+    subscriber.subscription.request(0);
+
+    // then
+    assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testGetAll_whenStorageFails_thenErrorSignalledExpected() {
+    // given
+    doThrow(new IllegalStateException("storage")).when(delegate).getPage(null, 2);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    asyncProductService.getAll().subscribe(subscriber);
+
+    // when
+    subscriber.subscription.request(1);
+
+    // then
+    assertThat(subscriber.error).isInstanceOf(IllegalStateException.class);
+    assertThat(subscriber.completed).isFalse();
+  }
+
+  private static class RecordingSubscriber implements Flow.Subscriber<InfoProductDto> {
+
+    private final List<InfoProductDto> items = new ArrayList<>();
+    private Flow.Subscription subscription;
+    private Throwable error;
+    private boolean completed;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(InfoProductDto item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+}
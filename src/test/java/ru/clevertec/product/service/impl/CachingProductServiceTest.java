@@ -0,0 +1,128 @@
+package ru.clevertec.product.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.cache.impl.TinyLfuCache;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.VersionConflictException;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.ProductTestData;
+
+@ExtendWith(MockitoExtension.class)
+class CachingProductServiceTest {
+
+  @Mock private ProductService delegate;
+
+  private CachingProductService cachingProductService;
+
+  @BeforeEach
+  void setUp() {
+    cachingProductService = new CachingProductService(delegate, new TinyLfuCache<>(100, null));
+  }
+
+  @Test
+  void testGet_whenGetTwice_thenDelegateCalledOnceExpected() {
+    // given
+    InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+    doReturn(expected).when(delegate).get(expected.uuid());
+
+    // when
+    cachingProductService.get(expected.uuid());
+    InfoProductDto actual = cachingProductService.get(expected.uuid());
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+    verify(delegate).get(expected.uuid());
+    assertThat(cachingProductService.stats().hits()).isEqualTo(1);
+  }
+
+  @Test
+  void testGet_whenUpdated_thenFreshValueExpected() {
+    // given
+    InfoProductDto stale = ProductTestData.builder().build().buildInfoProductDto();
+    InfoProductDto fresh =
+        ProductTestData.builder().withName("monitor").build().buildInfoProductDto();
+    ProductDto productDto = ProductTestData.builder().withName("monitor").build().buildProductDto();
+    doReturn(stale, fresh).when(delegate).get(stale.uuid());
+    cachingProductService.get(stale.uuid());
+
+    // when
+    cachingProductService.update(stale.uuid(), productDto);
+    InfoProductDto actual = cachingProductService.get(stale.uuid());
+
+    // then
+    assertThat(actual).isEqualTo(fresh);
+    verify(delegate).update(stale.uuid(), productDto);
+  }
+
+  @Test
+  void testGet_whenDeleted_thenProductNotFoundExceptionExpected() {
+    // given
+    InfoProductDto cached = ProductTestData.builder().build().buildInfoProductDto();
+    UUID uuid = cached.uuid();
+    doReturn(cached).doThrow(new ProductNotFoundException(uuid)).when(delegate).get(uuid);
+    cachingProductService.get(uuid);
+
+    // when
+    cachingProductService.delete(uuid);
+
+    // then
+    assertThrows(ProductNotFoundException.class, () -> cachingProductService.get(uuid));
+    verify(delegate, times(2)).get(uuid);
+  }
+
+  @Test
+  void testUpdate_whenDelegateFails_thenEntryStillInvalidatedExpected() {
+    // given
+    InfoProductDto cached = ProductTestData.builder().build().buildInfoProductDto();
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    doReturn(cached).when(delegate).get(cached.uuid());
+    doThrow(new ProductNotFoundException(cached.uuid()))
+        .when(delegate)
+        .update(cached.uuid(), productDto);
+    cachingProductService.get(cached.uuid());
+
+    // when
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> cachingProductService.update(cached.uuid(), productDto));
+
+    // then
+    cachingProductService.get(cached.uuid());
+    verify(delegate, times(2)).get(cached.uuid());
+  }
+
+  @Test
+  void testUpdate_whenVersionConflict_thenEntryStillInvalidatedExpected() {
+    // given
+    InfoProductDto cached = ProductTestData.builder().build().buildInfoProductDto();
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    doReturn(cached).when(delegate).get(cached.uuid());
+    doThrow(new VersionConflictException(cached.uuid(), cached.version()))
+        .when(delegate)
+        .update(cached.uuid(), productDto, cached.version());
+    cachingProductService.get(cached.uuid());
+
+    // when
+    assertThrows(
+        VersionConflictException.class,
+        () -> cachingProductService.update(cached.uuid(), productDto, cached.version()));
+
+    // then
+    cachingProductService.get(cached.uuid());
+    verify(delegate, times(2)).get(cached.uuid());
+  }
+}
@@ -0,0 +1,72 @@
+package ru.clevertec.product.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.metrics.MethodStats;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.ProductTestData;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedProductServiceTest {
+
+  @Mock private ProductService delegate;
+
+  private InstrumentedProductService instrumentedProductService;
+
+  @BeforeEach
+  void setUp() {
+    instrumentedProductService = new InstrumentedProductService(delegate);
+  }
+
+  @Test
+  void testGet_whenFoundAndMissing_thenCallsAndErrorsCountedExpected() {
+    // given
+    InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+    UUID missing = UUID.randomUUID();
+    doReturn(expected).when(delegate).get(expected.uuid());
+    doThrow(new ProductNotFoundException(missing)).when(delegate).get(missing);
+
+    // when
+    InfoProductDto actual = instrumentedProductService.get(expected.uuid());
+    assertThrows(ProductNotFoundException.class, () -> instrumentedProductService.get(missing));
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+    MethodStats stats = instrumentedProductService.stats().get("get");
+    assertThat(stats.calls()).isEqualTo(2);
+    assertThat(stats.errors()).isEqualTo(1);
+    assertThat(stats.errorsByType()).containsEntry("ProductNotFoundException", 1L);
+    assertThat(stats.maxNanos()).isPositive().isGreaterThanOrEqualTo(stats.p50Nanos());
+  }
+
+  @Test
+  void testUpdate_whenVersioned_thenRecordedSeparatelyExpected() {
+    // given
+    UUID uuid = UUID.randomUUID();
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+
+    // when
+    instrumentedProductService.update(uuid, productDto, 3);
+
+    // then
+    verify(delegate).update(uuid, productDto, 3);
+    Map<String, MethodStats> stats = instrumentedProductService.stats();
+    assertThat(stats.get("updateVersioned").calls()).isEqualTo(1);
+    assertThat(stats.get("update").calls()).isZero();
+    assertThat(stats.get("update").p99Nanos()).isZero();
+  }
+}
@@ -3,12 +3,16 @@ package ru.clevertec.product.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
@@ -16,18 +20,27 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.Page;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ValidationException;
+import ru.clevertec.product.exception.VersionConflictException;
+import ru.clevertec.product.id.IdGenerator;
 import ru.clevertec.product.mapper.ProductMapper;
 import ru.clevertec.product.repository.ProductRepository;
 import ru.clevertec.product.util.ProductTestData;
+import ru.clevertec.product.validator.ProductValidator;
+import ru.clevertec.product.validator.ValidationError;
+import ru.clevertec.product.validator.Violation;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceImplTest {
 
   @Mock private ProductMapper mapper;
   @Mock private ProductRepository productRepository;
+  @Mock private ProductValidator validator;
+  @Mock private IdGenerator idGenerator;
 
   @Captor private ArgumentCaptor<UUID> uuidArgumentCaptor;
   @Captor private ArgumentCaptor<Product> productArgumentCaptor;
@@ -46,7 +59,6 @@ class ProductServiceImplTest {
     assertThat(actual)
         .hasFieldOrPropertyWithValue(Product.Fields.uuid, expected.getUuid())
         .hasFieldOrPropertyWithValue(Product.Fields.name, expected.getName())
-        .hasFieldOrPropertyWithValue(Product.Fields.created, expected.getCreated())
         .hasFieldOrPropertyWithValue(Product.Fields.price, expected.getPrice())
         .hasFieldOrPropertyWithValue(Product.Fields.description, expected.getDescription());
   }
@@ -114,6 +126,106 @@ class ProductServiceImplTest {
     verify(productRepository).findAll();
   }
 
+  @Test
+  void testGetPage_whenFullPage_thenNextCursorExpected() {
+    // given
+    setUpGetPage(null, 1);
+
+    // when
+    Page<InfoProductDto> actual = productServiceImpl.getPage(null, 1);
+
+    // then
+    assertThat(actual.content()).hasSize(1);
+    assertThat(actual.hasNext()).isTrue();
+  }
+
+  @Test
+  void testGetPage_whenNextCursor_thenCallRepositoryAfterLastUuid() {
+    // given
+    UUID last = ProductTestData.builder().build().getUuid();
+    setUpGetPage(null, 1);
+    String cursor = productServiceImpl.getPage(null, 1).nextCursor();
+    setUpGetPage(last, 2);
+
+    // when
+    Page<InfoProductDto> actual = productServiceImpl.getPage(cursor, 2);
+
+    // then
+    verify(productRepository).findPage(uuidArgumentCaptor.capture(), Mockito.eq(2));
+    assertThat(uuidArgumentCaptor.getValue()).isEqualByComparingTo(last);
+    assertThat(actual.hasNext()).isFalse();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, -1, ProductServiceImpl.MAX_PAGE_SIZE + 1})
+  void testGetPage_whenSizeOutOfBounds_thenIllegalArgumentExceptionExpected(int size) {
+    // given, when, then
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> productServiceImpl.getPage(null, size));
+  }
+
+  @Test
+  void testSearch_whenQuery_thenMappedRepositoryResultsExpected() {
+    // given
+    ProductTestData productTestData = ProductTestData.builder().build();
+    List<Product> products = List.of(productTestData.buildProduct());
+    List<InfoProductDto> expected = productTestData.buildListInfoProductDto();
+    Mockito.doReturn(products).when(productRepository).search("ноутбук", 10);
+    Mockito.doReturn(expected).when(mapper).toListInfoProductDto(products);
+
+    // when
+    List<InfoProductDto> actual = productServiceImpl.search("ноутбук", 10);
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, ProductServiceImpl.MAX_PAGE_SIZE + 1})
+  void testSearch_whenLimitOutOfBounds_thenIllegalArgumentExceptionExpected(int limit) {
+    // given, when, then
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> productServiceImpl.search("ноутбук", limit));
+  }
+
+  @Test
+  void testGetPage_whenMalformedCursor_thenIllegalArgumentExceptionExpected() {
+    // given
+    String cursor = "not a cursor";
+
+    // when, then
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> productServiceImpl.getPage(cursor, 10));
+  }
+
+  @Test
+  void testStreamAll_whenNotConsumed_thenRepositoryNotCalled() {
+    // given, when
+    productServiceImpl.streamAll();
+
+    // then
+    Mockito.verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  void testStreamAll_whenLimited_thenOnlyFirstPageRead() {
+    // given
+    Product product = ProductTestData.builder().build().buildProduct();
+    InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+    Mockito.doReturn(Collections.nCopies(256, product))
+        .when(productRepository)
+        .findPage(Mockito.isNull(), Mockito.anyInt());
+    Mockito.doReturn(infoProductDto).when(mapper).toInfoProductDto(product);
+
+    // when
+    List<InfoProductDto> actual = productServiceImpl.streamAll().limit(10).toList();
+
+    // then
+    assertThat(actual).hasSize(10);
+    verify(productRepository).findPage(Mockito.isNull(), Mockito.anyInt());
+    Mockito.verifyNoMoreInteractions(productRepository);
+  }
+
   @Test
   void testCreate_whenCreate_theUuidExpected() {
     // given
@@ -137,12 +249,82 @@ class ProductServiceImplTest {
 
     // then
     verify(productRepository).save(productArgumentCaptor.capture());
-    assertThat(uuidArgumentCaptor.getValue())
+    assertThat(productArgumentCaptor.getValue())
         .hasFieldOrPropertyWithValue(Product.Fields.name, expected.name())
         .hasFieldOrPropertyWithValue(Product.Fields.price, expected.price())
         .hasFieldOrPropertyWithValue(Product.Fields.description, expected.description());
   }
 
+  @Test
+  void testCreate_whenCreate_thenUuidFromIdGeneratorSavedExpected() {
+    // given
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    Product product = ProductTestData.builder().withUuid(null).build().buildProduct();
+    UUID expected = UUID.randomUUID();
+    Mockito.doReturn(product).when(mapper).toProduct(productDto);
+    Mockito.doReturn(expected).when(idGenerator).next();
+    Mockito.doReturn(product).when(productRepository).save(product);
+
+    // when
+    productServiceImpl.create(productDto);
+
+    // then
+    verify(productRepository).save(productArgumentCaptor.capture());
+    assertThat(productArgumentCaptor.getValue())
+        .hasFieldOrPropertyWithValue(Product.Fields.uuid, expected);
+  }
+
+  @Test
+  void testCreate_whenInvalid_thenValidationExceptionAndNothingSavedExpected() {
+    // given
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    ValidationException invalid =
+        new ValidationException(List.of(new ValidationError(0, Set.of(Violation.NAME_LENGTH))));
+    Mockito.doThrow(invalid).when(validator).validate(productDto);
+
+    // when, then
+    Assertions.assertThrows(ValidationException.class, () -> productServiceImpl.create(productDto));
+    Mockito.verifyNoInteractions(mapper, productRepository);
+  }
+
+  @Test
+  void testCreateAll_whenInvalid_thenValidationExceptionAndNothingSavedExpected() {
+    // given
+    List<ProductDto> productDtos = List.of(ProductTestData.builder().build().buildProductDto());
+    ValidationException invalid =
+        new ValidationException(List.of(new ValidationError(0, Set.of(Violation.NAME_LENGTH))));
+    Mockito.doThrow(invalid).when(validator).validateAll(productDtos);
+
+    // when, then
+    Assertions.assertThrows(
+        ValidationException.class, () -> productServiceImpl.createAll(productDtos));
+    Mockito.verifyNoInteractions(mapper, productRepository);
+  }
+
+  @Test
+  void testCreateAll_whenCreateAll_thenUuidsInInputOrderExpected() {
+    // given
+    List<ProductDto> productDtos =
+        List.of(
+            ProductTestData.builder().build().buildProductDto(),
+            ProductTestData.builder().withName("monitor").build().buildProductDto());
+    List<Product> products =
+        List.of(
+            ProductTestData.builder().withUuid(UUID.randomUUID()).build().buildProduct(),
+            ProductTestData.builder().withUuid(UUID.randomUUID()).build().buildProduct());
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    Mockito.doReturn(products).when(mapper).toListProduct(productDtos);
+    Mockito.doReturn(first, second).when(idGenerator).next();
+    Mockito.doReturn(products).when(productRepository).saveAll(products);
+
+    // when
+    List<UUID> actual = productServiceImpl.createAll(productDtos);
+
+    // then
+    assertThat(actual).containsExactly(first, second);
+  }
+
   @Test
   void testUpdate_whenUpdate_thenCallRepositorySaveWithExpectedProduct() {
     // given
@@ -153,14 +335,86 @@ class ProductServiceImplTest {
     productServiceImpl.update(uuid, expected);
 
     // then
-    verify(productRepository).save(productArgumentCaptor.capture());
-    assertThat(uuidArgumentCaptor.getValue())
+    verify(productRepository).saveIfVersion(productArgumentCaptor.capture(), Mockito.eq(0L));
+    assertThat(productArgumentCaptor.getValue())
         .hasFieldOrPropertyWithValue(Product.Fields.uuid, uuid)
         .hasFieldOrPropertyWithValue(Product.Fields.name, expected.name())
         .hasFieldOrPropertyWithValue(Product.Fields.price, expected.price())
         .hasFieldOrPropertyWithValue(Product.Fields.description, expected.description());
   }
 
+  @Test
+  void testUpdate_whenConcurrentlyModified_thenRetriedOnFreshVersionExpected() {
+    // given
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    Product stale = ProductTestData.builder().build().buildProduct();
+    Product fresh = stale.toBuilder().version(1).build();
+    Mockito.doReturn(Optional.of(stale), Optional.of(fresh))
+        .when(productRepository)
+        .findById(stale.getUuid());
+    Mockito.doReturn(stale).when(mapper).merge(stale, productDto);
+    Mockito.doReturn(fresh).when(mapper).merge(fresh, productDto);
+    Mockito.doReturn(Optional.empty()).when(productRepository).saveIfVersion(stale, 0);
+    Mockito.doReturn(Optional.of(fresh)).when(productRepository).saveIfVersion(fresh, 1);
+
+    // when
+    productServiceImpl.update(stale.getUuid(), productDto);
+
+    // then
+    verify(productRepository).saveIfVersion(fresh, 1);
+  }
+
+  @Test
+  void testUpdate_whenExpectedVersionOutdated_thenVersionConflictExceptionExpected() {
+    // given
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    Product product = ProductTestData.builder().build().buildProduct();
+    product.setVersion(3);
+    Mockito.doReturn(Optional.of(product)).when(productRepository).findById(product.getUuid());
+
+    // when
+    VersionConflictException thrown =
+        Assertions.assertThrows(
+            VersionConflictException.class,
+            () -> productServiceImpl.update(product.getUuid(), productDto, 2));
+
+    // then
+    assertThat(thrown).hasMessageContaining(product.getUuid().toString());
+    verify(productRepository, Mockito.never()).saveIfVersion(Mockito.any(), Mockito.anyLong());
+  }
+
+  @Test
+  void testUpdate_whenExpectedVersionCurrent_thenSavedWithThisVersionExpected() {
+    // given
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    Product product = ProductTestData.builder().build().buildProduct();
+    product.setVersion(3);
+    Mockito.doReturn(Optional.of(product)).when(productRepository).findById(product.getUuid());
+    Mockito.doReturn(product).when(mapper).merge(product, productDto);
+    Mockito.doReturn(Optional.of(product)).when(productRepository).saveIfVersion(product, 3);
+
+    // when
+    productServiceImpl.update(product.getUuid(), productDto, 3);
+
+    // then
+    verify(productRepository).saveIfVersion(product, 3);
+  }
+
+  @Test
+  void testUpdate_whenInvalid_thenValidationExceptionAndNothingSavedExpected() {
+    // given
+    UUID uuid = ProductTestData.builder().build().getUuid();
+    ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+    ValidationException invalid =
+        new ValidationException(List.of(new ValidationError(0, Set.of(Violation.NAME_LENGTH))));
+    Mockito.doThrow(invalid).when(validator).validate(productDto);
+
+    // when, then
+    Assertions.assertThrows(
+        ValidationException.class, () -> productServiceImpl.update(uuid, productDto));
+    Mockito.verifyNoInteractions(mapper, productRepository);
+  }
+
   @Test
   void testDelete_whenDelete_thenCallRepositoryDeleteWithThisUuid() {
     // given
@@ -185,24 +439,22 @@ class ProductServiceImplTest {
 
   private void initMocksForUpdate(Product product, ProductDto productDto, UUID uuid) {
     Optional<Product> optionalProduct = Optional.ofNullable(product);
-    Mockito.doReturn(product).when(mapper).toProduct(productDto);
+    Mockito.doReturn(product).when(mapper).merge(product, productDto);
     Mockito.doReturn(optionalProduct).when(productRepository).findById(uuid);
-    Mockito.doReturn(product).when(productRepository).save(product);
+    Mockito.doReturn(Optional.of(product)).when(productRepository).saveIfVersion(product, 0);
   }
 
   private ProductDto setUpCreate() {
     ProductDto productDto = ProductTestData.builder().build().buildProductDto();
     Product product = ProductTestData.builder().build().buildProduct();
-    InfoProductDto productMapperTestData = ProductTestData.builder().build().buildInfoProductDto();
-    initMocksForCreate(product, productDto, productMapperTestData);
+    initMocksForCreate(product, productDto);
     return productDto;
   }
 
-  private void initMocksForCreate(
-      Product product, ProductDto productDto, InfoProductDto productMapperTestData) {
+  private void initMocksForCreate(Product product, ProductDto productDto) {
     Mockito.doReturn(product).when(mapper).toProduct(productDto);
+    Mockito.doReturn(product.getUuid()).when(idGenerator).next();
     Mockito.doReturn(product).when(productRepository).save(product);
-    Mockito.doReturn(productMapperTestData).when(mapper).toInfoProductDto(product);
   }
 
   private ProductTestData setUpGet() {
@@ -224,6 +476,14 @@ class ProductServiceImplTest {
         .toInfoProductDto(optionalProductRepository.orElseThrow());
   }
 
+  private void setUpGetPage(UUID after, int size) {
+    List<Product> products = ProductTestData.builder().build().buildListProducts();
+    List<InfoProductDto> listInfoProductDto =
+        ProductTestData.builder().build().buildListInfoProductDto();
+    Mockito.doReturn(products).when(productRepository).findPage(after, size);
+    Mockito.doReturn(listInfoProductDto).when(mapper).toListInfoProductDto(products);
+  }
+
   private void setUpGetAll() {
     List<InfoProductDto> listInfoProductDto =
         ProductTestData.builder().build().buildListInfoProductDto();
@@ -0,0 +1,57 @@
+package ru.clevertec.product.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PackedTextTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "Ноутбук", "Ёлка и ёж", "Рабочий ноутбук, 15\" (2023)", "laptop"})
+  void unpack_whenPacked_thenSameTextExpected(String expected) {
+    // given
+    byte[] packed = PackedText.pack(expected);
+
+    // when
+    String actual = PackedText.unpack(packed, 0, expected.length());
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+    assertThat(packed).hasSize(PackedText.packedLength(expected.length()));
+  }
+
+  @Test
+  void pack_whenTenCyrillicChars_thenNineBytesExpected() {
+    // given
+    String name = "Клавиатура";
+
+    // when
+    byte[] actual = PackedText.pack(name);
+
+    // then
+    assertThat(actual).hasSize(9);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"Laptop", "ноутбук™", "日本"})
+  void packable_whenCharOutOfAlphabet_thenFalseExpected(String text) {
+    // given, when
+    boolean actual = PackedText.packable(text);
+
+    // then
+    assertThat(actual).isFalse();
+    assertThrows(IllegalArgumentException.class, () -> PackedText.pack(text));
+  }
+
+  @Test
+  void unpack_whenTruncated_thenIllegalArgumentExceptionExpected() {
+    // given
+    byte[] packed = PackedText.pack("Монитор");
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> PackedText.unpack(packed, 1, 7));
+  }
+}
@@ -0,0 +1,100 @@
+package ru.clevertec.product.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.ProductTestData;
+
+class ProductCodecTest {
+
+  static Stream<Arguments> products() {
+    return Stream.of(
+        Arguments.of(ProductTestData.builder().build().buildProduct()),
+        Arguments.of(ProductTestData.builder().withName("Ноутбук").build().buildProduct()),
+        Arguments.of(
+            ProductTestData.builder()
+                .withName("Laptop")
+                .withDescription("Игровой ноутбук")
+                .build()
+                .buildProduct()),
+        Arguments.of(
+            ProductTestData.builder().build().buildProduct().toBuilder().version(42).build()),
+        Arguments.of(
+            ProductTestData.builder()
+                .withPrice(new BigDecimal("123456789012345678901234567890.99"))
+                .build()
+                .buildProduct()),
+        Arguments.of(
+            ProductTestData.builder()
+                .withDescription(null)
+                .withPrice(null)
+                .withCreated(null)
+                .build()
+                .buildProduct()));
+  }
+
+  @ParameterizedTest
+  @MethodSource("products")
+  void decode_whenEncoded_thenEqualProductExpected(Product expected) {
+    // given
+    byte[] encoded = ProductCodec.encode(expected);
+
+    // when
+    Product actual = ProductCodec.decode(ByteBuffer.wrap(encoded));
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void decode_whenTruncated_thenIllegalArgumentExceptionExpected() {
+    // given
+    byte[] encoded = ProductCodec.encode(ProductTestData.builder().build().buildProduct());
+    byte[] truncated = Arrays.copyOf(encoded, encoded.length - 3);
+
+    // when, then
+    assertThrows(
+        IllegalArgumentException.class, () -> ProductCodec.decode(ByteBuffer.wrap(truncated)));
+  }
+
+  @Test
+  void decode_whenPackedCharCountExceedsRecord_thenIllegalArgumentExceptionExpected() {
+    // given
+    ByteBuffer record = ByteBuffer.allocate(ProductCodec.UUID_BYTES + Byte.BYTES + Integer.BYTES);
+    // флаги: есть название, упакованное
+    record.putLong(1).putLong(2).put((byte) (1 | 1 << 5)).putInt(Integer.MAX_VALUE).flip();
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> ProductCodec.decode(record));
+  }
+
+  @Test
+  void encode_whenDescriptionPackable_thenShorterThanUtf8Expected() {
+    // given
+    Product packable =
+        ProductTestData.builder().withDescription("Механическая клавиатура").build().buildProduct();
+    Product utf8 =
+        ProductTestData.builder()
+            .withDescription("Механическая клавиатура™")
+            .build()
+            .buildProduct();
+    int utf8Length = "Механическая клавиатура".getBytes(StandardCharsets.UTF_8).length;
+
+    // when
+    int actual = ProductCodec.encode(packable).length;
+
+    // then
+    assertThat(ProductCodec.encode(utf8).length - actual)
+        .isGreaterThanOrEqualTo(utf8Length - PackedText.packedLength(23));
+  }
+}
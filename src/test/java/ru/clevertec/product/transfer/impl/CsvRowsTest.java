@@ -0,0 +1,78 @@
+package ru.clevertec.product.transfer.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.util.ProductTestData;
+
+class CsvRowsTest {
+
+  @Test
+  void parse_whenEncodedProductWithSeparators_thenSameFieldsExpected() {
+    // given
+    Product product =
+        ProductTestData.builder()
+            .withName("Стол, \"дуб\"")
+            .withDescription("Первая строка\nвторая строка")
+            .build()
+            .buildProduct();
+    List<ProductDto> actual = new ArrayList<>();
+
+    // when
+    int rejected = CsvRows.parse(CsvRows.encode(product), actual);
+
+    // then
+    assertThat(rejected).isZero();
+    assertThat(actual)
+        .containsExactly(
+            new ProductDto(product.getName(), product.getDescription(), product.getPrice()));
+  }
+
+  @Test
+  void parse_whenEmptyFields_thenNullValuesExpected() {
+    // given
+    byte[] chunk = ",Ноутбук,,,\r\n".getBytes(StandardCharsets.UTF_8);
+    List<ProductDto> actual = new ArrayList<>();
+
+    // when
+    CsvRows.parse(chunk, actual);
+
+    // then
+    assertThat(actual).containsExactly(new ProductDto("Ноутбук", null, null));
+  }
+
+  @Test
+  void parse_whenTextAfterClosingQuote_thenRowRejectedExpected() {
+    // given
+    byte[] chunk =
+        ",\"Ноутбук\"х,Рабочий ноутбук,1,\n,Монитор,,1,\n".getBytes(StandardCharsets.UTF_8);
+    List<ProductDto> actual = new ArrayList<>();
+
+    // when
+    int rejected = CsvRows.parse(chunk, actual);
+
+    // then
+    assertThat(rejected).isEqualTo(1);
+    assertThat(actual).containsExactly(new ProductDto("Монитор", null, BigDecimal.ONE));
+  }
+
+  @Test
+  void lastRowEnd_whenNewlineInsideQuotes_thenNotCountedExpected() {
+    // given
+    byte[] chunk = ",Ноутбук,,1,\n,\"Монитор\nс подставкой".getBytes(StandardCharsets.UTF_8);
+    int expected = ",Ноутбук,,1,\n".getBytes(StandardCharsets.UTF_8).length;
+
+    // when
+    int actual = CsvRows.lastRowEnd(ByteBuffer.wrap(chunk));
+
+    // then
+    assertThat(actual).isEqualTo(expected);
+  }
+}
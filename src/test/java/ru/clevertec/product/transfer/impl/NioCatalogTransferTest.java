@@ -0,0 +1,224 @@
+package ru.clevertec.product.transfer.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.id.impl.TimeOrderedUuidGenerator;
+import ru.clevertec.product.mapper.impl.ProductMapperImpl;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.storage.ProductCodec;
+import ru.clevertec.product.transfer.CatalogFormat;
+import ru.clevertec.product.transfer.TransferReport;
+import ru.clevertec.product.util.ProductTestData;
+import ru.clevertec.product.validator.impl.ProductValidatorImpl;
+
+class NioCatalogTransferTest {
+
+  private static final int CHUNK_BYTES = 512;
+
+  @TempDir private Path directory;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @ParameterizedTest
+  @EnumSource(CatalogFormat.class)
+  void importFrom_whenExportedCatalog_thenSameProductsLoadedExpected(CatalogFormat format)
+      throws IOException {
+    // given
+    ProductRepository source = new InMemoryProductRepository();
+    for (int i = 0; i < 500; i++) {
+      source.save(
+          ProductTestData.builder()
+              .withUuid(null)
+              .withName(i % 2 == 0 ? "Ноутбук" : "Монитор")
+              .withDescription(i % 3 == 0 ? "Рабочий ноутбук" : "Игровой монитор")
+              .withPrice(BigDecimal.valueOf(i + 1, 2))
+              .build()
+              .buildProduct());
+    }
+    Path file = directory.resolve("catalog");
+    TransferReport exported = transfer(source).exportTo(file, format);
+    ProductRepository target = new InMemoryProductRepository();
+
+    // when
+    TransferReport imported = transfer(target).importFrom(file, format);
+
+    // then
+    assertThat(exported.rows()).isEqualTo(500);
+    assertThat(imported.rows()).isEqualTo(500);
+    assertThat(imported.rejected()).isZero();
+    assertThat(imported.bytes()).isEqualTo(exported.bytes()).isEqualTo(Files.size(file));
+    assertThat(target.findAll())
+        .extracting(Product::getName, Product::getDescription, Product::getPrice)
+        .containsExactlyInAnyOrderElementsOf(
+            source.findAll().stream()
+                .map(
+                    product ->
+                        tuple(product.getName(), product.getDescription(), product.getPrice()))
+                .toList());
+  }
+
+  @Test
+  void importFrom_whenInvalidAndMalformedRows_thenOnlyValidLoadedAndRestRejectedExpected()
+      throws IOException {
+    // given
+    Path file =
+        write(
+            "uuid,name,description,price,created\n",
+            ",Ноутбук,Рабочий ноутбук,10.50,\n",
+            "\n",
+            ",Ноут,Рабочий ноутбук,10.50,\n",
+            ",Монитор,Игровой монитор,дорого,\n",
+            ",Монитор,Игровой монитор\n",
+            ",\"Телефон\",\"Смартфон с камерой\",99,\r\n",
+            ",\"Мышка,Беспроводная мышка,1,\n");
+    ProductRepository target = new InMemoryProductRepository();
+
+    // when
+    TransferReport actual = transfer(target).importFrom(file, CatalogFormat.CSV);
+
+    // then
+    assertThat(actual.rows()).isEqualTo(2);
+    assertThat(actual.rejected()).isEqualTo(4);
+    assertThat(target.findAll())
+        .extracting(Product::getName, Product::getPrice)
+        .containsExactlyInAnyOrder(
+            tuple("Ноутбук", new BigDecimal("10.50")), tuple("Телефон", new BigDecimal("99")));
+  }
+
+  @Test
+  void importFrom_whenImported_thenTimeOrderedUuidsAssignedExpected() throws IOException {
+    // given
+    Path file = write(",Ноутбук,Рабочий ноутбук,10.50,\n");
+    ProductRepository target = new InMemoryProductRepository();
+
+    // when
+    transfer(target).importFrom(file, CatalogFormat.CSV);
+
+    // then
+    assertThat(target.findAll())
+        .singleElement()
+        .satisfies(product -> assertThat(product.getUuid().version()).isEqualTo(7));
+  }
+
+  @Test
+  void importFrom_whenRowLongerThanChunk_thenIllegalStateExceptionExpected() throws IOException {
+    // given
+    Path file = write(",Ноутбук,\"" + "а".repeat(CHUNK_BYTES) + "\",10.50,\n");
+    NioCatalogTransfer transfer = transfer(new InMemoryProductRepository());
+
+    // when, then
+    assertThrows(IllegalStateException.class, () -> transfer.importFrom(file, CatalogFormat.CSV));
+  }
+
+  @Test
+  void importFrom_whenBinaryRecordTruncated_thenIllegalStateExceptionExpected()
+      throws IOException {
+    // given
+    ProductRepository source = new InMemoryProductRepository();
+    source.save(ProductTestData.builder().build().buildProduct());
+    Path file = directory.resolve("catalog.bin");
+    transfer(source).exportTo(file, CatalogFormat.BINARY);
+    byte[] content = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(content, content.length - 3));
+    NioCatalogTransfer transfer = transfer(new InMemoryProductRepository());
+
+    // when, then
+    assertThrows(
+        IllegalStateException.class, () -> transfer.importFrom(file, CatalogFormat.BINARY));
+  }
+
+  @Test
+  void importFrom_whenBinaryRecordUndecodable_thenRecordRejectedAndRestLoadedExpected()
+      throws IOException {
+    // given
+    byte[] valid = ProductCodec.encode(ProductTestData.builder().build().buildProduct());
+    ByteBuffer content = ByteBuffer.allocate(2 * Integer.BYTES + 3 + valid.length);
+    content.putInt(3).put(new byte[3]).putInt(valid.length).put(valid);
+    Path file = directory.resolve("catalog.bin");
+    Files.write(file, content.array());
+    ProductRepository target = new InMemoryProductRepository();
+
+    // when
+    TransferReport actual = transfer(target).importFrom(file, CatalogFormat.BINARY);
+
+    // then
+    assertThat(actual.rows()).isEqualTo(1);
+    assertThat(actual.rejected()).isEqualTo(1);
+    assertThat(target.findAll()).hasSize(1);
+  }
+
+  @Test
+  void importFrom_whenBinaryFieldLengthOversized_thenRecordRejectedAndRestLoadedExpected()
+      throws IOException {
+    // given
+    byte[] valid = ProductCodec.encode(ProductTestData.builder().build().buildProduct());
+    int oversized = ProductCodec.UUID_BYTES + Byte.BYTES + Integer.BYTES;
+    ByteBuffer content = ByteBuffer.allocate(2 * Integer.BYTES + oversized + valid.length);
+    content.putInt(oversized).putLong(1).putLong(2).put((byte) 1).putInt(Integer.MAX_VALUE);
+    content.putInt(valid.length).put(valid);
+    Path file = directory.resolve("catalog.bin");
+    Files.write(file, content.array());
+    ProductRepository target = new InMemoryProductRepository();
+
+    // when
+    TransferReport actual = transfer(target).importFrom(file, CatalogFormat.BINARY);
+
+    // then
+    assertThat(actual.rows()).isEqualTo(1);
+    assertThat(actual.rejected()).isEqualTo(1);
+    assertThat(target.findAll()).hasSize(1);
+  }
+
+  @Test
+  void exportTo_whenEmptyRepository_thenOnlyHeaderWrittenExpected() throws IOException {
+    // given
+    Path file = directory.resolve("catalog.csv");
+
+    // when
+    TransferReport actual =
+        transfer(new InMemoryProductRepository()).exportTo(file, CatalogFormat.CSV);
+
+    // then
+    assertThat(actual.rows()).isZero();
+    assertThat(Files.readString(file)).isEqualTo("uuid,name,description,price,created\n");
+  }
+
+  private NioCatalogTransfer transfer(ProductRepository repository) {
+    return new NioCatalogTransfer(
+        new ProductMapperImpl(),
+        repository,
+        new ProductValidatorImpl(),
+        new TimeOrderedUuidGenerator(),
+        executor,
+        CHUNK_BYTES);
+  }
+
+  private Path write(String... lines) throws IOException {
+    Path file = directory.resolve("catalog.csv");
+    Files.writeString(file, String.join("", lines), StandardCharsets.UTF_8);
+    return file;
+  }
+}
@@ -39,6 +39,7 @@ public class ProductTestData {
   public Product buildProduct() {
     return Product.builder()
         .uuid(uuid)
+        .name(name)
         .created(created)
         .description(description)
         .price(price)
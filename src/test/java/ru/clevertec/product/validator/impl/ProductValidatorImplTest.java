@@ -0,0 +1,128 @@
+package ru.clevertec.product.validator.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ValidationException;
+import ru.clevertec.product.validator.ValidationError;
+import ru.clevertec.product.validator.Violation;
+
+class ProductValidatorImplTest {
+
+  private final ProductValidatorImpl validator = new ProductValidatorImpl();
+
+  static Stream<Arguments> invalidProducts() {
+    return Stream.of(
+        Arguments.of(productDto(null, null, BigDecimal.ONE), Set.of(Violation.NAME_REQUIRED)),
+        Arguments.of(productDto("Стол", null, BigDecimal.ONE), Set.of(Violation.NAME_LENGTH)),
+        Arguments.of(
+            productDto("Ноутбук игровой", null, BigDecimal.ONE), Set.of(Violation.NAME_LENGTH)),
+        Arguments.of(
+            productDto("laptop", null, BigDecimal.ONE), Set.of(Violation.NAME_CHARACTERS)),
+        Arguments.of(
+            productDto("Ноут-бук", null, BigDecimal.ONE), Set.of(Violation.NAME_CHARACTERS)),
+        Arguments.of(
+            productDto("Ноутбук", "Рабочий", BigDecimal.ONE),
+            Set.of(Violation.DESCRIPTION_LENGTH)),
+        Arguments.of(
+            productDto("Ноутбук", "Рабочий ноутбук 2023", BigDecimal.ONE),
+            Set.of(Violation.DESCRIPTION_CHARACTERS)),
+        Arguments.of(productDto("Ноутбук", null, null), Set.of(Violation.PRICE_REQUIRED)),
+        Arguments.of(
+            productDto("Ноутбук", null, BigDecimal.ZERO), Set.of(Violation.PRICE_NOT_POSITIVE)),
+        Arguments.of(
+            productDto("Tv", "short", BigDecimal.valueOf(-1)),
+            Set.of(
+                Violation.NAME_LENGTH,
+                Violation.NAME_CHARACTERS,
+                Violation.DESCRIPTION_LENGTH,
+                Violation.DESCRIPTION_CHARACTERS,
+                Violation.PRICE_NOT_POSITIVE)),
+        Arguments.of(null, Set.of(Violation.NAME_REQUIRED, Violation.PRICE_REQUIRED)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("invalidProducts")
+  void check_whenRuleViolated_thenViolationsExpected(
+      ProductDto productDto, Set<Violation> expected) {
+    // given, when
+    int actual = validator.check(productDto);
+
+    // then
+    assertThat(Violation.of(actual)).isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"Ноутбук", "Ёлка ёжик", "     ", "Клавиатура"})
+  void check_whenValidName_thenNoViolationsExpected(String name) {
+    // given
+    ProductDto productDto = productDto(name, "Рабочий ноутбук Ёё", new BigDecimal("0.01"));
+
+    // when
+    int actual = validator.check(productDto);
+
+    // then
+    assertThat(actual).isZero();
+  }
+
+  @Test
+  void validate_whenInvalid_thenValidationExceptionWithErrorExpected() {
+    // given
+    ProductDto productDto = productDto("laptop", null, BigDecimal.TEN);
+
+    // when
+    ValidationException thrown =
+        assertThrows(ValidationException.class, () -> validator.validate(productDto));
+
+    // then
+    assertThat(thrown.getErrors())
+        .containsExactly(new ValidationError(0, Set.of(Violation.NAME_CHARACTERS)));
+  }
+
+  @Test
+  void validateAll_whenSomeInvalid_thenErrorsWithIndexesExpected() {
+    // given
+    List<ProductDto> productDtos =
+        Arrays.asList(
+            productDto("Ноутбук", null, BigDecimal.TEN),
+            productDto("Ноутбук", null, null),
+            null,
+            productDto("Монитор", "Игровой монитор", BigDecimal.ONE));
+
+    // when
+    ValidationException thrown =
+        assertThrows(ValidationException.class, () -> validator.validateAll(productDtos));
+
+    // then
+    assertThat(thrown.getErrors())
+        .extracting(ValidationError::index)
+        .containsExactly(1, 2);
+  }
+
+  @Test
+  void validateAll_whenAllValid_thenNoExceptionExpected() {
+    // given
+    List<ProductDto> productDtos =
+        List.of(
+            productDto("Ноутбук", null, BigDecimal.TEN),
+            productDto("Монитор", "Игровой монитор", BigDecimal.ONE));
+
+    // when, then
+    validator.validateAll(productDtos);
+  }
+
+  private static ProductDto productDto(String name, String description, BigDecimal price) {
+    return ProductDto.builder().name(name).description(description).price(price).build();
+  }
+}